@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4j.TextEdit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link LSPEclipseUtils#applyEdits(org.eclipse.jface.text.IDocument, List)} with edits spread over the whole
+ * document, as sent for a formatting or a rename:
+ * <ul>
+ * <li><code>applyEdits</code>: renames, in document order</li>
+ * <li><code>applyIndentationEdits</code>: re-indentation of lines, unordered, half of them not changing the
+ * document</li>
+ * <li><code>applyLineEdits</code>: replacement of every line, as computed by a formatter diffing lines, which
+ * covers most of the document</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ApplyEditsBenchmark {
+
+	@Param({ "10000", "100000", "1000000" })
+	public int lines;
+
+	@Param({ "100", "10000" })
+	public int edits;
+
+	private String text;
+	private Document document;
+	private List<TextEdit> textEdits;
+	private List<TextEdit> indentationEdits;
+	private List<TextEdit> lineEdits;
+
+	@Setup
+	public void setUp() {
+		text = SyntheticDocuments.javaLikeText(lines);
+		document = new Document();
+		// rename "local" on the declaration line of every n-th method
+		textEdits = new ArrayList<>(edits);
+		final int methods = lines / SyntheticDocuments.LINES_PER_METHOD;
+		final int step = Math.max(1, methods / edits);
+		for (int method = 0; method < methods && textEdits.size() < edits; method += step) {
+			final int classIndex = method / SyntheticDocuments.METHODS_PER_CLASS;
+			final int line = classIndex * SyntheticDocuments.LINES_PER_CLASS + 1
+					+ (method % SyntheticDocuments.METHODS_PER_CLASS) * SyntheticDocuments.LINES_PER_METHOD + 4;
+			if (line < lines) {
+				textEdits.add(new TextEdit(SyntheticDocuments.range(line, 6, line, 11), "renamedLocal")); //$NON-NLS-1$
+			}
+		}
+
+		final String[] textLines = text.split("\n"); //$NON-NLS-1$
+		indentationEdits = new ArrayList<>(edits);
+		final int lineStep = Math.max(1, lines / edits);
+		for (int line = 0; line < lines && indentationEdits.size() < edits; line += lineStep) {
+			int indentation = 0;
+			while (indentation < textLines[line].length() && textLines[line].charAt(indentation) == '\t') {
+				indentation++;
+			}
+			final String newIndentation = (indentationEdits.size() % 2 == 0 ? "    " : "\t").repeat(indentation); //$NON-NLS-1$ //$NON-NLS-2$
+			indentationEdits.add(new TextEdit(SyntheticDocuments.range(line, 0, line, indentation), newIndentation));
+		}
+		Collections.shuffle(indentationEdits, new Random(SyntheticDocuments.SEED));
+
+		lineEdits = new ArrayList<>(lines);
+		for (int line = 0; line < lines; line++) {
+			lineEdits.add(new TextEdit(SyntheticDocuments.range(line, 0, line, textLines[line].length()),
+					textLines[line].replace("\t", "    "))); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void resetDocument() {
+		document.set(text);
+	}
+
+	@Benchmark
+	public Document applyEdits() throws BadLocationException {
+		LSPEclipseUtils.applyEdits(document, textEdits);
+		return document;
+	}
+
+	@Benchmark
+	public Document applyIndentationEdits() throws BadLocationException {
+		LSPEclipseUtils.applyEdits(document, indentationEdits);
+		return document;
+	}
+
+	@Benchmark
+	public Document applyLineEdits() throws BadLocationException {
+		LSPEclipseUtils.applyEdits(document, lineEdits);
+		return document;
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+
+/**
+ * A marker that isn't attached to any resource, so the marker handling can be measured without the
+ * workspace costs.
+ */
+public final class InMemoryMarker implements IMarker {
+
+	private static final AtomicLong IDS = new AtomicLong();
+
+	private final long id = IDS.incrementAndGet();
+	private final long creationTime = System.currentTimeMillis();
+	private final String type;
+	private final Map<String, Object> attributes;
+	private boolean exists = true;
+
+	public InMemoryMarker(String type, Map<String, ?> attributes) {
+		this.type = type;
+		this.attributes = new HashMap<>(attributes);
+	}
+
+	@Override
+	public <T> T getAdapter(Class<T> adapter) {
+		return null;
+	}
+
+	@Override
+	public void delete() {
+		exists = false;
+	}
+
+	@Override
+	public boolean exists() {
+		return exists;
+	}
+
+	@Override
+	public Object getAttribute(String attributeName) {
+		return attributes.get(attributeName);
+	}
+
+	@Override
+	public int getAttribute(String attributeName, int defaultValue) {
+		return attributes.get(attributeName) instanceof Integer value ? value : defaultValue;
+	}
+
+	@Override
+	public String getAttribute(String attributeName, String defaultValue) {
+		return attributes.get(attributeName) instanceof String value ? value : defaultValue;
+	}
+
+	@Override
+	public boolean getAttribute(String attributeName, boolean defaultValue) {
+		return attributes.get(attributeName) instanceof Boolean value ? value : defaultValue;
+	}
+
+	@Override
+	public Map<String, Object> getAttributes() {
+		return new HashMap<>(attributes);
+	}
+
+	@Override
+	public Object[] getAttributes(String[] attributeNames) {
+		final var values = new Object[attributeNames.length];
+		for (int i = 0; i < attributeNames.length; i++) {
+			values[i] = attributes.get(attributeNames[i]);
+		}
+		return values;
+	}
+
+	@Override
+	public long getCreationTime() {
+		return creationTime;
+	}
+
+	@Override
+	public long getId() {
+		return id;
+	}
+
+	@Override
+	public IResource getResource() {
+		return null;
+	}
+
+	@Override
+	public String getType() {
+		return type;
+	}
+
+	@Override
+	public boolean isSubtypeOf(String superType) {
+		return type.equals(superType);
+	}
+
+	@Override
+	public void setAttribute(String attributeName, int value) {
+		attributes.put(attributeName, value);
+	}
+
+	@Override
+	public void setAttribute(String attributeName, Object value) {
+		if (value == null) {
+			attributes.remove(attributeName);
+		} else {
+			attributes.put(attributeName, value);
+		}
+	}
+
+	@Override
+	public void setAttribute(String attributeName, boolean value) {
+		attributes.put(attributeName, value);
+	}
+
+	@Override
+	public void setAttributes(String[] attributeNames, Object[] values) {
+		for (int i = 0; i < attributeNames.length; i++) {
+			setAttribute(attributeNames[i], values[i]);
+		}
+	}
+
+	@Override
+	public void setAttributes(Map<String, ?> attributes) {
+		this.attributes.clear();
+		if (attributes != null) {
+			this.attributes.putAll(attributes);
+		}
+	}
+}
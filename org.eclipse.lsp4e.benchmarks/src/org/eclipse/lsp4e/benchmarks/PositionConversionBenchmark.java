@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.internal.LineOffsetIndex;
+import org.eclipse.lsp4j.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link LSPEclipseUtils#toOffset(Position, org.eclipse.jface.text.IDocument)} and
+ * {@link LSPEclipseUtils#toPosition(int, org.eclipse.jface.text.IDocument)} at random locations of a document,
+ * with and without a {@link LineOffsetIndex} connected to the document, and their bulk variants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PositionConversionBenchmark {
+
+	private static final int CONVERSIONS = 4096;
+
+	@Param({ "10000", "100000", "1000000" })
+	public int lines;
+
+	@Param({ "false", "true" })
+	public boolean indexed;
+
+	private Document document;
+	private Position[] positions;
+	private int[] offsets;
+	private int[] sortedOffsets;
+
+	@Setup
+	public void setUp() throws BadLocationException {
+		document = new Document(SyntheticDocuments.javaLikeText(lines));
+		positions = SyntheticDocuments.randomPositions(document, CONVERSIONS);
+		offsets = SyntheticDocuments.randomOffsets(document, CONVERSIONS);
+		sortedOffsets = offsets.clone();
+		Arrays.sort(sortedOffsets);
+		if (indexed) {
+			LineOffsetIndex.connect(document);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		LineOffsetIndex.disconnect(document);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CONVERSIONS)
+	public void toOffset(Blackhole blackhole) throws BadLocationException {
+		for (Position position : positions) {
+			blackhole.consume(LSPEclipseUtils.toOffset(position, document));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CONVERSIONS)
+	public void toPosition(Blackhole blackhole) throws BadLocationException {
+		for (int offset : offsets) {
+			blackhole.consume(LSPEclipseUtils.toPosition(offset, document));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CONVERSIONS)
+	public int[] toOffsets() throws BadLocationException {
+		return LSPEclipseUtils.toOffsets(List.of(positions), document);
+	}
+
+	/**
+	 * Sorted offsets, as the ranges of most responses
+	 */
+	@Benchmark
+	@OperationsPerInvocation(CONVERSIONS)
+	public Position[] toPositionsSorted() throws BadLocationException {
+		return LSPEclipseUtils.toPositions(sortedOffsets, document);
+	}
+}
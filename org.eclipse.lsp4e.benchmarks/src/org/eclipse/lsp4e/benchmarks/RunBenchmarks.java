@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import static org.junit.Assert.assertFalse;
+
+import java.util.Collection;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of this fragment, within the OSGi framework of the test runtime (JMH can't fork
+ * JVMs with the bundles of LSP4E). Configured with the system properties:
+ * <ul>
+ * <li><code>jmh.include</code>: regular expression of the benchmarks to run</li>
+ * <li><code>jmh.params</code>: parameter values overriding the ones of the benchmarks, e.g.
+ * <code>lines=10000,100000;items=50000</code></li>
+ * <li><code>jmh.warmupIterations</code>, <code>jmh.measurementIterations</code></li>
+ * <li><code>jmh.result</code>: the JSON report to write</li>
+ * </ul>
+ */
+public class RunBenchmarks {
+
+	@Test
+	public void runBenchmarks() throws Exception {
+		final ChainedOptionsBuilder options = new OptionsBuilder() //
+				.include(System.getProperty("jmh.include", ".*")) //$NON-NLS-1$ //$NON-NLS-2$
+				.forks(0) //
+				.warmupIterations(Integer.getInteger("jmh.warmupIterations", 3)) //$NON-NLS-1$
+				.measurementIterations(Integer.getInteger("jmh.measurementIterations", 5)) //$NON-NLS-1$
+				.shouldFailOnError(true) //
+				.resultFormat(ResultFormatType.JSON) //
+				.result(System.getProperty("jmh.result", "jmh-result.json")); //$NON-NLS-1$ //$NON-NLS-2$
+		final String params = System.getProperty("jmh.params", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		for (String param : params.split(";")) { //$NON-NLS-1$
+			final int separator = param.indexOf('=');
+			if (separator > 0) {
+				options.param(param.substring(0, separator).trim(), param.substring(separator + 1).trim().split(",")); //$NON-NLS-1$
+			}
+		}
+		final Collection<RunResult> results = new Runner(options.build()).run();
+		assertFalse("No benchmark matching " + System.getProperty("jmh.include"), results.isEmpty()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.TextAttribute;
+import org.eclipse.jface.text.TextEvent;
+import org.eclipse.jface.text.rules.IToken;
+import org.eclipse.jface.text.rules.Token;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensDataStreamProcessor;
+import org.eclipse.lsp4e.operations.semanticTokens.StyleRangeHolder;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.SemanticTokenModifiers;
+import org.eclipse.lsp4j.SemanticTokenTypes;
+import org.eclipse.lsp4j.SemanticTokensLegend;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyleRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Semantic highlighting of a document with a token for every word: decoding of the semantic tokens with
+ * {@link SemanticTokensDataStreamProcessor}, and lookup of the styles of the visible region with
+ * {@link StyleRangeHolder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SemanticTokensBenchmark {
+
+	private static final int VIEWPORT_LINES = 60;
+	private static final int VIEWPORTS = 256;
+
+	private static final List<String> TOKEN_TYPES = List.of(SemanticTokenTypes.Keyword, SemanticTokenTypes.Type,
+			SemanticTokenTypes.Method, SemanticTokenTypes.Variable, SemanticTokenTypes.Parameter,
+			SemanticTokenTypes.Comment, SemanticTokenTypes.String, SemanticTokenTypes.Number);
+	private static final List<String> TOKEN_MODIFIERS = List.of(SemanticTokenModifiers.Declaration,
+			SemanticTokenModifiers.Deprecated, SemanticTokenModifiers.Readonly);
+
+	@Param({ "10000", "100000", "1000000" })
+	public int lines;
+
+	private Document document;
+	private SemanticTokensLegend legend;
+	private List<Integer> data;
+	private int[] dataArray;
+	private SemanticTokensDataStreamProcessor processor;
+	private SemanticTokensDataStreamProcessor documentProcessor;
+	private List<StyleRange> styleRanges;
+	private StyleRangeHolder styleRangeHolder;
+	private StyleRangeHolder editedStyleRangeHolder;
+	private IRegion[] viewports;
+
+	@Setup
+	public void setUp() throws BadLocationException {
+		document = new Document(SyntheticDocuments.javaLikeText(lines));
+		legend = new SemanticTokensLegend(TOKEN_TYPES, TOKEN_MODIFIERS);
+		data = encodeWords(document.get());
+		dataArray = SemanticTokensDataStreamProcessor.toArray(data);
+		processor = new SemanticTokensDataStreamProcessor(tokenTypeMapper(), offsetMapper(document));
+		documentProcessor = new SemanticTokensDataStreamProcessor(tokenTypeMapper(), () -> document);
+		styleRanges = processor.getStyleRanges(data, legend);
+		styleRangeHolder = new StyleRangeHolder();
+		styleRangeHolder.saveStyles(styleRanges);
+		editedStyleRangeHolder = new StyleRangeHolder();
+		editedStyleRangeHolder.saveStyles(styleRanges);
+
+		final var random = new Random(SyntheticDocuments.SEED);
+		viewports = new IRegion[VIEWPORTS];
+		for (int i = 0; i < VIEWPORTS; i++) {
+			final int firstLine = random.nextInt(Math.max(1, lines - VIEWPORT_LINES));
+			final int start = document.getLineOffset(firstLine);
+			final IRegion lastLine = document.getLineInformation(Math.min(lines, firstLine + VIEWPORT_LINES) - 1);
+			viewports[i] = new Region(start, lastLine.getOffset() + lastLine.getLength() - start);
+		}
+	}
+
+	/**
+	 * @return the semantic tokens data of a token for every word of the given text
+	 */
+	private static List<Integer> encodeWords(String text) {
+		final var result = new ArrayList<Integer>(text.length() / 2);
+		int line = 0;
+		int character = 0;
+		int previousLine = 0;
+		int previousCharacter = 0;
+		int tokenIndex = 0;
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c == '\n') {
+				line++;
+				character = 0;
+			} else if (Character.isJavaIdentifierStart(c) && (character == 0 || !Character.isJavaIdentifierPart(text.charAt(i - 1)))) {
+				int end = i + 1;
+				while (end < text.length() && Character.isJavaIdentifierPart(text.charAt(end))) {
+					end++;
+				}
+				result.add(line - previousLine);
+				result.add(line == previousLine ? character - previousCharacter : character);
+				result.add(end - i);
+				result.add(tokenIndex % TOKEN_TYPES.size());
+				// every 16th token is declared, every 64th is deprecated
+				result.add((tokenIndex % 16 == 0 ? 1 : 0) | (tokenIndex % 64 == 0 ? 2 : 0));
+				previousLine = line;
+				previousCharacter = character;
+				tokenIndex++;
+				character++;
+			} else {
+				character++;
+			}
+		}
+		return result;
+	}
+
+	private static Function<String, IToken> tokenTypeMapper() {
+		// font styles only: colors would need a display
+		final Map<String, IToken> tokens = Map.of( //
+				SemanticTokenTypes.Keyword, new Token(new TextAttribute(null, null, SWT.BOLD)),
+				SemanticTokenTypes.Type, new Token(new TextAttribute(null, null, SWT.NORMAL)),
+				SemanticTokenTypes.Method, new Token(new TextAttribute(null, null, SWT.ITALIC)),
+				SemanticTokenTypes.Variable, new Token(new TextAttribute(null, null, TextAttribute.UNDERLINE)),
+				SemanticTokenTypes.Comment, new Token(new TextAttribute(null, null, SWT.ITALIC)),
+				SemanticTokenTypes.String, new Token(new TextAttribute(null, null, SWT.NORMAL)));
+		return tokens::get;
+	}
+
+	private static Function<Position, Integer> offsetMapper(Document document) {
+		return p -> {
+			try {
+				return LSPEclipseUtils.toOffset(p, document);
+			} catch (BadLocationException e) {
+				throw new RuntimeException(e);
+			}
+		};
+	}
+
+	@Benchmark
+	public List<StyleRange> getStyleRanges() {
+		return processor.getStyleRanges(data, legend);
+	}
+
+	/**
+	 * Decoding of a data stream already unboxed, with the offsets of the lines from the document
+	 */
+	@Benchmark
+	public List<StyleRange> getStyleRangesFromArray() {
+		return documentProcessor.getStyleRanges(dataArray, legend);
+	}
+
+	@Benchmark
+	public StyleRangeHolder saveStyles() {
+		final var holder = new StyleRangeHolder();
+		holder.saveStyles(styleRanges);
+		return holder;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(VIEWPORTS)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void overlappingRanges(Blackhole blackhole) {
+		for (IRegion viewport : viewports) {
+			blackhole.consume(styleRangeHolder.overlappingRanges(viewport));
+		}
+	}
+
+	/**
+	 * A character typed in every viewport, then the viewport repainted
+	 */
+	@Benchmark
+	@OperationsPerInvocation(VIEWPORTS)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void textChanged(Blackhole blackhole) {
+		for (IRegion viewport : viewports) {
+			editedStyleRangeHolder.textChanged(new TextEvent(viewport.getOffset(), 0, " ", null, new DocumentEvent(), false) {});
+			blackhole.consume(editedStyleRangeHolder.overlappingRanges(viewport));
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lsp4e.outline.SymbolsModel;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link SymbolsModel#update(List)} with the symbols of a document, as flat {@link SymbolInformation}s that
+ * have to be nested by the model, as sent by the language servers that don't support hierarchical symbols.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SymbolsModelBenchmark {
+
+	private static final String URI = "file:///benchmark/Generated.java"; //$NON-NLS-1$
+
+	@Param({ "10000", "100000", "1000000" })
+	public int lines;
+
+	private List<Either<SymbolInformation, DocumentSymbol>> symbols;
+	private SymbolsModel model;
+
+	@Setup
+	public void setUp() {
+		symbols = new ArrayList<>();
+		for (int classIndex = 0; classIndex * SyntheticDocuments.LINES_PER_CLASS < lines; classIndex++) {
+			final int classLine = classIndex * SyntheticDocuments.LINES_PER_CLASS;
+			final int lastLine = Math.min(lines - 1, classLine + SyntheticDocuments.LINES_PER_CLASS - 1);
+			symbols.add(symbol("Generated" + classIndex, SymbolKind.Class, //$NON-NLS-1$
+					SyntheticDocuments.range(classLine, 0, lastLine, 1)));
+			for (int i = 0; i < SyntheticDocuments.METHODS_PER_CLASS; i++) {
+				final int methodLine = classLine + 1 + i * SyntheticDocuments.LINES_PER_METHOD;
+				if (methodLine + SyntheticDocuments.LINES_PER_METHOD > lines) {
+					break;
+				}
+				final int methodIndex = classIndex * SyntheticDocuments.METHODS_PER_CLASS + i;
+				symbols.add(symbol("method" + methodIndex, SymbolKind.Method, //$NON-NLS-1$
+						SyntheticDocuments.range(methodLine + 3, 1, methodLine + SyntheticDocuments.LINES_PER_METHOD - 1, 2)));
+				symbols.add(symbol("local", SymbolKind.Variable, //$NON-NLS-1$
+						SyntheticDocuments.range(methodLine + 4, 2, methodLine + 4, 42)));
+				symbols.add(symbol("message", SymbolKind.Variable, //$NON-NLS-1$
+						SyntheticDocuments.range(methodLine + 8, 2, methodLine + 8, 54)));
+			}
+		}
+		// language servers don't necessarily send the symbols in the order of the document
+		Collections.shuffle(symbols, new Random(SyntheticDocuments.SEED));
+		model = new SymbolsModel();
+	}
+
+	private static Either<SymbolInformation, DocumentSymbol> symbol(String name, SymbolKind kind, Range range) {
+		return Either.forLeft(new SymbolInformation(name, kind, new Location(URI, range)));
+	}
+
+	@Benchmark
+	public SymbolsModel update() {
+		// the model sorts the given list
+		model.update(new ArrayList<>(symbols));
+		return model;
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import java.util.Random;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+
+/**
+ * Generates the documents and data the benchmarks run on. The generation is seeded, so all the runs of a
+ * benchmark work on the same data.
+ */
+public final class SyntheticDocuments {
+
+	public static final long SEED = 42;
+
+	private static final String[] CLASS_HEADER = { "public class Generated%d {" }; //$NON-NLS-1$
+	private static final String[] METHOD = { //
+			"\t/**", //$NON-NLS-1$
+			"\t * Computes the value %d.", //$NON-NLS-1$
+			"\t */", //$NON-NLS-1$
+			"\tpublic int method%d(int value, String name) {", //$NON-NLS-1$
+			"\t\tint local = value * 31 + name.length();", //$NON-NLS-1$
+			"\t\tif (local > 1024) {", //$NON-NLS-1$
+			"\t\t\tlocal = local % 1024;", //$NON-NLS-1$
+			"\t\t}", //$NON-NLS-1$
+			"\t\tString message = \"value of \" + name + \" is \" + local;", //$NON-NLS-1$
+			"\t\tSystem.out.println(message);", //$NON-NLS-1$
+			"\t\treturn local;", //$NON-NLS-1$
+			"\t}" }; //$NON-NLS-1$
+	private static final String[] CLASS_FOOTER = { "}" }; //$NON-NLS-1$
+
+	public static final int METHODS_PER_CLASS = 8;
+	public static final int LINES_PER_METHOD = METHOD.length;
+	public static final int LINES_PER_CLASS = CLASS_HEADER.length + METHODS_PER_CLASS * LINES_PER_METHOD
+			+ CLASS_FOOTER.length;
+
+	private SyntheticDocuments() {
+	}
+
+	/**
+	 * @return a Java-like text of the given number of lines, made of classes of
+	 *         {@value #METHODS_PER_CLASS} methods
+	 */
+	public static String javaLikeText(int lines) {
+		final var text = new StringBuilder(lines * 32);
+		int line = 0;
+		int classIndex = 0;
+		while (line < lines) {
+			line = append(text, CLASS_HEADER, classIndex, line, lines);
+			for (int i = 0; i < METHODS_PER_CLASS; i++) {
+				line = append(text, METHOD, classIndex * METHODS_PER_CLASS + i, line, lines);
+			}
+			line = append(text, CLASS_FOOTER, classIndex, line, lines);
+			classIndex++;
+		}
+		return text.toString();
+	}
+
+	private static int append(StringBuilder text, String[] pattern, int index, int line, int lines) {
+		for (String patternLine : pattern) {
+			if (line == lines) {
+				return line;
+			}
+			text.append(patternLine.replace("%d", Integer.toString(index))).append('\n'); //$NON-NLS-1$
+			line++;
+		}
+		return line;
+	}
+
+	/**
+	 * @return random valid positions in the given document
+	 */
+	public static Position[] randomPositions(IDocument document, int count) throws BadLocationException {
+		final var random = new Random(SEED);
+		final var positions = new Position[count];
+		for (int i = 0; i < count; i++) {
+			positions[i] = LSPEclipseUtils.toPosition(random.nextInt(document.getLength() + 1), document);
+		}
+		return positions;
+	}
+
+	/**
+	 * @return random valid offsets in the given document
+	 */
+	public static int[] randomOffsets(IDocument document, int count) {
+		final var random = new Random(SEED);
+		final var offsets = new int[count];
+		for (int i = 0; i < count; i++) {
+			offsets[i] = random.nextInt(document.getLength() + 1);
+		}
+		return offsets;
+	}
+
+	public static Range range(int startLine, int startCharacter, int endLine, int endCharacter) {
+		return new Range(new Position(startLine, startCharacter), new Position(endLine, endCharacter));
+	}
+}
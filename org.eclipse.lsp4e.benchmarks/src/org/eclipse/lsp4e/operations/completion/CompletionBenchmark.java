@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4e.benchmarks.SyntheticDocuments;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemKind;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Filtering, ranking and sorting of the completion items of a large completion list, with
+ * {@link CompletionProposalTools} and {@link CompletionRanking}, and by a {@link CompletionSession} creating the
+ * proposals of the best ranked items only.
+ * <p>
+ * In the LSP4E package, as {@link CompletionRanking} and {@link CompletionSession} aren't API.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CompletionBenchmark {
+
+	private static final String[] WORDS = { "get", "set", "is", "value", "name", "index", "count", "list", "map", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+			"buffer", "element", "item", "node", "parent", "child", "type", "key", "entry", "size", "valid", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+			"offset", "length", "position", "document", "editor", "server", "request", "response" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+	private static final String LINE = "\t\tthis.getVal"; //$NON-NLS-1$
+	private static final String PREFIX = "getVal"; //$NON-NLS-1$
+
+	@Param({ "1000", "50000" })
+	public int items;
+
+	private Document document;
+	private int offset;
+	private CompletionItem[] completionItems;
+	private String[] filterTexts;
+	private LSCompletionProposal[] proposals;
+
+	@Setup
+	public void setUp() {
+		document = new Document(LINE);
+		offset = LINE.length();
+		final int prefixStart = offset - PREFIX.length();
+		final var random = new Random(SyntheticDocuments.SEED);
+		completionItems = new CompletionItem[items];
+		filterTexts = new String[items];
+		for (int i = 0; i < items; i++) {
+			final var label = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+			for (int words = 1 + random.nextInt(3); words > 0; words--) {
+				final String word = WORDS[random.nextInt(WORDS.length)];
+				label.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+			}
+			final var item = new CompletionItem(label.toString());
+			item.setKind(CompletionItemKind.Method);
+			item.setSortText(String.format("%05d", random.nextInt(items))); //$NON-NLS-1$
+			item.setTextEdit(Either.forLeft(new TextEdit(SyntheticDocuments.range(0, prefixStart, 0, offset), label.toString())));
+			completionItems[i] = item;
+			filterTexts[i] = label.toString();
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void createProposals() {
+		// the proposals cache their rank, so fresh ones are needed for every sort
+		proposals = new LSCompletionProposal[items];
+		for (int i = 0; i < items; i++) {
+			proposals[i] = new LSCompletionProposal(document, offset, completionItems[i], null);
+		}
+	}
+
+	@Benchmark
+	public void filterAndRank(Blackhole blackhole) throws BadLocationException {
+		final int prefixStart = offset - PREFIX.length();
+		for (String filterText : filterTexts) {
+			final String documentFilter = CompletionProposalTools.getFilterFromDocument(document, offset, filterText, prefixStart);
+			if (CompletionProposalTools.isSubstringFoundOrderedInString(documentFilter, filterText)) {
+				blackhole.consume(CompletionProposalTools.getCategoryOfFilterMatch(documentFilter, filterText));
+				blackhole.consume(CompletionProposalTools.getScoreOfFilterMatch(documentFilter, filterText));
+			}
+		}
+	}
+
+	@Benchmark
+	public LSCompletionProposal[] sort() throws BadLocationException {
+		rank(proposals);
+		return proposals;
+	}
+
+	@Benchmark
+	public LSCompletionProposal[] validateAndSort() throws BadLocationException {
+		final LSCompletionProposal[] valid = Arrays.stream(proposals)
+				.filter(proposal -> proposal.validate(document, offset, null))
+				.toArray(LSCompletionProposal[]::new);
+		rank(valid);
+		return valid;
+	}
+
+	@Benchmark
+	public LSCompletionProposal[] session() throws BadLocationException {
+		final var session = new CompletionSession(document, offset, 1000);
+		session.add(Arrays.asList(completionItems), null, null, false, () -> {});
+		return session.getProposals();
+	}
+
+	/**
+	 * Sorts the given proposals with a {@link CompletionRanking}, computing their keys from the proposals.
+	 */
+	private static void rank(LSCompletionProposal[] proposals) throws BadLocationException {
+		final var ranking = new CompletionRanking(proposals.length);
+		final var indexes = new int[proposals.length];
+		for (int i = 0; i < indexes.length; i++) {
+			final LSCompletionProposal proposal = proposals[i];
+			final int category = proposal.getRankCategory();
+			ranking.setMatch(i, proposal.getDocumentFilter().length(), category,
+					category < 5 ? proposal.getRankScore() : 0);
+			ranking.setSortText(i, proposal.getSortText());
+			indexes[i] = i;
+		}
+		ranking.sort(indexes, indexes.length);
+		final LSCompletionProposal[] unsorted = proposals.clone();
+		for (int i = 0; i < indexes.length; i++) {
+			proposals[i] = unsorted[indexes[i]];
+		}
+	}
+}
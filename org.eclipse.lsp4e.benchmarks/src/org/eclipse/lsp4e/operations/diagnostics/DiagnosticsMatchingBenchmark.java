@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.diagnostics;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.benchmarks.InMemoryMarker;
+import org.eclipse.lsp4e.benchmarks.SyntheticDocuments;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Matching of newly published diagnostics with the markers of the previous ones, by
+ * {@link LSPDiagnosticsToMarkers}: 90% of the diagnostics are unchanged, 10% are new, and 10% of the markers
+ * are obsolete.
+ * <p>
+ * In the LSP4E package, as the matching isn't API.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DiagnosticsMatchingBenchmark {
+
+	private static final String SERVER_ID = "org.eclipse.lsp4e.benchmarks"; //$NON-NLS-1$
+
+	@Param({ "10000", "1000000" })
+	public int lines;
+
+	@Param({ "100", "1000", "10000" })
+	public int diagnostics;
+
+	private Document document;
+	private List<Diagnostic> published;
+	private List<IMarker> markers;
+	private LSPDiagnosticsToMarkers diagnosticsToMarkers;
+
+	@Setup
+	public void setUp() throws BadLocationException {
+		document = new Document(SyntheticDocuments.javaLikeText(lines));
+		diagnosticsToMarkers = new LSPDiagnosticsToMarkers(SERVER_ID);
+		final var random = new Random(SyntheticDocuments.SEED);
+		published = new ArrayList<>(diagnostics);
+		markers = new ArrayList<>(diagnostics);
+		for (int i = 0; i < diagnostics; i++) {
+			final int line = random.nextInt(lines);
+			final int lineLength = document.getLineLength(line) - 1;
+			final var diagnostic = new Diagnostic(SyntheticDocuments.range(line, 0, line, Math.max(0, lineLength)),
+					"Problem " + i, DiagnosticSeverity.Warning, "benchmark"); //$NON-NLS-1$ //$NON-NLS-2$
+			// the first 10% are new, the last 10% are obsolete
+			if (i >= diagnostics / 10) {
+				markers.add(marker(diagnostic));
+			}
+			if (i < diagnostics - diagnostics / 10) {
+				published.add(diagnostic);
+			}
+		}
+	}
+
+	private IMarker marker(Diagnostic diagnostic) throws BadLocationException {
+		return new InMemoryMarker(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, Map.of( //
+				LSPDiagnosticsToMarkers.LANGUAGE_SERVER_ID, SERVER_ID, //
+				IMarker.MESSAGE, diagnostic.getMessage(), //
+				IMarker.CHAR_START, LSPEclipseUtils.toOffset(diagnostic.getRange().getStart(), document), //
+				IMarker.CHAR_END, LSPEclipseUtils.toOffset(diagnostic.getRange().getEnd(), document)));
+	}
+
+	@Benchmark
+	public Map<IMarker, Diagnostic> matchExistingMarkers() {
+		return diagnosticsToMarkers.matchExistingMarkers(document, published, new HashSet<>(markers),
+				new ArrayList<>());
+	}
+}
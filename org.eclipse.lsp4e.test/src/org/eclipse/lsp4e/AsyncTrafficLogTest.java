@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lsp4e.AsyncTrafficLog.Direction;
+import org.eclipse.lsp4e.LoggingStreamConnectionProviderProxy.DropPolicy;
+import org.junit.Test;
+
+/**
+ * In the LSP4E package, as {@link AsyncTrafficLog} isn't API.
+ */
+public class AsyncTrafficLogTest {
+
+	private static final String SERVER_ID = "test.server";
+	private static final String ENTRY_HEADER = Direction.LSP4E_TO_LANGUAGE_SERVER + " " + SERVER_ID + ":\n";
+	private static final String DROPPED_HEADER = "LOG_BUFFER_FULL " + SERVER_ID + ":\n";
+
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+	@Test
+	public void testEntryLargerThanInitialBufferLoggedWhole() {
+		final var log = new AsyncTrafficLog(SERVER_ID, AsyncTrafficLog.DEFAULT_CAPACITY, DropPolicy.DROP_NEWEST,
+				formatted -> output.writeBytes(formatted.toByteArray()));
+		final String entry = "x".repeat(4 * AsyncTrafficLog.INITIAL_CAPACITY);
+		log(log, entry);
+		log.close();
+
+		assertEquals(List.of(ENTRY_HEADER + entry), getSections());
+	}
+
+	@Test
+	public void testOldestEntriesDroppedWithAllTheirChunks() throws Exception {
+		final var writing = new CountDownLatch(1);
+		final var written = new CountDownLatch(1);
+		final var log = new AsyncTrafficLog(SERVER_ID, 1024, DropPolicy.DROP_OLDEST, formatted -> {
+			writing.countDown();
+			try {
+				written.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			output.writeBytes(formatted.toByteArray());
+		});
+		final var entries = new ArrayList<String>();
+		for (int i = 0; i < 20; i++) {
+			// several chunks each, the chunks being at most an eighth of the buffer
+			entries.add(String.format("entry %02d ", i) + "x".repeat(290));
+		}
+		log(log, entries.get(0));
+		assertTrue(writing.await(5, TimeUnit.SECONDS));
+		for (String entry : entries.subList(1, entries.size())) {
+			log(log, entry);
+		}
+		written.countDown();
+		log.close();
+
+		final List<String> sections = getSections();
+		assertEquals(ENTRY_HEADER + entries.get(0), sections.get(0));
+		assertTrue(sections.toString(), sections.get(1).startsWith(DROPPED_HEADER));
+		assertTrue(sections.toString(), sections.size() > 3);
+		for (String section : sections.subList(2, sections.size())) {
+			assertTrue(section, section.startsWith(ENTRY_HEADER));
+			assertTrue(section, entries.contains(section.substring(ENTRY_HEADER.length())));
+		}
+		assertEquals(ENTRY_HEADER + entries.get(entries.size() - 1), sections.get(sections.size() - 1));
+	}
+
+	private static void log(AsyncTrafficLog log, String entry) {
+		final byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+		log.log(Direction.LSP4E_TO_LANGUAGE_SERVER, bytes, 0, bytes.length);
+	}
+
+	/**
+	 * @return the logged entries, each with its header but the timestamp
+	 */
+	private List<String> getSections() {
+		final var sections = new ArrayList<String>();
+		for (String section : output.toString(StandardCharsets.UTF_8).split("\n\\[[^\\]]*\\] ")) {
+			if (!section.isEmpty()) {
+				sections.add(section);
+			}
+		}
+		return sections;
+	}
+}
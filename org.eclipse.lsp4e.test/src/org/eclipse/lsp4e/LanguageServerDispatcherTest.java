@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * In the LSP4E package, as {@link LanguageServerDispatcher} isn't API.
+ */
+public class LanguageServerDispatcherTest {
+
+	private final LanguageServerDispatcher dispatcher = new LanguageServerDispatcher(Thread::new);
+
+	@After
+	public void tearDown() {
+		dispatcher.shutdownNow();
+	}
+
+	@Test
+	public void testBlockingRequestJumpsFullBackgroundLane() throws Exception {
+		final List<String> dispatched = Collections.synchronizedList(new ArrayList<>());
+		final var busy = new CountDownLatch(1);
+		dispatcher.requests(RequestPriority.INTERACTIVE).execute(() -> {
+			try {
+				busy.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		for (int i = 0; i < 100; i++) {
+			final String request = "background" + i;
+			dispatcher.requests(RequestPriority.BACKGROUND).execute(() -> dispatched.add(request));
+		}
+		// e.g. willSaveWaitUntil, which the save waits for
+		final var blockingRequest = new CompletableFuture<Integer>();
+		dispatcher.requests(RequestPriority.INTERACTIVE).execute(() -> {
+			dispatched.add("blocking");
+			blockingRequest.complete(dispatched.size());
+		});
+		busy.countDown();
+
+		assertEquals(Integer.valueOf(1), blockingRequest.get(5, TimeUnit.SECONDS));
+		final var allDispatched = new CompletableFuture<Void>();
+		dispatcher.requests(RequestPriority.BACKGROUND).execute(() -> allDispatched.complete(null));
+		allDispatched.get(5, TimeUnit.SECONDS);
+		assertEquals(101, dispatched.size());
+		assertEquals("background99", dispatched.get(100));
+	}
+
+	@Test
+	public void testRequestsDontOvertakeNotifications() throws Exception {
+		final List<String> dispatched = Collections.synchronizedList(new ArrayList<>());
+		final var busy = new CountDownLatch(1);
+		dispatcher.notifications().execute(() -> {
+			try {
+				busy.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		dispatcher.requests(RequestPriority.BACKGROUND).execute(() -> dispatched.add("background"));
+		dispatcher.notifications().execute(() -> dispatched.add("didChange"));
+		dispatcher.requests(RequestPriority.INTERACTIVE).execute(() -> dispatched.add("interactive"));
+		final var allDispatched = new CompletableFuture<Void>();
+		dispatcher.requests(RequestPriority.BACKGROUND).execute(() -> allDispatched.complete(null));
+		busy.countDown();
+
+		allDispatched.get(5, TimeUnit.SECONDS);
+		assertTrue(dispatched.indexOf("background") < dispatched.indexOf("didChange"));
+		assertTrue(dispatched.indexOf("didChange") < dispatched.indexOf("interactive"));
+	}
+}
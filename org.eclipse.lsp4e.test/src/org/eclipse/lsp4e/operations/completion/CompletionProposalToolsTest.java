@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * In the completion package, as {@link CompletionProposalTools#getFilterFromPrefix(String, String)} isn't API.
+ */
+public class CompletionProposalToolsTest {
+
+	@Test
+	public void testFilterFromPrefix() {
+		assertEquals("getVal", CompletionProposalTools.getFilterFromPrefix("this.getVal", "getValue"));
+		assertEquals("GETV", CompletionProposalTools.getFilterFromPrefix("GETV", "getValue"));
+		assertEquals("gV", CompletionProposalTools.getFilterFromPrefix("gV", "getValue"));
+		assertEquals("", CompletionProposalTools.getFilterFromPrefix("", "getValue"));
+		assertEquals("", CompletionProposalTools.getFilterFromPrefix("xyz", "getValue"));
+	}
+
+	@Test
+	public void testScoreOfFilterMatch() {
+		// 1 character before the 'a' and 4 before the 'b', the 'c' following the 'b'
+		assertEquals(5, CompletionProposalTools.getScoreOfFilterMatch("abc", "xaxxbc"));
+		// camel case
+		assertEquals(3, CompletionProposalTools.getScoreOfFilterMatch("gV", "getValue"));
+		assertEquals(3, CompletionProposalTools.getScoreOfFilterMatch("gv", "getValue"));
+		// case insensitive
+		assertEquals(0, CompletionProposalTools.getScoreOfFilterMatch("GETV", "getValue"));
+		assertEquals(0, CompletionProposalTools.getScoreOfFilterMatch("getValue", "getValue"));
+		// empty filter
+		assertEquals(0, CompletionProposalTools.getScoreOfFilterMatch("", "getValue"));
+		// not matching
+		assertEquals(-1, CompletionProposalTools.getScoreOfFilterMatch("xyz", "getValue"));
+	}
+
+	@Test
+	public void testMatchPositions() {
+		// camel case
+		assertArrayEquals(new int[] { 0, 3 }, CompletionProposalTools.getMatchPositions("gV", "getValue"));
+		assertArrayEquals(new int[] { 0, 3, 4 }, CompletionProposalTools.getMatchPositions("gva", "getValue"));
+		// case insensitive
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, CompletionProposalTools.getMatchPositions("GETV", "getValue"));
+		// empty filter
+		assertArrayEquals(new int[0], CompletionProposalTools.getMatchPositions("", "getValue"));
+		// not matching, up to the first missing character
+		assertArrayEquals(new int[0], CompletionProposalTools.getMatchPositions("xyz", "getValue"));
+		assertArrayEquals(new int[] { 0 }, CompletionProposalTools.getMatchPositions("gz", "getValue"));
+	}
+
+	@Test
+	public void testCategoryOfFilterMatch() {
+		assertEquals(1, CompletionProposalTools.getCategoryOfFilterMatch("getValue", "getValue"));
+		assertEquals(3, CompletionProposalTools.getCategoryOfFilterMatch("Val", "getValue"));
+		assertEquals(4, CompletionProposalTools.getCategoryOfFilterMatch("gV", "getValue"));
+		assertEquals(5, CompletionProposalTools.getCategoryOfFilterMatch("xyz", "getValue"));
+		assertEquals(5, CompletionProposalTools.getCategoryOfFilterMatch("", "getValue"));
+	}
+}
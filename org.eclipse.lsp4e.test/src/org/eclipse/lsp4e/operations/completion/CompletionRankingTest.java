@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4j.CompletionItem;
+import org.junit.Test;
+
+/**
+ * In the completion package, as {@link CompletionRanking} and {@link CompletionSession} aren't API.
+ */
+public class CompletionRankingTest {
+
+	private static final String ALPHABET = "gGetVvaAl_";
+
+	@Test
+	public void testSortedLikeComparator() throws Exception {
+		final var random = new Random(1);
+		for (int run = 0; run < 300; run++) {
+			final var document = new Document("x " + randomString(random, "gGetVvaAl", 1 + random.nextInt(3)));
+			final int offset = document.getLength();
+			final var items = new ArrayList<CompletionItem>();
+			for (int i = random.nextInt(200); i > 0; i--) {
+				final var item = new CompletionItem(randomString(random, ALPHABET, 1 + random.nextInt(8)));
+				if (random.nextBoolean()) {
+					item.setSortText(randomString(random, "aAbB0", 2));
+				}
+				items.add(item);
+			}
+
+			final List<LSCompletionProposal> expected = new ArrayList<>();
+			for (CompletionItem item : items) {
+				final var proposal = new LSCompletionProposal(document, offset, item, null);
+				if (proposal.validate(document, offset, null)) {
+					expected.add(proposal);
+				}
+			}
+			expected.sort(new LSCompletionProposalComparator());
+
+			final var session = new CompletionSession(document, offset, Integer.MAX_VALUE);
+			session.add(items, null, null, false, () -> {});
+			assertArrayEquals("run " + run, getItems(expected.toArray(LSCompletionProposal[]::new)),
+					getItems(session.getProposals()));
+		}
+	}
+
+	@Test
+	public void testSortTextsComparedIgnoringCase() {
+		final var ranking = new CompletionRanking(4);
+		final String[] sortTexts = { "b", "A", "a", "B" };
+		final var indexes = new int[sortTexts.length];
+		for (int i = 0; i < sortTexts.length; i++) {
+			ranking.setMatch(i, 0, 5, 0);
+			ranking.setSortText(i, sortTexts[i]);
+			indexes[i] = i;
+		}
+		ranking.sort(indexes, indexes.length);
+		// equal sort texts keep their order
+		assertArrayEquals(new int[] { 1, 2, 0, 3 }, indexes);
+	}
+
+	private static CompletionItem[] getItems(LSCompletionProposal[] proposals) {
+		return Arrays.stream(proposals).map(LSCompletionProposal::getItem).toArray(CompletionItem[]::new);
+	}
+
+	private static String randomString(Random random, String alphabet, int length) {
+		final var string = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			string.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return string.toString();
+	}
+}
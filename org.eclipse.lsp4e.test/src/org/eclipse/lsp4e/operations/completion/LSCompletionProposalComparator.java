@@ -18,6 +18,9 @@
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 
+/**
+ * The order the proposals were sorted in before {@link CompletionRanking}, which must rank them the same way.
+ */
 final class LSCompletionProposalComparator implements Comparator<LSCompletionProposal> {
 	@Override
 	public int compare(LSCompletionProposal o1, LSCompletionProposal o2) {
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.diagnostics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticCodeDescription;
+import org.eclipse.lsp4j.DiagnosticRelatedInformation;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DiagnosticTag;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.junit.Test;
+
+import com.google.gson.JsonPrimitive;
+
+/**
+ * In the diagnostics package, as {@link CompactDiagnostic} isn't API.
+ */
+public class CompactDiagnosticTest {
+
+	@Test
+	public void testRoundTrip() {
+		final var diagnostic = new Diagnostic(new Range(new Position(1, 2), new Position(3, 4)), "message",
+				DiagnosticSeverity.Warning, "source", "code");
+		diagnostic.setTags(List.of(DiagnosticTag.Unnecessary, DiagnosticTag.Deprecated));
+		diagnostic.setRelatedInformation(List.of(new DiagnosticRelatedInformation(
+				new Location("file:///related", new Range(new Position(0, 0), new Position(0, 1))), "related")));
+		diagnostic.setCodeDescription(new DiagnosticCodeDescription("https://example.org/code"));
+		diagnostic.setData(new JsonPrimitive("data"));
+		assertRoundTrip(diagnostic);
+
+		diagnostic.setCode(42);
+		assertRoundTrip(diagnostic);
+	}
+
+	@Test
+	public void testRoundTripWithoutOptionalFields() {
+		assertRoundTrip(new Diagnostic(new Range(new Position(0, 0), new Position(0, 0)), "message"));
+	}
+
+	@Test
+	public void testTagsRoundTrip() {
+		final var diagnostic = new Diagnostic(new Range(new Position(0, 0), new Position(0, 1)), "message");
+		diagnostic.setTags(List.of());
+		assertRoundTrip(diagnostic);
+		diagnostic.setTags(List.of(DiagnosticTag.Deprecated, DiagnosticTag.Unnecessary));
+		assertRoundTrip(diagnostic);
+		diagnostic.setTags(List.of(DiagnosticTag.Deprecated, DiagnosticTag.Deprecated, DiagnosticTag.Unnecessary,
+				DiagnosticTag.Deprecated));
+		assertRoundTrip(diagnostic);
+	}
+
+	private static void assertRoundTrip(Diagnostic diagnostic) {
+		assertEquals(diagnostic, CompactDiagnostic.of(diagnostic).toDiagnostic());
+	}
+}
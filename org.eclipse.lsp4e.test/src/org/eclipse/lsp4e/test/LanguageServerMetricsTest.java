@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerMetrics;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.LanguageServersRegistry;
+import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.LatencyHistogram;
+import org.eclipse.lsp4e.MethodMetrics;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.HoverParams;
+import org.eclipse.lsp4j.MarkupContent;
+import org.eclipse.lsp4j.MarkupKind;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.Test;
+
+public class LanguageServerMetricsTest extends AbstractTestWithProject {
+
+	private static final String MOCK_SERVER_ID = "org.eclipse.lsp4e.test.server";
+
+	@Test
+	public void testHistogramPercentiles() {
+		final var histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+		}
+		assertEquals(100, histogram.getCount());
+		assertEquals(100_000, histogram.getMax());
+		assertEquals(50_500, histogram.getMean(), 1);
+		assertEquals(50_000, histogram.getValueAtPercentile(50), 50_000 / 16);
+		assertEquals(99_000, histogram.getValueAtPercentile(99), 99_000 / 16);
+		assertEquals(100_000, histogram.getValueAtPercentile(100));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+	}
+
+	@Test
+	public void testRequestMetrics() throws Exception {
+		LanguageServerMetrics.reset(MOCK_SERVER_ID);
+		MockLanguageServer.INSTANCE.setHover(new Hover(new MarkupContent(MarkupKind.PLAINTEXT, "Hover")));
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(100);
+
+		IFile testFile = TestUtils.createUniqueTestFile(project, "Here is some content");
+		IDocument document = TestUtils.openTextViewer(testFile).getDocument();
+		final var params = new HoverParams(new TextDocumentIdentifier(LSPEclipseUtils.toUri(document).toString()), new Position(0, 0));
+
+		LanguageServers.forDocument(document).computeFirst(ls -> ls.getTextDocumentService().hover(params)).get(5, TimeUnit.SECONDS);
+
+		final MethodMetrics hover = getMetrics("textDocument/hover");
+		// delivery time is recorded once the response has been handed over
+		TestUtils.waitForAndAssertCondition(2_000, () -> hover.getDeliveryTime().getCount() == 1);
+		assertEquals(1, hover.getSentMessages());
+		assertEquals(1, hover.getReceivedMessages());
+		assertEquals(0, hover.getInFlight());
+		assertEquals(1, hover.getQueueTime().getCount());
+		assertEquals(1, hover.getRoundTripTime().getCount());
+		assertTrue(hover.getRoundTripTime().getMax() >= TimeUnit.MILLISECONDS.toMicros(90));
+		assertTrue(hover.getSentBytes() > 0);
+		assertTrue(hover.getReceivedBytes() > 0);
+	}
+
+	@Test
+	public void testCancelledRequestMetrics() throws Exception {
+		LanguageServerMetrics.reset(MOCK_SERVER_ID);
+		MockLanguageServer.INSTANCE.setHover(new Hover(new MarkupContent(MarkupKind.PLAINTEXT, "Hover")));
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(2_000);
+
+		IFile testFile = TestUtils.createUniqueTestFile(project, "Here is some content");
+		IDocument document = TestUtils.openTextViewer(testFile).getDocument();
+		final var params = new HoverParams(new TextDocumentIdentifier(LSPEclipseUtils.toUri(document).toString()), new Position(0, 0));
+
+		final LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrapper(project,
+				LanguageServersRegistry.getInstance().getDefinition(MOCK_SERVER_ID));
+		final var request = wrapper.execute(ls -> ls.getTextDocumentService().hover(params));
+		TestUtils.waitForAndAssertCondition(2_000, () -> getMetrics("textDocument/hover").getInFlight() == 1);
+		request.cancel(true);
+
+		TestUtils.waitForAndAssertCondition(2_000, () -> getMetrics("textDocument/hover").getCancellations() == 1);
+		assertEquals(0, getMetrics("textDocument/hover").getInFlight());
+
+		// the response the server still sends is received, but no round trip is recorded for it
+		TestUtils.waitForAndAssertCondition(5_000, () -> getMetrics("textDocument/hover").getReceivedMessages() == 1);
+		assertTrue(getMetrics("textDocument/hover").getReceivedBytes() > 0);
+		assertEquals(0, getMetrics("textDocument/hover").getRoundTripTime().getCount());
+	}
+
+	private static MethodMetrics getMetrics(String method) {
+		final List<MethodMetrics> metrics = LanguageServerMetrics.getMetrics(MOCK_SERVER_ID);
+		return metrics.stream().filter(m -> m.getMethod().equals(method)).findFirst().orElseThrow();
+	}
+}
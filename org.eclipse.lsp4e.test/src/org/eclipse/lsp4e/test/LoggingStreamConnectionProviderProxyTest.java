@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LoggingStreamConnectionProviderProxy;
+import org.eclipse.lsp4e.server.StreamConnectionProvider;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.junit.Test;
+
+public class LoggingStreamConnectionProviderProxyTest extends AbstractTestWithProject {
+
+	@Test
+	public void testTrafficLoggedToFile() throws Exception {
+		final String serverId = "org.eclipse.lsp4e.test.logging" + System.currentTimeMillis();
+		final String fileLoggingKey = LoggingStreamConnectionProviderProxy.lsToFileLoggingId(serverId);
+		final IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		store.setValue(fileLoggingKey, true);
+		final var serverInput = new ByteArrayOutputStream();
+		final var provider = new StreamConnectionProvider() {
+			private final InputStream serverOutput = new ByteArrayInputStream("Response from server".getBytes(StandardCharsets.UTF_8));
+
+			@Override
+			public void start() {
+			}
+
+			@Override
+			public InputStream getInputStream() {
+				return serverOutput;
+			}
+
+			@Override
+			public OutputStream getOutputStream() {
+				return serverInput;
+			}
+
+			@Override
+			public InputStream getErrorStream() {
+				return null;
+			}
+
+			@Override
+			public void stop() {
+			}
+		};
+		final var logFile = new File(LoggingStreamConnectionProviderProxy.getLogDirectory(), serverId + ".log");
+		try {
+			final var proxy = new LoggingStreamConnectionProviderProxy(provider, serverId);
+			proxy.getOutputStream().write("Request to server".getBytes(StandardCharsets.UTF_8));
+			final byte[] response = proxy.getInputStream().readAllBytes();
+			proxy.stop();
+
+			assertEquals("Request to server", serverInput.toString(StandardCharsets.UTF_8));
+			assertEquals("Response from server", new String(response, StandardCharsets.UTF_8));
+			final String log = Files.readString(logFile.toPath());
+			assertTrue(log, log.contains("LSP4E_TO_LANGUAGE_SERVER " + serverId + ":\nRequest to server"));
+			assertTrue(log, log.contains("LANGUAGE_SERVER_TO_LSP4E " + serverId + ":\nResponse from server"));
+		} finally {
+			store.setToDefault(fileLoggingKey);
+			logFile.delete();
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServersRegistry;
+import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.LoggingStreamConnectionProviderProxy;
+import org.eclipse.lsp4e.RecordingStreamConnectionProviderProxy;
+import org.eclipse.lsp4e.ReplayStreamConnectionProvider;
+import org.eclipse.lsp4e.SessionRecording;
+import org.eclipse.lsp4e.SessionRecording.Direction;
+import org.eclipse.lsp4e.SessionRecording.Entry;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4e.test.utils.SessionReplayBenchmark;
+import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.HoverParams;
+import org.eclipse.lsp4j.MarkupContent;
+import org.eclipse.lsp4j.MarkupKind;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.Test;
+
+public class SessionRecordingTest extends AbstractTestWithProject {
+
+	private static final String MOCK_SERVER_ID = "org.eclipse.lsp4e.test.server";
+
+	@Test
+	public void testRecordingFormat() throws Exception {
+		final var out = new ByteArrayOutputStream();
+		final var writer = new SessionRecording.Writer(out);
+		final byte[] request = "{\"id\":\"1\",\"method\":\"initialize\"}".getBytes(StandardCharsets.UTF_8);
+		final byte[] response = "{\"id\":\"1\",\"result\":{}}".getBytes(StandardCharsets.UTF_8);
+		writer.append(Direction.CLIENT_TO_SERVER, request, 0, request.length);
+		writer.append(Direction.SERVER_TO_CLIENT, response, 0, response.length);
+
+		// readable before the index is written, once flushed
+		writer.flush();
+		List<Entry> entries = SessionRecording.read(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(2, entries.size());
+
+		writer.close();
+		entries = SessionRecording.read(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(2, entries.size());
+		assertEquals(Direction.CLIENT_TO_SERVER, entries.get(0).direction());
+		assertTrue(Arrays.equals(request, entries.get(0).content()));
+		assertEquals(Direction.SERVER_TO_CLIENT, entries.get(1).direction());
+		assertTrue(Arrays.equals(response, entries.get(1).content()));
+		assertTrue(entries.get(0).timestamp() <= entries.get(1).timestamp());
+
+		final Path file = Files.createTempFile("session", SessionRecording.FILE_EXTENSION);
+		try {
+			Files.write(file, out.toByteArray());
+			final Entry indexed = SessionRecording.read(file, 1);
+			assertEquals(entries.get(1).timestamp(), indexed.timestamp());
+			assertEquals(entries.get(1).contentAsString(), indexed.contentAsString());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testRecordingFlushedAfterDelay() throws Exception {
+		final var out = new ByteArrayOutputStream();
+		try (var writer = new SessionRecording.Writer(out)) {
+			final byte[] notification = "{\"method\":\"initialized\"}".getBytes(StandardCharsets.UTF_8);
+			writer.append(Direction.CLIENT_TO_SERVER, notification, 0, notification.length);
+
+			TestUtils.waitForAndAssertCondition(5_000, () -> {
+				synchronized (writer) {
+					return SessionRecording.read(new ByteArrayInputStream(out.toByteArray())).size() == 1;
+				}
+			});
+		}
+	}
+
+	@Test
+	public void testRecordAndReplay() throws Exception {
+		MockLanguageServer.INSTANCE.setHover(new Hover(new MarkupContent(MarkupKind.PLAINTEXT, "Recorded hover")));
+		final var params = new HoverParams(new TextDocumentIdentifier(project.getLocationURI().toString() + "/file.lspt"), new Position(0, 0));
+		final long testStart = System.currentTimeMillis();
+
+		System.setProperty(RecordingStreamConnectionProviderProxy.RECORDING_PROPERTY, MOCK_SERVER_ID);
+		final Path recording;
+		try {
+			final LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrapper(project,
+					LanguageServersRegistry.getInstance().getDefinition(MOCK_SERVER_ID));
+			final Hover hover = wrapper.execute(ls -> ls.getTextDocumentService().hover(params)).get(5, TimeUnit.SECONDS);
+			assertEquals("Recorded hover", hover.getContents().getRight().getValue());
+			wrapper.stop();
+			recording = findRecording(testStart);
+		} finally {
+			System.clearProperty(RecordingStreamConnectionProviderProxy.RECORDING_PROPERTY);
+		}
+		// the index is written once the language server is stopped
+		TestUtils.waitForAndAssertCondition(5_000, () -> SessionRecording.read(recording, 0) != null);
+
+		final List<Entry> entries = SessionRecording.read(recording);
+		assertTrue(entries.stream().anyMatch(e -> e.direction() == Direction.CLIENT_TO_SERVER && e.contentAsString().contains("\"initialize\"")));
+		assertTrue(entries.stream().anyMatch(e -> e.direction() == Direction.CLIENT_TO_SERVER && e.contentAsString().contains("textDocument/hover")));
+		assertTrue(entries.stream().anyMatch(e -> e.direction() == Direction.SERVER_TO_CLIENT && e.contentAsString().contains("Recorded hover")));
+
+		// replay the session, the mock language server isn't involved anymore
+		MockLanguageServer.INSTANCE.setHover(new Hover(new MarkupContent(MarkupKind.PLAINTEXT, "Live hover")));
+		final var replayedHover = new Hover[1];
+		final Duration duration = SessionReplayBenchmark.run(project, recording, ReplayStreamConnectionProvider.AS_FAST_AS_POSSIBLE,
+				wrapper -> wrapper.execute(ls -> ls.getTextDocumentService().hover(params)).thenAccept(h -> replayedHover[0] = h));
+		assertNotNull(replayedHover[0]);
+		assertEquals("Recorded hover", replayedHover[0].getContents().getRight().getValue());
+		assertTrue(duration.toMillis() < 5_000);
+		Files.delete(recording);
+	}
+
+	@Test
+	public void testReplayMatchesResponsesToRequestIds() throws Exception {
+		final var out = new ByteArrayOutputStream();
+		try (var writer = new SessionRecording.Writer(out)) {
+			append(writer, Direction.CLIENT_TO_SERVER, "{\"id\":\"1\",\"method\":\"textDocument/hover\"}");
+			append(writer, Direction.CLIENT_TO_SERVER, "{\"method\":\"textDocument/didChange\"}");
+			append(writer, Direction.CLIENT_TO_SERVER, "{\"id\":\"2\",\"method\":\"textDocument/hover\"}");
+			append(writer, Direction.SERVER_TO_CLIENT, "{\"id\":\"2\",\"result\":null}");
+			append(writer, Direction.SERVER_TO_CLIENT, "{\"method\":\"window/logMessage\"}");
+			append(writer, Direction.SERVER_TO_CLIENT, "{\"id\":\"1\",\"result\":null}");
+		}
+		final Path file = Files.createTempFile("session", SessionRecording.FILE_EXTENSION);
+		final var replay = new ReplayStreamConnectionProvider(file, ReplayStreamConnectionProvider.AS_FAST_AS_POSSIBLE, Map.of());
+		try {
+			Files.write(file, out.toByteArray());
+			replay.start();
+			// a client notification more than in the recording doesn't shift the replay
+			send(replay, "{\"method\":\"textDocument/didChange\"}");
+			send(replay, "{\"method\":\"textDocument/didChange\"}");
+			send(replay, "{\"id\":\"1\",\"method\":\"textDocument/hover\"}");
+			Thread.sleep(200);
+			assertEquals(0, replay.getInputStream().available());
+
+			send(replay, "{\"id\":\"2\",\"method\":\"textDocument/hover\"}");
+			replay.getReplayCompletion().get(5, TimeUnit.SECONDS);
+		} finally {
+			replay.stop();
+			Files.delete(file);
+		}
+	}
+
+	private static void append(SessionRecording.Writer writer, Direction direction, String message) throws IOException {
+		final byte[] content = message.getBytes(StandardCharsets.UTF_8);
+		writer.append(direction, content, 0, content.length);
+	}
+
+	private static void send(ReplayStreamConnectionProvider replay, String message) throws IOException {
+		final byte[] content = message.getBytes(StandardCharsets.UTF_8);
+		replay.getOutputStream().write(("Content-Length: " + content.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+		replay.getOutputStream().write(content);
+	}
+
+	private static Path findRecording(long since) {
+		final File[] recordings = LoggingStreamConnectionProviderProxy.getLogDirectory().listFiles(file -> file.getName().startsWith(MOCK_SERVER_ID + '-')
+				&& file.getName().endsWith(SessionRecording.FILE_EXTENSION) && file.lastModified() >= since - 1000);
+		assertNotNull(recordings);
+		return Arrays.stream(recordings).max(Comparator.comparingLong(File::lastModified)).orElseThrow().toPath();
+	}
+}
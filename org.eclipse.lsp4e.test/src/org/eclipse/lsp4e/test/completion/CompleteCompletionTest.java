@@ -30,21 +30,27 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServersRegistry;
 import org.eclipse.lsp4e.LanguageServersRegistry.LanguageServerDefinition;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
 import org.eclipse.lsp4e.operations.completion.LSCompletionProposal;
+import org.eclipse.lsp4e.operations.completion.LSContentAssistProcessor;
 import org.eclipse.lsp4e.test.utils.MockConnectionProvider;
 import org.eclipse.lsp4e.test.utils.TestUtils;
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
@@ -58,6 +64,7 @@
 import org.eclipse.lsp4j.InsertTextMode;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.swt.SWT;
@@ -589,4 +596,131 @@ public void testCancellation() throws Exception {
 		CompletableFuture.runAsync(() -> contentAssistProcessor.computeCompletionProposals(viewer, 1));
 		DisplayHelper.waitAndAssertCondition(viewer.getTextWidget().getDisplay(), () -> assertEquals(1, MockConnectionProvider.cancellations.size()));
 	}
+
+	@Test
+	public void testProposalsNarrowedWhileTypingWord() throws Exception {
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, "a "));
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false,
+				List.of(new CompletionItem("FirstClass"), new CompletionItem("FirstInterface"), new CompletionItem("SecondClass"))));
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 2);
+		assertEquals(3, proposals.length);
+
+		// the proposals are narrowed locally while typing the word, without requesting the completions again
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(new CompletionItem("Other"))));
+		viewer.getDocument().replace(2, 0, "Fi");
+		proposals = contentAssistProcessor.computeCompletionProposals(viewer, 4);
+		assertEquals(List.of("FirstClass", "FirstInterface"), Arrays.stream(proposals).map(ICompletionProposal::getDisplayString).toList());
+		viewer.getDocument().replace(4, 0, "rstI");
+		proposals = contentAssistProcessor.computeCompletionProposals(viewer, 8);
+		assertEquals(List.of("FirstInterface"), Arrays.stream(proposals).map(ICompletionProposal::getDisplayString).toList());
+
+		// the completions are requested again once the word changed
+		viewer.getDocument().replace(8, 0, " ");
+		proposals = contentAssistProcessor.computeCompletionProposals(viewer, 9);
+		assertEquals(List.of("Other"), Arrays.stream(proposals).map(ICompletionProposal::getDisplayString).toList());
+	}
+
+	@Test
+	public void testPartialResults() throws Exception {
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, ""));
+		MockLanguageServer.INSTANCE.setCompletionPartialResult(List.of(new CompletionItem("FirstClass")));
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(new CompletionItem("SecondClass"))));
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 0);
+		assertEquals(Set.of("FirstClass", "SecondClass"), Arrays.stream(proposals).map(ICompletionProposal::getDisplayString).collect(Collectors.toSet()));
+	}
+
+	@Test
+	public void testLateProposalsMergedWhileTypingWord() throws Exception {
+		IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		store.setValue(LSContentAssistProcessor.LATENCY_BUDGET_KEY, 100);
+		try {
+			ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, "a "));
+			MockLanguageServer.INSTANCE.setCompletionPartialResult(List.of(new CompletionItem("FirstClass")));
+			MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(new CompletionItem("FirstInterface"))));
+			MockLanguageServer.INSTANCE.setTimeToProceedQueries(1000);
+
+			// the proposals received within the latency budget are shown first
+			ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 2);
+			assertEquals(List.of("FirstClass"), Arrays.stream(proposals).map(ICompletionProposal::getDisplayString).toList());
+
+			// the proposals received later are merged after the ones already shown
+			viewer.getDocument().replace(2, 0, "F");
+			waitForAndAssertCondition(3_000, () -> List.of("FirstClass", "FirstInterface").equals(
+					Arrays.stream(contentAssistProcessor.computeCompletionProposals(viewer, 3)).map(ICompletionProposal::getDisplayString).toList()));
+		} finally {
+			store.setToDefault(LSContentAssistProcessor.LATENCY_BUDGET_KEY);
+		}
+	}
+
+	@Test
+	public void testProposalsCreatedForBestRankedItems() throws Exception {
+		IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		store.setValue(LSContentAssistProcessor.MAX_PROPOSALS_KEY, 10);
+		try {
+			ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, "a "));
+			List<CompletionItem> items = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				items.add(new CompletionItem("Class" + i));
+			}
+			for (int i = 0; i < 5; i++) {
+				items.add(new CompletionItem("Interface" + i));
+			}
+			MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, items));
+
+			// the proposals ranked after the maximal number of proposals are hidden behind a plain proposal
+			ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 2);
+			assertEquals(11, proposals.length);
+			assertTrue(Arrays.stream(proposals, 0, 10).allMatch(LSCompletionProposal.class::isInstance));
+			assertFalse(proposals[10] instanceof LSCompletionProposal);
+
+			// the hidden proposals are shown once typing narrowed them
+			assertTrue(Arrays.stream(proposals, 0, 10).noneMatch(proposal -> proposal.getDisplayString().startsWith("Interface")));
+			viewer.getDocument().replace(2, 0, "Int");
+			proposals = contentAssistProcessor.computeCompletionProposals(viewer, 5);
+			assertEquals(List.of("Interface0", "Interface1", "Interface2", "Interface3", "Interface4"),
+					Arrays.stream(proposals).map(ICompletionProposal::getDisplayString).toList());
+		} finally {
+			store.setToDefault(LSContentAssistProcessor.MAX_PROPOSALS_KEY);
+		}
+	}
+
+	@Test
+	public void testItemsResolvedAroundSelection() throws Exception {
+		MockLanguageServer.reset(() -> {
+			ServerCapabilities capabilities = MockLanguageServer.defaultServerCapabilities();
+			capabilities.getCompletionProvider().setResolveProvider(true);
+			return capabilities;
+		});
+		Set<String> resolvedLabels = ConcurrentHashMap.newKeySet();
+		MockLanguageServer.INSTANCE.setCompletionItemResolver(item -> {
+			resolvedLabels.add(item.getLabel());
+			CompletionItem resolvedItem = new CompletionItem(item.getLabel());
+			resolvedItem.setDocumentation("Documentation of " + item.getLabel());
+			return resolvedItem;
+		});
+		List<CompletionItem> items = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			items.add(new CompletionItem("Item" + i));
+		}
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, items));
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, ""));
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 0);
+
+		// selecting a proposal resolves it with its neighbours, which are then shown without waiting
+		((LSCompletionProposal) proposals[5]).selected(viewer, false);
+		waitForAndAssertCondition(3_000, () -> ((LSCompletionProposal) proposals[7])
+				.getAdditionalProposalInfo(new NullProgressMonitor()).contains("Documentation of Item7"));
+		assertEquals(Set.of("Item3", "Item4", "Item5", "Item6", "Item7"), resolvedLabels);
+
+		// the items not resolved yet are resolved when shown, without waiting on the UI thread
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(3000);
+		long start = System.currentTimeMillis();
+		String info = ((LSCompletionProposal) proposals[9]).getAdditionalProposalInfo(new NullProgressMonitor());
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		assertFalse(info.contains("Documentation of Item9"));
+		assertTrue(info.isEmpty());
+		MockLanguageServer.INSTANCE.setTimeToProceedQueries(0);
+		waitForAndAssertCondition(5_000, () -> ((LSCompletionProposal) proposals[9])
+				.getAdditionalProposalInfo(new NullProgressMonitor()).contains("Documentation of Item9"));
+	}
 }
@@ -22,7 +22,10 @@
 import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.function.IntSupplier;
 import java.util.stream.Stream;
 
@@ -49,7 +52,11 @@
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
 import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticCodeDescription;
+import org.eclipse.lsp4j.DiagnosticRelatedInformation;
 import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DiagnosticTag;
+import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
@@ -61,6 +68,8 @@
 import org.eclipse.ui.texteditor.MarkerUtilities;
 import org.junit.Test;
 
+import com.google.gson.JsonPrimitive;
+
 public class DiagnosticsTest extends AbstractTestWithProject {
 
 	private LSPDiagnosticsToMarkers diagnosticsToMarkers = new LSPDiagnosticsToMarkers("dummy");
@@ -94,7 +103,7 @@ public void testDiagnostics() throws CoreException {
 		for (Diagnostic diagnostic : diagnostics) {
 			var marker = Stream.of(markers).filter(m -> {
 				try {
-					return m.getAttribute(LSPDiagnosticsToMarkers.LSP_DIAGNOSTIC) == diagnostic;
+					return diagnostic.equals(LSPDiagnosticsToMarkers.getDiagnostic(m));
 				} catch (CoreException ex) {
 					throw new RuntimeException(ex);
 				}}).findFirst();
@@ -233,7 +242,7 @@ public void testDiagnosticsRangeAfterDocument() throws CoreException {
 			assertEquals(content.length(), MarkerUtilities.getCharStart(marker));
 			assertEquals(content.length(), MarkerUtilities.getCharEnd(marker));
 			assertEquals(1, MarkerUtilities.getLineNumber(marker));
-			assertEquals(marker.getAttribute(LSPDiagnosticsToMarkers.LSP_DIAGNOSTIC), diagnostic);
+			assertEquals(diagnostic, LSPDiagnosticsToMarkers.getDiagnostic(marker));
 		}
 	}
 
@@ -276,6 +285,120 @@ public void testDiagnosticRedrawingCalls() throws CoreException {
 		confirmResourceChanges(file, pos1Info1, 0);
 	}
 
+	@Test
+	public void testDiagnosticsUpdateExistingMarkers() throws CoreException {
+		IFile file = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text\n".repeat(100));
+		final var diagnostics = new ArrayList<Diagnostic>();
+		for (int line = 0; line < 100; line++) {
+			Range range = new Range(new Position(line, 0), new Position(line, 10));
+			diagnostics.add(createDiagnostic("1", "message" + line, range, DiagnosticSeverity.Error, "source1"));
+			// same range, same message
+			diagnostics.add(createDiagnostic("2", "message" + line, range, DiagnosticSeverity.Warning, "source2"));
+		}
+		final Map<Diagnostic, Long> markerIds = publishAndWaitForMarkers(file, diagnostics);
+
+		// the first line is fixed, the last line changes, the other diagnostics are re-published
+		final var republished = new ArrayList<>(diagnostics.subList(2, 198));
+		final var changed = createDiagnostic("1", "message99", new Range(new Position(99, 0), new Position(99, 9)),
+				DiagnosticSeverity.Error, "source1");
+		republished.add(changed);
+		final Map<Diagnostic, Long> updatedMarkerIds = publishAndWaitForMarkers(file, republished);
+
+		final var reusedIds = new HashSet<>(markerIds.values());
+		reusedIds.retainAll(updatedMarkerIds.values());
+		assertEquals(196, reusedIds.size());
+		assertFalse(markerIds.containsValue(updatedMarkerIds.get(changed)));
+	}
+
+	@Test
+	public void testDiagnosticRebuiltFromMarker() throws CoreException {
+		IFile file = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		final var location = new Location(file.getLocationURI().toString(),
+				new Range(new Position(0, 11), new Position(0, 16)));
+		final var diagnostic = new Diagnostic(new Range(new Position(0, 0), new Position(0, 10)), "message",
+				DiagnosticSeverity.Information, "source");
+		diagnostic.setCode(42);
+		diagnostic.setTags(List.of(DiagnosticTag.Unnecessary, DiagnosticTag.Deprecated));
+		diagnostic.setRelatedInformation(List.of(new DiagnosticRelatedInformation(location, "related")));
+		diagnostic.setCodeDescription(new DiagnosticCodeDescription("https://example.org/42"));
+		diagnostic.setData(new JsonPrimitive("data"));
+		final var plain = createDiagnostic("1", "plain", new Range(new Position(0, 11), new Position(0, 16)), null,
+				null);
+
+		final Map<Diagnostic, Long> markerIds = publishAndWaitForMarkers(file, List.of(diagnostic, plain));
+
+		for (long id : markerIds.values()) {
+			assertFalse(file.findMarker(id).getAttribute(LSPDiagnosticsToMarkers.LSP_DIAGNOSTIC) instanceof Diagnostic);
+		}
+	}
+
+	@Test
+	public void testDiagnosticsCoalesced() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		Range range = new Range(new Position(0, 0), new Position(0, 10));
+		Job.getJobManager().suspend();
+		try {
+			for (int i = 0; i < 10; i++) {
+				diagnosticsToMarkers.accept(new PublishDiagnosticsParams(file.getLocationURI().toString(),
+						List.of(createDiagnostic("1", "message" + i, range, DiagnosticSeverity.Error, "source1"))));
+			}
+			assertEquals(1, Job.getJobManager().find(LanguageServerPlugin.FAMILY_UPDATE_MARKERS).length);
+		} finally {
+			Job.getJobManager().resume();
+		}
+		Job.getJobManager().join(LanguageServerPlugin.FAMILY_UPDATE_MARKERS, null);
+
+		IMarker[] markers = file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, false,
+				IResource.DEPTH_INFINITE);
+		assertEquals(1, markers.length);
+		assertEquals("message9", MarkerUtilities.getMessage(markers[0]));
+	}
+
+	@Test
+	public void testDiagnosticsOfManyFiles() throws Exception {
+		final var files = new ArrayList<IFile>();
+		Job.getJobManager().suspend();
+		try {
+			for (int i = 0; i < 200; i++) {
+				IFile file = TestUtils.createUniqueTestFile(project, "Diagnostic\nOther Text");
+				files.add(file);
+				diagnosticsToMarkers.accept(new PublishDiagnosticsParams(file.getLocationURI().toString(),
+						List.of(createDiagnostic("1", "message", new Range(new Position(1, 0), new Position(1, 5)),
+								DiagnosticSeverity.Error, "source1"))));
+			}
+		} finally {
+			Job.getJobManager().resume();
+		}
+		Job.getJobManager().join(LanguageServerPlugin.FAMILY_UPDATE_MARKERS, null);
+
+		for (IFile file : files) {
+			IMarker[] markers = file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, false,
+					IResource.DEPTH_INFINITE);
+			assertEquals(1, markers.length);
+			// the documents of that many files aren't loaded, the markers are on the lines of the diagnostics
+			assertEquals(2, MarkerUtilities.getLineNumber(markers[0]));
+			assertNull(LSPEclipseUtils.getExistingDocument(file));
+		}
+	}
+
+	/**
+	 * @return the ids of the markers of the given diagnostics, once they are all created
+	 */
+	private Map<Diagnostic, Long> publishAndWaitForMarkers(IFile file, List<Diagnostic> diagnostics)
+			throws CoreException {
+		diagnosticsToMarkers.accept(new PublishDiagnosticsParams(file.getLocationURI().toString(), diagnostics));
+		final var markerIds = new HashMap<Diagnostic, Long>();
+		waitForAndAssertCondition(10_000, () -> {
+			markerIds.clear();
+			for (IMarker marker : file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, false,
+					IResource.DEPTH_INFINITE)) {
+				markerIds.put(LSPDiagnosticsToMarkers.getDiagnostic(marker), marker.getId());
+			}
+			return markerIds.size() == diagnostics.size() && diagnostics.stream().allMatch(markerIds::containsKey);
+		});
+		return markerIds;
+	}
+
 	@Test
 	public void testDiagnosticsOnExternalFile() throws Exception {
 		MockLanguageServer.INSTANCE.setDiagnostics(Collections.singletonList(new Diagnostic(new Range(new Position(0, 0), new Position(0, 1)), "This is a warning", DiagnosticSeverity.Warning, null)));
@@ -338,7 +461,7 @@ private void confirmResourceChanges(IFile file, Diagnostic diagnostic, int expec
 				IMarker[] markers = file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, false,
 						IResource.DEPTH_INFINITE);
 				for (IMarker marker : markers) {
-					if (marker.getAttribute(LSPDiagnosticsToMarkers.LSP_DIAGNOSTIC).equals(diagnostic)) {
+					if (diagnostic.equals(LSPDiagnosticsToMarkers.getDiagnostic(marker))) {
 						return true;
 					}
 				}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.diagnostics;
+
+import static org.eclipse.lsp4e.test.utils.TestUtils.waitForAndAssertCondition;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageClientImpl;
+import org.eclipse.lsp4e.operations.diagnostics.LSPDiagnosticsToMarkers;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticRegistrationOptions;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.ui.IEditorPart;
+import org.junit.Test;
+
+public class PullDiagnosticsTest extends AbstractTestWithProject {
+
+	private static void enablePullDiagnostics(boolean workspaceDiagnostics) {
+		final var options = new DiagnosticRegistrationOptions();
+		options.setWorkspaceDiagnostics(workspaceDiagnostics);
+		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities().setDiagnosticProvider(options);
+	}
+
+	@Test
+	public void testDocumentDiagnosticsPulled() throws Exception {
+		enablePullDiagnostics(false);
+		MockLanguageServer.INSTANCE.getTextDocumentService().setPulledDiagnostics(List.of(diagnostic("Pulled")));
+		IFile file = TestUtils.createUniqueTestFile(project, "Text");
+		IEditorPart editor = TestUtils.openEditor(file);
+
+		waitForAndAssertCondition(5_000, () -> hasMarker(file, "Pulled"));
+		final List<DocumentDiagnosticParams> requests = MockLanguageServer.INSTANCE.getTextDocumentService()
+				.getDiagnosticRequests();
+		assertNull(requests.get(0).getPreviousResultId());
+
+		IDocument document = LSPEclipseUtils.getTextViewer(editor).getDocument();
+		document.replace(0, 0, "More ");
+
+		// pulled again with the result id of the previous report, the server reports no change
+		waitForAndAssertCondition(5_000, () -> requests.size() >= 2);
+		assertEquals("1", requests.get(1).getPreviousResultId());
+		assertTrue(hasMarker(file, "Pulled"));
+	}
+
+	@Test
+	public void testDiagnosticsRefresh() throws Exception {
+		enablePullDiagnostics(false);
+		MockLanguageServer.INSTANCE.getTextDocumentService().setPulledDiagnostics(List.of(diagnostic("Pulled")));
+		IFile file = TestUtils.createUniqueTestFile(project, "Text");
+		TestUtils.openEditor(file);
+		waitForAndAssertCondition(5_000, () -> hasMarker(file, "Pulled"));
+
+		MockLanguageServer.INSTANCE.getTextDocumentService().setPulledDiagnostics(List.of(diagnostic("Refreshed")));
+		MockLanguageServer.INSTANCE.getRemoteProxies().get(0).refreshDiagnostics();
+
+		waitForAndAssertCondition(5_000, () -> hasMarker(file, "Refreshed") && !hasMarker(file, "Pulled"));
+	}
+
+	@Test
+	public void testDiagnosticsRefreshBeforeConnect() throws Exception {
+		assertNull(new LanguageClientImpl().refreshDiagnostics().get(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testWorkspaceDiagnosticsStreamed() throws Exception {
+		enablePullDiagnostics(true);
+		IFile closedFile = TestUtils.createUniqueTestFile(project, "Closed file");
+		MockLanguageServer.INSTANCE.getWorkspaceService().setWorkspaceDiagnostics(
+				Map.of(closedFile.getLocationURI().toString(), List.of(diagnostic("In workspace"))));
+		IFile file = TestUtils.createUniqueTestFile(project, "Text");
+		TestUtils.openEditor(file);
+
+		waitForAndAssertCondition(5_000, () -> hasMarker(closedFile, "In workspace"));
+		final List<WorkspaceDiagnosticParams> requests = MockLanguageServer.INSTANCE.getWorkspaceService()
+				.getDiagnosticRequests();
+		assertNotNull(requests.get(0).getPartialResultToken());
+	}
+
+	private static Diagnostic diagnostic(String message) {
+		return new Diagnostic(new Range(new Position(0, 0), new Position(0, 4)), message, DiagnosticSeverity.Error,
+				"mock");
+	}
+
+	private static boolean hasMarker(IFile file, String message) throws CoreException {
+		for (IMarker marker : file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, false,
+				IResource.DEPTH_ZERO)) {
+			if (message.equals(marker.getAttribute(IMarker.MESSAGE))) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
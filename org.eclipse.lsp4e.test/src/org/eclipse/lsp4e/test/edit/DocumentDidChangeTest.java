@@ -30,6 +30,7 @@
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
 import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
@@ -148,14 +149,40 @@ public void testIncrementalEditOrdering() throws Exception {
 		for (int i = 0; i < 500; i++) {
 			text.append(i + "\n");
 		}
-		waitForAndAssertCondition(10_000,  numberOfChangesIs(500));
-		List<DidChangeTextDocumentParams> changes = MockLanguageServer.INSTANCE.getDidChangeEvents();
+		// consecutive changes may be coalesced into fewer didChange notifications, but must keep their order
+		waitForAndAssertCondition(10_000, () -> contentChanges().size() == 500);
+		List<TextDocumentContentChangeEvent> changes = contentChanges();
 		for (int i = 0; i < 500; i++) {
-			String delta = changes.get(i).getContentChanges().get(0).getText();
+			String delta = changes.get(i).getText();
 			assertEquals(i + "\n", delta);
 		}
 	}
 
+	@Test
+	public void testIncrementalChangesCoalesced() throws Exception {
+		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities().setTextDocumentSync(TextDocumentSyncKind.Incremental);
+		IFile testFile = TestUtils.createUniqueTestFile(project, "");
+		ITextViewer viewer = TestUtils.openTextViewer(testFile);
+		LanguageServers.forDocument(viewer.getDocument()).anyMatching();
+
+		viewer.getDocument().replace(0, 0, "a");
+		viewer.getDocument().replace(1, 0, "b");
+		viewer.getDocument().replace(2, 0, "c");
+		waitForAndAssertCondition(1_000, numberOfChangesIs(1));
+
+		DidChangeTextDocumentParams change = MockLanguageServer.INSTANCE.getDidChangeEvents().get(0);
+		assertEquals(2, change.getTextDocument().getVersion().intValue());
+		assertEquals(3, change.getContentChanges().size());
+		assertEquals("a", change.getContentChanges().get(0).getText());
+		assertEquals(new Range(new Position(0, 1), new Position(0, 1)), change.getContentChanges().get(1).getRange());
+		assertEquals("c", change.getContentChanges().get(2).getText());
+	}
+
+	private static List<TextDocumentContentChangeEvent> contentChanges() {
+		return MockLanguageServer.INSTANCE.getDidChangeEvents().stream()
+				.flatMap(change -> change.getContentChanges().stream()).toList();
+	}
+
 	@Test
 	public void testFullSync() throws Exception {
 		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities()
@@ -191,6 +218,26 @@ public boolean test(ServerCapabilities t) {
 		assertEquals("Hello World", change0.getText());
 	}
 
+	@Test
+	public void testFullSyncSendsLatestSnapshot() throws Exception {
+		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities()
+				.setTextDocumentSync(TextDocumentSyncKind.Full);
+
+		IFile testFile = TestUtils.createUniqueTestFile(project, "");
+		ITextViewer viewer = TestUtils.openTextViewer(testFile);
+		LanguageServers.forDocument(viewer.getDocument()).anyMatching();
+
+		viewer.getDocument().replace(0, 0, "Hello");
+		viewer.getDocument().replace(5, 0, " World");
+		viewer.getDocument().replace(11, 0, "!");
+		waitForAndAssertCondition(1_000, numberOfChangesIs(1));
+
+		DidChangeTextDocumentParams change = MockLanguageServer.INSTANCE.getDidChangeEvents().get(0);
+		assertEquals(2, change.getTextDocument().getVersion().intValue());
+		assertEquals(1, change.getContentChanges().size());
+		assertEquals("Hello World!", change.getContentChanges().get(0).getText());
+	}
+
 	@Test
 	public void testFullSyncExternalFile() throws Exception {
 		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities()
@@ -15,14 +15,18 @@
 import static org.eclipse.lsp4e.test.utils.TestUtils.waitForAndAssertCondition;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 
 import java.io.File;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.lsp4e.LSPEclipseUtils;
@@ -32,6 +36,9 @@
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
 import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.lsp4j.DidSaveTextDocumentParams;
+import org.eclipse.lsp4j.SaveOptions;
+import org.eclipse.lsp4j.TextDocumentSyncKind;
+import org.eclipse.lsp4j.TextDocumentSyncOptions;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.ide.IDE;
 import org.junit.Test;
@@ -66,6 +73,49 @@ public void testSave() throws Exception {
 		});
 	}
 
+	@Test
+	public void testSaveIncludeText() throws Exception {
+		assertEquals("Hello", editAndSave(new SaveOptions(true)).get(2, TimeUnit.SECONDS).getText());
+	}
+
+	@Test
+	public void testSaveWithoutText() throws Exception {
+		assertNull(editAndSave(new SaveOptions(false)).get(2, TimeUnit.SECONDS).getText());
+	}
+
+	@Test
+	public void testSaveNotRequested() throws Exception {
+		final CompletableFuture<DidSaveTextDocumentParams> didSave = editAndSave(null);
+		assertThrows(TimeoutException.class, () -> didSave.get(500, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * Edits and saves a new file, the server advertising the given save options.
+	 *
+	 * @return the <code>didSave</code> notification received by the server
+	 */
+	private CompletableFuture<DidSaveTextDocumentParams> editAndSave(@Nullable SaveOptions save) throws Exception {
+		final var syncOptions = new TextDocumentSyncOptions();
+		syncOptions.setChange(TextDocumentSyncKind.Full);
+		syncOptions.setSave(save);
+		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities().setTextDocumentSync(syncOptions);
+
+		IFile testFile = TestUtils.createUniqueTestFile(project, "");
+		IEditorPart editor = TestUtils.openEditor(testFile);
+		ITextViewer viewer = LSPEclipseUtils.getTextViewer(editor);
+		testFile.setLocalTimeStamp(0);
+
+		IDocument document = LSPEclipseUtils.getDocument(testFile);
+		assertNotNull(document);
+		LanguageServers.forDocument(document).anyMatching();
+		final var didSaveExpectation = new CompletableFuture<DidSaveTextDocumentParams>();
+		MockLanguageServer.INSTANCE.setDidSaveCallback(didSaveExpectation);
+
+		viewer.getDocument().replace(0, 0, "Hello");
+		editor.doSave(new NullProgressMonitor());
+		return didSaveExpectation;
+	}
+
 	@Test
 	public void testSaveExternalFile() throws Exception {
 		File file = TestUtils.createTempFile("testSaveExternalFile", ".lspt");
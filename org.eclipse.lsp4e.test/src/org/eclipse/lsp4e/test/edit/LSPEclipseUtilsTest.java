@@ -39,6 +39,7 @@
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
@@ -273,6 +274,68 @@ public void testTextEditInsertSameOffset() throws Exception {
 		Assert.assertEquals(" throws Exception", document.get());
 	}
 
+	@Test
+	public void testTextEditsUnordered() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "line1\nline2\nline3\nline4\n");
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		TextEdit[] edits = new TextEdit[] {
+				new TextEdit(new Range(new Position(2, 0), new Position(2, 5)), "third"),
+				new TextEdit(new Range(new Position(0, 4), new Position(0, 5)), "1"),
+				new TextEdit(new Range(new Position(3, 0), new Position(3, 0)), "> "),
+				new TextEdit(new Range(new Position(0, 0), new Position(0, 0)), "// ") };
+		IDocument document = viewer.getDocument();
+		LSPEclipseUtils.applyEdits(document, Arrays.asList(edits));
+		Assert.assertEquals("// line1\nline2\nthird\n> line4\n", document.get());
+	}
+
+	@Test
+	public void testTextEditsCoveringDocument() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "a b\nc d\n");
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		TextEdit[] edits = new TextEdit[] {
+				new TextEdit(new Range(new Position(1, 0), new Position(1, 3)), "C D"),
+				new TextEdit(new Range(new Position(0, 0), new Position(0, 3)), "A B"),
+				new TextEdit(new Range(new Position(0, 0), new Position(0, 0)), "first "),
+				new TextEdit(new Range(new Position(0, 0), new Position(0, 0)), "line: ") };
+		IDocument document = viewer.getDocument();
+		LSPEclipseUtils.applyEdits(document, Arrays.asList(edits));
+		Assert.assertEquals("first line: A B\nC D\n", document.get());
+	}
+
+	@Test
+	public void testTextEditsKeepPositionsInFormattedRange() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "        a\n        b\n");
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		// a formatting replacing most of the document, around positions e.g. of markers
+		TextEdit[] edits = new TextEdit[] {
+				new TextEdit(new Range(new Position(0, 0), new Position(0, 8)), "\t"),
+				new TextEdit(new Range(new Position(1, 0), new Position(1, 8)), "\t") };
+		IDocument document = viewer.getDocument();
+		final var positionOfA = new org.eclipse.jface.text.Position(8, 1);
+		final var positionOfB = new org.eclipse.jface.text.Position(18, 1);
+		document.addPosition(positionOfA);
+		document.addPosition(positionOfB);
+		LSPEclipseUtils.applyEdits(document, Arrays.asList(edits));
+		Assert.assertEquals("\ta\n\tb\n", document.get());
+		Assert.assertFalse(positionOfA.isDeleted());
+		Assert.assertEquals(new org.eclipse.jface.text.Position(1, 1), positionOfA);
+		Assert.assertFalse(positionOfB.isDeleted());
+		Assert.assertEquals(new org.eclipse.jface.text.Position(4, 1), positionOfB);
+	}
+
+	@Test
+	public void testTextEditsNotChangingDocument() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "line1\nline2");
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		TextEdit[] edits = new TextEdit[] {
+				new TextEdit(new Range(new Position(1, 0), new Position(1, 5)), "line2"),
+				new TextEdit(new Range(new Position(0, 0), new Position(0, 5)), "line1") };
+		IDocument document = viewer.getDocument();
+		final long modificationStamp = ((IDocumentExtension4) document).getModificationStamp();
+		LSPEclipseUtils.applyEdits(document, Arrays.asList(edits));
+		Assert.assertEquals(modificationStamp, ((IDocumentExtension4) document).getModificationStamp());
+	}
+
 	@Test
 	public void testTextEditSplittedLineEndings() throws Exception {
 		IFile file = TestUtils.createUniqueTestFile(project, "line1\r\nline2\r\nline3\r\n");
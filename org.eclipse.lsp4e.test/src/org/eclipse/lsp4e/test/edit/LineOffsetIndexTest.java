@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.edit;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.internal.LineOffsetIndex;
+import org.eclipse.lsp4e.test.utils.AbstractTest;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.junit.After;
+import org.junit.Test;
+
+public class LineOffsetIndexTest extends AbstractTest {
+
+	private static final String[] FRAGMENTS = { "a", "bc", "\n", "\r\n", "\r", "def", "" };
+
+	private final Document document = new Document("first\nsecond\r\nthird\rfourth\n\nlast");
+
+	@After
+	public void disconnect() {
+		while (LineOffsetIndex.get(document) != null) {
+			LineOffsetIndex.disconnect(document);
+		}
+	}
+
+	@Test
+	public void testConversionsMatchLineTracker() throws Exception {
+		final List<Position> expectedPositions = positions();
+		final int[] expectedOffsets = offsets(expectedPositions);
+
+		assertNotNull(LineOffsetIndex.connect(document));
+		assertEquals(expectedPositions, positions());
+		assertArrayEquals(expectedOffsets, offsets(expectedPositions));
+	}
+
+	@Test
+	public void testConversionsAfterChanges() throws Exception {
+		LineOffsetIndex.connect(document);
+		final var random = new Random(42);
+		for (int i = 0; i < 500; i++) {
+			final int offset = random.nextInt(document.getLength() + 1);
+			final int length = random.nextInt(Math.min(4, document.getLength() - offset) + 1);
+			document.replace(offset, length, FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+			// convert around the change, so the index knows the lines following it
+			LSPEclipseUtils.toPosition(random.nextInt(document.getLength() + 1), document);
+
+			final List<Position> actual = positions();
+			final int[] actualOffsets = offsets(actual);
+			LineOffsetIndex.disconnect(document);
+			assertEquals(positions(), actual);
+			assertArrayEquals(offsets(actual), actualOffsets);
+			LineOffsetIndex.connect(document);
+		}
+	}
+
+	@Test
+	public void testConversionsInListenerNotifiedBeforeIndex() throws Exception {
+		final var positionsAfterChange = new ArrayList<Position>();
+		final IDocumentListener listener = new IDocumentListener() {
+			@Override
+			public void documentChanged(DocumentEvent event) {
+				try {
+					positionsAfterChange.add(LSPEclipseUtils.toPosition(document.getLength(), document));
+				} catch (BadLocationException e) {
+					fail(e.getMessage());
+				}
+			}
+
+			@Override
+			public void documentAboutToBeChanged(DocumentEvent event) {
+			}
+		};
+		document.addPrenotifiedDocumentListener(listener);
+		LineOffsetIndex.connect(document);
+		assertEquals(new Position(5, 4), LSPEclipseUtils.toPosition(document.getLength(), document));
+
+		document.replace(0, 0, "new line\n");
+
+		assertEquals(List.of(new Position(6, 4)), positionsAfterChange);
+		assertEquals(new Position(6, 4), LSPEclipseUtils.toPosition(document.getLength(), document));
+	}
+
+	@Test
+	public void testBulkConversions() throws Exception {
+		final List<Position> positions = positions();
+		final int[] offsets = Arrays.copyOf(offsets(positions), positions.size());
+		LineOffsetIndex.connect(document);
+
+		assertArrayEquals(offsets, LSPEclipseUtils.toOffsets(positions, document));
+		assertArrayEquals(positions.toArray(), LSPEclipseUtils.toPositions(offsets, document));
+
+		final var ranges = List.of(new Range(new Position(0, 2), new Position(1, 3)),
+				new Range(new Position(5, 0), new Position(10, 0)));
+		assertArrayEquals(new int[] { 2, 9, 28, 32 }, LSPEclipseUtils.toRangeOffsets(ranges, document));
+
+		// unsorted
+		final var reversed = new int[offsets.length];
+		for (int i = 0; i < offsets.length; i++) {
+			reversed[i] = offsets[offsets.length - 1 - i];
+		}
+		final var reversedPositions = new ArrayList<>(positions);
+		Collections.reverse(reversedPositions);
+		assertArrayEquals(reversedPositions.toArray(), LSPEclipseUtils.toPositions(reversed, document));
+	}
+
+	@Test
+	public void testOutOfRange() throws Exception {
+		LineOffsetIndex.connect(document);
+		assertThrows(BadLocationException.class, () -> LSPEclipseUtils.toPosition(-1, document));
+		assertThrows(BadLocationException.class, () -> LSPEclipseUtils.toPosition(document.getLength() + 1, document));
+		assertThrows(BadLocationException.class, () -> LSPEclipseUtils.toOffset(new Position(-1, 0), document));
+		assertEquals(document.getLength(), LSPEclipseUtils.toOffset(new Position(100, 0), document));
+	}
+
+	@Test
+	public void testDisconnect() {
+		LineOffsetIndex.connect(document);
+		LineOffsetIndex.connect(document);
+		LineOffsetIndex.disconnect(document);
+		assertNotNull(LineOffsetIndex.get(document));
+		LineOffsetIndex.disconnect(document);
+		assertNull(LineOffsetIndex.get(document));
+	}
+
+	/**
+	 * @return the positions of all the offsets of the document
+	 */
+	private List<Position> positions() throws BadLocationException {
+		final var positions = new ArrayList<Position>();
+		for (int offset = 0; offset <= document.getLength(); offset++) {
+			positions.add(LSPEclipseUtils.toPosition(offset, document));
+		}
+		return positions;
+	}
+
+	/**
+	 * @return the offsets of the given positions, and of positions past the ends of the lines and document
+	 */
+	private int[] offsets(List<Position> positions) throws BadLocationException {
+		final IDocument doc = document;
+		final var offsets = new int[positions.size() + doc.getNumberOfLines() + 1];
+		int i = 0;
+		for (Position position : positions) {
+			offsets[i++] = LSPEclipseUtils.toOffset(position, doc);
+		}
+		for (int line = 0; line < doc.getNumberOfLines(); line++) {
+			offsets[i++] = LSPEclipseUtils.toOffset(new Position(line, 1000), doc);
+		}
+		offsets[i] = LSPEclipseUtils.toOffset(new Position(doc.getNumberOfLines() + 1, 0), doc);
+		return offsets;
+	}
+}
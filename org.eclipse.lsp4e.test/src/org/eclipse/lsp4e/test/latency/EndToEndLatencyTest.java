@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.latency;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextOperationTarget;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.source.ISourceViewer;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.operations.diagnostics.LSPDiagnosticsToMarkers;
+import org.eclipse.lsp4e.operations.hover.LSPTextHover;
+import org.eclipse.lsp4e.outline.CNFOutlinePage;
+import org.eclipse.lsp4e.outline.SymbolsModel.DocumentSymbolWithURI;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4e.test.utils.LatencyReport;
+import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4e.test.utils.TestUtils.Condition;
+import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4e.ui.UI;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemKind;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.MarkupContent;
+import org.eclipse.lsp4j.MarkupKind;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SemanticTokenModifiers;
+import org.eclipse.lsp4j.SemanticTokenTypes;
+import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensLegend;
+import org.eclipse.lsp4j.SemanticTokensWithRegistrationOptions;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.texteditor.ITextEditor;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the latency of user-visible flows against the mock language server, with configurable server
+ * delays and response sizes, so the client-side overhead of LSP4E can be tracked independently of any real
+ * language server. The results are written as a JSON {@link LatencyReport}.
+ * <p>
+ * Configured with these system properties (comma-separated values, all the combinations are measured):
+ * <ul>
+ * <li><code>lsp4e.latency.delays</code>: delays of the language server responses, in ms</li>
+ * <li><code>lsp4e.latency.iterations</code>: measurements per combination</li>
+ * <li><code>lsp4e.latency.diagnostics</code>, <code>lsp4e.latency.completionItems</code>,
+ * <code>lsp4e.latency.hoverSize</code> (characters), <code>lsp4e.latency.semanticTokens</code>,
+ * <code>lsp4e.latency.symbols</code>: response sizes</li>
+ * <li><code>lsp4e.latency.report</code>: the report to write</li>
+ * </ul>
+ * The defaults are kept small so the flows are exercised by the regular test runs, e.g.
+ * <code>-Dlsp4e.latency.completionItems=50000 -Dlsp4e.latency.diagnostics=100000
+ * -Dlsp4e.latency.semanticTokens=1000000</code> measure large responses.
+ * </p>
+ */
+public class EndToEndLatencyTest extends AbstractTestWithProject {
+
+	private static final int[] DELAYS = intsProperty("lsp4e.latency.delays", "0,50");
+	private static final int ITERATIONS = Integer.getInteger("lsp4e.latency.iterations", 3);
+	private static final int[] DIAGNOSTICS = intsProperty("lsp4e.latency.diagnostics", "1000");
+	private static final int[] COMPLETION_ITEMS = intsProperty("lsp4e.latency.completionItems", "1000");
+	private static final int[] HOVER_SIZES = intsProperty("lsp4e.latency.hoverSize", "10000");
+	private static final int[] SEMANTIC_TOKENS = intsProperty("lsp4e.latency.semanticTokens", "10000");
+	private static final int[] SYMBOLS = intsProperty("lsp4e.latency.symbols", "1000");
+	private static final Path REPORT = Path.of(System.getProperty("lsp4e.latency.report", "latency-report.json"));
+
+	private static final long TIMEOUT = TimeUnit.MINUTES.toNanos(2);
+
+	private static final LatencyReport report = new LatencyReport();
+
+	private static int[] intsProperty(String key, String defaultValue) {
+		return Arrays.stream(System.getProperty(key, defaultValue).split(",")).map(String::trim)
+				.mapToInt(Integer::parseInt).toArray();
+	}
+
+	@AfterClass
+	public static void writeReport() throws Exception {
+		report.write(REPORT);
+	}
+
+	@Before
+	public void delayMeasuredResponses() {
+		MockLanguageServer.INSTANCE.setDelayedMethods("textDocument/publishDiagnostics", "textDocument/hover",
+				"textDocument/semanticTokens/full", "textDocument/documentSymbol");
+	}
+
+	@Override
+	protected ServerCapabilities getServerCapabilities() {
+		final ServerCapabilities capabilities = MockLanguageServer.defaultServerCapabilities();
+		final var semanticTokensProvider = new SemanticTokensWithRegistrationOptions(new SemanticTokensLegend(
+				List.of(SemanticTokenTypes.Keyword), List.of(SemanticTokenModifiers.Deprecated)));
+		semanticTokensProvider.setFull(true);
+		capabilities.setSemanticTokensProvider(semanticTokensProvider);
+		return capabilities;
+	}
+
+	/**
+	 * From opening a document to its diagnostics being shown as markers
+	 */
+	@Test
+	public void testOpenToFirstDiagnostics() throws Exception {
+		keepLanguageServerRunning();
+		for (final int delay : DELAYS) {
+			MockLanguageServer.INSTANCE.setTimeToProceedQueries(delay);
+			for (final int size : DIAGNOSTICS) {
+				final var diagnostics = new ArrayList<Diagnostic>(size);
+				for (int i = 0; i < size; i++) {
+					diagnostics.add(new Diagnostic(new Range(new Position(i, 0), new Position(i, 4)), "Problem " + i,
+							DiagnosticSeverity.Warning, "latency"));
+				}
+				MockLanguageServer.INSTANCE.setDiagnostics(diagnostics);
+				final var samples = new ArrayList<Duration>();
+				for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+					final IFile file = TestUtils.createUniqueTestFile(project, lines("line", size));
+					final long start = System.nanoTime();
+					final IEditorPart editor = TestUtils.openEditor(file);
+					samples.add(awaitSince(start, () -> file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE,
+							true, IResource.DEPTH_ZERO).length == size));
+					TestUtils.closeEditor(editor, false);
+				}
+				report.add("openToFirstDiagnostics", delay, size, samples);
+			}
+		}
+		MockLanguageServer.INSTANCE.setDiagnostics(Collections.emptyList());
+	}
+
+	/**
+	 * From typing a character and invoking content assist to the completion proposals being displayed
+	 */
+	@Test
+	public void testKeystrokeToCompletionProposals() throws Exception {
+		keepLanguageServerRunning();
+		for (final int delay : DELAYS) {
+			MockLanguageServer.INSTANCE.setTimeToProceedQueries(delay);
+			for (final int size : COMPLETION_ITEMS) {
+				final var items = new ArrayList<CompletionItem>(size);
+				for (int i = 0; i < size; i++) {
+					final var item = new CompletionItem("item" + i);
+					item.setKind(CompletionItemKind.Variable);
+					item.setTextEdit(Either.forLeft(new TextEdit(new Range(new Position(0, 0), new Position(0, 1)), "item" + i)));
+					items.add(item);
+				}
+				MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, items));
+				final var samples = new ArrayList<Duration>();
+				for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+					final IEditorPart editor = openWhenConnected(TestUtils.createUniqueTestFile(project, ""));
+					final ITextViewer viewer = LSPEclipseUtils.getTextViewer(editor);
+					final Display display = viewer.getTextWidget().getDisplay();
+					final Set<Shell> beforeShells = new HashSet<>(Arrays.asList(display.getShells()));
+					final long start = System.nanoTime();
+					viewer.getTextWidget().replaceTextRange(0, 0, "i");
+					viewer.getTextWidget().setCaretOffset(1);
+					editor.getAdapter(ITextOperationTarget.class).doOperation(ISourceViewer.CONTENTASSIST_PROPOSALS);
+					samples.add(awaitSince(start, () -> {
+						final Shell shell = TestUtils.findNewShell(beforeShells, display);
+						final Table proposals = shell == null ? null : TestUtils.findCompletionSelectionControl(shell);
+						return proposals != null && proposals.getItemCount() > 0;
+					}));
+					TestUtils.closeEditor(editor, false);
+				}
+				report.add("keystrokeToCompletionProposals", delay, size, samples);
+			}
+		}
+	}
+
+	/**
+	 * From requesting the hover to its HTML content being ready
+	 */
+	@Test
+	public void testHover() throws Exception {
+		final IEditorPart editor = openWhenConnected(TestUtils.createUniqueTestFile(project, "hover me"));
+		final ITextViewer viewer = LSPEclipseUtils.getTextViewer(editor);
+		final var hover = new LSPTextHover();
+		for (final int delay : DELAYS) {
+			MockLanguageServer.INSTANCE.setTimeToProceedQueries(delay);
+			for (final int size : HOVER_SIZES) {
+				final var content = new StringBuilder(size);
+				for (int i = 0; content.length() < size; i++) {
+					content.append(i % 20 == 19 ? "**word**\n\n" : "word ");
+				}
+				MockLanguageServer.INSTANCE.setHover(new Hover(new MarkupContent(MarkupKind.MARKDOWN, content.toString())));
+				final var samples = new ArrayList<Duration>();
+				for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+					final long start = System.nanoTime();
+					final CompletableFuture<String> hoverInfo = hover.getHoverInfoFuture(viewer, new Region(0, 5));
+					samples.add(awaitSince(start, hoverInfo::isDone));
+					assertFalse(hoverInfo.isCompletedExceptionally());
+				}
+				report.add("hover", delay, size, samples);
+			}
+		}
+	}
+
+	/**
+	 * From opening a document to its semantic tokens being applied to the presentation
+	 */
+	@Test
+	public void testSemanticTokensToPresentation() throws Exception {
+		keepLanguageServerRunning();
+		for (final int delay : DELAYS) {
+			MockLanguageServer.INSTANCE.setTimeToProceedQueries(delay);
+			for (final int size : SEMANTIC_TOKENS) {
+				// a deprecated keyword at the beginning of every line: the deprecation is rendered as strikeout
+				final var data = new ArrayList<Integer>(size * 5);
+				for (int i = 0; i < size; i++) {
+					data.addAll(List.of(i == 0 ? 0 : 1, 0, 7, 0, 1));
+				}
+				MockLanguageServer.INSTANCE.getTextDocumentService().setSemanticTokens(new SemanticTokens(data));
+				final var samples = new ArrayList<Duration>();
+				for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+					final IFile file = TestUtils.createUniqueTestFile(project, lines("keyword", size));
+					final long start = System.nanoTime();
+					final IEditorPart editor = TestUtils.openEditor(file);
+					samples.add(awaitSince(start, () -> {
+						final ITextViewer viewer = LSPEclipseUtils.getTextViewer(editor);
+						if (viewer == null) {
+							return false;
+						}
+						final StyledText widget = viewer.getTextWidget();
+						return Arrays.stream(widget.getStyleRanges(0, Math.min(7, widget.getCharCount())))
+								.anyMatch(range -> range.strikeout);
+					}));
+					TestUtils.closeEditor(editor, false);
+				}
+				report.add("semanticTokensToPresentation", delay, size, samples);
+			}
+		}
+	}
+
+	/**
+	 * From a document change to the outline showing the new symbols
+	 */
+	@Test
+	public void testOutlineRefresh() throws Exception {
+		for (final int size : SYMBOLS) {
+			MockLanguageServer.INSTANCE.setTimeToProceedQueries(0);
+			MockLanguageServer.INSTANCE.setDocumentSymbols(symbols("symbol", size));
+			final IFile file = TestUtils.createUniqueTestFile(project, lines("symbol", size));
+			final var editor = (ITextEditor) openWhenConnected(file);
+			final LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrappers(file, request -> true).iterator().next();
+			final var outlinePage = new CNFOutlinePage(wrapper, editor);
+			final var shell = new Shell(editor.getEditorSite().getWorkbenchWindow().getShell());
+			shell.setLayout(new FillLayout());
+			outlinePage.createControl(shell);
+			shell.open();
+			final var tree = (Tree) outlinePage.getControl();
+			awaitSince(System.nanoTime(), () -> firstSymbolName(tree).equals("symbol0"));
+
+			final IDocument document = LSPEclipseUtils.getDocument(editor.getEditorInput());
+			int generation = 0;
+			for (final int delay : DELAYS) {
+				MockLanguageServer.INSTANCE.setTimeToProceedQueries(delay);
+				final var samples = new ArrayList<Duration>();
+				for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+					final String prefix = "renamed" + generation++ + "_";
+					MockLanguageServer.INSTANCE.setDocumentSymbols(symbols(prefix, size));
+					final long start = System.nanoTime();
+					document.replace(0, 0, " ");
+					samples.add(awaitSince(start, () -> firstSymbolName(tree).equals(prefix + 0)));
+				}
+				report.add("outlineRefresh", delay, size, samples);
+			}
+			shell.close();
+			TestUtils.closeEditor(editor, false);
+		}
+	}
+
+	/**
+	 * Keeps a document connected to the language server, so it isn't stopped, and restarted, as the
+	 * documents of the measurements are closed and opened.
+	 */
+	private void keepLanguageServerRunning() throws Exception {
+		openWhenConnected(TestUtils.createUniqueTestFile(project, ""));
+	}
+
+	private IEditorPart openWhenConnected(IFile file) throws Exception {
+		final var didOpen = new CompletableFuture<DidOpenTextDocumentParams>();
+		MockLanguageServer.INSTANCE.setDidOpenCallback(didOpen);
+		final IEditorPart editor = TestUtils.openEditor(file);
+		awaitSince(System.nanoTime(), () -> didOpen.isDone() && LSPEclipseUtils.getTextViewer(editor) != null);
+		return editor;
+	}
+
+	private static String lines(String prefix, int count) {
+		final var text = new StringBuilder(count * (prefix.length() + 8));
+		for (int i = 0; i < count; i++) {
+			text.append(prefix).append(' ').append(i).append('\n');
+		}
+		return text.toString();
+	}
+
+	private static DocumentSymbol[] symbols(String prefix, int count) {
+		final var symbols = new DocumentSymbol[count];
+		for (int i = 0; i < count; i++) {
+			final var range = new Range(new Position(i, 0), new Position(i, 6));
+			symbols[i] = new DocumentSymbol(prefix + i, SymbolKind.Constant, range, range);
+		}
+		return symbols;
+	}
+
+	private static String firstSymbolName(Tree tree) {
+		return tree.getItemCount() > 0 && tree.getItem(0).getData() instanceof DocumentSymbolWithURI symbol
+				? symbol.symbol.getName()
+				: "";
+	}
+
+	/**
+	 * Runs the event loop until the condition is met, checking it every millisecond at most.
+	 *
+	 * @return the time elapsed since the given start, when the condition was met
+	 */
+	private static Duration awaitSince(long start, Condition condition) throws Exception {
+		final Display display = UI.getDisplay();
+		while (!condition.isMet()) {
+			if (System.nanoTime() - start > TIMEOUT) {
+				fail("Condition not met within " + Duration.ofNanos(TIMEOUT));
+			}
+			if (!display.readAndDispatch()) {
+				Thread.sleep(1);
+			}
+		}
+		return Duration.ofNanos(System.nanoTime() - start);
+	}
+}
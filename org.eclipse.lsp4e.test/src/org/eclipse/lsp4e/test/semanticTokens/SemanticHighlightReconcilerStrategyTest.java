@@ -8,7 +8,9 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.test.semanticTokens;
 
+import static org.eclipse.lsp4e.test.utils.TestUtils.waitForAndAssertCondition;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 
 import java.util.Arrays;
@@ -16,14 +18,25 @@
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensCache;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
+import org.eclipse.lsp4j.SemanticTokensEdit;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
+import org.eclipse.lsp4j.SemanticTokensServerFull;
+import org.eclipse.lsp4j.SemanticTokensWithRegistrationOptions;
 import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.tests.harness.util.DisplayHelper;
 import org.junit.Before;
 import org.junit.Test;
@@ -40,6 +53,7 @@ public void setUp() {
 		List<String> tokenTypes = Arrays.asList("keyword");
 		List<String> tokenModifiers = Arrays.asList("obsolete");
 		SemanticTokensTestUtil.setSemanticTokensLegend(tokenTypes, tokenModifiers);
+		SemanticTokensCache.clear();
 	}
 
 	@Test
@@ -84,4 +98,77 @@ public void testKeyword() throws CoreException {
 		assertEquals(11, styleRanges[5].length);
 		assertNotEquals(styleRanges[5].foreground, backgroundColor);
 	}
+
+	@Test
+	public void testKeywordDelta() throws CoreException, BadLocationException {
+		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities().getSemanticTokensProvider()
+				.setFull(new SemanticTokensServerFull(true));
+		// all the keywords but the last one
+		List<Integer> data = SemanticTokensTestUtil.keywordSemanticTokens();
+		MockLanguageServer.INSTANCE.getTextDocumentService().setSemanticTokens(new SemanticTokens("1", data.subList(0, 10)));
+
+		IFile file = TestUtils.createUniqueTestFile(project, "lsptm", SemanticTokensTestUtil.keywordText);
+		ITextViewer textViewer = TestUtils.openTextViewer(file);
+		Display display = shell.getDisplay();
+		DisplayHelper.sleep(display, 2_000); // Give some time to the editor to update
+
+		MockLanguageServer.INSTANCE.getTextDocumentService().setSemanticTokensDelta(
+				new SemanticTokensDelta(List.of(new SemanticTokensEdit(10, 0, data.subList(10, 15))), "2"));
+		IDocument document = textViewer.getDocument();
+		document.replace(document.getLength(), 0, "\n");
+
+		List<SemanticTokensDeltaParams> deltaRequests = MockLanguageServer.INSTANCE.getTextDocumentService()
+				.getSemanticTokensDeltaRequests();
+		waitForAndAssertCondition(5_000, display, () -> !deltaRequests.isEmpty());
+		assertEquals("1", deltaRequests.get(0).getPreviousResultId());
+		waitForAndAssertCondition(5_000, display, () -> Arrays.stream(textViewer.getTextWidget().getStyleRanges())
+				.anyMatch(styleRange -> styleRange.start == 24 && styleRange.length == 7));
+	}
+
+	@Test
+	public void testKeywordsCachedWhenReopened() throws CoreException {
+		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities().getSemanticTokensProvider()
+				.setFull(new SemanticTokensServerFull(true));
+		MockLanguageServer.INSTANCE.getTextDocumentService()
+				.setSemanticTokens(new SemanticTokens("1", SemanticTokensTestUtil.keywordSemanticTokens()));
+
+		IFile file = TestUtils.createUniqueTestFile(project, "lsptm", SemanticTokensTestUtil.keywordText);
+		IEditorPart editor = TestUtils.openEditor(file);
+		Display display = shell.getDisplay();
+		DisplayHelper.sleep(display, 2_000); // Give some time to the editor to update
+		TestUtils.closeEditor(editor, false);
+
+		// the file is unchanged, its tokens are requested as a delta from the cached ones, which are applied
+		MockLanguageServer.INSTANCE.getTextDocumentService()
+				.setSemanticTokensDelta(new SemanticTokensDelta(List.of(), "2"));
+		ITextViewer textViewer = TestUtils.openTextViewer(file);
+
+		List<SemanticTokensDeltaParams> deltaRequests = MockLanguageServer.INSTANCE.getTextDocumentService()
+				.getSemanticTokensDeltaRequests();
+		waitForAndAssertCondition(5_000, display, () -> !deltaRequests.isEmpty());
+		assertEquals("1", deltaRequests.get(0).getPreviousResultId());
+		waitForAndAssertCondition(5_000, display, () -> Arrays.stream(textViewer.getTextWidget().getStyleRanges())
+				.anyMatch(styleRange -> styleRange.start == 24 && styleRange.length == 7));
+	}
+
+	@Test
+	public void testKeywordRange() throws CoreException {
+		SemanticTokensWithRegistrationOptions semanticTokensProvider = MockLanguageServer.INSTANCE
+				.getInitializeResult().getCapabilities().getSemanticTokensProvider();
+		semanticTokensProvider.setFull(false);
+		semanticTokensProvider.setRange(true);
+		MockLanguageServer.INSTANCE.getTextDocumentService()
+				.setSemanticTokens(new SemanticTokens(SemanticTokensTestUtil.keywordSemanticTokens()));
+
+		IFile file = TestUtils.createUniqueTestFile(project, "lsptm", SemanticTokensTestUtil.keywordText);
+		ITextViewer textViewer = TestUtils.openTextViewer(file);
+		Display display = shell.getDisplay();
+
+		waitForAndAssertCondition(5_000, display, () -> Arrays.stream(textViewer.getTextWidget().getStyleRanges())
+				.anyMatch(styleRange -> styleRange.start == 24 && styleRange.length == 7));
+		List<SemanticTokensRangeParams> rangeRequests = MockLanguageServer.INSTANCE.getTextDocumentService()
+				.getSemanticTokensRangeRequests();
+		assertFalse(rangeRequests.isEmpty());
+		assertEquals(new Position(0, 0), rangeRequests.get(0).getRange().getStart());
+	}
 }
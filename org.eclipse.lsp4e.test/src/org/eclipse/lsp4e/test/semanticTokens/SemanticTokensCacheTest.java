@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.semanticTokens;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServersRegistry;
+import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensCache;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensCache.CachedSemanticTokens;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SemanticTokensCacheTest extends AbstractTestWithProject {
+
+	private static final String MOCK_SERVER_ID = "org.eclipse.lsp4e.test.server";
+
+	private final URI uri = URI.create("file:///cached.lspt");
+	private final int[] data = { 0, 0, 4, 0, 0 };
+	private LanguageServerWrapper wrapper;
+
+	@Before
+	public void setUp() {
+		SemanticTokensCache.clear();
+		wrapper = LanguageServiceAccessor.getLSWrapper(project,
+				LanguageServersRegistry.getInstance().getDefinition(MOCK_SERVER_ID));
+	}
+
+	@Test
+	public void testTokensReusedForSameDocumentOnly() {
+		final var document = new Document("text");
+		SemanticTokensCache.put(uri, wrapper, CachedSemanticTokens.of(document, 1, "1", data, null));
+
+		final CachedSemanticTokens cached = SemanticTokensCache.get(uri, wrapper);
+		assertTrue(cached.isOf(document, 1));
+		assertFalse(cached.isOf(document, 2));
+		// e.g. the document of a compare editor, whose modification stamps are unrelated
+		assertFalse(cached.isOf(new Document("text"), 1));
+	}
+
+	@Test
+	public void testTokensKeptOnceLastViewerClosed() {
+		final var document = new Document("text");
+		SemanticTokensCache.open(uri);
+		SemanticTokensCache.open(uri);
+		SemanticTokensCache.put(uri, wrapper, CachedSemanticTokens.of(document, 1, "1", data, null));
+
+		// e.g. a split editor closed, its document still being shown
+		SemanticTokensCache.close(uri, document, 1);
+		CachedSemanticTokens cached = SemanticTokensCache.get(uri, wrapper);
+		assertTrue(cached.isOf(document, 1));
+		assertNull(cached.contentHash());
+
+		SemanticTokensCache.close(uri, document, 1);
+		cached = SemanticTokensCache.get(uri, wrapper);
+		assertFalse(cached.isOf(document, 1));
+		assertEquals(Integer.valueOf(document.get().hashCode()), cached.contentHash());
+		assertEquals("1", cached.resultId());
+	}
+
+	@Test
+	public void testOutdatedTokensNotKeptOnceClosed() {
+		final var document = new Document("text");
+		SemanticTokensCache.open(uri);
+		SemanticTokensCache.put(uri, wrapper, CachedSemanticTokens.of(document, 1, "1", data, null));
+
+		SemanticTokensCache.close(uri, document, 2);
+		assertNull(SemanticTokensCache.get(uri, wrapper).contentHash());
+	}
+}
@@ -8,7 +8,9 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.test.semanticTokens;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 
 import java.util.Arrays;
 import java.util.List;
@@ -16,6 +18,7 @@
 import org.eclipse.jface.text.Document;
 import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensDataStreamProcessor;
 import org.eclipse.lsp4e.test.utils.AbstractTest;
+import org.eclipse.lsp4j.SemanticTokensEdit;
 import org.eclipse.lsp4j.SemanticTokensLegend;
 import org.eclipse.swt.custom.StyleRange;
 import org.junit.Test;
@@ -41,6 +44,30 @@ public void testKeyword() {
 		assertEquals(expectedStyleRanges, styleRanges);
 	}
 
+	@Test
+	public void testApplyEdits() {
+		int[] dataStream = SemanticTokensDataStreamProcessor.toArray(SemanticTokensTestUtil.keywordSemanticTokens());
+
+		// remove the second token, change the length of the last one and add one at the end, in any order
+		int[] newDataStream = SemanticTokensDataStreamProcessor.applyEdits(dataStream, List.of(
+				new SemanticTokensEdit(15, 0, List.of(1, 0, 1, 0, 0)),
+				new SemanticTokensEdit(5, 5, null),
+				new SemanticTokensEdit(12, 1, List.of(5))));
+
+		assertArrayEquals(new int[] { 0, 0, 4, 0, 0, 0, 9, 5, 0, 0, 1, 0, 1, 0, 0 }, newDataStream);
+		assertArrayEquals(dataStream, SemanticTokensDataStreamProcessor.applyEdits(dataStream, List.of()));
+	}
+
+	@Test
+	public void testApplyInvalidEdits() {
+		int[] dataStream = SemanticTokensDataStreamProcessor.toArray(SemanticTokensTestUtil.keywordSemanticTokens());
+
+		assertThrows(IllegalArgumentException.class, () -> SemanticTokensDataStreamProcessor.applyEdits(dataStream,
+				List.of(new SemanticTokensEdit(10, 10, List.of()))));
+		assertThrows(IllegalArgumentException.class, () -> SemanticTokensDataStreamProcessor.applyEdits(dataStream,
+				List.of(new SemanticTokensEdit(0, 5, List.of()), new SemanticTokensEdit(3, 1, List.of()))));
+	}
+
 	private SemanticTokensLegend getSemanticTokensLegend() {
 		SemanticTokensLegend semanticTokensLegend = new SemanticTokensLegend();
 		semanticTokensLegend.setTokenTypes(Arrays.asList("keyword","other"));
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.semanticTokens;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.TextEvent;
+import org.eclipse.lsp4e.LanguageServerMetrics;
+import org.eclipse.lsp4e.MethodMetrics;
+import org.eclipse.lsp4e.internal.DocumentUtil;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensScheduler;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensScheduler.Request;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SemanticTokensSchedulerTest {
+
+	private static final String SERVER_ID = "semantic.tokens.scheduler.test";
+
+	private SemanticTokensScheduler scheduler;
+
+	@Before
+	public void setUp() {
+		LanguageServerMetrics.reset(SERVER_ID);
+	}
+
+	@Test
+	public void testDebounceAdaptsToLatency() throws Exception {
+		scheduler = new SemanticTokensScheduler(50);
+		assertEquals(50, scheduler.getDebounceMillis());
+
+		final var response = new CompletableFuture<String>();
+		scheduler.sent(SERVER_ID, Request.FULL, response);
+		Thread.sleep(300);
+		response.complete("tokens");
+
+		assertTrue(scheduler.getDebounceMillis() >= 300);
+	}
+
+	@Test
+	public void testIntermediateVersionsSkipped() throws Exception {
+		final var document = new Document("text");
+		final List<Long> sleeps = new ArrayList<>();
+		scheduler = new SemanticTokensScheduler(200, millis -> {
+			sleeps.add(millis);
+			// typing during the first delay only
+			if (sleeps.size() == 1) {
+				for (int i = 0; i < 3; i++) {
+					type(document);
+				}
+			}
+		});
+		final long stamp = scheduler.awaitQuietDocument(document, () -> false);
+
+		assertEquals(List.of(200L, 200L), sleeps);
+		assertEquals(DocumentUtil.getDocumentModificationStamp(document), stamp);
+		assertEquals(3, scheduler.takeEditSize());
+		assertEquals(0, scheduler.takeEditSize());
+
+		scheduler.sent(SERVER_ID, Request.DELTA, CompletableFuture.completedFuture("tokens"));
+		final MethodMetrics metrics = getMetrics(Request.DELTA);
+		assertEquals(2, metrics.getSkippedVersions());
+		assertEquals(1, metrics.getDebounceTime().getCount());
+
+		// recorded for the first request after the wait only
+		scheduler.sent(SERVER_ID, Request.DELTA, CompletableFuture.completedFuture("tokens"));
+		assertEquals(2, metrics.getSkippedVersions());
+		assertEquals(1, metrics.getDebounceTime().getCount());
+	}
+
+	@Test
+	public void testRequestsChosenFromEditSize() {
+		assertTrue(SemanticTokensScheduler.requestDelta(10, 1000));
+		assertFalse(SemanticTokensScheduler.requestDelta(600, 1000));
+
+		assertTrue(SemanticTokensScheduler.requestRangeFirst(0, 1000, false));
+		assertFalse(SemanticTokensScheduler.requestRangeFirst(10, 1000, true));
+		assertTrue(SemanticTokensScheduler.requestRangeFirst(600, 1000, true));
+	}
+
+	private void type(Document document) {
+		try {
+			document.replace(0, 0, "a");
+		} catch (BadLocationException e) {
+			throw new IllegalStateException(e);
+		}
+		scheduler.textChanged(new TextEvent(0, 0, "a", null, new DocumentEvent(), false) {});
+	}
+
+	private static MethodMetrics getMetrics(Request request) {
+		return LanguageServerMetrics.getMetrics(SERVER_ID).stream()
+				.filter(metrics -> metrics.getMethod().equals(request.getMethod())).findFirst().orElseThrow();
+	}
+}
@@ -71,4 +71,42 @@ public void testDocumentChange() {
 		assertEquals(25, twoShiftedOverlappingRanges[1].start);
 		assertEquals(7, twoShiftedOverlappingRanges[1].length);
 	}
+
+	@Test
+	public void testSuccessiveDocumentChanges() {
+		StyleRangeHolder holder = new StyleRangeHolder();
+		holder.saveStyles(originalStyleRanges);
+
+		// typing after the second range, then before it: both ranges after the edits are shifted
+		holder.textChanged(new TextEvent(20, 0, "ab", null, new DocumentEvent(), false) {});
+		holder.textChanged(new TextEvent(10, 0, "c", null, new DocumentEvent(), false) {});
+		// deleting text containing the start of the last range removes it
+		holder.textChanged(new TextEvent(24, 4, "", "abcd", new DocumentEvent(), false) {});
+
+		StyleRange[] allDocumentRanges = holder.overlappingRanges(new Region(0, 50));
+		assertEquals(2, allDocumentRanges.length);
+		assertEquals(0, allDocumentRanges[0].start);
+		assertEquals(16, allDocumentRanges[1].start);
+		assertEquals(4, allDocumentRanges[1].length);
+
+		assertEquals(0, holder.overlappingRanges(new Region(5, 10)).length);
+		assertEquals(1, holder.overlappingRanges(new Region(19, 1)).length);
+		assertEquals(0, holder.overlappingRanges(new Region(20, 30)).length);
+	}
+
+	@Test
+	public void testRegionRanges() {
+		StyleRangeHolder holder = new StyleRangeHolder();
+		holder.saveStyles(originalStyleRanges);
+
+		// the styles of the region replace the ones overlapping it, the others are ignored
+		holder.saveStyles(new Region(10, 10), List.of(new StyleRange(0, 2, RED, null), new StyleRange(12, 2, RED, null)));
+
+		StyleRange[] allDocumentRanges = holder.overlappingRanges(new Region(0, 50));
+		assertEquals(3, allDocumentRanges.length);
+		assertEquals(0, allDocumentRanges[0].start);
+		assertEquals(4, allDocumentRanges[0].length);
+		assertEquals(12, allDocumentRanges[1].start);
+		assertEquals(24, allDocumentRanges[2].start);
+	}
 }
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Latencies measured by end-to-end benchmarks, written as a JSON report so they can be tracked across
+ * builds:
+ *
+ * <pre>
+ * {
+ *   "timestamp": "2024-06-01T12:00:00Z",
+ *   "javaVersion": "17.0.9",
+ *   "os": "Linux amd64",
+ *   "results": [
+ *     { "flow": "hover", "serverDelayMs": 50, "size": 10000, "iterations": 5, "samplesMs": [...],
+ *       "minMs": 52.1, "medianMs": 53.4, "p90Ms": 55.0, "maxMs": 58.3, "meanMs": 53.9,
+ *       "clientOverheadMs": 3.4 }
+ *   ]
+ * }
+ * </pre>
+ *
+ * The client overhead is the median latency minus the delay of the language server, the time spent in
+ * LSP4E and in the platform.
+ */
+public final class LatencyReport {
+
+	/**
+	 * The latencies of a flow, for a language server delay and a response size
+	 */
+	public record Result(String flow, long serverDelayMs, int size, List<Duration> samples) {
+
+		public double percentileMs(double percentile) {
+			final List<Duration> sorted = samples.stream().sorted().toList();
+			final int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+			return millis(sorted.get(Math.max(0, Math.min(sorted.size() - 1, index))));
+		}
+
+		public double meanMs() {
+			return samples.stream().mapToDouble(LatencyReport::millis).average().orElse(0);
+		}
+
+		public double clientOverheadMs() {
+			return percentileMs(50) - serverDelayMs;
+		}
+	}
+
+	private final List<Result> results = new ArrayList<>();
+
+	public synchronized Result add(String flow, long serverDelayMs, int size, List<Duration> samples) {
+		final var result = new Result(flow, serverDelayMs, size, List.copyOf(samples));
+		results.add(result);
+		return result;
+	}
+
+	public synchronized List<Result> getResults() {
+		return List.copyOf(results);
+	}
+
+	public synchronized void write(Path file) throws IOException {
+		final var report = new JsonObject();
+		report.addProperty("timestamp", Instant.now().toString());
+		report.addProperty("javaVersion", System.getProperty("java.version"));
+		report.addProperty("os", System.getProperty("os.name") + ' ' + System.getProperty("os.arch"));
+		final var jsonResults = new JsonArray();
+		for (final Result result : results) {
+			final var jsonResult = new JsonObject();
+			jsonResult.addProperty("flow", result.flow());
+			jsonResult.addProperty("serverDelayMs", result.serverDelayMs());
+			jsonResult.addProperty("size", result.size());
+			jsonResult.addProperty("iterations", result.samples().size());
+			final var samples = new JsonArray();
+			result.samples().forEach(sample -> samples.add(millis(sample)));
+			jsonResult.add("samplesMs", samples);
+			jsonResult.addProperty("minMs", result.percentileMs(0));
+			jsonResult.addProperty("medianMs", result.percentileMs(50));
+			jsonResult.addProperty("p90Ms", result.percentileMs(90));
+			jsonResult.addProperty("maxMs", result.percentileMs(100));
+			jsonResult.addProperty("meanMs", result.meanMs());
+			jsonResult.addProperty("clientOverheadMs", result.clientOverheadMs());
+			jsonResults.add(jsonResult);
+		}
+		report.add("results", jsonResults);
+		final Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+		}
+	}
+
+	private static double millis(Duration duration) {
+		return duration.toNanos() / 1_000_000.0;
+	}
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.eclipse.lsp4e.ReplayStreamConnectionProvider;
+
+/**
+ * Replays the recording configured with {@link #configure(Path, double)}, as the
+ * <code>org.eclipse.lsp4e.test.server.replay</code> language server.
+ */
+public class ReplayConnectionProvider extends ReplayStreamConnectionProvider {
+
+	private static volatile Path recording;
+	private static volatile double speed = AS_FAST_AS_POSSIBLE;
+	private static volatile ReplayConnectionProvider lastStarted;
+
+	public static void configure(Path recording, double speed) {
+		ReplayConnectionProvider.recording = recording;
+		ReplayConnectionProvider.speed = speed;
+	}
+
+	/**
+	 * @return the provider replaying the recording for the last started language server
+	 */
+	public static ReplayConnectionProvider getLastStarted() {
+		return lastStarted;
+	}
+
+	public ReplayConnectionProvider() {
+		super(recording, speed, Map.of());
+	}
+
+	@Override
+	public void start() throws IOException {
+		super.start();
+		lastStarted = this;
+	}
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.utils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServersRegistry;
+import org.eclipse.lsp4e.LanguageServiceAccessor;
+
+/**
+ * Measures the time LSP4E takes to run a scenario against a replayed language server session, so the
+ * client-side costs can be measured deterministically, without the language server.
+ * <p>
+ * The scenario must issue the same requests, in the same order, as the client of the recorded session.
+ * </p>
+ */
+public final class SessionReplayBenchmark {
+
+	public static final String REPLAY_SERVER_ID = "org.eclipse.lsp4e.test.server.replay";
+
+	private SessionReplayBenchmark() {
+	}
+
+	/**
+	 * Starts a language server replaying the given recording, and runs the scenario against it.
+	 *
+	 * @param speed
+	 *            acceleration of the replay, see {@link org.eclipse.lsp4e.ReplayStreamConnectionProvider}
+	 * @return time elapsed between the language server start and the scenario completion
+	 */
+	public static Duration run(IProject project, Path recording, double speed,
+			Function<LanguageServerWrapper, CompletableFuture<?>> scenario) throws Exception {
+		ReplayConnectionProvider.configure(recording, speed);
+		final long start = System.nanoTime();
+		final LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrapper(project,
+				LanguageServersRegistry.getInstance().getDefinition(REPLAY_SERVER_ID));
+		try {
+			scenario.apply(wrapper).get(1, TimeUnit.MINUTES);
+			return Duration.ofNanos(System.nanoTime() - start);
+		} finally {
+			wrapper.stop();
+		}
+	}
+}
@@ -30,12 +30,14 @@
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.eclipse.lsp4j.CodeAction;
 import org.eclipse.lsp4j.CodeLens;
 import org.eclipse.lsp4j.CodeLensOptions;
 import org.eclipse.lsp4j.Command;
+import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionList;
 import org.eclipse.lsp4j.CompletionOptions;
 import org.eclipse.lsp4j.Diagnostic;
@@ -136,6 +138,7 @@ public void waitBeforeTearDown() {
 
 	public void addRemoteProxy(LanguageClient remoteProxy) {
 		this.textDocumentService.addRemoteProxy(remoteProxy);
+		this.workspaceService.addRemoteProxy(remoteProxy);
 		this.remoteProxies.add(remoteProxy);
 		this.started = true;
 	}
@@ -206,10 +209,25 @@ public void setCompletionList(CompletionList completionList) {
 		this.textDocumentService.setMockCompletionList(completionList);
 	}
 
+	public void setCompletionPartialResult(List<CompletionItem> items) {
+		this.textDocumentService.setMockCompletionPartialResult(items);
+	}
+
+	public void setCompletionItemResolver(Function<CompletionItem, CompletionItem> resolver) {
+		this.textDocumentService.setMockCompletionItemResolver(resolver);
+	}
+
 	public void setHover(Hover hover) {
 		this.textDocumentService.setMockHover(hover);
 	}
 
+	/**
+	 * @see MockTextDocumentService#setDelayedMethods(String...)
+	 */
+	public void setDelayedMethods(String... methods) {
+		this.textDocumentService.setDelayedMethods(methods);
+	}
+
 	public void setCodeLens(List<CodeLens> codeLens) {
 		this.textDocumentService.setMockCodeLenses(codeLens);
 	}
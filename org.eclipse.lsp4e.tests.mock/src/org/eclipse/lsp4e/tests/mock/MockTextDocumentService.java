@@ -23,7 +23,9 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
@@ -44,6 +46,8 @@
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.DidSaveTextDocumentParams;
 import org.eclipse.lsp4j.DocumentColorParams;
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.DocumentDiagnosticReport;
 import org.eclipse.lsp4j.DocumentFormattingParams;
 import org.eclipse.lsp4j.DocumentHighlight;
 import org.eclipse.lsp4j.DocumentHighlightParams;
@@ -66,11 +70,17 @@
 import org.eclipse.lsp4j.PrepareRenameParams;
 import org.eclipse.lsp4j.PrepareRenameResult;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.ProgressParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ReferenceParams;
+import org.eclipse.lsp4j.RelatedFullDocumentDiagnosticReport;
+import org.eclipse.lsp4j.RelatedUnchangedDocumentDiagnosticReport;
 import org.eclipse.lsp4j.RenameParams;
 import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
 import org.eclipse.lsp4j.SemanticTokensParams;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
 import org.eclipse.lsp4j.SignatureHelp;
 import org.eclipse.lsp4j.SignatureHelpParams;
 import org.eclipse.lsp4j.SymbolInformation;
@@ -91,6 +101,8 @@
 public class MockTextDocumentService implements TextDocumentService {
 
 	private CompletionList mockCompletionList;
+	private List<CompletionItem> mockCompletionPartialResult;
+	private Function<CompletionItem, CompletionItem> mockCompletionItemResolver;
 	private Hover mockHover;
 	private List<? extends Location> mockDefinitionLocations;
 	private List<? extends LocationLink> mockTypeDefinitions;
@@ -108,15 +120,22 @@ public class MockTextDocumentService implements TextDocumentService {
 	private ConcurrentLinkedQueue<DidChangeTextDocumentParams> didChangeEvents = new ConcurrentLinkedQueue<>();
 
 	private Function<?, ? extends CompletableFuture<?>> _futureFactory;
+	private final Set<String> delayedMethods = ConcurrentHashMap.newKeySet();
 	private final List<LanguageClient> remoteProxies = new CopyOnWriteArrayList<>();
 	private Location[] mockReferences = new Location[0];
 	private List<Diagnostic> diagnostics;
+	private volatile List<Diagnostic> pulledDiagnostics = Collections.emptyList();
+	private volatile int pulledDiagnosticsResultId;
+	private final List<DocumentDiagnosticParams> diagnosticRequests = new CopyOnWriteArrayList<>();
 	private List<Either<Command, CodeAction>> mockCodeActions;
 	private List<ColorInformation> mockDocumentColors;
 	private WorkspaceEdit mockRenameEdit;
 	private Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior> mockPrepareRenameResult;
 	private List<DocumentSymbol> documentSymbols;
 	private SemanticTokens mockSemanticTokens;
+	private SemanticTokensDelta mockSemanticTokensDelta;
+	private final List<SemanticTokensDeltaParams> semanticTokensDeltaRequests = new CopyOnWriteArrayList<>();
+	private final List<SemanticTokensRangeParams> semanticTokensRangeRequests = new CopyOnWriteArrayList<>();
 	private List<FoldingRange> foldingRanges;
 	public int codeActionRequests = 0;
 
@@ -137,19 +156,44 @@ private <U> CompletableFuture<U> futureFactory(U value) {
 		return ((Function<U, CompletableFuture<U>>) this._futureFactory).apply(value);
 	}
 
+	/**
+	 * @return the given value, delayed like the other requests if the given method was opted in with
+	 *         {@link #setDelayedMethods(String...)}, else immediately
+	 */
+	private <U> CompletableFuture<U> futureFactory(String method, U value) {
+		return delayedMethods.contains(method) ? futureFactory(value) : CompletableFuture.completedFuture(value);
+	}
+
+	/**
+	 * Makes the given methods, answered immediately by default, also honour the time to proceed queries, e.g.
+	 * to measure the latency of their flows. <code>textDocument/publishDiagnostics</code> delays the
+	 * diagnostics published on didOpen.
+	 */
+	public void setDelayedMethods(String... methods) {
+		delayedMethods.clear();
+		delayedMethods.addAll(Arrays.asList(methods));
+	}
+
 	@Override
 	public CompletableFuture<Either<List<CompletionItem>, CompletionList>> completion(CompletionParams position) {
+		if (mockCompletionPartialResult != null && position.getPartialResultToken() != null && !remoteProxies.isEmpty()) {
+			remoteProxies.get(0).notifyProgress(new ProgressParams(position.getPartialResultToken(),
+					Either.forRight(mockCompletionPartialResult)));
+		}
 		return futureFactory(Either.forRight(mockCompletionList));
 	}
 
 	@Override
 	public CompletableFuture<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
+		if (mockCompletionItemResolver != null) {
+			return futureFactory(mockCompletionItemResolver.apply(unresolved));
+		}
 		return CompletableFuture.completedFuture(null);
 	}
 
 	@Override
 	public CompletableFuture<Hover> hover(HoverParams position) {
-		return CompletableFuture.completedFuture(mockHover);
+		return futureFactory("textDocument/hover", mockHover);
 	}
 
 	@Override
@@ -183,7 +227,7 @@ public CompletableFuture<LinkedEditingRanges> linkedEditingRange(LinkedEditingRa
 	@Override
 	public CompletableFuture<List<Either<SymbolInformation, DocumentSymbol>>> documentSymbol(
 			DocumentSymbolParams params) {
-		return CompletableFuture.completedFuture(documentSymbols.stream()
+		return futureFactory("textDocument/documentSymbol", documentSymbols.stream()
 				.map(symbol -> {
 					Either<SymbolInformation, DocumentSymbol> res = Either.forRight(symbol);
 					return res;
@@ -253,17 +297,19 @@ public void didOpen(DidOpenTextDocumentParams params) {
 		}
 
 		if (this.diagnostics != null && !this.diagnostics.isEmpty()) {
-			// we're not sure which remote proxy to use, but we know we should only use one
-			// per didOpen
-			// for proper LS interaction; so a strategy is to use the first one and rotate
-			// the others
-			// for further executions
-			synchronized (this.remoteProxies) {
-				// and we synchronize to avoid concurrent read/write on the list
-				this.remoteProxies.get(0).publishDiagnostics(
-						new PublishDiagnosticsParams(params.getTextDocument().getUri(), this.diagnostics));
-				Collections.rotate(this.remoteProxies, 1);
-			}
+			futureFactory("textDocument/publishDiagnostics", this.diagnostics).thenAccept(diagnostics -> {
+				// we're not sure which remote proxy to use, but we know we should only use one
+				// per didOpen
+				// for proper LS interaction; so a strategy is to use the first one and rotate
+				// the others
+				// for further executions
+				synchronized (this.remoteProxies) {
+					// and we synchronize to avoid concurrent read/write on the list
+					this.remoteProxies.get(0).publishDiagnostics(
+							new PublishDiagnosticsParams(params.getTextDocument().getUri(), diagnostics));
+					Collections.rotate(this.remoteProxies, 1);
+				}
+			});
 		}
 //		if (this.foldingRanges != null && !this.foldingRanges.isEmpty()) {
 //			synchronized (this.remoteProxies) {
@@ -323,6 +369,23 @@ public void setMockCompletionList(CompletionList completionList) {
 		this.mockCompletionList = completionList;
 	}
 
+	/**
+	 * @param items
+	 *            the items reported as a partial result before responding with the completion list, when the
+	 *            client asks for partial results
+	 */
+	public void setMockCompletionPartialResult(List<CompletionItem> items) {
+		this.mockCompletionPartialResult = items;
+	}
+
+	/**
+	 * @param resolver
+	 *            computes the resolved items of the <code>completionItem/resolve</code> requests
+	 */
+	public void setMockCompletionItemResolver(Function<CompletionItem, CompletionItem> resolver) {
+		this.mockCompletionItemResolver = resolver;
+	}
+
 	public void setDidOpenCallback(CompletableFuture<DidOpenTextDocumentParams> didOpenExpectation) {
 		this.didOpenCallback = didOpenExpectation;
 	}
@@ -369,6 +432,8 @@ public void setMockDocumentLinks(List<DocumentLink> documentLinks) {
 
 	public void reset() {
 		this.mockCompletionList = new CompletionList();
+		this.mockCompletionPartialResult = null;
+		this.mockCompletionItemResolver = null;
 		this.mockDefinitionLocations = Collections.emptyList();
 		this.mockTypeDefinitions = Collections.emptyList();
 		this.mockHover = null;
@@ -386,6 +451,30 @@ public void setDiagnostics(List<Diagnostic> diagnostics) {
 		this.diagnostics = diagnostics;
 	}
 
+	@Override
+	public CompletableFuture<DocumentDiagnosticReport> diagnostic(DocumentDiagnosticParams params) {
+		diagnosticRequests.add(params);
+		final String resultId = Integer.toString(pulledDiagnosticsResultId);
+		if (resultId.equals(params.getPreviousResultId())) {
+			return futureFactory(new DocumentDiagnosticReport(new RelatedUnchangedDocumentDiagnosticReport(resultId)));
+		}
+		final var report = new RelatedFullDocumentDiagnosticReport(pulledDiagnostics);
+		report.setResultId(resultId);
+		return futureFactory(new DocumentDiagnosticReport(report));
+	}
+
+	/**
+	 * Sets the diagnostics reported by <code>textDocument/diagnostic</code>, with a new result id
+	 */
+	public void setPulledDiagnostics(List<Diagnostic> diagnostics) {
+		this.pulledDiagnostics = diagnostics;
+		this.pulledDiagnosticsResultId++;
+	}
+
+	public List<DocumentDiagnosticParams> getDiagnosticRequests() {
+		return diagnosticRequests;
+	}
+
 	public void addRemoteProxy(LanguageClient remoteProxy) {
 		this.remoteProxies.add(remoteProxy);
 	}
@@ -430,9 +519,41 @@ public void setSemanticTokens(final SemanticTokens semanticTokens) {
 		this.mockSemanticTokens = semanticTokens;
 	}
 
+	/**
+	 * @param semanticTokensDelta
+	 *            the delta answered to the next <code>textDocument/semanticTokens/full/delta</code> request, the
+	 *            semantic tokens are answered once it's consumed
+	 */
+	public void setSemanticTokensDelta(final SemanticTokensDelta semanticTokensDelta) {
+		this.mockSemanticTokensDelta = semanticTokensDelta;
+	}
+
+	public List<SemanticTokensDeltaParams> getSemanticTokensDeltaRequests() {
+		return semanticTokensDeltaRequests;
+	}
+
 	@Override
 	public CompletableFuture<SemanticTokens> semanticTokensFull(SemanticTokensParams params) {
-		return CompletableFuture.completedFuture(this.mockSemanticTokens);
+		return futureFactory("textDocument/semanticTokens/full", this.mockSemanticTokens);
+	}
+
+	public List<SemanticTokensRangeParams> getSemanticTokensRangeRequests() {
+		return semanticTokensRangeRequests;
+	}
+
+	@Override
+	public CompletableFuture<SemanticTokens> semanticTokensRange(SemanticTokensRangeParams params) {
+		semanticTokensRangeRequests.add(params);
+		return futureFactory(this.mockSemanticTokens);
+	}
+
+	@Override
+	public CompletableFuture<Either<SemanticTokens, SemanticTokensDelta>> semanticTokensFullDelta(
+			SemanticTokensDeltaParams params) {
+		semanticTokensDeltaRequests.add(params);
+		SemanticTokensDelta delta = this.mockSemanticTokensDelta;
+		this.mockSemanticTokensDelta = null;
+		return futureFactory(delta != null ? Either.forRight(delta) : Either.forLeft(this.mockSemanticTokens));
 	}
 
 	private static final Range DUMMY_RANGE = new Range(new Position(0, 0), new Position(0, 0));
@@ -14,17 +14,29 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
+import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
 import org.eclipse.lsp4j.DidChangeWorkspaceFoldersParams;
 import org.eclipse.lsp4j.ExecuteCommandParams;
+import org.eclipse.lsp4j.ProgressParams;
 import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReportPartialResult;
+import org.eclipse.lsp4j.WorkspaceDocumentDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceFullDocumentDiagnosticReport;
 import org.eclipse.lsp4j.WorkspaceSymbol;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
+import org.eclipse.lsp4j.WorkspaceUnchangedDocumentDiagnosticReport;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageClient;
 import org.eclipse.lsp4j.services.WorkspaceService;
 
 public class MockWorkspaceService implements WorkspaceService {
@@ -32,6 +44,9 @@ public class MockWorkspaceService implements WorkspaceService {
 	private Function<?, ?> _futureFactory;
 	private CompletableFuture<ExecuteCommandParams> executedCommand = new CompletableFuture<>();
 	private List<DidChangeWorkspaceFoldersParams> workspaceFoldersEvents = new ArrayList<>();
+	private volatile Map<String, List<Diagnostic>> workspaceDiagnostics = Map.of();
+	private final List<WorkspaceDiagnosticParams> diagnosticRequests = new CopyOnWriteArrayList<>();
+	private final List<LanguageClient> remoteProxies = new CopyOnWriteArrayList<>();
 
 	public <U> MockWorkspaceService(Function<U, CompletableFuture<U>> futureFactory) {
 		this._futureFactory = futureFactory;
@@ -84,4 +99,45 @@ public CompletableFuture<Object> executeCommand(ExecuteCommandParams params) {
 	public CompletableFuture<ExecuteCommandParams> getExecutedCommand() {
 		return executedCommand;
 	}
+
+	/**
+	 * Reports the workspace diagnostics as partial results when the client asks for them, then responds with
+	 * no other report. The result id of the diagnostics of a document is their hash code.
+	 */
+	@Override
+	public CompletableFuture<WorkspaceDiagnosticReport> diagnostic(WorkspaceDiagnosticParams params) {
+		diagnosticRequests.add(params);
+		final var reports = new ArrayList<WorkspaceDocumentDiagnosticReport>();
+		workspaceDiagnostics.forEach((uri, diagnostics) -> {
+			final String resultId = Integer.toString(diagnostics.hashCode());
+			final boolean unchanged = params.getPreviousResultIds().stream().anyMatch(
+					previous -> previous.getUri().equals(uri) && Objects.equals(previous.getValue(), resultId));
+			if (unchanged) {
+				reports.add(new WorkspaceDocumentDiagnosticReport(
+						new WorkspaceUnchangedDocumentDiagnosticReport(resultId, uri, null)));
+			} else {
+				final var report = new WorkspaceFullDocumentDiagnosticReport(diagnostics, uri, null);
+				report.setResultId(resultId);
+				reports.add(new WorkspaceDocumentDiagnosticReport(report));
+			}
+		});
+		if (params.getPartialResultToken() != null && !remoteProxies.isEmpty()) {
+			remoteProxies.get(0).notifyProgress(new ProgressParams(params.getPartialResultToken(),
+					Either.forRight(new WorkspaceDiagnosticReportPartialResult(reports))));
+			return futureFactory(new WorkspaceDiagnosticReport(List.of()));
+		}
+		return futureFactory(new WorkspaceDiagnosticReport(reports));
+	}
+
+	public void setWorkspaceDiagnostics(Map<String, List<Diagnostic>> workspaceDiagnostics) {
+		this.workspaceDiagnostics = workspaceDiagnostics;
+	}
+
+	public List<WorkspaceDiagnosticParams> getDiagnosticRequests() {
+		return diagnosticRequests;
+	}
+
+	public void addRemoteProxy(LanguageClient remoteProxy) {
+		this.remoteProxies.add(remoteProxy);
+	}
 }
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.lsp4e.LoggingStreamConnectionProviderProxy.DropPolicy;
+
+/**
+ * Logs the traffic of a language server connection without blocking the threads doing the I/O.
+ * <p>
+ * The raw bytes read or written are copied into a bounded ring buffer, together with their direction and a
+ * timestamp. A background thread drains the buffer in batches, formats the log entries and hands them to a
+ * sink. The buffer starts small and grows up to its capacity as the traffic requires. When it is full, the
+ * configured {@link DropPolicy} applies, always to whole log entries.
+ * </p>
+ */
+final class AsyncTrafficLog {
+
+	enum Direction { LANGUAGE_SERVER_TO_LSP4E, LSP4E_TO_LANGUAGE_SERVER, ERROR_FROM_LANGUAGE_SERVER }
+
+	static final int DEFAULT_CAPACITY = 4 * 1024 * 1024;
+	static final int INITIAL_CAPACITY = 64 * 1024;
+
+	private static final long FLUSH_INTERVAL_MS = 200;
+	private static final long CLOSE_TIMEOUT_MS = 2000;
+	/** Record header: direction and continuation flag (1 byte), timestamp (8 bytes), length (4 bytes) */
+	private static final int HEADER_SIZE = 13;
+	private static final int CONTINUATION_FLAG = 0x80;
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private final String serverId;
+	private final DropPolicy dropPolicy;
+	private final Consumer<ByteArrayOutputStream> sink;
+	private final int capacity;
+	private final int maxChunkSize;
+	/** held while the chunks of an entry are enqueued, so that they are contiguous in the buffer */
+	private final Object entryLock = new Object();
+
+	// guarded by lock
+	private final Object lock = new Object();
+	private byte[] ring;
+	private final byte[] header = new byte[HEADER_SIZE];
+	private int head;
+	private int size;
+	private long droppedEntries;
+	/** whether the chunks of the entry being enqueued are the last ones of the buffer */
+	private boolean enqueuingEntry;
+	/** whether the entry being enqueued has been dropped, with its chunks already enqueued */
+	private boolean entryDropped;
+	private boolean closed;
+
+	// only accessed by the writer thread
+	private byte[] batch = new byte[0];
+	private final ByteArrayOutputStream formatted = new ByteArrayOutputStream();
+	private Direction lastDirection;
+
+	private final Thread writer;
+
+	/**
+	 * @param capacity
+	 *            the maximal size of the buffer, in bytes
+	 * @param sink
+	 *            receives the formatted log entries of each batch, on the background thread
+	 */
+	AsyncTrafficLog(@NonNull String serverId, int capacity, @NonNull DropPolicy dropPolicy,
+			@NonNull Consumer<ByteArrayOutputStream> sink) {
+		this.serverId = serverId;
+		this.dropPolicy = dropPolicy;
+		this.sink = sink;
+		this.capacity = capacity;
+		this.ring = new byte[Math.min(capacity, INITIAL_CAPACITY)];
+		this.maxChunkSize = Math.max(1, capacity / 8 - HEADER_SIZE);
+		this.writer = new Thread(this::drainLoop, "LSP4E traffic log writer " + serverId); //$NON-NLS-1$
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Enqueues a copy of the given bytes. Slices larger than a fraction of the buffer are enqueued as
+	 * several chunks, logged as a single entry.
+	 */
+	void log(@NonNull Direction direction, byte[] bytes, int offset, int length) {
+		final long timestamp = System.currentTimeMillis();
+		synchronized (entryLock) {
+			boolean continuation = false;
+			while (length > 0) {
+				final int chunk = Math.min(length, maxChunkSize);
+				if (!enqueue(direction, continuation, chunk == length, timestamp, bytes, offset, chunk)) {
+					return;
+				}
+				offset += chunk;
+				length -= chunk;
+				continuation = true;
+			}
+		}
+	}
+
+	private boolean enqueue(Direction direction, boolean continuation, boolean last, long timestamp, byte[] bytes,
+			int offset, int length) {
+		final int recordSize = HEADER_SIZE + length;
+		synchronized (lock) {
+			if (closed || (continuation && entryDropped)) {
+				return false;
+			}
+			if (!continuation) {
+				enqueuingEntry = false;
+				entryDropped = false;
+			}
+			if (ring.length - size < recordSize && ring.length < capacity) {
+				grow(Math.min(capacity, Math.max(2 * ring.length, size + recordSize)));
+			}
+			if (ring.length - size < recordSize) {
+				switch (dropPolicy) {
+				case DROP_NEWEST:
+					droppedEntries++;
+					return false;
+				case DROP_OLDEST:
+					while (ring.length - size < recordSize) {
+						dropOldest();
+					}
+					if (continuation && entryDropped) {
+						return false;
+					}
+					break;
+				case BLOCK:
+					lock.notifyAll();
+					while (!closed && ring.length - size < recordSize) {
+						try {
+							lock.wait();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							droppedEntries++;
+							return false;
+						}
+					}
+					if (closed) {
+						return false;
+					}
+					break;
+				}
+			}
+			header[0] = (byte) (direction.ordinal() | (continuation ? CONTINUATION_FLAG : 0));
+			for (int i = 0; i < 8; i++) {
+				header[1 + i] = (byte) (timestamp >>> (56 - 8 * i));
+			}
+			for (int i = 0; i < 4; i++) {
+				header[9 + i] = (byte) (length >>> (24 - 8 * i));
+			}
+			put(header, 0, HEADER_SIZE);
+			put(bytes, offset, length);
+			enqueuingEntry = !last;
+			if (size > ring.length / 2) {
+				lock.notifyAll();
+			}
+			return true;
+		}
+	}
+
+	private void grow(int length) {
+		final var grown = new byte[length];
+		final int firstPart = Math.min(size, ring.length - head);
+		System.arraycopy(ring, head, grown, 0, firstPart);
+		System.arraycopy(ring, 0, grown, firstPart, size - firstPart);
+		ring = grown;
+		head = 0;
+	}
+
+	private void put(byte[] bytes, int offset, int length) {
+		final int tail = (head + size) % ring.length;
+		final int firstPart = Math.min(length, ring.length - tail);
+		System.arraycopy(bytes, offset, ring, tail, firstPart);
+		System.arraycopy(bytes, offset + firstPart, ring, 0, length - firstPart);
+		size += length;
+	}
+
+	/**
+	 * Drops the oldest entry of the buffer, with all its chunks.
+	 */
+	private void dropOldest() {
+		do {
+			int length = 0;
+			for (int i = 0; i < 4; i++) {
+				length = (length << 8) | (ring[(head + 9 + i) % ring.length] & 0xFF);
+			}
+			final int recordSize = HEADER_SIZE + length;
+			head = (head + recordSize) % ring.length;
+			size -= recordSize;
+		} while (size > 0 && (ring[head] & CONTINUATION_FLAG) != 0);
+		droppedEntries++;
+		if (size == 0 && enqueuingEntry) {
+			// the remaining chunks of the entry being enqueued would be orphans
+			entryDropped = true;
+			enqueuingEntry = false;
+		}
+	}
+
+	private void drainLoop() {
+		boolean stop = false;
+		while (!stop) {
+			final int length;
+			final long dropped;
+			synchronized (lock) {
+				if (!closed && size <= ring.length / 2) {
+					try {
+						lock.wait(FLUSH_INTERVAL_MS);
+					} catch (InterruptedException e) {
+						closed = true;
+					}
+				}
+				if (batch.length < size) {
+					batch = new byte[ring.length];
+				}
+				length = size;
+				final int firstPart = Math.min(size, ring.length - head);
+				System.arraycopy(ring, head, batch, 0, firstPart);
+				System.arraycopy(ring, 0, batch, firstPart, size - firstPart);
+				head = 0;
+				size = 0;
+				dropped = droppedEntries;
+				droppedEntries = 0;
+				stop = closed;
+				lock.notifyAll();
+			}
+			if (length > 0 || dropped > 0) {
+				try {
+					sink.accept(format(length, dropped));
+				} catch (RuntimeException e) {
+					LanguageServerPlugin.logError(e);
+				}
+			}
+		}
+	}
+
+	private ByteArrayOutputStream format(int length, long dropped) {
+		formatted.reset();
+		if (dropped > 0) {
+			appendHeader(System.currentTimeMillis(), "LOG_BUFFER_FULL"); //$NON-NLS-1$
+			formatted.writeBytes((dropped + " log entries dropped").getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+			lastDirection = null;
+		}
+		int position = 0;
+		while (position < length) {
+			final int flags = batch[position] & 0xFF;
+			long timestamp = 0;
+			for (int i = 0; i < 8; i++) {
+				timestamp = (timestamp << 8) | (batch[position + 1 + i] & 0xFF);
+			}
+			int payloadLength = 0;
+			for (int i = 0; i < 4; i++) {
+				payloadLength = (payloadLength << 8) | (batch[position + 9 + i] & 0xFF);
+			}
+			final Direction direction = DIRECTIONS[flags & ~CONTINUATION_FLAG];
+			if ((flags & CONTINUATION_FLAG) == 0 || direction != lastDirection) {
+				appendHeader(timestamp, direction.toString());
+			}
+			formatted.write(batch, position + HEADER_SIZE, payloadLength);
+			lastDirection = direction;
+			position += HEADER_SIZE + payloadLength;
+		}
+		return formatted;
+	}
+
+	private void appendHeader(long timestamp, String direction) {
+		final String now = OffsetDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()).toString();
+		formatted.writeBytes(("\n[" + now + "] " + direction + ' ' + serverId + ":\n").getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Stops accepting entries, and waits for the pending ones to be written.
+	 */
+	void close() {
+		synchronized (lock) {
+			closed = true;
+			lock.notifyAll();
+		}
+		try {
+			writer.join(CLOSE_TIMEOUT_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -15,7 +15,7 @@
 
 import java.io.File;
 import java.net.URI;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Map;
@@ -28,7 +28,6 @@
 import org.eclipse.core.filebuffers.IFileBuffer;
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileStore;
-import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
@@ -54,6 +53,7 @@
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.MessageType;
 import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SaveOptions;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
@@ -78,8 +78,38 @@ final class DocumentContentSynchronizer implements IDocumentListener {
 	private final @NonNull URI fileUri;
 	private final TextDocumentSyncKind syncKind;
 
+	/**
+	 * Quiet period after the last document change before the pending
+	 * incremental changes get sent to the language server, unless a message
+	 * flushes them earlier.
+	 */
+	private static final long DID_CHANGE_COALESCING_DELAY_MS = 50;
+
+	/**
+	 * Quiet period after the last document change before the full text of
+	 * the document gets sent, with {@link TextDocumentSyncKind#Full}.
+	 */
+	private static final long FULL_SYNC_QUIET_PERIOD_MS = 200;
+
 	private int version = 0;
-	private DidChangeTextDocumentParams changeParams;
+	/**
+	 * Content changes not yet sent to the language server. They are merged into
+	 * a single <code>textDocument/didChange</code> notification, sent either
+	 * after the document has been quiet for {@link #DID_CHANGE_COALESCING_DELAY_MS}
+	 * or right before the next message is dispatched to the language server,
+	 * whichever comes first.
+	 */
+	private final List<TextDocumentContentChangeEvent> pendingChanges = new ArrayList<>();
+	/**
+	 * With {@link TextDocumentSyncKind#Full}, counts the document changes being
+	 * applied, the applied ones, and the ones included in a full text snapshot
+	 * sent to the server.
+	 */
+	private long fullTextChangesStarted;
+	private long fullTextStamp;
+	private long fullTextSentStamp;
+	private long lastChangeTime;
+	private boolean flushScheduled;
 	private long openSaveStamp;
 	private IPreferenceStore store;
 	private IFormatRegionsProvider formatRegionsProvider;
@@ -145,16 +175,19 @@ public DocumentContentSynchronizer(@NonNull LanguageServerWrapper languageServer
 	public void documentChanged(DocumentEvent event) {
 		checkEvent(event);
 		if (syncKind == TextDocumentSyncKind.Full) {
-			createChangeEvent(event);
-		}
-
-		if (changeParams != null) {
-			final DidChangeTextDocumentParams changeParamsToSend = changeParams;
-			changeParams = null;
-
-			changeParamsToSend.getTextDocument().setVersion(++version);
-			languageServerWrapper.sendNotification(ls -> ls.getTextDocumentService().didChange(changeParamsToSend));
+			// latest snapshot wins: the text is only read once the document has been quiet for a while,
+			// or when a message needs the server to be up to date
+			synchronized (pendingChanges) {
+				if (fullTextStamp == fullTextSentStamp) {
+					languageServerWrapper.documentChangesPending(this);
+				}
+				fullTextStamp++;
+				// e.g. connected while the change was being applied
+				fullTextChangesStarted = Math.max(fullTextChangesStarted, fullTextStamp);
+				lastChangeTime = System.currentTimeMillis();
+			}
 		}
+		scheduleFlush();
 	}
 
 	@Override
@@ -163,53 +196,148 @@ public void documentAboutToBeChanged(DocumentEvent event) {
 		if (syncKind == TextDocumentSyncKind.Incremental) {
 			// this really needs to happen before event gets actually
 			// applied, to properly compute positions
-			createChangeEvent(event);
+			addPendingChange(createChangeEvent(event));
+		} else if (syncKind == TextDocumentSyncKind.Full) {
+			synchronized (pendingChanges) {
+				fullTextChangesStarted++;
+			}
 		}
 	}
 
 	/**
-	 * Convert Eclipse {@link DocumentEvent} to LS according
-	 * {@link TextDocumentSyncKind}. {@link TextDocumentContentChangeEventImpl}.
+	 * Convert Eclipse {@link DocumentEvent} to an incremental LS
+	 * {@link TextDocumentContentChangeEvent}.
 	 *
 	 * @param event
 	 *            Eclipse {@link DocumentEvent}
-	 * @return true if change event is ready to be sent
+	 * @return the change event to send
 	 */
-	private boolean createChangeEvent(DocumentEvent event) {
-		Assert.isTrue(changeParams == null);
-		changeParams = new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier(),
-				Collections.singletonList(new TextDocumentContentChangeEvent()));
-		changeParams.getTextDocument().setUri(fileUri.toASCIIString());
-
+	private TextDocumentContentChangeEvent createChangeEvent(DocumentEvent event) {
 		IDocument document = event.getDocument();
-		TextDocumentContentChangeEvent changeEvent = null;
-		TextDocumentSyncKind syncKind = getTextDocumentSyncKind();
-		switch (syncKind) {
-		case None:
-			return false;
-		case Full:
-			changeParams.getContentChanges().get(0).setText(event.getDocument().get());
-			break;
-		case Incremental:
-			changeEvent = changeParams.getContentChanges().get(0);
-			String newText = event.getText();
-			int offset = event.getOffset();
-			int length = event.getLength();
-			try {
-				// try to convert the Eclipse start/end offset to LS range.
-				final var range = new Range(LSPEclipseUtils.toPosition(offset, document),
-						LSPEclipseUtils.toPosition(offset + length, document));
-				changeEvent.setRange(range);
-				changeEvent.setText(newText);
-				changeEvent.setRangeLength(length);
-			} catch (BadLocationException e) {
-				// error while conversion (should never occur)
-				// set the full document text as changes.
-				changeEvent.setText(document.get());
+		final var changeEvent = new TextDocumentContentChangeEvent();
+		String newText = event.getText();
+		int offset = event.getOffset();
+		int length = event.getLength();
+		try {
+			// try to convert the Eclipse start/end offset to LS range.
+			final var range = new Range(LSPEclipseUtils.toPosition(offset, document),
+					LSPEclipseUtils.toPosition(offset + length, document));
+			changeEvent.setRange(range);
+			changeEvent.setText(newText);
+			changeEvent.setRangeLength(length);
+		} catch (BadLocationException e) {
+			// error while conversion (should never occur)
+			// set the full document text as changes.
+			changeEvent.setText(document.get());
+		}
+		return changeEvent;
+	}
+
+	private void addPendingChange(TextDocumentContentChangeEvent changeEvent) {
+		synchronized (pendingChanges) {
+			if (pendingChanges.isEmpty()) {
+				languageServerWrapper.documentChangesPending(this);
+			}
+			pendingChanges.add(changeEvent);
+			lastChangeTime = System.currentTimeMillis();
+		}
+	}
+
+	private long getQuietPeriod() {
+		return syncKind == TextDocumentSyncKind.Full ? FULL_SYNC_QUIET_PERIOD_MS : DID_CHANGE_COALESCING_DELAY_MS;
+	}
+
+	private void scheduleFlush() {
+		synchronized (pendingChanges) {
+			if (flushScheduled || !hasPendingChanges()) {
+				return;
+			}
+			flushScheduled = true;
+		}
+		scheduleFlush(getQuietPeriod());
+	}
+
+	private void scheduleFlush(long delay) {
+		CompletableFuture.runAsync(this::flushWhenQuiet,
+				CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+	}
+
+	private void flushWhenQuiet() {
+		synchronized (pendingChanges) {
+			long remaining = lastChangeTime + getQuietPeriod() - System.currentTimeMillis();
+			if (remaining > 0 && hasPendingChanges()) {
+				// the document was modified since the flush got scheduled
+				scheduleFlush(remaining);
+				return;
+			}
+		}
+		flushPendingChanges();
+	}
+
+	private boolean hasPendingChanges() {
+		return !pendingChanges.isEmpty() || fullTextStamp != fullTextSentStamp;
+	}
+
+	/**
+	 * Sends all pending content changes to the language server as a single
+	 * <code>textDocument/didChange</code> notification. The changes are listed in
+	 * the order they were applied to the document, so the server reaches the same
+	 * state as if they had been sent one by one, and the version only gets bumped
+	 * once per notification. With {@link TextDocumentSyncKind#Full}, only the
+	 * current content of the document is sent.
+	 */
+	void flushPendingChanges() {
+		if (syncKind == TextDocumentSyncKind.Full) {
+			flushFullText();
+			return;
+		}
+		synchronized (pendingChanges) {
+			flushScheduled = false;
+			if (pendingChanges.isEmpty()) {
+				return;
+			}
+			sendDidChange(new ArrayList<>(pendingChanges));
+			pendingChanges.clear();
+			languageServerWrapper.documentChangesFlushed(this);
+		}
+	}
+
+	private void flushFullText() {
+		while (true) {
+			final long stamp;
+			synchronized (pendingChanges) {
+				flushScheduled = false;
+				if (fullTextStamp == fullTextSentStamp || fullTextChangesStarted != fullTextStamp) {
+					// nothing to send, or a change being applied, which schedules a flush once applied
+					return;
+				}
+				stamp = fullTextStamp;
+			}
+			// The document must not be read while holding the lock: document listeners, and so this
+			// synchronizer, get notified while the document lock is held
+			final String text = document.get();
+			synchronized (pendingChanges) {
+				if (stamp <= fullTextSentStamp) {
+					// a concurrent flush already sent this snapshot or a more recent one
+					return;
+				}
+				if (fullTextChangesStarted == stamp) {
+					fullTextSentStamp = stamp;
+					sendDidChange(List.of(new TextDocumentContentChangeEvent(text)));
+					languageServerWrapper.documentChangesFlushed(this);
+					return;
+				}
 			}
-			break;
+			// modified while being read, read it again
 		}
-		return true;
+	}
+
+	private void sendDidChange(List<TextDocumentContentChangeEvent> changes) {
+		final var changeParams = new DidChangeTextDocumentParams(
+				new VersionedTextDocumentIdentifier(fileUri.toASCIIString(), ++version), changes);
+		// enqueued while holding the lock so that concurrent flushes can't reorder notifications
+		languageServerWrapper.enqueueNotification(ls -> ls.getTextDocumentService().didChange(changeParams));
+		languageServerWrapper.documentChangesSent(fileUri);
 	}
 
 	private boolean serverSupportsWillSaveWaitUntil() {
@@ -262,7 +390,7 @@ public void documentAboutToBeSaved() {
 
 
 		try {
-			List<TextEdit> edits = languageServerWrapper.executeImpl(ls -> ls.getTextDocumentService().willSaveWaitUntil(params))
+			List<TextEdit> edits = languageServerWrapper.executeImpl(ls -> ls.getTextDocumentService().willSaveWaitUntil(params), RequestPriority.INTERACTIVE)
 				.get(lsToWillSaveWaitUntilTimeout(), TimeUnit.SECONDS);
 			try {
 				LSPEclipseUtils.applyEdits(document, edits);
@@ -356,27 +484,35 @@ public void documentSaved(IFileBuffer buffer) {
 			return;
 		}
 		this.openSaveStamp = buffer.getModificationStamp();
+		boolean includeText = false;
 		ServerCapabilities serverCapabilities = languageServerWrapper.getServerCapabilities();
 		if (serverCapabilities != null) {
 			Either<TextDocumentSyncKind, TextDocumentSyncOptions> textDocumentSync = serverCapabilities
 					.getTextDocumentSync();
-			if (textDocumentSync.isRight() && textDocumentSync.getRight().getSave() == null) {
-				return;
+			if (textDocumentSync.isRight()) {
+				Either<Boolean, SaveOptions> save = textDocumentSync.getRight().getSave();
+				if (save == null || (save.isLeft() && !Boolean.TRUE.equals(save.getLeft()))) {
+					return;
+				}
+				includeText = save.isRight() && Boolean.TRUE.equals(save.getRight().getIncludeText());
 			}
 		}
 		final var identifier = LSPEclipseUtils.toTextDocumentIdentifier(fileUri);
-		final var params = new DidSaveTextDocumentParams(identifier, document.get());
+		// only copy the document content when the server asked for it
+		final var params = new DidSaveTextDocumentParams(identifier, includeText ? document.get() : null);
 
 		languageServerWrapper.sendNotification(ls -> ls.getTextDocumentService().didSave(params));
-
+		languageServerWrapper.documentSaveSent(fileUri);
 	}
 
 	public CompletableFuture<Void> documentClosed() {
-	   final var identifier = LSPEclipseUtils.toTextDocumentIdentifier(fileUri);
+		final var identifier = LSPEclipseUtils.toTextDocumentIdentifier(fileUri);
 		WILL_SAVE_WAIT_UNTIL_TIMEOUT_MAP.remove(identifier.getUri());
 		// When LS is shut down all documents are being disconnected. No need to send
 		// "didClose" message to the LS that is being shut down or not yet started
 		if (languageServerWrapper.isActive()) {
+			// this synchronizer is already disconnected, so the wrapper won't flush its changes anymore
+			flushPendingChanges();
 			final var params = new DidCloseTextDocumentParams(identifier);
 			languageServerWrapper.sendNotification(ls -> ls.getTextDocumentService().didClose(params));
 		}
@@ -399,7 +535,11 @@ public IDocument getDocument() {
 	}
 
 	int getVersion() {
-		return version;
+		// the version must match what was sent to the server so far
+		flushPendingChanges();
+		synchronized (pendingChanges) {
+			return version;
+		}
 	}
 
 	private void checkEvent(DocumentEvent event) {
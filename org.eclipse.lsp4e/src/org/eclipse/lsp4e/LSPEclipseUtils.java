@@ -89,6 +89,7 @@
 import org.eclipse.jface.text.TextSelection;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.ISelectionProvider;
+import org.eclipse.lsp4e.internal.LineOffsetIndex;
 import org.eclipse.lsp4e.refactoring.CreateFileChange;
 import org.eclipse.lsp4e.refactoring.DeleteExternalFile;
 import org.eclipse.lsp4e.refactoring.LSPTextChange;
@@ -189,6 +190,11 @@ private LSPEclipseUtils() {
 	}
 
 	public static @NonNull Position toPosition(int offset, IDocument document) throws BadLocationException {
+		final LineOffsetIndex index = LineOffsetIndex.get(document);
+		if (index != null) {
+			final int line = index.toLine(document, offset);
+			return new Position(line, offset - index.toOffset(document, line, 0));
+		}
 		final var res = new Position();
 		res.setLine(document.getLineOfOffset(offset));
 		res.setCharacter(offset - document.getLineInformationOfOffset(offset).getOffset());
@@ -196,6 +202,10 @@ private LSPEclipseUtils() {
 	}
 
 	public static int toOffset(Position position, IDocument document) throws BadLocationException {
+		final LineOffsetIndex index = LineOffsetIndex.get(document);
+		if (index != null) {
+			return index.toOffset(document, position.getLine(), position.getCharacter());
+		}
 		var line = position.getLine();
 		var character = position.getCharacter();
 
@@ -221,6 +231,70 @@ private static int getLineLength(IDocument document, int line) throws BadLocatio
 		return Math.max(0, document.getLineLength(line));
 	}
 
+	/**
+	 * Converts the given positions to offsets, as {@link #toOffset(Position, IDocument)}, computing the offsets
+	 * of the document lines at most once when the document has a connected {@link LineOffsetIndex}.
+	 *
+	 * @return the offsets of the positions, in the same order
+	 */
+	public static int[] toOffsets(List<Position> positions, IDocument document) throws BadLocationException {
+		final LineOffsetIndex index = LineOffsetIndex.get(document);
+		if (index == null) {
+			final var offsets = new int[positions.size()];
+			for (int i = 0; i < offsets.length; i++) {
+				offsets[i] = toOffset(positions.get(i), document);
+			}
+			return offsets;
+		}
+		final var lines = new int[positions.size()];
+		final var characters = new int[positions.size()];
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = positions.get(i).getLine();
+			characters[i] = positions.get(i).getCharacter();
+		}
+		return index.toOffsets(document, lines, characters);
+	}
+
+	/**
+	 * Converts the given ranges to offsets, as {@link #toOffsets(List, IDocument)}.
+	 *
+	 * @return the start and end offsets of the ranges: <code>offsets[2 * i]</code> and
+	 *         <code>offsets[2 * i + 1]</code> for the range <code>i</code>
+	 */
+	public static int[] toRangeOffsets(List<Range> ranges, IDocument document) throws BadLocationException {
+		final var positions = new ArrayList<Position>(ranges.size() * 2);
+		for (Range range : ranges) {
+			positions.add(range.getStart());
+			positions.add(range.getEnd());
+		}
+		return toOffsets(positions, document);
+	}
+
+	/**
+	 * Converts the given offsets to positions, as {@link #toPosition(int, IDocument)}. When the document has a
+	 * connected {@link LineOffsetIndex}, converting offsets in ascending order is linear in the number of
+	 * offsets and lines they span.
+	 *
+	 * @return the positions of the offsets, in the same order
+	 */
+	public static Position[] toPositions(int[] offsets, IDocument document) throws BadLocationException {
+		final var positions = new Position[offsets.length];
+		final LineOffsetIndex index = LineOffsetIndex.get(document);
+		if (index == null) {
+			for (int i = 0; i < offsets.length; i++) {
+				positions[i] = toPosition(offsets[i], document);
+			}
+			return positions;
+		}
+		final var lines = new int[offsets.length];
+		final var characters = new int[offsets.length];
+		index.toLinesAndCharacters(document, offsets, lines, characters);
+		for (int i = 0; i < offsets.length; i++) {
+			positions[i] = new Position(lines[i], characters[i]);
+		}
+		return positions;
+	}
+
 	public static boolean isOffsetInRange(int offset, Range range, IDocument document) {
 		try {
 			return offset != -1 && offset >= toOffset(range.getStart(), document)
@@ -514,6 +588,11 @@ public static void applyEdit(TextEdit textEdit, IDocument document) throws BadLo
 	/**
 	 * Method will apply all edits to document as single modification. Needs to
 	 * be executed in UI thread.
+	 * <p>
+	 * The edits are sorted once by offset, and the edits that wouldn't change the document are skipped. The
+	 * remaining edits are performed one by one in a single rewrite session, so that the positions and markers
+	 * outside the replaced ranges are kept.
+	 * </p>
 	 *
 	 * @param document
 	 *            document to modify
@@ -526,40 +605,47 @@ public static void applyEdits(IDocument document, List<? extends TextEdit> edits
 			return;
 		}
 
-		final var edit = new MultiTextEdit();
-		for (TextEdit textEdit : edits) {
-			if (textEdit != null) {
-				int offset = toOffset(textEdit.getRange().getStart(), document);
-				int length = toOffset(textEdit.getRange().getEnd(), document) - offset;
-				if (length < 0) {
-					// Must be a bad location: we bail out to avoid corrupting the document.
-					throw new BadLocationException("Invalid location information found applying edits"); //$NON-NLS-1$
-				}
-				// check if that edit would actually change the document
-				var newText = textEdit.getNewText();
-				if (!document.get(offset, length).equals(newText)) {
-					if (newText.length() > 0) {
-						var zeroBasedDocumentLines = Math.max(0, document.getNumberOfLines() - 1);
-						var endLine = textEdit.getRange().getEnd().getLine();
-						endLine = endLine > zeroBasedDocumentLines ? zeroBasedDocumentLines : endLine;
-						// Do not split "\r\n" line ending:
-						if ("\r\n".equals(document.getLineDelimiter(endLine))) { //$NON-NLS-1$;
-							// if last char in the newText is a carriage return:
-							if ('\r' == newText.charAt(newText.length()-1) && offset + length < document.getLength()) {
-								// replace the whole line:
-								newText = newText + '\n';
-								length++;
-							}
-						}
+		final List<? extends TextEdit> textEdits = edits.stream().filter(Objects::nonNull).toList();
+		final int[] offsets = toRangeOffsets(textEdits.stream().map(TextEdit::getRange).toList(), document);
+		final int documentLength = document.getLength();
+		final var replaceEdits = new ArrayList<ReplaceEdit>(textEdits.size());
+		for (int i = 0; i < textEdits.size(); i++) {
+			final TextEdit textEdit = textEdits.get(i);
+			int offset = offsets[2 * i];
+			int length = offsets[2 * i + 1] - offset;
+			if (length < 0) {
+				// Must be a bad location: we bail out to avoid corrupting the document.
+				throw new BadLocationException("Invalid location information found applying edits"); //$NON-NLS-1$
+			}
+			// check if that edit would actually change the document
+			var newText = textEdit.getNewText();
+			if (!contentEquals(document, offset, length, newText)) {
+				// if last char in the newText is a carriage return:
+				if (!newText.isEmpty() && '\r' == newText.charAt(newText.length() - 1) && offset + length < documentLength) {
+					var zeroBasedDocumentLines = Math.max(0, document.getNumberOfLines() - 1);
+					var endLine = Math.min(textEdit.getRange().getEnd().getLine(), zeroBasedDocumentLines);
+					// Do not split "\r\n" line ending:
+					if ("\r\n".equals(document.getLineDelimiter(endLine))) { //$NON-NLS-1$;
+						// replace the whole line:
+						newText = newText + '\n';
+						length++;
 					}
-					edit.addChild(new ReplaceEdit(offset, length, newText));
 				}
+				replaceEdits.add(new ReplaceEdit(offset, length, newText));
 			}
 		}
 
-		if(!edit.hasChildren())
+		if (replaceEdits.isEmpty())
 			return;
 
+		// Ordered as MultiTextEdit orders its children: the insertions at an offset precede the replacement
+		// starting there, and keep their order (stable sort). Sorted edits get appended to the MultiTextEdit,
+		// instead of being inserted in the middle of its children.
+		replaceEdits.sort(Comparator.comparingInt(ReplaceEdit::getOffset)
+				.thenComparingInt(replaceEdit -> replaceEdit.getLength() == 0 ? 0 : 1));
+		final var edit = new MultiTextEdit();
+		replaceEdits.forEach(edit::addChild);
+
 		IDocumentUndoManager manager = DocumentUndoManagerRegistry.getDocumentUndoManager(document);
 		if (manager != null) {
 			manager.beginCompoundChange();
@@ -576,6 +662,26 @@ public static void applyEdits(IDocument document, List<? extends TextEdit> edits
 		}
 	}
 
+	/**
+	 * @return whether the document contains the given text at the given offset, without copying the content
+	 *         of the document
+	 */
+	private static boolean contentEquals(IDocument document, int offset, int length, String text)
+			throws BadLocationException {
+		if (length != text.length()) {
+			return false;
+		}
+		if (offset + length > document.getLength()) {
+			throw new BadLocationException();
+		}
+		for (int i = 0; i < length; i++) {
+			if (document.getChar(offset + i) != text.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Nullable
 	public static IDocument getDocument(@Nullable IResource resource) {
 		if (resource == null) {
@@ -115,6 +115,9 @@ public CompletableFuture<Void> createProgress(final WorkDoneProgressCreateParams
 	@SuppressWarnings("null")
 	@Override
 	public void notifyProgress(final ProgressParams params) {
+		if (wrapper != null && wrapper.notifyPartialResult(params)) {
+			return;
+		}
 		progressManager.notifyProgress(params);
 	}
 
@@ -186,6 +189,15 @@ public CompletableFuture<Void> refreshCodeLenses() {
 		return CompletableFuture.runAsync(() -> UI.getDisplay().syncExec(this::updateCodeMinings));
 	}
 
+	@Override
+	public CompletableFuture<Void> refreshDiagnostics() {
+		final LanguageServerWrapper wrapper = this.wrapper;
+		if (wrapper == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return CompletableFuture.runAsync(wrapper::refreshDiagnostics);
+	}
+
 	@Override
 	public CompletableFuture<Void> refreshInlayHints() {
 		return CompletableFuture.runAsync(() -> UI.getDisplay().syncExec(this::updateCodeMinings));
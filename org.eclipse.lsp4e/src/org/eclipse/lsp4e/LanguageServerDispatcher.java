@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Dispatches the messages sent to a language server, on a single thread, using separate lanes:
+ * <ul>
+ * <li>notifications (document synchronization...) are dispatched in strict order,</li>
+ * <li>{@link RequestPriority#INTERACTIVE} requests are dispatched before the
+ * {@link RequestPriority#BACKGROUND} ones waiting to be dispatched.</li>
+ * </ul>
+ * Notifications act as barriers: requests are only reordered among the requests enqueued between the
+ * same two notifications, so a request never overtakes a previous <code>didChange</code>, and is never
+ * overtaken by a later one.
+ */
+final class LanguageServerDispatcher {
+
+	/**
+	 * Messages enqueued between two notifications, and the notification closing that segment.
+	 */
+	private static final class Segment {
+		final ArrayDeque<Runnable> interactive = new ArrayDeque<>();
+		final ArrayDeque<Runnable> background = new ArrayDeque<>();
+		@Nullable Runnable notification;
+
+		@Nullable Runnable poll() {
+			Runnable next = interactive.poll();
+			if (next == null) {
+				next = background.poll();
+			}
+			return next;
+		}
+	}
+
+	private final ExecutorService thread;
+	private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+	private final Executor notifications = this::enqueueNotification;
+	private final Executor interactiveRequests = r -> enqueueRequest(r, RequestPriority.INTERACTIVE);
+	private final Executor backgroundRequests = r -> enqueueRequest(r, RequestPriority.BACKGROUND);
+
+	LanguageServerDispatcher(@NonNull ThreadFactory threadFactory) {
+		this.thread = Executors.newSingleThreadExecutor(threadFactory);
+	}
+
+	/**
+	 * @return executor dispatching notifications in strict order
+	 */
+	@NonNull Executor notifications() {
+		return notifications;
+	}
+
+	/**
+	 * @return executor dispatching requests of the given priority
+	 */
+	@NonNull Executor requests(@NonNull RequestPriority priority) {
+		return priority == RequestPriority.BACKGROUND ? backgroundRequests : interactiveRequests;
+	}
+
+	private void enqueueNotification(Runnable notification) {
+		synchronized (segments) {
+			Segment segment = segments.peekLast();
+			if (segment == null || segment.notification != null) {
+				segment = new Segment();
+				segments.add(segment);
+			}
+			segment.notification = notification;
+		}
+		// one task per enqueued message, each running whichever message is due first
+		thread.execute(this::dispatchNext);
+	}
+
+	private void enqueueRequest(Runnable request, RequestPriority priority) {
+		synchronized (segments) {
+			Segment segment = segments.peekLast();
+			if (segment == null || segment.notification != null) {
+				segment = new Segment();
+				segments.add(segment);
+			}
+			(priority == RequestPriority.BACKGROUND ? segment.background : segment.interactive).add(request);
+		}
+		thread.execute(this::dispatchNext);
+	}
+
+	private void dispatchNext() {
+		Runnable next = null;
+		synchronized (segments) {
+			Segment segment = segments.peek();
+			if (segment != null) {
+				next = segment.poll();
+				if (next == null) {
+					next = segment.notification;
+					if (next != null) {
+						segments.poll();
+					}
+				}
+			}
+		}
+		if (next != null) {
+			next.run();
+		}
+	}
+
+	void shutdownNow() {
+		thread.shutdownNow();
+		synchronized (segments) {
+			segments.clear();
+		}
+	}
+}
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.json.StreamMessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.messages.CancelParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+
+/**
+ * Latency and throughput metrics of the LSP traffic, per language server definition and per LSP method.
+ * <p>
+ * Metrics are collected for every started language server, and accumulate across restarts of the server
+ * until {@link #reset(String)} is called.
+ * </p>
+ */
+public final class LanguageServerMetrics {
+
+	private static final String CANCEL_METHOD = "$/cancelRequest"; //$NON-NLS-1$
+
+	private static final Map<String, Map<String, MethodMetrics>> METRICS = new ConcurrentHashMap<>();
+
+	/** When the message being sent by the current thread was issued by LSP4E, in nanoseconds */
+	private static final ThreadLocal<@Nullable Long> ISSUED_AT = new ThreadLocal<>();
+
+	private LanguageServerMetrics() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * @param serverId
+	 *            id of a language server definition
+	 * @return metrics of the LSP methods exchanged with the given language server, sorted by method
+	 */
+	public static @NonNull List<@NonNull MethodMetrics> getMetrics(@NonNull String serverId) {
+		final Map<String, MethodMetrics> metrics = METRICS.get(serverId);
+		if (metrics == null) {
+			return List.of();
+		}
+		return metrics.values().stream().sorted(Comparator.comparing(MethodMetrics::getMethod)).toList();
+	}
+
+	/**
+	 * Clears the metrics collected for the given language server. Requests in flight are still tracked.
+	 *
+	 * @param serverId
+	 *            id of a language server definition
+	 */
+	public static void reset(@NonNull String serverId) {
+		final Map<String, MethodMetrics> metrics = METRICS.get(serverId);
+		if (metrics != null) {
+			metrics.values().forEach(MethodMetrics::reset);
+		}
+	}
+
+	/**
+	 * Records that a request was debounced, LSP4E waiting for the document to be left unchanged before sending
+	 * it.
+	 *
+	 * @param serverId
+	 *            id of the language server definition the request is sent to
+	 * @param method
+	 *            the LSP method of the request
+	 * @param debounceNanos
+	 *            time waited, in nanoseconds
+	 * @param skippedVersions
+	 *            number of versions of the document changed during the wait, for which no request was sent
+	 */
+	public static void recordDebounce(@NonNull String serverId, @NonNull String method, long debounceNanos,
+			long skippedVersions) {
+		final MethodMetrics metrics = get(serverId, method);
+		metrics.debounceTime.record(debounceNanos);
+		metrics.skippedVersions.add(skippedVersions);
+	}
+
+	static @NonNull MethodMetrics get(@NonNull String serverId, @NonNull String method) {
+		return METRICS.computeIfAbsent(serverId, id -> new ConcurrentHashMap<>()) //
+				.computeIfAbsent(method, m -> new MethodMetrics(serverId, m));
+	}
+
+	/**
+	 * Runs the given code, which sends a message to a language server, accounting the time elapsed since
+	 * the message was issued as time spent in the queue.
+	 */
+	static <T> T dispatch(long issuedAt, Supplier<T> sender) {
+		ISSUED_AT.set(issuedAt);
+		try {
+			return sender.get();
+		} finally {
+			ISSUED_AT.remove();
+		}
+	}
+
+	/**
+	 * Collects the metrics of one connection to a language server.
+	 */
+	static final class Connection {
+
+		private record PendingRequest(MethodMetrics metrics, long sentAt) {
+		}
+
+		private final @NonNull String serverId;
+		private final Map<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+		// the requests cancelled while waiting for a response, which the server still sends
+		private final Map<String, MethodMetrics> cancelledRequests = new ConcurrentHashMap<>();
+		private @Nullable CountingInputStream input;
+		private @Nullable CountingOutputStream output;
+
+		Connection(@NonNull String serverId) {
+			this.serverId = serverId;
+		}
+
+		/**
+		 * @return the given stream, counting the bytes received from the language server
+		 */
+		InputStream count(InputStream stream) {
+			if (stream == null) {
+				return null;
+			}
+			final var counting = new CountingInputStream(stream);
+			this.input = counting;
+			return counting;
+		}
+
+		/**
+		 * @return the given stream, counting the bytes sent to the language server
+		 */
+		OutputStream count(OutputStream stream) {
+			if (stream == null) {
+				return null;
+			}
+			final var counting = new CountingOutputStream(stream);
+			this.output = counting;
+			return counting;
+		}
+
+		/**
+		 * @return a consumer measuring the messages passed to the given consumer, which is either
+		 *         the one writing to the language server, or the one handling the messages read from it.
+		 */
+		MessageConsumer wrap(MessageConsumer consumer) {
+			if (consumer instanceof StreamMessageConsumer) {
+				return message -> send(consumer, message);
+			}
+			return message -> receive(consumer, message);
+		}
+
+		private void send(MessageConsumer consumer, Message message) {
+			final long start = System.nanoTime();
+			MethodMetrics metrics = null;
+			if (message instanceof RequestMessage request) {
+				metrics = get(serverId, request.getMethod());
+				metrics.inFlight.incrementAndGet();
+				pendingRequests.put(request.getId(), new PendingRequest(metrics, start));
+			} else if (message instanceof NotificationMessage notification) {
+				metrics = get(serverId, notification.getMethod());
+				if (CANCEL_METHOD.equals(notification.getMethod()) && notification.getParams() instanceof CancelParams params) {
+					final PendingRequest cancelled = pendingRequests.remove(params.getId());
+					if (cancelled != null) {
+						cancelled.metrics.cancellations.increment();
+						cancelled.metrics.inFlight.decrementAndGet();
+						cancelledRequests.put(params.getId(), cancelled.metrics);
+					}
+				}
+			}
+			final CountingOutputStream counter = output;
+			final long written = counter != null ? counter.getCount() : 0;
+			consumer.consume(message);
+			if (metrics != null) {
+				metrics.sentMessages.increment();
+				if (counter != null) {
+					metrics.sentBytes.add(counter.getCount() - written);
+				}
+				final Long issuedAt = ISSUED_AT.get();
+				if (issuedAt != null) {
+					metrics.queueTime.record(start - issuedAt);
+				}
+			}
+		}
+
+		private void receive(MessageConsumer consumer, Message message) {
+			final long start = System.nanoTime();
+			final CountingInputStream counter = input;
+			final long size = counter != null ? counter.takeCount() : 0;
+			MethodMetrics metrics = null;
+			PendingRequest pending = null;
+			if (message instanceof ResponseMessage response) {
+				pending = pendingRequests.remove(response.getId());
+				if (pending != null) {
+					metrics = pending.metrics;
+					metrics.inFlight.decrementAndGet();
+					metrics.roundTripTime.record(start - pending.sentAt);
+					if (response.getError() != null) {
+						metrics.errors.increment();
+					}
+				} else {
+					// still received when the request was cancelled, but without a meaningful round trip
+					metrics = cancelledRequests.remove(response.getId());
+				}
+			} else if (message instanceof NotificationMessage notification) {
+				metrics = get(serverId, notification.getMethod());
+			} else if (message instanceof RequestMessage request) {
+				metrics = get(serverId, request.getMethod());
+			}
+			if (metrics != null) {
+				metrics.receivedMessages.increment();
+				metrics.receivedBytes.add(size);
+			}
+			consumer.consume(message);
+			if (pending != null) {
+				pending.metrics.deliveryTime.record(System.nanoTime() - start);
+			}
+		}
+
+		/**
+		 * Stops tracking the requests still waiting for a response, as the connection is closed.
+		 */
+		void close() {
+			pendingRequests.values().forEach(pending -> pending.metrics.inFlight.decrementAndGet());
+			pendingRequests.clear();
+			cancelledRequests.clear();
+		}
+	}
+
+	/**
+	 * Counts the bytes read since the last message was handled. Messages are read and handled
+	 * by a single thread, so the count needs no synchronization.
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		long takeCount() {
+			final long res = count;
+			count = 0;
+			return res;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final int res = super.read();
+			if (res != -1) {
+				count++;
+			}
+			return res;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			final int res = super.read(b, off, len);
+			if (res > 0) {
+				count += res;
+			}
+			return res;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			final long res = super.skip(n);
+			count += res;
+			return res;
+		}
+	}
+
+	/**
+	 * Counts the bytes written by each thread, so the size of a message is known to the thread writing it
+	 * even when other threads write to the language server concurrently.
+	 */
+	private static final class CountingOutputStream extends FilterOutputStream {
+
+		private final ThreadLocal<long[]> count = ThreadLocal.withInitial(() -> new long[1]);
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		long getCount() {
+			return count.get()[0];
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count.get()[0]++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count.get()[0] += len;
+		}
+	}
+
+}
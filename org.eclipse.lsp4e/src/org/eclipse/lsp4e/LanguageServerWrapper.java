@@ -27,10 +27,12 @@
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -71,12 +73,15 @@
 import org.eclipse.lsp4e.LanguageServersRegistry.LanguageServerDefinition;
 import org.eclipse.lsp4e.internal.CancellationUtil;
 import org.eclipse.lsp4e.internal.FileBufferListenerAdapter;
+import org.eclipse.lsp4e.internal.LineOffsetIndex;
 import org.eclipse.lsp4e.internal.SupportedFeatures;
+import org.eclipse.lsp4e.operations.diagnostics.DiagnosticsPuller;
 import org.eclipse.lsp4e.server.StreamConnectionProvider;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4j.ClientCapabilities;
 import org.eclipse.lsp4j.ClientInfo;
 import org.eclipse.lsp4j.CodeActionOptions;
+import org.eclipse.lsp4j.DiagnosticRegistrationOptions;
 import org.eclipse.lsp4j.DidChangeWorkspaceFoldersParams;
 import org.eclipse.lsp4j.DocumentFormattingOptions;
 import org.eclipse.lsp4j.DocumentRangeFormattingOptions;
@@ -84,6 +89,8 @@
 import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.InitializeResult;
 import org.eclipse.lsp4j.InitializedParams;
+import org.eclipse.lsp4j.ProgressParams;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Registration;
 import org.eclipse.lsp4j.RegistrationParams;
 import org.eclipse.lsp4j.SelectionRangeRegistrationOptions;
@@ -157,6 +164,7 @@ public void dirtyStateChanged(IFileBuffer buffer, boolean isDirty) {
 
 	protected StreamConnectionProvider lspStreamProvider;
 	private Future<?> launcherFuture;
+	private LanguageServerMetrics.@Nullable Connection metrics;
 	private CompletableFuture<Void> initializeFuture;
 	private final AtomicReference<IProgressMonitor> initializeFutureMonitorRef = new AtomicReference<>();
 	private final int initializeFutureNumberOfStages = 7;
@@ -167,7 +175,12 @@ public void dirtyStateChanged(IFileBuffer buffer, boolean isDirty) {
 	private TimerTask stopTimerTask;
 	private AtomicBoolean stopping = new AtomicBoolean(false);
 
-	private final ExecutorService dispatcher;
+	private final LanguageServerDispatcher dispatcher;
+
+	/**
+	 * Document synchronizers which may hold content changes not yet sent to the language server.
+	 */
+	private final Set<DocumentContentSynchronizer> synchronizersWithPendingChanges = ConcurrentHashMap.newKeySet();
 
 	private final ExecutorService listener;
 
@@ -177,6 +190,13 @@ public void dirtyStateChanged(IFileBuffer buffer, boolean isDirty) {
 	private final @NonNull Map<@NonNull String, @NonNull Runnable> dynamicRegistrations = new HashMap<>();
 	private boolean initiallySupportsWorkspaceFolders = false;
 	private final @NonNull IResourceChangeListener workspaceFolderUpdater = new WorkspaceFolderListener();
+	private final DiagnosticsPuller diagnosticsPuller = new DiagnosticsPuller(this, this::publishPulledDiagnostics,
+			() -> List.copyOf(connectedDocuments.keySet()));
+
+	/**
+	 * Consumers of the partial results of pending requests, by partial result token.
+	 */
+	private final Map<String, Consumer<Object>> partialResultConsumers = new ConcurrentHashMap<>();
 
 	/* Backwards compatible constructor */
 	public LanguageServerWrapper(@NonNull IProject project, @NonNull LanguageServerDefinition serverDefinition) {
@@ -196,8 +216,7 @@ private LanguageServerWrapper(@Nullable IProject project, @NonNull LanguageServe
 		this.connectedDocuments = new HashMap<>();
 		String projectName = (project != null && project.getName() != null && !serverDefinition.isSingleton) ? ("@" + project.getName()) : "";  //$NON-NLS-1$//$NON-NLS-2$
 		String dispatcherThreadNameFormat = "LS-" + serverDefinition.id + projectName + "#dispatcher"; //$NON-NLS-1$ //$NON-NLS-2$
-		this.dispatcher = Executors
-				.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat(dispatcherThreadNameFormat).build());
+		this.dispatcher = new LanguageServerDispatcher(new ThreadFactoryBuilder().setNameFormat(dispatcherThreadNameFormat).build());
 
 		// Executor service passed through to the LSP4j layer when we attempt to start the LS. It will be used
 		// to create a listener that sits on the input stream and processes inbound messages (responses, or server-initiated
@@ -290,6 +309,10 @@ private synchronized void start(boolean forceRestart) {
 				} else {
 					this.lspStreamProvider = serverDefinition.createConnectionProvider();
 				}
+				if (RecordingStreamConnectionProviderProxy.shouldRecord(serverDefinition.id)) {
+					this.lspStreamProvider = new RecordingStreamConnectionProviderProxy(this.lspStreamProvider,
+							serverDefinition.id);
+				}
 				initParams.setInitializationOptions(this.lspStreamProvider.getInitializationOptions(rootURI));
 				try {
 					lspStreamProvider.start();
@@ -308,20 +331,25 @@ private synchronized void start(boolean forceRestart) {
 					initParams.setRootPath(rootURI.getPath());
 				}
 
-				UnaryOperator<MessageConsumer> wrapper = consumer -> (message -> {
-					logMessage(message);
-					consumer.consume(message);
-					final StreamConnectionProvider currentConnectionProvider = this.lspStreamProvider;
-					if (currentConnectionProvider != null && isActive()) {
-						currentConnectionProvider.handleMessage(message, this.languageServer, rootURI);
-					}
-				});
+				final var connectionMetrics = new LanguageServerMetrics.Connection(serverDefinition.id);
+				this.metrics = connectionMetrics;
+				UnaryOperator<MessageConsumer> wrapper = consumer -> {
+					final MessageConsumer measuredConsumer = connectionMetrics.wrap(consumer);
+					return message -> {
+						logMessage(message);
+						measuredConsumer.consume(message);
+						final StreamConnectionProvider currentConnectionProvider = this.lspStreamProvider;
+						if (currentConnectionProvider != null && isActive()) {
+							currentConnectionProvider.handleMessage(message, this.languageServer, rootURI);
+						}
+					};
+				};
 				initParams.setWorkspaceFolders(getRelevantWorkspaceFolders());
 				Launcher<LanguageServer> launcher = serverDefinition.createLauncherBuilder() //
 						.setLocalService(languageClient)//
 						.setRemoteInterface(serverDefinition.getServerInterface())//
-						.setInput(lspStreamProvider.getInputStream())//
-						.setOutput(lspStreamProvider.getOutputStream())//
+						.setInput(connectionMetrics.count(lspStreamProvider.getInputStream()))//
+						.setOutput(connectionMetrics.count(lspStreamProvider.getOutputStream()))//
 						.setExecutorService(listener)//
 						.wrapMessages(wrapper)//
 						.create();
@@ -340,6 +368,7 @@ private synchronized void start(boolean forceRestart) {
 			}).thenRun(() -> {
 				advanceInitializeFutureMonitor();
 				this.languageServer.initialized(new InitializedParams());
+				diagnosticsPuller.setOptions(serverCapabilities.getDiagnosticProvider());
 			}).thenRun(() -> {
 				advanceInitializeFutureMonitor();
 				final Map<URI, IDocument> toReconnect = filesToReconnect;
@@ -538,6 +567,7 @@ public synchronized void stop() {
 
 		this.serverCapabilities = null;
 		this.dynamicRegistrations.clear();
+		this.diagnosticsPuller.stop();
 
 		final Future<?> serverFuture = this.launcherFuture;
 		final StreamConnectionProvider provider = this.lspStreamProvider;
@@ -574,6 +604,11 @@ public synchronized void stop() {
 
 		this.launcherFuture = null;
 		this.lspStreamProvider = null;
+		final LanguageServerMetrics.Connection connectionMetrics = this.metrics;
+		if (connectionMetrics != null) {
+			connectionMetrics.close();
+			this.metrics = null;
+		}
 
 		while (!this.connectedDocuments.isEmpty()) {
 			disconnect(this.connectedDocuments.keySet().iterator().next());
@@ -704,10 +739,13 @@ private boolean supportsWorkspaceFolderCapability() {
 				}
 				TextDocumentSyncKind syncKind = initializeFuture == null ? null
 						: serverCapabilities.getTextDocumentSync().map(Functions.identity(), TextDocumentSyncOptions::getChange);
+				// connected first, so the index gets notified of the changes before the listeners converting positions
+				LineOffsetIndex.connect(theDocument);
 				final var listener = new DocumentContentSynchronizer(this, languageServer, theDocument, syncKind);
 				theDocument.addPrenotifiedDocumentListener(listener);
 				LanguageServerWrapper.this.connectedDocuments.put(uri, listener);
 			}
+			diagnosticsPuller.documentConnected(uri);
 		}).thenApply(theVoid -> this);
 	}
 
@@ -720,6 +758,8 @@ public CompletableFuture<Void> disconnect(URI uri) {
 		CompletableFuture<Void> documentClosedFuture = null;
 		if (documentListener != null) {
 			documentListener.getDocument().removePrenotifiedDocumentListener(documentListener);
+			LineOffsetIndex.disconnect(documentListener.getDocument());
+			diagnosticsPuller.documentDisconnected(uri);
 			documentClosedFuture = documentListener.documentClosed();
 		}
 		if (this.connectedDocuments.isEmpty()) {
@@ -796,10 +836,113 @@ protected CompletableFuture<LanguageServer> getInitializedServer() {
 	 * @param fn LS notification to send
 	 */
 	public void sendNotification(@NonNull Consumer<LanguageServer> fn) {
+		flushPendingDocumentChanges();
+		enqueueNotification(fn);
+	}
+
+	/**
+	 * Enqueues a notification on the dispatch thread associated with the wrapped language server, without
+	 * flushing the pending document changes first.
+	 */
+	void enqueueNotification(@NonNull Consumer<LanguageServer> fn) {
 		// Enqueues a notification on the dispatch thread associated with the wrapped language server. This
 		// ensures the interleaving of document updates and other requests in the UI is mirrored in the
 		// order in which they get dispatched to the server
-		getInitializedServer().thenAcceptAsync(fn, this.dispatcher);
+		final long issuedAt = System.nanoTime();
+		getInitializedServer().thenAcceptAsync(ls -> LanguageServerMetrics.dispatch(issuedAt, () -> {
+			fn.accept(ls);
+			return null;
+		}), this.dispatcher.notifications());
+	}
+
+	/**
+	 * Registers a document synchronizer holding content changes that must be sent to the language server
+	 * before any further message.
+	 */
+	void documentChangesPending(@NonNull DocumentContentSynchronizer synchronizer) {
+		synchronizersWithPendingChanges.add(synchronizer);
+	}
+
+	/**
+	 * Unregisters a document synchronizer whose content changes were all enqueued. Called only once the
+	 * notification is enqueued, so that a concurrent {@link #flushPendingDocumentChanges()} waits for it.
+	 */
+	void documentChangesFlushed(@NonNull DocumentContentSynchronizer synchronizer) {
+		synchronizersWithPendingChanges.remove(synchronizer);
+	}
+
+	/**
+	 * Called once the changes of a connected document were sent to the language server.
+	 */
+	void documentChangesSent(@NonNull URI uri) {
+		diagnosticsPuller.documentChanged(uri);
+	}
+
+	/**
+	 * Called once the save of a connected document was notified to the language server.
+	 */
+	void documentSaveSent(@NonNull URI uri) {
+		diagnosticsPuller.documentSaved(uri);
+	}
+
+	/**
+	 * Pulls the diagnostics of the documents again, if the language server supports pulling them.
+	 */
+	void refreshDiagnostics() {
+		diagnosticsPuller.refresh();
+	}
+
+	/**
+	 * Registers a consumer of the partial results reported with the given token, until it's removed.
+	 *
+	 * @param token
+	 *            the partial result token of a request
+	 * @param consumer
+	 *            the consumer of the values of the partial results, usually {@link com.google.gson.JsonElement}s
+	 */
+	public void addPartialResultConsumer(@NonNull String token, @NonNull Consumer<Object> consumer) {
+		partialResultConsumers.put(token, consumer);
+	}
+
+	public void removePartialResultConsumer(@NonNull String token) {
+		partialResultConsumers.remove(token);
+	}
+
+	/**
+	 * @return whether the progress notification is a partial result of a pending request or of a diagnostics
+	 *         pull, then applied
+	 */
+	boolean notifyPartialResult(@NonNull ProgressParams params) {
+		final Consumer<Object> consumer = partialResultConsumers
+				.get(params.getToken().map(String::valueOf, String::valueOf));
+		if (consumer != null) {
+			final Object value = params.getValue().getRight();
+			if (value != null) {
+				consumer.accept(value);
+			}
+			return true;
+		}
+		return diagnosticsPuller.notifyPartialResult(params);
+	}
+
+	private void publishPulledDiagnostics(PublishDiagnosticsParams diagnostics) {
+		final LanguageClientImpl client = languageClient;
+		if (client != null) {
+			client.publishDiagnostics(diagnostics);
+		}
+	}
+
+	/**
+	 * Sends the pending <code>textDocument/didChange</code> notifications of all connected documents, so
+	 * that a message enqueued afterwards is processed by the server against the current document contents
+	 * and versions.
+	 */
+	void flushPendingDocumentChanges() {
+		// each synchronizer unregisters itself once its changes are enqueued: a synchronizer being flushed by
+		// another thread is still registered, and flushing it again waits until its notification is enqueued
+		for (DocumentContentSynchronizer synchronizer : synchronizersWithPendingChanges) {
+			synchronizer.flushPendingChanges();
+		}
 	}
 
 	/**
@@ -821,8 +964,22 @@ public void sendNotification(@NonNull Consumer<LanguageServer> fn) {
 	 * @return Async result
 	 */
 	public <T> CompletableFuture<T> execute(@NonNull Function<LanguageServer, ? extends CompletableFuture<T>> fn) {
+		return execute(fn, RequestPriority.INTERACTIVE);
+	}
+
+	/**
+	 * Runs a request on the language server
+	 *
+	 * @param <T> LS response type
+	 * @param fn Code block that will be supplied the LS in a state where it is guaranteed to have been initialized.
+	 * See {@link #execute(Function)}.
+	 * @param priority priority of the request, relative to other requests waiting to be dispatched to the server
+	 *
+	 * @return Async result
+	 */
+	public <T> CompletableFuture<T> execute(@NonNull Function<LanguageServer, ? extends CompletableFuture<T>> fn, @NonNull RequestPriority priority) {
 		// Send the request on the dispatch thread
-		CompletableFuture<T> lsRequest = executeImpl(fn);
+		CompletableFuture<T> lsRequest = executeImpl(fn, priority);
 		// then additionally make sure the response is delivered on a thread from the default ForkJoinPool.
 		// This makes sure the user can't chain on an arbitrary
 		// long-running block of code that would tie up the server response listener and prevent any more
@@ -858,6 +1015,17 @@ public <T> CompletableFuture<T> execute(@NonNull Function<LanguageServer, ? exte
 	 */
 	@NonNull
 	<T> CompletableFuture<T> executeImpl(@NonNull Function<LanguageServer, ? extends CompletableFuture<T>> fn) {
+		return executeImpl(fn, RequestPriority.INTERACTIVE);
+	}
+
+	/**
+	 * Runs a request on the language server, with the given priority. Internal hook for the LSPexecutor
+	 * implementations
+	 *
+	 * @see #executeImpl(Function)
+	 */
+	@NonNull
+	<T> CompletableFuture<T> executeImpl(@NonNull Function<LanguageServer, ? extends CompletableFuture<T>> fn, @NonNull RequestPriority priority) {
 		// Run the supplied function, ensuring that it is enqueued on the dispatch thread associated with the
 		// wrapped language server, and is thus guarannteed to be seen in the correct order with respect
 		// to e.g. previous document changes
@@ -866,12 +1034,14 @@ <T> CompletableFuture<T> executeImpl(@NonNull Function<LanguageServer, ? extends
 		// the public-facing version of this method, because we trust the LSPExecutor implementations to
 		// make sure the server response thread doesn't get blocked by any further work
 		AtomicReference<CompletableFuture<T>> request = new AtomicReference<>();
+		final long issuedAt = System.nanoTime();
 		Function<LanguageServer, CompletableFuture<T>> cancelWrapper = ls -> {
-			CompletableFuture<T> res = fn.apply(ls);
+			CompletableFuture<T> res = LanguageServerMetrics.dispatch(issuedAt, () -> fn.apply(ls));
 			request.set(res);
 			return res;
 		};
-		CompletableFuture<T> res = getInitializedServer().thenComposeAsync(cancelWrapper, this.dispatcher);
+		flushPendingDocumentChanges();
+		CompletableFuture<T> res = getInitializedServer().thenComposeAsync(cancelWrapper, this.dispatcher.requests(priority));
 		res.exceptionally(e -> {
 			if (e instanceof CancellationException) {
 				CompletableFuture<T> stage = request.get();
@@ -994,6 +1164,17 @@ void registerCapability(RegistrationParams params) {
 					addRegistration(reg, () -> serverCapabilities.setSelectionRangeProvider(selectionRangeProvider));
 				}
 				break;
+			case "textDocument/diagnostic": //$NON-NLS-1$
+				final DiagnosticRegistrationOptions diagnosticBeforeRegistration = serverCapabilities.getDiagnosticProvider();
+				final DiagnosticRegistrationOptions diagnosticOptions = new Gson()
+						.fromJson((JsonObject) reg.getRegisterOptions(), DiagnosticRegistrationOptions.class);
+				serverCapabilities.setDiagnosticProvider(diagnosticOptions);
+				diagnosticsPuller.setOptions(diagnosticOptions);
+				addRegistration(reg, () -> {
+					serverCapabilities.setDiagnosticProvider(diagnosticBeforeRegistration);
+					diagnosticsPuller.setOptions(diagnosticBeforeRegistration);
+				});
+				break;
 			case "textDocument/typeHierarchy": //$NON-NLS-1$
 				final Either<Boolean, TypeHierarchyRegistrationOptions> typeHierarchyBeforeRegistration = serverCapabilities.getTypeHierarchyProvider();
 				serverCapabilities.setTypeHierarchyProvider(Boolean.TRUE);
@@ -126,7 +126,7 @@ private static <T> CompletableFuture<T> onCommonPool(CompletableFuture<T> source
 	public <T> List<@NonNull CompletableFuture<@Nullable T>> computeAll(BiFunction<? super LanguageServerWrapper, LanguageServer, ? extends @NonNull CompletableFuture<T>> fn) {
 		return getServers().stream().map(serverFuture -> {
 					CompletableFuture<CompletableFuture<T>> requestFuture = serverFuture
-						.thenApply(w -> w == null ? CompletableFuture.completedFuture(null) : w.executeImpl(ls -> fn.apply(w, ls)));
+						.thenApply(w -> w == null ? CompletableFuture.completedFuture(null) : w.executeImpl(ls -> fn.apply(w, ls), priority));
 					CompletableFuture<T> res = requestFuture.thenCompose(Function.identity());
 					requestFuture.thenAccept(request -> forwardCancellation(res, request));
 					return res;
@@ -213,6 +213,17 @@ public <T> CompletableFuture<Optional<T>> computeFirst(BiFunction<? super Langua
 		return (E)this;
 	}
 
+	/**
+	 * Specifies the priority with which the requests of this executor are dispatched, relative to the other
+	 * requests waiting to be dispatched to the same server. Defaults to {@link RequestPriority#INTERACTIVE}.
+	 * @param priority request priority
+	 * @return this executor
+	 */
+	public @NonNull E withPriority(final @NonNull RequestPriority priority) {
+		this.priority = priority;
+		return (E)this;
+	}
+
 	/**
 	 *
 	 * @return Predicate that will be used to determine which servers this executor will use
@@ -438,7 +449,7 @@ private <T> Stream<CompletableFuture<T>> executeOnServers(
 			// wrap in AtomicReference to allow dereferencing in downstream future
 			CompletableFuture<CompletableFuture<T>> lsRequestFuture = serverFuture.thenApply(w -> w == null
 				? CompletableFuture.completedFuture((T) null)
-				: w.executeImpl(ls -> fn.apply(w, ls)));
+				: w.executeImpl(ls -> fn.apply(w, ls), priority));
 			CompletableFuture<T> res = lsRequestFuture.thenCompose(Function.identity());
 			lsRequestFuture.thenAccept(request -> forwardCancellation(res, request));
 			return res;
@@ -478,6 +489,7 @@ private <T> void completeEmptyOrWithException(final CompletableFuture<Optional<T
 
 	private static final @NonNull Predicate<ServerCapabilities> NO_FILTER = s -> true;
 	private @NonNull Predicate<ServerCapabilities> filter = NO_FILTER;
+	private @NonNull RequestPriority priority = RequestPriority.INTERACTIVE;
 
 	protected @Nullable LanguageServerDefinition serverDefinition;
 }
@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.lsp4e;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FilterInputStream;
 import java.io.FilterOutputStream;
@@ -19,9 +20,6 @@
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
-import java.time.OffsetDateTime;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Adapters;
@@ -29,6 +27,7 @@
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.lsp4e.AsyncTrafficLog.Direction;
 import org.eclipse.lsp4e.server.StreamConnectionProvider;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4j.jsonrpc.messages.Message;
@@ -41,6 +40,29 @@
 
 public class LoggingStreamConnectionProviderProxy implements StreamConnectionProvider, IAdaptable {
 
+	/**
+	 * What to do with the traffic to log when the logging buffer is full, because the log entries are
+	 * produced faster than they can be written.
+	 */
+	public enum DropPolicy {
+		/** Discard the new entries until there is room in the buffer */
+		DROP_NEWEST,
+		/** Discard the oldest entries of the buffer to make room */
+		DROP_OLDEST,
+		/** Block the communication with the language server until there is room in the buffer */
+		BLOCK
+	}
+
+	/** Preference key of the {@link DropPolicy} applying when the logging buffer is full */
+	public static final String DROP_POLICY_KEY = "logging.dropPolicy"; //$NON-NLS-1$
+	/** Preference key of the maximum size of a log file, in megabytes, before it is rolled */
+	public static final String MAX_FILE_SIZE_KEY = "logging.maxFileSize"; //$NON-NLS-1$
+	/** Preference key of the maximum size of the logging buffer of each language server, in kilobytes */
+	public static final String BUFFER_SIZE_KEY = "logging.bufferSize"; //$NON-NLS-1$
+
+	private static final DropPolicy DEFAULT_DROP_POLICY = DropPolicy.DROP_NEWEST;
+	private static final int DEFAULT_MAX_FILE_SIZE_MB = 10;
+
 	public static File getLogDirectory() {
 		IPath root = ResourcesPlugin.getWorkspace().getRoot().getLocation();
 		if (root == null) {
@@ -62,8 +84,10 @@ public static File getLogDirectory() {
 	private InputStream errorStream;
 	private final String id;
 	private final File logFile;
-	private boolean logToFile;
-	private boolean logToConsole;
+	private final @Nullable RollingLogFile rollingLogFile;
+	private final AsyncTrafficLog log;
+	private volatile boolean logToFile;
+	private volatile boolean logToConsole;
 
 	/**
 	 * Converts a language server ID to the preference ID for logging communications
@@ -96,6 +120,29 @@ public static boolean shouldLog(String serverId) {
 		return store.getBoolean(lsToFileLoggingId(serverId)) || store.getBoolean(lsToConsoleLoggingId(serverId));
 	}
 
+	/**
+	 * @return the policy applying when log entries are produced faster than they can be written
+	 */
+	public static DropPolicy getDropPolicy() {
+		final String value = LanguageServerPlugin.getDefault().getPreferenceStore().getString(DROP_POLICY_KEY);
+		for (final DropPolicy policy : DropPolicy.values()) {
+			if (policy.name().equals(value)) {
+				return policy;
+			}
+		}
+		return DEFAULT_DROP_POLICY;
+	}
+
+	private static long getMaxFileSize() {
+		final int megabytes = LanguageServerPlugin.getDefault().getPreferenceStore().getInt(MAX_FILE_SIZE_KEY);
+		return (megabytes > 0 ? megabytes : DEFAULT_MAX_FILE_SIZE_MB) * 1024L * 1024L;
+	}
+
+	private static int getBufferSize() {
+		final int kilobytes = LanguageServerPlugin.getDefault().getPreferenceStore().getInt(BUFFER_SIZE_KEY);
+		return kilobytes > 0 ? kilobytes * 1024 : AsyncTrafficLog.DEFAULT_CAPACITY;
+	}
+
 	public LoggingStreamConnectionProviderProxy(StreamConnectionProvider provider, String serverId) {
 		this.id = serverId;
 		this.provider = provider;
@@ -111,26 +158,35 @@ public LoggingStreamConnectionProviderProxy(StreamConnectionProvider provider, S
 			}
 		});
 		this.logFile = getLogFile();
+		this.rollingLogFile = logFile == null ? null : new RollingLogFile(logFile, getMaxFileSize());
+		this.log = new AsyncTrafficLog(serverId, getBufferSize(), getDropPolicy(), this::write);
 	}
 
-	private enum Direction { LANGUAGE_SERVER_TO_LSP4E, LSP4E_TO_LANGUAGE_SERVER, ERROR_FROM_LANGUAGE_SERVER };
-
-	private String message(Direction direction, byte[] payload) {
-		String now = OffsetDateTime.now().toString();
-		final var builder = new StringBuilder(payload.length + id.length() + direction.toString().length() + now.length() + 10);
-		builder.append("\n["); //$NON-NLS-1$
-		builder.append(now);
-		builder.append("] "); //$NON-NLS-1$
-		builder.append(direction);
-		builder.append(' ');
-		builder.append(id);
-		builder.append(":\n"); //$NON-NLS-1$
-		builder.append(new String(payload, StandardCharsets.UTF_8));
-		return builder.toString();
+	/**
+	 * Logs the given bytes if logging is enabled. Only copies them to the logging buffer, formatting and
+	 * writing happen on a background thread.
+	 */
+	private void log(Direction direction, byte[] bytes, int offset, int length) {
+		if (length > 0 && (logToConsole || logToFile)) {
+			log.log(direction, bytes, offset, length);
+		}
 	}
 
-	private String errorMessage(byte[] payload) {
-		return message(Direction.ERROR_FROM_LANGUAGE_SERVER, payload);
+	/**
+	 * Writes a batch of formatted log entries, on the background thread of the log
+	 */
+	private void write(ByteArrayOutputStream entries) {
+		if (logToConsole) {
+			logToConsole(entries.toString(StandardCharsets.UTF_8));
+		}
+		final RollingLogFile file = rollingLogFile;
+		if (logToFile && file != null) {
+			try {
+				file.write(entries);
+			} catch (IOException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		}
 	}
 
 	@Override
@@ -143,17 +199,7 @@ public InputStream getInputStream() {
 				@Override
 				public int read(byte[] b, int off, int len) throws IOException {
 					int bytes = super.read(b, off, len);
-					final var payload = new byte[bytes];
-					System.arraycopy(b, off, payload, 0, bytes);
-					if (logToConsole || logToFile) {
-						String s = message(Direction.LANGUAGE_SERVER_TO_LSP4E, payload);
-						if (logToConsole) {
-							logToConsole(s);
-						}
-						if (logToFile) {
-							logToFile(s);
-						}
-					}
+					log(Direction.LANGUAGE_SERVER_TO_LSP4E, b, off, bytes);
 					return bytes;
 				}
 			};
@@ -179,17 +225,7 @@ public InputStream getErrorStream() {
 				@Override
 				public int read(byte[] b, int off, int len) throws IOException {
 					int bytes = super.read(b, off, len);
-					final var payload = new byte[bytes];
-					System.arraycopy(b, off, payload, 0, bytes);
-					if (logToConsole || logToFile) {
-						String s = errorMessage(payload);
-						if (logToConsole) {
-							logToConsole(s);
-						}
-						if (logToFile) {
-							logToFile(s);
-						}
-					}
+					log(Direction.ERROR_FROM_LANGUAGE_SERVER, b, off, bytes);
 					return bytes;
 				}
 			};
@@ -205,17 +241,9 @@ public OutputStream getOutputStream() {
 		if (provider.getOutputStream() != null) {
 			outputStream = new FilterOutputStream(provider.getOutputStream()) {
 				@Override
-				public void write(byte[] b) throws IOException {
-					if (logToConsole || logToFile) {
-						String s = message(Direction.LSP4E_TO_LANGUAGE_SERVER, b);
-						if (logToConsole) {
-							logToConsole(s);
-						}
-						if (logToFile) {
-							logToFile(s);
-						}
-					}
-					super.write(b);
+				public void write(byte[] b, int off, int len) throws IOException {
+					log(Direction.LSP4E_TO_LANGUAGE_SERVER, b, off, len);
+					out.write(b, off, len);
 				}
 			};
 		}
@@ -266,6 +294,11 @@ public void stop() {
 		} catch (IOException e) {
 			LanguageServerPlugin.logError(e);
 		}
+		log.close();
+		final RollingLogFile file = rollingLogFile;
+		if (file != null) {
+			file.close();
+		}
 	}
 
 	private void logToConsole(String string) {
@@ -289,26 +322,6 @@ private MessageConsole findConsole() {
 		return myConsole;
 	}
 
-	private void logToFile(String string) {
-		if (logFile == null) {
-			return;
-		}
-		if (!logFile.exists()) {
-			try {
-				if (!logFile.createNewFile()) {
-					throw new IOException(String.format("Failed to create file %s", logFile)); //$NON-NLS-1$
-				}
-			} catch (IOException e) {
-				LanguageServerPlugin.logError(e);
-			}
-		}
-		try {
-			Files.write(logFile.toPath(), string.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
-		} catch (IOException e) {
-			LanguageServerPlugin.logError(e);
-		}
-	}
-
 	private File getLogFile() {
 		if (logFile != null) {
 			return logFile;
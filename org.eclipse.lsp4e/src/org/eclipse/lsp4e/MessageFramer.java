@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Splits a JSON-RPC byte stream, as read or written chunk by chunk, into messages, using the
+ * <code>Content-Length</code> header of the base protocol.
+ */
+final class MessageFramer {
+
+	interface MessageHandler {
+		/**
+		 * @param content
+		 *            the content of the message, without the headers. Only valid during the call.
+		 */
+		void message(byte[] content, int length);
+	}
+
+	private static final String CONTENT_LENGTH_HEADER = "content-length:"; //$NON-NLS-1$
+	private static final int MAX_HEADERS_SIZE = 8 * 1024;
+
+	private final MessageHandler handler;
+	private final byte[] headers = new byte[MAX_HEADERS_SIZE];
+	private int headersLength;
+	private byte[] content = new byte[0];
+	private int contentLength = -1;
+	private int contentRead;
+
+	MessageFramer(@NonNull MessageHandler handler) {
+		this.handler = handler;
+	}
+
+	void feed(byte[] bytes, int offset, int length) {
+		final int end = offset + length;
+		int i = offset;
+		while (i < end) {
+			if (contentLength < 0) {
+				final byte b = bytes[i++];
+				if (headersLength == headers.length) {
+					// not the base protocol: drop what was accumulated and resynchronize
+					headersLength = 0;
+				}
+				headers[headersLength++] = b;
+				if (b == '\n' && headersLength >= 4 && headers[headersLength - 2] == '\r'
+						&& headers[headersLength - 3] == '\n' && headers[headersLength - 4] == '\r') {
+					startContent(parseContentLength());
+				}
+			} else {
+				final int chunk = Math.min(end - i, contentLength - contentRead);
+				System.arraycopy(bytes, i, content, contentRead, chunk);
+				contentRead += chunk;
+				i += chunk;
+				if (contentRead == contentLength) {
+					handler.message(content, contentLength);
+					contentLength = -1;
+				}
+			}
+		}
+	}
+
+	private int parseContentLength() {
+		final String text = new String(headers, 0, headersLength, StandardCharsets.US_ASCII);
+		headersLength = 0;
+		for (final String line : text.split("\r\n")) { //$NON-NLS-1$
+			if (line.toLowerCase(Locale.ROOT).startsWith(CONTENT_LENGTH_HEADER)) {
+				try {
+					return Integer.parseInt(line.substring(CONTENT_LENGTH_HEADER.length()).trim());
+				} catch (NumberFormatException e) {
+					return -1;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private void startContent(int length) {
+		if (length < 0) {
+			return;
+		}
+		if (content.length < length) {
+			content = new byte[length];
+		}
+		contentLength = length;
+		contentRead = 0;
+		if (length == 0) {
+			handler.message(content, 0);
+			contentLength = -1;
+		}
+	}
+
+}
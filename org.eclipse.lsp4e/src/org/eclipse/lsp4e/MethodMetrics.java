@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Traffic and latency metrics of one LSP method, for one language server definition.
+ *
+ * @see LanguageServerMetrics
+ */
+public final class MethodMetrics {
+
+	private final @NonNull String serverId;
+	private final @NonNull String method;
+
+	final LatencyHistogram queueTime = new LatencyHistogram();
+	final LatencyHistogram roundTripTime = new LatencyHistogram();
+	final LatencyHistogram deliveryTime = new LatencyHistogram();
+	final LatencyHistogram debounceTime = new LatencyHistogram();
+	final LongAdder sentMessages = new LongAdder();
+	final LongAdder receivedMessages = new LongAdder();
+	final LongAdder sentBytes = new LongAdder();
+	final LongAdder receivedBytes = new LongAdder();
+	final LongAdder cancellations = new LongAdder();
+	final LongAdder errors = new LongAdder();
+	final LongAdder skippedVersions = new LongAdder();
+	final AtomicInteger inFlight = new AtomicInteger();
+
+	MethodMetrics(@NonNull String serverId, @NonNull String method) {
+		this.serverId = serverId;
+		this.method = method;
+	}
+
+	/**
+	 * @return id of the language server definition
+	 */
+	public @NonNull String getServerId() {
+		return serverId;
+	}
+
+	/**
+	 * @return the LSP method, e.g. <code>textDocument/completion</code>
+	 */
+	public @NonNull String getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return time between a message being issued by LSP4E and it being written to the server, i.e. the
+	 *         time spent waiting for the server initialization and in the dispatcher queue
+	 */
+	public @NonNull LatencyHistogram getQueueTime() {
+		return queueTime;
+	}
+
+	/**
+	 * @return time between a request being written to the server and its response being read
+	 */
+	public @NonNull LatencyHistogram getRoundTripTime() {
+		return roundTripTime;
+	}
+
+	/**
+	 * @return time spent delivering a response to the waiting futures, during which the thread reading the
+	 *         server output is blocked
+	 */
+	public @NonNull LatencyHistogram getDeliveryTime() {
+		return deliveryTime;
+	}
+
+	/**
+	 * @return time LSP4E waited for a document to be left unchanged before sending a request, for the
+	 *         requests which are debounced, e.g. <code>textDocument/semanticTokens/full</code>
+	 */
+	public @NonNull LatencyHistogram getDebounceTime() {
+		return debounceTime;
+	}
+
+	/**
+	 * @return number of document versions for which no request was sent, as the document changed again
+	 *         while the request was debounced
+	 */
+	public long getSkippedVersions() {
+		return skippedVersions.sum();
+	}
+
+	/**
+	 * @return number of requests or notifications sent to the server
+	 */
+	public long getSentMessages() {
+		return sentMessages.sum();
+	}
+
+	/**
+	 * @return number of responses or notifications received from the server
+	 */
+	public long getReceivedMessages() {
+		return receivedMessages.sum();
+	}
+
+	/**
+	 * @return total size of the messages sent to the server, headers included, in bytes
+	 */
+	public long getSentBytes() {
+		return sentBytes.sum();
+	}
+
+	/**
+	 * @return total size of the messages received from the server, headers included, in bytes
+	 */
+	public long getReceivedBytes() {
+		return receivedBytes.sum();
+	}
+
+	/**
+	 * @return number of requests cancelled before the server responded
+	 */
+	public long getCancellations() {
+		return cancellations.sum();
+	}
+
+	/**
+	 * @return number of error responses
+	 */
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	/**
+	 * @return number of requests currently waiting for a response
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	void reset() {
+		queueTime.reset();
+		roundTripTime.reset();
+		deliveryTime.reset();
+		debounceTime.reset();
+		sentMessages.reset();
+		receivedMessages.reset();
+		sentBytes.reset();
+		receivedBytes.reset();
+		cancellations.reset();
+		errors.reset();
+		skippedVersions.reset();
+	}
+
+}
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+
+import org.eclipse.core.runtime.Adapters;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.SessionRecording.Direction;
+import org.eclipse.lsp4e.server.StreamConnectionProvider;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.services.LanguageServer;
+
+/**
+ * Records the messages exchanged with a language server in a {@link SessionRecording}, stored in the
+ * {@link LoggingStreamConnectionProviderProxy#getLogDirectory() log directory}, so the session can be
+ * replayed later with a {@link ReplayStreamConnectionProvider}.
+ * <p>
+ * Recording is enabled with the {@value #RECORDING_PROPERTY} system property, set to a comma-separated list
+ * of language server ids, or to <code>*</code> to record all the language servers.
+ * </p>
+ */
+public class RecordingStreamConnectionProviderProxy implements StreamConnectionProvider, IAdaptable {
+
+	public static final String RECORDING_PROPERTY = "org.eclipse.lsp4e.recording"; //$NON-NLS-1$
+
+	private final StreamConnectionProvider provider;
+	private final String id;
+	private SessionRecording.@Nullable Writer recording;
+	private @Nullable File recordingFile;
+	private InputStream inputStream;
+	private OutputStream outputStream;
+
+	/**
+	 * @return whether the sessions with the given language server should be recorded
+	 */
+	public static boolean shouldRecord(String serverId) {
+		final String property = System.getProperty(RECORDING_PROPERTY);
+		if (property == null || property.isBlank()) {
+			return false;
+		}
+		return Arrays.stream(property.split(",")).map(String::trim).anyMatch(s -> s.equals("*") || s.equals(serverId)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public RecordingStreamConnectionProviderProxy(StreamConnectionProvider provider, String serverId) {
+		this.provider = provider;
+		this.id = serverId;
+	}
+
+	/**
+	 * @return the file the session is recorded to, or <code>null</code> if the session isn't started, or
+	 *         can't be recorded
+	 */
+	public @Nullable File getRecordingFile() {
+		return recordingFile;
+	}
+
+	@Override
+	public void start() throws IOException {
+		final File logDirectory = LoggingStreamConnectionProviderProxy.getLogDirectory();
+		if (logDirectory != null) {
+			final var file = new File(logDirectory, id + '-' + System.currentTimeMillis() + SessionRecording.FILE_EXTENSION);
+			try {
+				recording = new SessionRecording.Writer(file.toPath());
+				recordingFile = file;
+			} catch (IOException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		}
+		provider.start();
+	}
+
+	private MessageFramer framer(Direction direction) {
+		return new MessageFramer((content, length) -> {
+			final SessionRecording.Writer writer = recording;
+			if (writer != null) {
+				try {
+					writer.append(direction, content, 0, length);
+				} catch (IOException e) {
+					LanguageServerPlugin.logError(e);
+					recording = null;
+				}
+			}
+		});
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		if (inputStream != null) {
+			return inputStream;
+		}
+		if (provider.getInputStream() != null) {
+			final MessageFramer framer = framer(Direction.SERVER_TO_CLIENT);
+			final byte[] single = new byte[1];
+			inputStream = new FilterInputStream(provider.getInputStream()) {
+				@Override
+				public int read() throws IOException {
+					final int b = super.read();
+					if (b >= 0) {
+						single[0] = (byte) b;
+						framer.feed(single, 0, 1);
+					}
+					return b;
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					final int bytes = super.read(b, off, len);
+					if (bytes > 0) {
+						framer.feed(b, off, bytes);
+					}
+					return bytes;
+				}
+			};
+		}
+		return inputStream;
+	}
+
+	@Override
+	public OutputStream getOutputStream() {
+		if (outputStream != null) {
+			return outputStream;
+		}
+		if (provider.getOutputStream() != null) {
+			final MessageFramer framer = framer(Direction.CLIENT_TO_SERVER);
+			outputStream = new FilterOutputStream(provider.getOutputStream()) {
+				@Override
+				public void write(int b) throws IOException {
+					out.write(b);
+					synchronized (framer) {
+						framer.feed(new byte[] { (byte) b }, 0, 1);
+					}
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					out.write(b, off, len);
+					synchronized (framer) {
+						framer.feed(b, off, len);
+					}
+				}
+			};
+		}
+		return outputStream;
+	}
+
+	@Override
+	public @Nullable InputStream getErrorStream() {
+		return provider.getErrorStream();
+	}
+
+	@Override
+	public <T> T getAdapter(Class<T> adapter) {
+		if (adapter == ProcessHandle.class) {
+			return Adapters.adapt(provider, adapter);
+		}
+		return null;
+	}
+
+	@Override
+	public InputStream forwardCopyTo(InputStream input, OutputStream output) {
+		return provider.forwardCopyTo(input, output);
+	}
+
+	@Override
+	public Object getInitializationOptions(@Nullable URI rootUri) {
+		return provider.getInitializationOptions(rootUri);
+	}
+
+	@Override
+	public Object getExperimentalFeaturesPOJO() {
+		return provider.getExperimentalFeaturesPOJO();
+	}
+
+	@Override
+	public String getTrace(@Nullable URI rootUri) {
+		return provider.getTrace(rootUri);
+	}
+
+	@Override
+	public void handleMessage(Message message, LanguageServer languageServer, @Nullable URI rootURI) {
+		provider.handleMessage(message, languageServer, rootURI);
+	}
+
+	@Override
+	public void stop() {
+		provider.stop();
+		final SessionRecording.Writer writer = recording;
+		recording = null;
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		}
+		inputStream = null;
+		outputStream = null;
+	}
+
+}
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.SessionRecording.Direction;
+import org.eclipse.lsp4e.SessionRecording.Entry;
+import org.eclipse.lsp4e.server.StreamConnectionProvider;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+/**
+ * Plays the server side of a {@link SessionRecording}, so a session can be reproduced, or LSP4E benchmarked,
+ * without the language server.
+ * <p>
+ * A recorded response is sent once the client has sent the request with the same id, and any other recorded
+ * server message once the client has sent the last request preceding it in the recording. Client notifications,
+ * whose number varies from a run to another (coalesced changes, cancellations...), are not waited for. Then the
+ * time the server took to send the message, since that request or the previous server message, is reproduced,
+ * divided by the replay speed. Messages are replayed as is (the client is expected to issue the same requests as
+ * in the recording), apart from the given textual substitutions, e.g. to map the URIs of the recording to the
+ * local workspace.
+ * </p>
+ */
+public class ReplayStreamConnectionProvider implements StreamConnectionProvider {
+
+	/**
+	 * Replay speed sending every server message as soon as the client requests preceding it were received
+	 */
+	public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+
+	private static final Gson GSON = new Gson();
+
+	private final Path recording;
+	private final double speed;
+	private final Map<String, String> substitutions;
+	private final CompletableFuture<Void> replayCompletion = new CompletableFuture<>();
+
+	private final Object clientRequestsLock = new Object();
+	// guarded by clientRequestsLock: when each client request was received, by id
+	private final Map<String, Long> requestArrivals = new HashMap<>();
+
+	private @Nullable Pipe serverToClient;
+	private @Nullable InputStream inputStream;
+	private @Nullable OutputStream outputStream;
+	private @Nullable Thread replayThread;
+
+	/**
+	 * Replays the given recording at the recorded speed
+	 */
+	public ReplayStreamConnectionProvider(@NonNull Path recording) {
+		this(recording, 1, Map.of());
+	}
+
+	/**
+	 * @param speed
+	 *            acceleration of the replay, e.g. 2 to replay twice as fast as recorded, or
+	 *            {@link #AS_FAST_AS_POSSIBLE}
+	 * @param substitutions
+	 *            texts to replace in the replayed server messages
+	 */
+	public ReplayStreamConnectionProvider(@NonNull Path recording, double speed, @NonNull Map<String, String> substitutions) {
+		this.recording = recording;
+		this.speed = speed;
+		this.substitutions = substitutions;
+	}
+
+	/**
+	 * @return a future completed once all the server messages of the recording have been sent
+	 */
+	public @NonNull CompletableFuture<Void> getReplayCompletion() {
+		return replayCompletion;
+	}
+
+	@Override
+	public void start() throws IOException {
+		final List<@NonNull Entry> entries = SessionRecording.read(recording);
+		final Pipe pipe = Pipe.open();
+		serverToClient = pipe;
+		inputStream = Channels.newInputStream(pipe.source());
+		final var framer = new MessageFramer((content, length) -> clientMessageReceived(new String(content, 0, length, StandardCharsets.UTF_8)));
+		outputStream = new OutputStream() {
+			@Override
+			public void write(int b) {
+				write(new byte[] { (byte) b }, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				synchronized (framer) {
+					framer.feed(b, off, len);
+				}
+			}
+		};
+		final OutputStream serverOutput = Channels.newOutputStream(pipe.sink());
+		final var thread = new Thread(() -> replay(entries, serverOutput), "LSP4E session replay " + recording.getFileName()); //$NON-NLS-1$
+		thread.setDaemon(true);
+		replayThread = thread;
+		thread.start();
+	}
+
+	private void clientMessageReceived(String content) {
+		final String id = getRequestId(parse(content));
+		if (id != null) {
+			final long now = System.nanoTime();
+			synchronized (clientRequestsLock) {
+				requestArrivals.put(id, now);
+				clientRequestsLock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * @return when the client request with the given id was received
+	 */
+	private long awaitRequest(String id) throws InterruptedException {
+		synchronized (clientRequestsLock) {
+			Long arrival;
+			while ((arrival = requestArrivals.get(id)) == null) {
+				clientRequestsLock.wait();
+			}
+			return arrival;
+		}
+	}
+
+	private static @Nullable JsonObject parse(String content) {
+		try {
+			final JsonElement message = GSON.fromJson(content, JsonElement.class);
+			return message != null && message.isJsonObject() ? message.getAsJsonObject() : null;
+		} catch (JsonParseException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the id of the given message if it's a request, as JSON so that number and string ids don't clash
+	 */
+	private static @Nullable String getRequestId(@Nullable JsonObject message) {
+		return message != null && message.has("method") && message.has("id") ? message.get("id").toString() : null; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * @return the id of the given message if it's a response
+	 */
+	private static @Nullable String getResponseId(@Nullable JsonObject message) {
+		return message != null && !message.has("method") && message.has("id") ? message.get("id").toString() : null; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	private void replay(List<@NonNull Entry> entries, OutputStream serverOutput) {
+		try {
+			// recorded timestamps of the client requests, by id
+			final var recordedRequests = new HashMap<String, Long>();
+			@Nullable String lastRequestId = null;
+			long previousTimestamp = entries.isEmpty() ? 0 : entries.get(0).timestamp();
+			long previousNanos = System.nanoTime();
+			for (final Entry entry : entries) {
+				final JsonObject message = parse(entry.contentAsString());
+				if (entry.direction() == Direction.CLIENT_TO_SERVER) {
+					final String requestId = getRequestId(message);
+					if (requestId != null) {
+						recordedRequests.put(requestId, entry.timestamp());
+						lastRequestId = requestId;
+					}
+					continue;
+				}
+				final String responseId = getResponseId(message);
+				final String awaitedRequestId = responseId != null ? responseId : lastRequestId;
+				long anchorTimestamp = previousTimestamp;
+				long anchorNanos = previousNanos;
+				if (awaitedRequestId != null) {
+					final long arrival = awaitRequest(awaitedRequestId);
+					final Long requestTimestamp = recordedRequests.get(awaitedRequestId);
+					if (requestTimestamp != null && requestTimestamp >= anchorTimestamp) {
+						anchorTimestamp = requestTimestamp;
+						anchorNanos = arrival;
+					}
+				}
+				if (!Double.isInfinite(speed)) {
+					final long dueNanos = anchorNanos + (long) (TimeUnit.MICROSECONDS.toNanos(entry.timestamp() - anchorTimestamp) / speed);
+					final long delay = dueNanos - System.nanoTime();
+					if (delay > 0) {
+						TimeUnit.NANOSECONDS.sleep(delay);
+					}
+				}
+				send(entry, serverOutput);
+				previousTimestamp = entry.timestamp();
+				previousNanos = System.nanoTime();
+			}
+			replayCompletion.complete(null);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			replayCompletion.cancel(false);
+		} catch (IOException e) {
+			replayCompletion.completeExceptionally(e);
+		}
+	}
+
+	private void send(Entry entry, OutputStream serverOutput) throws IOException {
+		byte[] content = entry.content();
+		if (!substitutions.isEmpty()) {
+			String text = entry.contentAsString();
+			for (final var substitution : substitutions.entrySet()) {
+				text = text.replace(substitution.getKey(), substitution.getValue());
+			}
+			content = text.getBytes(StandardCharsets.UTF_8);
+		}
+		serverOutput.write(("Content-Length: " + content.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII)); //$NON-NLS-1$ //$NON-NLS-2$
+		serverOutput.write(content);
+		serverOutput.flush();
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		return inputStream;
+	}
+
+	@Override
+	public OutputStream getOutputStream() {
+		return outputStream;
+	}
+
+	@Override
+	public @Nullable InputStream getErrorStream() {
+		return null;
+	}
+
+	@Override
+	public void stop() {
+		final Thread thread = replayThread;
+		replayThread = null;
+		if (thread != null) {
+			thread.interrupt();
+		}
+		final Pipe pipe = serverToClient;
+		serverToClient = null;
+		if (pipe != null) {
+			try {
+				pipe.sink().close();
+				pipe.source().close();
+			} catch (IOException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		}
+	}
+
+}
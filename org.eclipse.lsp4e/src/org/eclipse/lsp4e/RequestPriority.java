@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+/**
+ * Priority with which a request is dispatched to a language server, relative
+ * to the other requests waiting to be dispatched to the same server.
+ * <p>
+ * Priorities never reorder a request with respect to document synchronization
+ * notifications: a request is always dispatched after the notifications sent
+ * before it, and before the notifications sent after it.
+ * </p>
+ */
+public enum RequestPriority {
+
+	/**
+	 * Requests a user is actively waiting for, like completion, hover, signature help or workspace symbols.
+	 */
+	INTERACTIVE,
+
+	/**
+	 * Requests whose results can wait, like references or reconciler-driven
+	 * decorations.
+	 */
+	BACKGROUND
+}
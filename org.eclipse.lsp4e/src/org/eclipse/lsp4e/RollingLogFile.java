@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Log file capped in size: when the file would exceed the maximum size, it is renamed with a
+ * <code>.1</code> suffix (previous backups being shifted, the oldest being deleted) and a new file is
+ * started.
+ */
+final class RollingLogFile {
+
+	static final int BACKUPS = 3;
+
+	private final File file;
+	private final long maxSize;
+	private @Nullable OutputStream stream;
+	private long size;
+
+	RollingLogFile(@NonNull File file, long maxSize) {
+		this.file = file;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Appends the given content, rolling the file first if needed. Only called by a single thread.
+	 */
+	void write(@NonNull ByteArrayOutputStream content) throws IOException {
+		OutputStream out = stream;
+		if (out == null) {
+			size = file.length();
+			out = stream = new FileOutputStream(file, true);
+		}
+		if (size > 0 && size + content.size() > maxSize) {
+			out.close();
+			roll();
+			size = 0;
+			out = stream = new FileOutputStream(file, true);
+		}
+		content.writeTo(out);
+		out.flush();
+		size += content.size();
+	}
+
+	private void roll() throws IOException {
+		for (int i = BACKUPS - 1; i > 0; i--) {
+			final File backup = backup(i);
+			if (backup.exists()) {
+				Files.move(backup.toPath(), backup(i + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		Files.move(file.toPath(), backup(1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private File backup(int index) {
+		return new File(file.getParentFile(), file.getName() + '.' + index);
+	}
+
+	void close() {
+		final OutputStream out = stream;
+		stream = null;
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Binary recording of the JSON-RPC messages exchanged with a language server.
+ * <p>
+ * Layout of a recording:
+ * </p>
+ * <ul>
+ * <li>header: the <code>LSP4EREC</code> bytes, a format version byte, and the start time of the session (epoch
+ * milliseconds, 8 bytes),</li>
+ * <li>one entry per message: the {@link Direction} ordinal (1 byte), the time elapsed since the previous
+ * entry in microseconds (unsigned varint), the content length (unsigned varint), and the message content
+ * without the base protocol headers,</li>
+ * <li>an index, written when the recording is closed: a <code>0x7F</code> byte, the number of entries
+ * (4 bytes), the position and timestamp of every entry (8 bytes each), then the position of the index (8
+ * bytes) and the <code>LSP4EIDX</code> bytes.</li>
+ * </ul>
+ * A recording which wasn't closed, e.g. because the IDE crashed, has no index but can still be read
+ * sequentially, up to the messages written at most a flush delay before.
+ */
+public final class SessionRecording {
+
+	/**
+	 * Direction of a recorded message
+	 */
+	public enum Direction {
+		CLIENT_TO_SERVER, SERVER_TO_CLIENT
+	}
+
+	/**
+	 * A recorded message
+	 *
+	 * @param direction
+	 *            who sent the message
+	 * @param timestamp
+	 *            microseconds elapsed between the session start and the message
+	 * @param content
+	 *            the JSON content of the message
+	 */
+	public record Entry(@NonNull Direction direction, long timestamp, byte @NonNull [] content) {
+
+		public @NonNull String contentAsString() {
+			return new String(content, StandardCharsets.UTF_8);
+		}
+	}
+
+	public static final String FILE_EXTENSION = ".lsprec"; //$NON-NLS-1$
+
+	private static final byte[] MAGIC = "LSP4EREC".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+	private static final byte[] INDEX_MAGIC = "LSP4EIDX".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+	private static final int VERSION = 1;
+	private static final int INDEX_MARKER = 0x7F;
+	private static final int HEADER_SIZE = MAGIC.length + 1 + 8;
+	private static final int TRAILER_SIZE = 8 + INDEX_MAGIC.length;
+
+	private SessionRecording() {
+		// this class shouldn't be instantiated
+	}
+
+	/**
+	 * Appends messages to a new recording. Thread-safe.
+	 * <p>
+	 * The messages are buffered, and flushed at most {@value #FLUSH_DELAY_MS}ms after being appended, so that
+	 * recording a message doesn't write to the file.
+	 * </p>
+	 */
+	public static final class Writer implements Closeable {
+
+		static final long FLUSH_DELAY_MS = 1000;
+
+		private final DataOutputStream out;
+		private final long startNanos = System.nanoTime();
+		private long position = HEADER_SIZE;
+		private long lastTimestamp;
+		private long[] positions = new long[1024];
+		private long[] timestamps = new long[1024];
+		private int count;
+		private boolean flushScheduled;
+		private boolean closed;
+
+		public Writer(@NonNull Path file) throws IOException {
+			this(Files.newOutputStream(file));
+		}
+
+		public Writer(@NonNull OutputStream stream) throws IOException {
+			this.out = new DataOutputStream(new BufferedOutputStream(stream));
+			out.write(MAGIC);
+			out.writeByte(VERSION);
+			out.writeLong(System.currentTimeMillis());
+			out.flush();
+		}
+
+		/**
+		 * Records a message, timestamped with the current time
+		 */
+		public synchronized void append(@NonNull Direction direction, byte[] content, int offset, int length) throws IOException {
+			if (closed) {
+				return;
+			}
+			final long timestamp = Math.max(lastTimestamp, (System.nanoTime() - startNanos) / 1000);
+			if (count == positions.length) {
+				positions = Arrays.copyOf(positions, count * 2);
+				timestamps = Arrays.copyOf(timestamps, count * 2);
+			}
+			positions[count] = position;
+			timestamps[count] = timestamp;
+			count++;
+			out.writeByte(direction.ordinal());
+			position += 1 + writeVarLong(out, timestamp - lastTimestamp) + writeVarLong(out, length) + length;
+			out.write(content, offset, length);
+			lastTimestamp = timestamp;
+			if (!flushScheduled) {
+				// keep the recording usable if the session ends abruptly
+				flushScheduled = true;
+				CompletableFuture.runAsync(this::scheduledFlush,
+						CompletableFuture.delayedExecutor(FLUSH_DELAY_MS, TimeUnit.MILLISECONDS));
+			}
+		}
+
+		/**
+		 * Writes the buffered messages to the recording
+		 */
+		public synchronized void flush() throws IOException {
+			if (!closed) {
+				out.flush();
+			}
+		}
+
+		private synchronized void scheduledFlush() {
+			flushScheduled = false;
+			try {
+				flush();
+			} catch (IOException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		}
+
+		@Override
+		public synchronized void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				out.writeByte(INDEX_MARKER);
+				out.writeInt(count);
+				for (int i = 0; i < count; i++) {
+					out.writeLong(positions[i]);
+					out.writeLong(timestamps[i]);
+				}
+				out.writeLong(position);
+				out.write(INDEX_MAGIC);
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads all the messages of a recording, in the recorded order.
+	 */
+	public static @NonNull List<@NonNull Entry> read(@NonNull Path file) throws IOException {
+		try (InputStream stream = Files.newInputStream(file)) {
+			return read(stream);
+		}
+	}
+
+	/**
+	 * Reads all the messages of a recording, in the recorded order. A truncated last message is ignored.
+	 */
+	public static @NonNull List<@NonNull Entry> read(@NonNull InputStream stream) throws IOException {
+		final var in = new DataInputStream(new BufferedInputStream(stream));
+		readHeader(in);
+		final var entries = new ArrayList<@NonNull Entry>();
+		long timestamp = 0;
+		try {
+			while (true) {
+				final int kind = in.read();
+				if (kind < 0 || kind == INDEX_MARKER) {
+					break;
+				}
+				timestamp += readVarLong(in);
+				final var content = new byte[(int) readVarLong(in)];
+				in.readFully(content);
+				entries.add(new Entry(Direction.values()[kind], timestamp, content));
+			}
+		} catch (EOFException e) {
+			// recording interrupted while writing the last message
+		}
+		return entries;
+	}
+
+	/**
+	 * Reads a single message, using the index of the recording.
+	 *
+	 * @throws IOException
+	 *             if the recording has no index, or if the index is out of bounds
+	 */
+	public static @NonNull Entry read(@NonNull Path file, int index) throws IOException {
+		try (var in = new RandomAccessFile(file.toFile(), "r")) { //$NON-NLS-1$
+			final long length = in.length();
+			final byte[] magic = new byte[INDEX_MAGIC.length];
+			if (length < HEADER_SIZE + TRAILER_SIZE) {
+				throw new IOException("Recording has no index: " + file); //$NON-NLS-1$
+			}
+			in.seek(length - INDEX_MAGIC.length);
+			in.readFully(magic);
+			if (!Arrays.equals(magic, INDEX_MAGIC)) {
+				throw new IOException("Recording has no index: " + file); //$NON-NLS-1$
+			}
+			in.seek(length - TRAILER_SIZE);
+			in.seek(in.readLong() + 1);
+			final int count = in.readInt();
+			if (index < 0 || index >= count) {
+				throw new IOException("No entry " + index + " in recording of " + count + " entries"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			in.seek(in.getFilePointer() + 16L * index);
+			final long position = in.readLong();
+			final long timestamp = in.readLong();
+			in.seek(position);
+			final int kind = in.read();
+			readVarLong(in);
+			final var content = new byte[(int) readVarLong(in)];
+			in.readFully(content);
+			return new Entry(Direction.values()[kind], timestamp, content);
+		}
+	}
+
+	private static void readHeader(DataInputStream in) throws IOException {
+		final byte[] magic = new byte[MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(magic, MAGIC)) {
+			throw new IOException("Not a language server session recording"); //$NON-NLS-1$
+		}
+		final int version = in.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported recording version " + version); //$NON-NLS-1$
+		}
+		in.readLong();
+	}
+
+	private static int writeVarLong(DataOutputStream out, long value) throws IOException {
+		int written = 1;
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+			written++;
+		}
+		out.writeByte((int) value);
+		return written;
+	}
+
+	private static long readVarLong(DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final byte b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed recording"); //$NON-NLS-1$
+	}
+
+}
@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.internal;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
+
+/**
+ * The offsets at which the lines of a document start, to convert between LSP positions and document offsets
+ * without going through the line tracker of the document for every conversion.
+ * <p>
+ * The index is versioned with the modification stamp of the document: it is only used while it matches the
+ * current stamp of the document. When connected to a document, it listens to the document changes and only
+ * forgets the lines following a change, instead of the whole index. Lines are (re)computed lazily, up to the
+ * last line a conversion needs, so converting the positions of a response costs a single pass over the
+ * lines they span.
+ * </p>
+ * <p>
+ * {@link #connect(IDocument)} the documents that get many conversions, e.g. the documents connected to a
+ * language server: {@link #get(IDocument)} returns their index, or <code>null</code> for the others, for which
+ * a single conversion is cheaper with the line tracker of the document.
+ * </p>
+ */
+public final class LineOffsetIndex implements IDocumentListener {
+
+	private static final Map<IDocument, LineOffsetIndex> CONNECTED = new WeakHashMap<>();
+
+	/**
+	 * Connects an index to the given document, kept up to date until the document gets disconnected as many
+	 * times as it was connected.
+	 *
+	 * @return the index of the document, or <code>null</code> if the document doesn't support modification
+	 *         stamps
+	 */
+	public static @Nullable LineOffsetIndex connect(IDocument document) {
+		if (!(document instanceof IDocumentExtension4)) {
+			return null;
+		}
+		synchronized (CONNECTED) {
+			LineOffsetIndex index = CONNECTED.get(document);
+			if (index == null) {
+				index = new LineOffsetIndex();
+				document.addPrenotifiedDocumentListener(index);
+				CONNECTED.put(document, index);
+			}
+			index.connections++;
+			return index;
+		}
+	}
+
+	public static void disconnect(IDocument document) {
+		synchronized (CONNECTED) {
+			final LineOffsetIndex index = CONNECTED.get(document);
+			if (index != null && --index.connections == 0) {
+				document.removePrenotifiedDocumentListener(index);
+				CONNECTED.remove(document);
+			}
+		}
+	}
+
+	/**
+	 * @return the index connected to the given document, <code>null</code> if there is none
+	 */
+	public static @Nullable LineOffsetIndex get(IDocument document) {
+		synchronized (CONNECTED) {
+			return CONNECTED.get(document);
+		}
+	}
+
+	private int connections;
+
+	/**
+	 * The start offsets of the lines, valid for the first {@link #validLines} lines
+	 */
+	private int[] lineOffsets = new int[0];
+	private int validLines;
+	private int numberOfLines;
+	private int length;
+	private long stamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+	private long stampBeforeChange = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+
+	private LineOffsetIndex() {
+	}
+
+	/**
+	 * Same as {@link org.eclipse.lsp4e.LSPEclipseUtils#toOffset(org.eclipse.lsp4j.Position, IDocument)}: a line
+	 * past the end of the document maps to the end of the document, and the character is capped by the line
+	 * length.
+	 */
+	public synchronized int toOffset(IDocument document, int line, int character) throws BadLocationException {
+		sync(document);
+		final int lastLine = Math.max(0, numberOfLines - 1);
+		if (line > lastLine) {
+			return lineOffset(document, lastLine) + lineLength(document, lastLine);
+		} else if (line < 0) {
+			throw new BadLocationException("Negative line: " + line); //$NON-NLS-1$
+		}
+		return lineOffset(document, line) + Math.min(lineLength(document, line), character);
+	}
+
+	/**
+	 * Converts the given lines and characters to offsets, computing the offsets of the lines at most once.
+	 *
+	 * @param lines
+	 *            the lines of the positions
+	 * @param characters
+	 *            the characters of the positions
+	 * @return the offsets of the positions
+	 */
+	public synchronized int[] toOffsets(IDocument document, int[] lines, int[] characters) throws BadLocationException {
+		final var offsets = new int[lines.length];
+		for (int i = 0; i < lines.length; i++) {
+			offsets[i] = toOffset(document, lines[i], characters[i]);
+		}
+		return offsets;
+	}
+
+	/**
+	 * @return the line of the given offset, as {@link IDocument#getLineOfOffset(int)}
+	 */
+	public synchronized int toLine(IDocument document, int offset) throws BadLocationException {
+		sync(document);
+		return lineOf(document, offset, 0);
+	}
+
+	/**
+	 * Converts the given offsets to lines and characters, searching the line of an offset from the line of the
+	 * previous one, so that converting sorted offsets is linear.
+	 *
+	 * @param offsets
+	 *            the offsets to convert
+	 * @param lines
+	 *            receives the lines of the offsets
+	 * @param characters
+	 *            receives the characters of the offsets
+	 */
+	public synchronized void toLinesAndCharacters(IDocument document, int[] offsets, int[] lines, int[] characters)
+			throws BadLocationException {
+		sync(document);
+		int line = 0;
+		for (int i = 0; i < offsets.length; i++) {
+			line = lineOf(document, offsets[i], line);
+			lines[i] = line;
+			characters[i] = offsets[i] - lineOffsets[line];
+		}
+	}
+
+	@Override
+	public void documentAboutToBeChanged(DocumentEvent event) {
+		synchronized (this) {
+			stampBeforeChange = ((IDocumentExtension4) event.getDocument()).getModificationStamp();
+		}
+	}
+
+	@Override
+	public void documentChanged(DocumentEvent event) {
+		final var document = (IDocumentExtension4) event.getDocument();
+		synchronized (this) {
+			final long current = document.getModificationStamp();
+			if (stamp == current) {
+				// already synchronized by a conversion
+				return;
+			}
+			if (stamp != stampBeforeChange || event.getModificationStamp() != current) {
+				// missed a change
+				validLines = 0;
+			} else {
+				// The lines starting before the change are unchanged. A line starting right at the change
+				// isn't: inserting "\n" after "\r" merges two lines.
+				final int offset = event.getOffset();
+				int low = 1;
+				int high = validLines;
+				while (low < high) {
+					final int middle = (low + high) >>> 1;
+					if (lineOffsets[middle] < offset) {
+						low = middle + 1;
+					} else {
+						high = middle;
+					}
+				}
+				validLines = Math.min(validLines, low);
+			}
+			final var changed = event.getDocument();
+			stamp = current;
+			numberOfLines = changed.getNumberOfLines();
+			length = changed.getLength();
+		}
+	}
+
+	/**
+	 * Forgets the lines if the document changed without notifying this index, e.g. when it isn't connected, or
+	 * when a listener notified before it makes conversions.
+	 */
+	private void sync(IDocument document) {
+		final long current = ((IDocumentExtension4) document).getModificationStamp();
+		if (current != stamp || current == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+			validLines = 0;
+			stamp = current;
+			numberOfLines = document.getNumberOfLines();
+			length = document.getLength();
+		}
+	}
+
+	private int lineOffset(IDocument document, int line) throws BadLocationException {
+		ensureLines(document, line + 1);
+		return lineOffsets[line];
+	}
+
+	/**
+	 * @return the length of the given line, including its delimiter, as {@link IDocument#getLineLength(int)}
+	 */
+	private int lineLength(IDocument document, int line) throws BadLocationException {
+		if (line + 1 < numberOfLines) {
+			ensureLines(document, line + 2);
+			return lineOffsets[line + 1] - lineOffsets[line];
+		}
+		return Math.max(0, length - lineOffset(document, line));
+	}
+
+	private void ensureLines(IDocument document, int count) throws BadLocationException {
+		if (count <= validLines) {
+			return;
+		}
+		if (count > numberOfLines) {
+			throw new BadLocationException("Line " + (count - 1) + " out of " + numberOfLines); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (lineOffsets.length < count) {
+			lineOffsets = Arrays.copyOf(lineOffsets, Math.max(count, Math.min(numberOfLines, lineOffsets.length * 2)));
+		}
+		for (int line = validLines; line < count; line++) {
+			lineOffsets[line] = document.getLineOffset(line);
+		}
+		validLines = count;
+	}
+
+	/**
+	 * @return the last line starting at or before the given offset, searched from the given line, or from the
+	 *         first one if the offset precedes it
+	 */
+	private int lineOf(IDocument document, int offset, int fromLine) throws BadLocationException {
+		if (offset < 0 || offset > length) {
+			throw new BadLocationException("Offset " + offset + " out of " + length); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		int low = lineOffset(document, fromLine) <= offset ? fromLine : 0;
+		// exponential search of a line starting after the offset, to bound the binary search
+		int step = 1;
+		int high = low + 1;
+		while (high < numberOfLines && lineOffset(document, high) <= offset) {
+			low = high;
+			high = low + step;
+			step <<= 1;
+		}
+		high = Math.min(high, numberOfLines);
+		ensureLines(document, high);
+		// binary search of the last line starting at or before the offset, in [low, high)
+		while (high - low > 1) {
+			final int middle = (low + high) >>> 1;
+			if (lineOffsets[middle] <= offset) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
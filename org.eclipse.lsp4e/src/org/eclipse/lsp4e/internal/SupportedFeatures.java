@@ -30,6 +30,8 @@
 import org.eclipse.lsp4j.CompletionItemResolveSupportCapabilities;
 import org.eclipse.lsp4j.CompletionListCapabilities;
 import org.eclipse.lsp4j.DefinitionCapabilities;
+import org.eclipse.lsp4j.DiagnosticCapabilities;
+import org.eclipse.lsp4j.DiagnosticWorkspaceCapabilities;
 import org.eclipse.lsp4j.DocumentHighlightCapabilities;
 import org.eclipse.lsp4j.DocumentLinkCapabilities;
 import org.eclipse.lsp4j.DocumentSymbolCapabilities;
@@ -47,6 +49,11 @@
 import org.eclipse.lsp4j.RenameCapabilities;
 import org.eclipse.lsp4j.ResourceOperationKind;
 import org.eclipse.lsp4j.SelectionRangeCapabilities;
+import org.eclipse.lsp4j.SemanticTokenModifiers;
+import org.eclipse.lsp4j.SemanticTokenTypes;
+import org.eclipse.lsp4j.SemanticTokensCapabilities;
+import org.eclipse.lsp4j.SemanticTokensClientCapabilitiesRequests;
+import org.eclipse.lsp4j.SemanticTokensClientCapabilitiesRequestsFull;
 import org.eclipse.lsp4j.ShowDocumentCapabilities;
 import org.eclipse.lsp4j.SignatureHelpCapabilities;
 import org.eclipse.lsp4j.SymbolCapabilities;
@@ -54,6 +61,7 @@
 import org.eclipse.lsp4j.SymbolKindCapabilities;
 import org.eclipse.lsp4j.SynchronizationCapabilities;
 import org.eclipse.lsp4j.TextDocumentClientCapabilities;
+import org.eclipse.lsp4j.TokenFormat;
 import org.eclipse.lsp4j.TypeDefinitionCapabilities;
 import org.eclipse.lsp4j.WindowClientCapabilities;
 import org.eclipse.lsp4j.WindowShowMessageRequestCapabilities;
@@ -78,6 +86,7 @@ public class SupportedFeatures {
 		textDocumentClientCapabilities.setInlayHint(new InlayHintCapabilities());
 		textDocumentClientCapabilities.setColorProvider(new ColorProviderCapabilities());
 		textDocumentClientCapabilities.setPublishDiagnostics(new PublishDiagnosticsCapabilities());
+		textDocumentClientCapabilities.setDiagnostic(new DiagnosticCapabilities(Boolean.TRUE, Boolean.TRUE));
 		final var completionItemCapabilities = new CompletionItemCapabilities(Boolean.TRUE);
 		completionItemCapabilities
 				.setDocumentationFormat(Arrays.asList(MarkupKind.MARKDOWN, MarkupKind.PLAINTEXT));
@@ -124,6 +133,23 @@ public class SupportedFeatures {
 				.setSynchronization(new SynchronizationCapabilities(Boolean.TRUE, Boolean.TRUE, Boolean.TRUE));
 		SelectionRangeCapabilities selectionRange = new SelectionRangeCapabilities();
 		textDocumentClientCapabilities.setSelectionRange(selectionRange);
+		final var semanticTokensRequests = new SemanticTokensClientCapabilitiesRequests(
+				new SemanticTokensClientCapabilitiesRequestsFull(Boolean.TRUE), Boolean.TRUE);
+		textDocumentClientCapabilities.setSemanticTokens(new SemanticTokensCapabilities(semanticTokensRequests,
+				List.of(SemanticTokenTypes.Namespace, SemanticTokenTypes.Type, SemanticTokenTypes.Class,
+						SemanticTokenTypes.Enum, SemanticTokenTypes.Interface, SemanticTokenTypes.Struct,
+						SemanticTokenTypes.TypeParameter, SemanticTokenTypes.Parameter, SemanticTokenTypes.Variable,
+						SemanticTokenTypes.Property, SemanticTokenTypes.EnumMember, SemanticTokenTypes.Event,
+						SemanticTokenTypes.Function, SemanticTokenTypes.Method, SemanticTokenTypes.Macro,
+						SemanticTokenTypes.Keyword, SemanticTokenTypes.Modifier, SemanticTokenTypes.Comment,
+						SemanticTokenTypes.String, SemanticTokenTypes.Number, SemanticTokenTypes.Regexp,
+						SemanticTokenTypes.Operator, SemanticTokenTypes.Decorator),
+				List.of(SemanticTokenModifiers.Declaration, SemanticTokenModifiers.Definition,
+						SemanticTokenModifiers.Readonly, SemanticTokenModifiers.Static,
+						SemanticTokenModifiers.Deprecated, SemanticTokenModifiers.Abstract,
+						SemanticTokenModifiers.Async, SemanticTokenModifiers.Modification,
+						SemanticTokenModifiers.Documentation, SemanticTokenModifiers.DefaultLibrary),
+				List.of(TokenFormat.Relative)));
 		return textDocumentClientCapabilities;
 	}
 
@@ -143,6 +169,7 @@ public class SupportedFeatures {
 		workspaceClientCapabilities.setWorkspaceEdit(editCapabilities);
 		CodeLensWorkspaceCapabilities codeLensWorkspaceCapabilities = new CodeLensWorkspaceCapabilities(true);
 		workspaceClientCapabilities.setCodeLens(codeLensWorkspaceCapabilities);
+		workspaceClientCapabilities.setDiagnostics(new DiagnosticWorkspaceCapabilities(true));
 		return workspaceClientCapabilities;
 	}
 
@@ -133,7 +133,7 @@ public IMarker[] findOtherMarkers(IMarker[] markers) {
 		return Arrays.stream(markers).filter(marker -> {
 			try {
 				return codeAction.getDiagnostics()
-						.contains(marker.getAttribute(LSPDiagnosticsToMarkers.LSP_DIAGNOSTIC));
+						.contains(LSPDiagnosticsToMarkers.getDiagnostic(marker));
 			} catch (CoreException e) {
 				LanguageServerPlugin.logError(e);
 				return false;
@@ -122,13 +122,13 @@ public IMarkerResolution[] getResolutions(IMarker marker) {
 	private void checkMarkerResolution(IMarker marker) throws IOException, CoreException, InterruptedException, ExecutionException {
 		IResource res = marker.getResource();
 		if (res instanceof IFile file) {
-			Object[] attributes = marker.getAttributes(new String[]{LSPDiagnosticsToMarkers.LANGUAGE_SERVER_ID, LSPDiagnosticsToMarkers.LSP_DIAGNOSTIC});
+			Object[] attributes = marker.getAttributes(new String[]{LSPDiagnosticsToMarkers.LANGUAGE_SERVER_ID});
 			LanguageServerProjectExecutor executor = LanguageServers.forProject(file.getProject())
 					.withCapability(ServerCapabilities::getCodeActionProvider)
 					// try to use same LS as the one that created the marker
 					.withPreferredServer(LanguageServersRegistry.getInstance().getDefinition((String) attributes[0]));
-			if (executor.anyMatching()) {
-				final var diagnostic = (Diagnostic) attributes[1];
+			final Diagnostic diagnostic = LSPDiagnosticsToMarkers.getDiagnostic(marker);
+			if (diagnostic != null && executor.anyMatching()) {
 				final var context = new CodeActionContext(Collections.singletonList(diagnostic));
 				final var params = new CodeActionParams();
 				params.setContext(context);
@@ -25,6 +25,7 @@
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
+import org.eclipse.lsp4e.RequestPriority;
 import org.eclipse.lsp4j.CodeLens;
 import org.eclipse.lsp4j.CodeLensParams;
 
@@ -35,7 +36,8 @@ private CompletableFuture<List<? extends ICodeMining>> provideCodeMinings(@NonNu
 		if (docURI != null) {
 			final var param = new CodeLensParams(LSPEclipseUtils.toTextDocumentIdentifier(docURI));
 			LanguageServerDocumentExecutor executor = LanguageServers.forDocument(document)
-					.withFilter(sc -> sc.getCodeLensProvider() != null);
+					.withFilter(sc -> sc.getCodeLensProvider() != null)
+					.withPriority(RequestPriority.BACKGROUND);
 			return executor.collectAll((w, ls) -> ls.getTextDocumentService().codeLens(param)
 								.thenApply(codeLenses -> LanguageServers.streamSafely(codeLenses)
 										.map(codeLens -> toCodeMining(document, w, codeLens))
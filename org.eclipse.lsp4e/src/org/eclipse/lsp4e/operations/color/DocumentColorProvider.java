@@ -30,6 +30,7 @@
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.RequestPriority;
 import org.eclipse.lsp4j.ColorInformation;
 import org.eclipse.lsp4j.DocumentColorParams;
 import org.eclipse.lsp4j.ServerCapabilities;
@@ -59,6 +60,7 @@ private CompletableFuture<List<? extends ICodeMining>> provideCodeMinings(@NonNu
 			final var param = new DocumentColorParams(textDocumentIdentifier);
 			return LanguageServers.forDocument(document)
 				.withFilter(DocumentColorProvider::isColorProvider)
+				.withPriority(RequestPriority.BACKGROUND)
 				.collectAll(
 					// Need to do some of the result processing inside the function we supply to collectAll(...)
 					// as need the LSW to construct the ColorInformationMining
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.RequestPriority;
+import org.eclipse.lsp4e.internal.CancellationUtil;
+import org.eclipse.lsp4j.CompletionItem;
+
+/**
+ * Resolves the items of the proposals of a {@link CompletionSession} with <code>completionItem/resolve</code>
+ * before their additional info is shown.
+ * <p>
+ * Selecting a proposal sends the resolve request of the selected proposal, and in the background the ones of its
+ * neighbours, so that moving the selection finds them already resolved. The pending requests of the proposals
+ * which aren't near the selection any more are cancelled. The resolved items are kept for the session.
+ * </p>
+ */
+final class CompletionItemResolver {
+
+	/** The number of proposals before and after the selected one which are resolved with it */
+	static final int PREFETCHED_NEIGHBOURS = 2;
+
+	private record Resolve(CompletableFuture<CompletionItem> request, CompletableFuture<@Nullable Void> resolved) {
+	}
+
+	private final Map<LSCompletionProposal, Resolve> resolves = new IdentityHashMap<>();
+	private LSCompletionProposal[] proposals = new LSCompletionProposal[0];
+	private final Map<LSCompletionProposal, Integer> positions = new IdentityHashMap<>();
+
+	/**
+	 * Sets the proposals shown, in their order.
+	 */
+	synchronized void setProposals(LSCompletionProposal[] proposals) {
+		this.proposals = proposals;
+		positions.clear();
+		for (int i = 0; i < proposals.length; i++) {
+			positions.put(proposals[i], i);
+		}
+	}
+
+	/**
+	 * @return a future completed once the item of the given proposal has been resolved
+	 */
+	synchronized CompletableFuture<@Nullable Void> resolve(LSCompletionProposal proposal) {
+		return resolve(proposal, RequestPriority.INTERACTIVE);
+	}
+
+	/**
+	 * Resolves the items of the given selected proposal and of its neighbours, cancelling the other pending
+	 * resolve requests.
+	 */
+	synchronized void selected(LSCompletionProposal proposal) {
+		final Integer position = positions.get(proposal);
+		final int from = position != null ? Math.max(0, position - PREFETCHED_NEIGHBOURS) : 0;
+		final int to = position != null ? Math.min(proposals.length, position + PREFETCHED_NEIGHBOURS + 1) : 0;
+		for (Iterator<Entry<LSCompletionProposal, Resolve>> iterator = resolves.entrySet().iterator(); iterator.hasNext();) {
+			final Entry<LSCompletionProposal, Resolve> entry = iterator.next();
+			final Integer resolvedPosition = positions.get(entry.getKey());
+			if (!entry.getValue().resolved().isDone() && entry.getKey() != proposal
+					&& (resolvedPosition == null || resolvedPosition < from || resolvedPosition >= to)) {
+				entry.getValue().request().cancel(true);
+				iterator.remove();
+			}
+		}
+		resolve(proposal, RequestPriority.INTERACTIVE);
+		for (int i = from; i < to; i++) {
+			resolve(proposals[i], RequestPriority.BACKGROUND);
+		}
+	}
+
+	private CompletableFuture<@Nullable Void> resolve(LSCompletionProposal proposal, RequestPriority priority) {
+		Resolve resolve = resolves.get(proposal);
+		if (resolve == null) {
+			if (!proposal.resolvesCompletionItem()) {
+				return CompletableFuture.completedFuture(null);
+			}
+			final CompletableFuture<CompletionItem> request = proposal.sendResolveRequest(priority);
+			final CompletableFuture<@Nullable Void> resolved = request.thenAccept(proposal::updateCompletionItem);
+			resolved.exceptionally(e -> {
+				if (!CancellationUtil.isRequestCancelledException(e)) {
+					LanguageServerPlugin.logError(e);
+				}
+				return null;
+			});
+			resolve = new Resolve(request, resolved);
+			resolves.put(proposal, resolve);
+		}
+		return resolve.resolved();
+	}
+}
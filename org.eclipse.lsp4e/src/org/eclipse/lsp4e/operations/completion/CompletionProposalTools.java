@@ -11,6 +11,8 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.operations.completion;
 
+import java.util.Arrays;
+
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 
@@ -37,17 +39,30 @@ public static String getFilterFromDocument(IDocument document, int cursorOffset,
 		if (completionInsertionOffset >= cursorOffset) {
 			return ""; //$NON-NLS-1$
 		}
-		int prefixToCursorLength = cursorOffset - completionInsertionOffset;
-		String prefixToCursor = document.get(completionInsertionOffset, prefixToCursorLength);
-		int i;
-		for (i = 0; i < prefixToCursor.length(); i++) {
-			if (!isSubstringFoundOrderedInString(
-					prefixToCursor.substring(prefixToCursorLength - i - 1, prefixToCursorLength),
-					completionItemFilter)) {
+		return getFilterFromPrefix(document.get(completionInsertionOffset, cursorOffset - completionInsertionOffset),
+				completionItemFilter);
+	}
+
+	/**
+	 * @param prefixToCursor
+	 *            the text of the document from the completion insertion offset to
+	 *            the cursor
+	 * @return The longest suffix of the given prefix that is found within the
+	 *         completion's filter regardless of character spacing
+	 * @see #getFilterFromDocument(IDocument, int, String, int)
+	 */
+	static String getFilterFromPrefix(String prefixToCursor, String completionItemFilter) {
+		// matching the characters from the end, each one at its last possible position, finds the longest suffix
+		int start = prefixToCursor.length();
+		int index = completionItemFilter.length();
+		while (start > 0) {
+			index = lastIndexOfIgnoreCase(completionItemFilter, prefixToCursor.charAt(start - 1), index - 1);
+			if (index < 0) {
 				break;
 			}
+			start--;
 		}
-		return prefixToCursor.substring(prefixToCursor.length() - i);
+		return prefixToCursor.substring(start);
 	}
 
 	/**
@@ -58,20 +73,70 @@ public static String getFilterFromDocument(IDocument document, int cursorOffset,
 	 * @param string
 	 */
 	public static boolean isSubstringFoundOrderedInString(String subString, String string) {
-		int lastIndex = 0;
-		subString = subString.toLowerCase();
-		string = string.toLowerCase();
-		for (Character c : subString.toCharArray()) {
-			int index = string.indexOf(c, lastIndex);
+		int index = 0;
+		for (int i = 0; i < subString.length(); i++) {
+			index = indexOfIgnoreCase(string, subString.charAt(i), index);
 			if (index < 0) {
 				return false;
-			} else {
-				lastIndex = index + 1;
 			}
+			index++;
 		}
 		return true;
 	}
 
+	/**
+	 * The positions of the characters of the string matching the characters of the
+	 * subString in order, ignoring case, e.g. to highlight them. The first matching
+	 * character is used for each character of the subString, as in
+	 * {@link #isSubstringFoundOrderedInString(String, String)}.
+	 *
+	 * @param subString
+	 * @param string
+	 * @return the indexes of the matching characters of the string, fewer than the
+	 *         characters of the subString if they aren't all found in order
+	 */
+	public static int[] getMatchPositions(String subString, String string) {
+		final var positions = new int[subString.length()];
+		int index = 0;
+		for (int i = 0; i < positions.length; i++) {
+			index = indexOfIgnoreCase(string, subString.charAt(i), index);
+			if (index < 0) {
+				return Arrays.copyOf(positions, i);
+			}
+			positions[i] = index++;
+		}
+		return positions;
+	}
+
+	private static int indexOfIgnoreCase(String string, char c, int fromIndex) {
+		final char lowerCase = Character.toLowerCase(c);
+		for (int i = fromIndex; i < string.length(); i++) {
+			if (Character.toLowerCase(string.charAt(i)) == lowerCase) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int lastIndexOfIgnoreCase(String string, char c, int fromIndex) {
+		final char lowerCase = Character.toLowerCase(c);
+		for (int i = fromIndex; i >= 0; i--) {
+			if (Character.toLowerCase(string.charAt(i)) == lowerCase) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int indexOfIgnoreCase(String string, String subString, int fromIndex) {
+		for (int i = fromIndex; i <= string.length() - subString.length(); i++) {
+			if (string.regionMatches(true, i, subString, 0, subString.length())) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 	/**
 	 * Uses the document's filter and the completion's filter to decided which
 	 * category the match is.<br>
@@ -98,9 +163,7 @@ public static int getCategoryOfFilterMatch(String documentFilter, String complet
 		if (documentFilter.isEmpty()) {
 			return 5;
 		}
-		documentFilter = documentFilter.toLowerCase();
-		completionFilter = completionFilter.toLowerCase();
-		int subIndex = completionFilter.indexOf(documentFilter);
+		int subIndex = indexOfIgnoreCase(completionFilter, documentFilter, 0);
 		int topCategory = 5;
 		if (subIndex == -1) {
 			return isSubstringFoundOrderedInString(documentFilter, completionFilter) ? 4 : 5;
@@ -117,7 +180,7 @@ public static int getCategoryOfFilterMatch(String documentFilter, String complet
 			if (topCategory == 1) {
 				break;
 			}
-			subIndex = completionFilter.indexOf(documentFilter, subIndex + 1);
+			subIndex = indexOfIgnoreCase(completionFilter, documentFilter, subIndex + 1);
 		}
 		return topCategory;
 	}
@@ -144,54 +207,57 @@ public static int getCategoryOfFilterMatch(String documentFilter, String complet
 	 *         and -1 mean there was no match
 	 */
 	public static int getScoreOfFilterMatch(String documentFilter, String completionFilter) {
-		documentFilter = documentFilter.toLowerCase();
-		completionFilter = completionFilter.toLowerCase();
-		return getScoreOfFilterMatchHelper(0, documentFilter, completionFilter);
+		return getScoreOfFilterMatch(0, documentFilter, 0, completionFilter, 0);
 	}
 
-	private static int getScoreOfFilterMatchHelper(int prefixLength, String documentFilter, String completionFilter) {
-		if (documentFilter == null || documentFilter.isEmpty()) {
+	/**
+	 * The score of the match of the documentFilter from filterStart in the
+	 * completionFilter from start, compared ignoring case.
+	 */
+	private static int getScoreOfFilterMatch(int prefixLength, String documentFilter, int filterStart,
+			String completionFilter, int start) {
+		final int filterLength = documentFilter.length() - filterStart;
+		if (filterLength <= 0) {
 			return 0;
 		}
-		char searchChar = documentFilter.charAt(0);
-		int i = completionFilter.indexOf(searchChar);
+		char searchChar = documentFilter.charAt(filterStart);
+		int i = indexOfIgnoreCase(completionFilter, searchChar, start);
 		if (i == -1) {
 			return -1;
 		}
-		if (documentFilter.length() == 1) {
-			return i + prefixLength;
+		if (filterLength == 1) {
+			return i - start + prefixLength;
 		}
 
-		int matchLength = lengthOfPrefixMatch(documentFilter, completionFilter.substring(i));
-		if (matchLength == documentFilter.length()) {
-			return i + prefixLength;
+		int matchLength = lengthOfPrefixMatch(documentFilter, filterStart, completionFilter, i);
+		if (matchLength == filterLength) {
+			return i - start + prefixLength;
 		}
-		int bestScore = i + getScoreOfFilterMatchHelper(prefixLength + i + matchLength,
-				documentFilter.substring(matchLength),
-				completionFilter.substring(i + matchLength));
+		int bestScore = i - start + getScoreOfFilterMatch(prefixLength + i - start + matchLength, documentFilter,
+				filterStart + matchLength, completionFilter, i + matchLength);
 
-		i = completionFilter.indexOf(searchChar, i + 1);
+		i = indexOfIgnoreCase(completionFilter, searchChar, i + 1);
 		while (i != -1) {
-			matchLength = lengthOfPrefixMatch(documentFilter, completionFilter.substring(i));
-			if (matchLength == documentFilter.length()) {
-				return i + prefixLength;
+			matchLength = lengthOfPrefixMatch(documentFilter, filterStart, completionFilter, i);
+			if (matchLength == filterLength) {
+				return i - start + prefixLength;
 			}
-			int score = i + getScoreOfFilterMatchHelper(prefixLength + i + matchLength,
-					documentFilter.substring(matchLength),
-					completionFilter.substring(i + matchLength));
-			if (score == i - 1) {
+			int score = i - start + getScoreOfFilterMatch(prefixLength + i - start + matchLength, documentFilter,
+					filterStart + matchLength, completionFilter, i + matchLength);
+			if (score == i - start - 1) {
 				break;
 			}
 			bestScore = Math.min(bestScore, score);
-			i = completionFilter.indexOf(searchChar, i + 1);
+			i = indexOfIgnoreCase(completionFilter, searchChar, i + 1);
 		}
 		return prefixLength + bestScore;
 	}
 
-	private static int lengthOfPrefixMatch(String first, String second) {
+	private static int lengthOfPrefixMatch(String first, int firstStart, String second, int secondStart) {
 		int i;
-		for (i = 0; i < Math.min(first.length(), second.length()); i++) {
-			if (first.charAt(i) != second.charAt(i))
+		for (i = 0; i < Math.min(first.length() - firstStart, second.length() - secondStart); i++) {
+			if (Character.toLowerCase(first.charAt(firstStart + i)) != Character
+					.toLowerCase(second.charAt(secondStart + i)))
 				break;
 		}
 		return i;
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Sorts completion items by length of their document filter, longest first, then by category and score of the
+ * match, best first, then by sort text ignoring case.
+ * <p>
+ * The keys of each item are computed once into arrays, and the indexes of the items are sorted with a stable
+ * merge sort comparing the keys, instead of computing the document filters and the case insensitive comparison
+ * of the sort texts for every comparison. The keys are set for completion items without proposals, see
+ * {@link CompletionSession}.
+ * </p>
+ */
+final class CompletionRanking {
+
+	/** The length of the ranges sorted by insertion before being merged */
+	private static final int INSERTION_SORT_LENGTH = 16;
+
+	private int[] filterLengths;
+	private int[] categories;
+	/** the scores of the proposals of categories lower than 5, the other proposals having the same score */
+	private int[] scores;
+	/** the sort texts with each character folded as in {@link String#compareToIgnoreCase(String)} */
+	private @Nullable String[] sortKeys;
+
+	CompletionRanking(int capacity) {
+		filterLengths = new int[capacity];
+		categories = new int[capacity];
+		scores = new int[capacity];
+		sortKeys = new String[capacity];
+	}
+
+	void ensureCapacity(int capacity) {
+		if (capacity > filterLengths.length) {
+			final int length = Math.max(capacity, 2 * filterLengths.length);
+			filterLengths = Arrays.copyOf(filterLengths, length);
+			categories = Arrays.copyOf(categories, length);
+			scores = Arrays.copyOf(scores, length);
+			sortKeys = Arrays.copyOf(sortKeys, length);
+		}
+	}
+
+	void setSortText(int index, @Nullable String sortText) {
+		sortKeys[index] = fold(sortText);
+	}
+
+	/**
+	 * Sets the keys of the match of the document filter at the given index.
+	 *
+	 * @see CompletionProposalTools#getCategoryOfFilterMatch(String, String)
+	 * @see CompletionProposalTools#getScoreOfFilterMatch(String, String)
+	 */
+	void setMatch(int index, int filterLength, int category, int score) {
+		filterLengths[index] = filterLength;
+		categories[index] = category;
+		scores[index] = category >= 5 ? 0 : score == -1 ? Integer.MAX_VALUE : score;
+	}
+
+	/**
+	 * Sorts the given number of first indexes, the equally ranked indexes keeping their order.
+	 */
+	void sort(int[] indexes, int length) {
+		sort(indexes, Arrays.copyOf(indexes, length), 0, length);
+	}
+
+	/**
+	 * Sorts the given range of indexes, using the same range of the given buffer, which holds the same indexes.
+	 */
+	private void sort(int[] indexes, int[] buffer, int from, int to) {
+		if (to - from <= INSERTION_SORT_LENGTH) {
+			for (int i = from + 1; i < to; i++) {
+				final int index = indexes[i];
+				int j = i;
+				for (; j > from && compare(indexes[j - 1], index) > 0; j--) {
+					indexes[j] = indexes[j - 1];
+				}
+				indexes[j] = index;
+			}
+			return;
+		}
+		final int middle = (from + to) >>> 1;
+		// sort both halves into the buffer, then merge them back
+		sort(buffer, indexes, from, middle);
+		sort(buffer, indexes, middle, to);
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; i++) {
+			if (right >= to || left < middle && compare(buffer[left], buffer[right]) <= 0) {
+				indexes[i] = buffer[left++];
+			} else {
+				indexes[i] = buffer[right++];
+			}
+		}
+	}
+
+	private int compare(int first, int second) {
+		if (filterLengths[first] != filterLengths[second]) {
+			return filterLengths[first] > filterLengths[second] ? -1 : +1;
+		}
+		if (categories[first] != categories[second]) {
+			return categories[first] < categories[second] ? -1 : +1;
+		}
+		if (scores[first] != scores[second]) {
+			return scores[first] < scores[second] ? -1 : +1;
+		}
+		final String firstKey = sortKeys[first];
+		final String secondKey = sortKeys[second];
+		if (firstKey == null || secondKey == null) {
+			return firstKey == secondKey ? 0 : firstKey == null ? -1 : +1;
+		}
+		return firstKey.compareTo(secondKey);
+	}
+
+	private static @Nullable String fold(@Nullable String string) {
+		if (string == null) {
+			return null;
+		}
+		for (int i = 0; i < string.length(); i++) {
+			final char c = string.charAt(i);
+			if (fold(c) != c) {
+				final char[] chars = string.toCharArray();
+				for (int j = i; j < chars.length; j++) {
+					chars[j] = fold(chars[j]);
+				}
+				return new String(chars);
+			}
+		}
+		return string;
+	}
+
+	private static char fold(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+}
@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemDefaults;
+import org.eclipse.lsp4j.InsertReplaceEdit;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * The proposals of all the language servers for a word of a document, computed at an offset in the word. While
+ * the user keeps typing the word, the proposals are narrowed and ranked again locally instead of requesting the
+ * completions again: a proposal matching the longer prefix was already matching the shorter one.
+ * <p>
+ * The proposals are received as the language servers answer, possibly as partial results, and the proposals
+ * received after the session was shown are merged into the next narrowed proposals. The sort being stable, the
+ * proposals already shown stay before the equally ranked proposals received later.
+ * </p>
+ * <p>
+ * The session keeps the received completion items with their ranking keys, and only creates the
+ * {@link LSCompletionProposal}s of the best ranked items, up to the maximal number of proposals: the other items
+ * are counted as hidden, and shown once typing narrowed the proposals enough. The items of the proposals are
+ * resolved around the selection by a {@link CompletionItemResolver}, keeping the resolved items for the session.
+ * </p>
+ * <p>
+ * A session can't be reused once an incomplete list or an error was received, once the word or its prefix
+ * changed, e.g. when a trigger character is typed, or once one of its proposals has been applied.
+ * </p>
+ */
+final class CompletionSession {
+
+	private record Source(LanguageServerWrapper wrapper, boolean isIncomplete) {
+	}
+
+	private final IDocument document;
+	private final int wordStart;
+	private final int offset;
+	private final String prefix;
+	private final int maxProposals;
+	private final CompletionRanking ranking = new CompletionRanking(16);
+	private final CompletionItemResolver resolver = new CompletionItemResolver();
+	/** the document text from each start of the received items to the offset of this session */
+	private final Map<Integer, String> prefixes = new HashMap<>();
+
+	/** the valid items received, with their source, start, document filter at the offset of this session and proposal */
+	private CompletionItem[] items = new CompletionItem[16];
+	private Source[] sources = new Source[16];
+	private int[] bestOffsets = new int[16];
+	private String[] filters = new String[16];
+	private @Nullable LSCompletionProposal[] proposals = new LSCompletionProposal[16];
+	private int count;
+	private final List<LSCompletionProposal> createdProposals = new ArrayList<>();
+
+	/** the index of the first item received since the proposals were last returned */
+	private int received;
+	private final CompletableFuture<@Nullable Void> firstProposals = new CompletableFuture<>();
+	private boolean reusable = true;
+	private int lastOffset;
+	/** the indexes of the items valid at the last offset, sorted */
+	private int[] lastIndexes = new int[0];
+	private int hiddenProposals;
+
+	/**
+	 * @param maxProposals
+	 *            the maximal number of proposals returned, the other valid items being hidden
+	 */
+	CompletionSession(IDocument document, int offset, int maxProposals) throws BadLocationException {
+		this.document = document;
+		this.wordStart = getWordStart(document, offset);
+		this.offset = offset;
+		this.prefix = document.get(wordStart, offset - wordStart);
+		this.maxProposals = Math.max(1, maxProposals);
+		this.lastOffset = offset;
+	}
+
+	/**
+	 * Adds the items received from a language server, keeping the ones valid at the offset of this session.
+	 *
+	 * @param defaults
+	 *            the defaults of the completion list of the items, set on the items
+	 */
+	synchronized void add(List<CompletionItem> received, @Nullable CompletionItemDefaults defaults,
+			LanguageServerWrapper wrapper, boolean isIncomplete, CancelChecker cancelChecker) {
+		final var source = new Source(wrapper, isIncomplete);
+		for (CompletionItem item : received) {
+			// Stop adding the items if the completion has been cancelled
+			cancelChecker.checkCanceled();
+			if (item == null || item.getLabel() == null || item.getLabel().isEmpty()) {
+				continue;
+			}
+			LSCompletionProposal.applyDefaults(item, defaults);
+			final int bestOffset = LSCompletionProposal.getPrefixCompletionStart(document, offset, item,
+					LSCompletionProposal.getInsertText(item));
+			if (offset < bestOffset) {
+				continue;
+			}
+			final String filter = getFilter(item, bestOffset);
+			if (filter == null || !isValid(item, offset, filter, false)) {
+				continue;
+			}
+			ensureCapacity(count + 1);
+			items[count] = item;
+			sources[count] = source;
+			bestOffsets[count] = bestOffset;
+			filters[count] = filter;
+			ranking.setSortText(count, LSCompletionProposal.getSortText(item));
+			count++;
+		}
+		if (count > 0) {
+			firstProposals.complete(null);
+		}
+	}
+
+	/**
+	 * Prevents narrowing the proposals of this session, e.g. when a language server returned an incomplete list.
+	 */
+	synchronized void invalidate() {
+		reusable = false;
+	}
+
+	/**
+	 * @return a future completed once proposals have been received
+	 */
+	CompletableFuture<@Nullable Void> getFirstProposals() {
+		return firstProposals;
+	}
+
+	/**
+	 * @return the best ranked proposals received so far, sorted
+	 */
+	synchronized LSCompletionProposal[] getProposals() {
+		final var candidates = new int[count];
+		for (int i = 0; i < count; i++) {
+			candidates[i] = i;
+		}
+		return rank(offset, candidates);
+	}
+
+	/**
+	 * @return the number of valid proposals which weren't returned with the last proposals, being ranked after
+	 *         the maximal number of proposals
+	 */
+	synchronized int getHiddenProposals() {
+		return hiddenProposals;
+	}
+
+	/**
+	 * @param triggerChars
+	 *            the completion trigger characters of the language servers
+	 * @return the best ranked proposals of this session valid at the given offset, sorted, or <code>null</code> if
+	 *         the completions must be requested again because the given offset isn't after the offset of this
+	 *         session in the same word
+	 */
+	synchronized LSCompletionProposal @Nullable [] narrow(IDocument document, int offset, char[] triggerChars) {
+		if (!reusable || document != this.document || offset <= this.offset || offset > document.getLength()) {
+			return null;
+		}
+		try {
+			if (getWordStart(document, offset) != wordStart
+					|| !document.get(wordStart, this.offset - wordStart).equals(prefix)) {
+				return null;
+			}
+			final String typed = document.get(this.offset, offset - this.offset);
+			for (char triggerChar : triggerChars) {
+				if (typed.indexOf(triggerChar) >= 0) {
+					return null;
+				}
+			}
+		} catch (BadLocationException e) {
+			return null;
+		}
+		for (LSCompletionProposal proposal : createdProposals) {
+			if (proposal.isApplied()) {
+				return null;
+			}
+		}
+		// the items valid for a longer prefix are among the ones valid for a shorter prefix
+		final int[] candidates;
+		if (offset >= lastOffset) {
+			candidates = Arrays.copyOf(lastIndexes, lastIndexes.length + count - received);
+			for (int i = received; i < count; i++) {
+				candidates[lastIndexes.length + i - received] = i;
+			}
+		} else {
+			candidates = new int[count];
+			for (int i = 0; i < count; i++) {
+				candidates[i] = i;
+			}
+		}
+		return rank(offset, candidates);
+	}
+
+	/**
+	 * Sorts the given candidate items valid at the given offset, and returns the proposals of the best ranked
+	 * ones.
+	 */
+	private LSCompletionProposal[] rank(int offset, int[] candidates) {
+		String typed = ""; //$NON-NLS-1$
+		if (offset > this.offset) {
+			try {
+				typed = document.get(this.offset, offset - this.offset);
+			} catch (BadLocationException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		}
+		int valid = 0;
+		for (int index : candidates) {
+			final String filter = filters[index] + typed;
+			if (offset < bestOffsets[index] || !isValid(items[index], offset, filter,
+					sources[index].isIncomplete() && offset != this.offset)) {
+				continue;
+			}
+			final String filterString = LSCompletionProposal.getFilterString(items[index]);
+			final int category = CompletionProposalTools.getCategoryOfFilterMatch(filter, filterString);
+			ranking.setMatch(index, filter.length(), category,
+					category < 5 ? CompletionProposalTools.getScoreOfFilterMatch(filter, filterString) : 0);
+			candidates[valid++] = index;
+		}
+		ranking.sort(candidates, valid);
+		final var sorted = new LSCompletionProposal[Math.min(valid, maxProposals)];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = getProposal(candidates[i]);
+			sorted[i].validate(document, offset, null);
+		}
+		received = count;
+		lastOffset = offset;
+		lastIndexes = Arrays.copyOf(candidates, valid);
+		hiddenProposals = valid - sorted.length;
+		resolver.setProposals(sorted);
+		return sorted;
+	}
+
+	private LSCompletionProposal getProposal(int index) {
+		LSCompletionProposal proposal = proposals[index];
+		if (proposal == null) {
+			final Source source = sources[index];
+			proposal = new LSCompletionProposal(document, offset, items[index], null, source.wrapper(),
+					source.isIncomplete());
+			// computes the document filter of the proposal at the offset of this session
+			proposal.validate(document, offset, null);
+			proposal.setResolver(resolver);
+			proposals[index] = proposal;
+			createdProposals.add(proposal);
+		}
+		return proposal;
+	}
+
+	/**
+	 * @return the document filter of the given item at the offset of this session, see
+	 *         {@link LSCompletionProposal#getDocumentFilter()}
+	 */
+	private @Nullable String getFilter(CompletionItem item, int bestOffset) {
+		if (bestOffset >= offset) {
+			return ""; //$NON-NLS-1$
+		}
+		String prefixToCursor = prefixes.get(bestOffset);
+		if (prefixToCursor == null) {
+			try {
+				prefixToCursor = document.get(bestOffset, offset - bestOffset);
+			} catch (BadLocationException e) {
+				LanguageServerPlugin.logError(e);
+				return null;
+			}
+			prefixes.put(bestOffset, prefixToCursor);
+		}
+		return CompletionProposalTools.getFilterFromPrefix(prefixToCursor,
+				LSCompletionProposal.getFilterString(item));
+	}
+
+	/**
+	 * @param filterOutdated
+	 *            whether the item comes from an incomplete list and the offset changed, so that it can't be
+	 *            filtered
+	 * @return whether the given item is valid at the given offset with the given document filter, see
+	 *         {@link LSCompletionProposal#validate(IDocument, int, org.eclipse.jface.text.DocumentEvent)}
+	 */
+	private boolean isValid(CompletionItem item, int offset, String filter, boolean filterOutdated) {
+		if (!filter.isEmpty()) {
+			return !filterOutdated && CompletionProposalTools.isSubstringFoundOrderedInString(filter,
+					LSCompletionProposal.getFilterString(item));
+		} else if (item.getTextEdit() != null) {
+			try {
+				return offset == LSPEclipseUtils.toOffset(
+						item.getTextEdit().map(TextEdit::getRange, InsertReplaceEdit::getInsert).getStart(), document);
+			} catch (BadLocationException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		}
+		return true;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > items.length) {
+			final int length = Math.max(capacity, 2 * items.length);
+			items = Arrays.copyOf(items, length);
+			sources = Arrays.copyOf(sources, length);
+			bestOffsets = Arrays.copyOf(bestOffsets, length);
+			filters = Arrays.copyOf(filters, length);
+			proposals = Arrays.copyOf(proposals, length);
+		}
+		ranking.ensureCapacity(capacity);
+	}
+
+	private static int getWordStart(IDocument document, int offset) throws BadLocationException {
+		int start = offset;
+		while (start > 0 && Character.isUnicodeIdentifierPart(document.getChar(start - 1))) {
+			start--;
+		}
+		return start;
+	}
+}
@@ -20,6 +20,8 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -30,6 +32,7 @@
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.internal.text.html.BrowserInformationControl;
 import org.eclipse.jface.text.AbstractReusableInformationControlCreator;
 import org.eclipse.jface.text.BadLocationException;
@@ -61,7 +64,9 @@
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.RequestPriority;
 import org.eclipse.lsp4e.command.CommandExecutor;
+import org.eclipse.lsp4e.internal.CancellationUtil;
 import org.eclipse.lsp4e.internal.StyleUtil;
 import org.eclipse.lsp4e.operations.hover.FocusableBrowserInformationControl;
 import org.eclipse.lsp4e.ui.LSPImages;
@@ -83,6 +88,7 @@
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.TextStyle;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.texteditor.link.EditorLinkedModeUI;
 
@@ -93,6 +99,7 @@
 		IContextInformation {
 
 	private static final int RESOLVE_TIMEOUT = 500;
+	private static final int RESOLVE_POLL_INTERVAL = 50;
 	// Those variables should be defined in LSP4J and reused here whenever done there
 	// See https://github.com/eclipse/lsp4j/issues/149
 	/** The currently selected text or the empty string */
@@ -129,6 +136,8 @@
 	private String documentFilter;
 	private String documentFilterAddition = ""; //$NON-NLS-1$
 	private final LanguageServerWrapper languageServerWrapper;
+	private volatile boolean applied;
+	private @Nullable CompletionItemResolver resolver;
 
 	public LSCompletionProposal(@NonNull IDocument document, int offset, @NonNull CompletionItem item,
 			LanguageServerWrapper languageServerWrapper) {
@@ -144,6 +153,13 @@ public LSCompletionProposal(@NonNull IDocument document, int offset, @NonNull Co
 		this.currentOffset = offset;
 		this.bestOffset = getPrefixCompletionStart(document, offset);
 		this.isIncomplete = isIncomplete;
+		applyDefaults(item, defaults);
+	}
+
+	/**
+	 * Sets the values of the given defaults of a completion list which aren't set on the given item.
+	 */
+	static void applyDefaults(@NonNull CompletionItem item, CompletionItemDefaults defaults) {
 		if (defaults != null) {
 			if (item.getInsertTextFormat() == null) {
 				item.setInsertTextFormat(defaults.getInsertTextFormat());
@@ -263,27 +279,20 @@ public StyledString getStyledDisplayString(IDocument document, int offset, BoldS
 				: new StyledString(rawString);
 		if (offset > bestOffset) {
 			try {
-				String subString = getDocumentFilter(offset).toLowerCase();
-				int lastIndex = 0;
-				String lowerRawString = rawString.toLowerCase();
-				for (Character c : subString.toCharArray()) {
-					int index = lowerRawString.indexOf(c, lastIndex);
-					if (index < 0) {
-						return res;
-					} else {
-						res.setStyle(index, 1, new Styler() {
-
-							@Override
-							public void applyStyles(TextStyle textStyle) {
-								if (isDeprecated()) {
-									StyleUtil.DEPRECATE.applyStyles(textStyle);
-								}
-								boldStylerProvider.getBoldStyler().applyStyles(textStyle);
-							}
+				int[] matchPositions = CompletionProposalTools.getMatchPositions(getDocumentFilter(offset), rawString);
+				Styler styler = new Styler() {
 
-						});
-						lastIndex = index + 1;
+					@Override
+					public void applyStyles(TextStyle textStyle) {
+						if (isDeprecated()) {
+							StyleUtil.DEPRECATE.applyStyles(textStyle);
+						}
+						boldStylerProvider.getBoldStyler().applyStyles(textStyle);
 					}
+
+				};
+				for (int index : matchPositions) {
+					res.setStyle(index, 1, styler);
 				}
 			} catch (BadLocationException e) {
 				LanguageServerPlugin.logError(e);
@@ -327,8 +336,16 @@ protected IInformationControl doCreateInformationControl(Shell parent) {
 
 	@Override
 	public String getAdditionalProposalInfo(IProgressMonitor monitor) {
-		if (languageServerWrapper.isActive() && resolvesCompletionItem(languageServerWrapper.getServerCapabilities())) {
-			resolveItem();
+		if (resolvesCompletionItem()) {
+			final CompletionItemResolver resolver = this.resolver;
+			awaitResolved(resolver != null ? resolver.resolve(this)
+					: sendResolveRequest(RequestPriority.INTERACTIVE).thenAccept(this::updateCompletionItem)
+							.exceptionally(e -> {
+								if (!CancellationUtil.isRequestCancelledException(e)) {
+									LanguageServerPlugin.logError(e);
+								}
+								return null;
+							}), monitor);
 		}
 
 		final var res = new StringBuilder();
@@ -348,6 +365,10 @@ public String getAdditionalProposalInfo(IProgressMonitor monitor) {
 		return res.toString();
 	}
 
+	boolean resolvesCompletionItem() {
+		return languageServerWrapper.isActive() && resolvesCompletionItem(languageServerWrapper.getServerCapabilities());
+	}
+
 	private boolean resolvesCompletionItem(final ServerCapabilities capabilities) {
 		if (capabilities != null) {
 			CompletionOptions completionProvider = capabilities.getCompletionProvider();
@@ -359,21 +380,54 @@ private boolean resolvesCompletionItem(final ServerCapabilities capabilities) {
 		return false;
 	}
 
-	private void resolveItem() {
-		try {
-			languageServerWrapper.execute(ls -> ls.getTextDocumentService().resolveCompletionItem(item).thenAccept(this::updateCompletionItem))
-					.get(RESOLVE_TIMEOUT, TimeUnit.MILLISECONDS);
-		} catch (ExecutionException e) {
-			LanguageServerPlugin.logError(e);
-		} catch (InterruptedException e) {
-			LanguageServerPlugin.logError(e);
-			Thread.currentThread().interrupt();
-		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning("Could not resolve completion items due to timeout after " + RESOLVE_TIMEOUT + " milliseconds in `completionItem/resolve`", e);  //$NON-NLS-1$//$NON-NLS-2$
+	/**
+	 * Sets the resolver of the items of the session of this proposal, which resolves them when selected.
+	 */
+	void setResolver(CompletionItemResolver resolver) {
+		this.resolver = resolver;
+	}
+
+	/**
+	 * @return the <code>completionItem/resolve</code> request of the item of this proposal
+	 */
+	CompletableFuture<CompletionItem> sendResolveRequest(RequestPriority priority) {
+		return languageServerWrapper.execute(ls -> ls.getTextDocumentService().resolveCompletionItem(item), priority);
+	}
+
+	/**
+	 * Waits for the item to be resolved, at most {@link #RESOLVE_TIMEOUT} and never on the UI thread, where the
+	 * info known so far is shown. The item is usually resolved already, its resolution starting when the proposal
+	 * or one of its neighbours is selected.
+	 */
+	private void awaitResolved(CompletableFuture<@Nullable Void> resolved, IProgressMonitor monitor) {
+		if (Display.getCurrent() != null) {
+			return;
+		}
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RESOLVE_TIMEOUT);
+		while (!monitor.isCanceled()) {
+			final long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				LanguageServerPlugin.logWarning("Could not resolve completion items due to timeout after " + RESOLVE_TIMEOUT + " milliseconds in `completionItem/resolve`", null); //$NON-NLS-1$//$NON-NLS-2$
+				return;
+			}
+			try {
+				// checks the monitor regularly, as the selection may move meanwhile
+				resolved.get(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(RESOLVE_POLL_INTERVAL)), TimeUnit.NANOSECONDS);
+				return;
+			} catch (TimeoutException e) {
+				// wait again
+			} catch (CancellationException | ExecutionException e) {
+				// logged where the request is sent
+				return;
+			} catch (InterruptedException e) {
+				LanguageServerPlugin.logError(e);
+				Thread.currentThread().interrupt();
+				return;
+			}
 		}
 	}
 
-	private void updateCompletionItem(CompletionItem resolvedItem) {
+	void updateCompletionItem(CompletionItem resolvedItem) {
 		if (resolvedItem == null) {
 			return;
 		}
@@ -410,15 +464,23 @@ public CharSequence getPrefixCompletionText(IDocument document, int completionOf
 
 	@Override
 	public int getPrefixCompletionStart(IDocument document, int completionOffset) {
+		return getPrefixCompletionStart(document, completionOffset, item, getInsertText());
+	}
+
+	/**
+	 * @return the start of the text replaced by the given item: the start of its text edit, or the offset of the
+	 *         longest text before the completion offset that starts its insert text
+	 */
+	static int getPrefixCompletionStart(IDocument document, int completionOffset, CompletionItem item,
+			String insertText) {
 		Either<TextEdit, InsertReplaceEdit> textEdit = item.getTextEdit();
 		if (textEdit != null) {
 			try {
-				return LSPEclipseUtils.toOffset(getTextEditRange().getStart(), document);
+				return LSPEclipseUtils.toOffset(textEdit.map(TextEdit::getRange, InsertReplaceEdit::getInsert).getStart(), document);
 			} catch (BadLocationException e) {
 				LanguageServerPlugin.logError(e);
 			}
 		}
-		String insertText = getInsertText();
 		try {
 			String subDoc = document.get(
 					Math.max(0, completionOffset - insertText.length()),
@@ -435,7 +497,15 @@ public int getPrefixCompletionStart(IDocument document, int completionOffset) {
 		return completionOffset;
 	}
 
+	/**
+	 * @return whether this proposal has been applied, its item then being adapted to the applied text
+	 */
+	boolean isApplied() {
+		return applied;
+	}
+
 	protected void apply(IDocument document, char trigger, int stateMask, int offset) {
+		applied = true;
 		String insertText = null;
 		Either<TextEdit, InsertReplaceEdit> eitherTextEdit = item.getTextEdit();
 		TextEdit textEdit = null;
@@ -706,6 +776,10 @@ private String getAbsoluteLocation(IPath path) {
 	}
 
 	protected String getInsertText() {
+		return getInsertText(item);
+	}
+
+	static String getInsertText(CompletionItem item) {
 		String insertText = item.getInsertText();
 		Either<TextEdit, InsertReplaceEdit> eitherTextEdit = item.getTextEdit();
 		if (eitherTextEdit != null) {
@@ -754,6 +828,10 @@ public String getInformationDisplayString() {
 	}
 
 	public String getSortText() {
+		return getSortText(item);
+	}
+
+	static String getSortText(CompletionItem item) {
 		if (item.getSortText() != null && !item.getSortText().isEmpty()) {
 			return item.getSortText();
 		}
@@ -761,6 +839,10 @@ public String getSortText() {
 	}
 
 	public String getFilterString() {
+		return getFilterString(item);
+	}
+
+	static String getFilterString(CompletionItem item) {
 		if (item.getFilterText() != null && !item.getFilterText().isEmpty()) {
 			return item.getFilterText();
 		}
@@ -775,6 +857,10 @@ public boolean isValidFor(IDocument document, int offset) {
 	@Override
 	public void selected(ITextViewer viewer, boolean smartToggle) {
 		this.viewer = viewer;
+		final CompletionItemResolver resolver = this.resolver;
+		if (resolver != null && resolvesCompletionItem()) {
+			resolver.selected(this);
+		}
 	}
 
 	@Override
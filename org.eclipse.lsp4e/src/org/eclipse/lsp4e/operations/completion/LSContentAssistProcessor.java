@@ -18,19 +18,20 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
@@ -43,7 +44,6 @@
 import org.eclipse.jface.text.contentassist.IContextInformationValidator;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
-import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.internal.CancellationSupport;
 import org.eclipse.lsp4e.internal.CancellationUtil;
@@ -57,17 +57,39 @@
 import org.eclipse.lsp4j.SignatureHelpOptions;
 import org.eclipse.lsp4j.SignatureHelpParams;
 import org.eclipse.lsp4j.SignatureInformation;
-import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.ui.texteditor.ITextEditor;
 
 import com.google.common.base.Strings;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 
 public class LSContentAssistProcessor implements IContentAssistProcessor {
 
 	private static final long TRIGGERS_TIMEOUT = 50;
 	private static final long CONTEXT_INFORMATION_TIMEOUT = 1000;
+
+	/**
+	 * The preference key of the time to wait for the proposals of all the language servers, in milliseconds,
+	 * before showing the proposals of the fastest ones
+	 */
+	public static final String LATENCY_BUDGET_KEY = "completion.latencyBudget"; //$NON-NLS-1$
+	private static final long DEFAULT_LATENCY_BUDGET_MILLIS = 1000;
+
+	/**
+	 * The preference key of the maximal number of proposals shown, the proposals ranked after being only created
+	 * once typing narrowed them
+	 */
+	public static final String MAX_PROPOSALS_KEY = "completion.maxProposals"; //$NON-NLS-1$
+	private static final int DEFAULT_MAX_PROPOSALS = 1000;
+
+	private static final AtomicLong PARTIAL_RESULT_TOKENS = new AtomicLong();
+	private static final Gson PARTIAL_RESULT_GSON = new MessageJsonHandler(Collections.emptyMap()).getGson();
+
 	private IDocument currentDocument;
 	private String errorMessage;
 	private final boolean errorAsCompletionItem;
@@ -82,6 +104,9 @@ public class LSContentAssistProcessor implements IContentAssistProcessor {
 	// The cancellation support used to cancel previous LSP requests 'textDocument/completion' when completion is retriggered
 	private CancellationSupport cancellationSupport;
 
+	// The proposals of the last complete completion, narrowed locally while the user keeps typing the same word
+	private volatile @Nullable CompletionSession completionSession;
+
 	public LSContentAssistProcessor() {
 		this(true);
 	}
@@ -96,8 +121,6 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 		this.incompleteAsCompletionItem = incompleteAsCompletionItem;
 	}
 
-	private final Comparator<LSCompletionProposal> proposalComparator = new LSCompletionProposalComparator();
-
 	@Override
 	public ICompletionProposal[] computeCompletionProposals(ITextViewer viewer, int offset) {
 		IDocument document = viewer.getDocument();
@@ -108,17 +131,28 @@ public ICompletionProposal[] computeCompletionProposals(ITextViewer viewer, int
 		}
 
 		initiateLanguageServers(document);
+
+		CompletionSession session = this.completionSession;
+		if (session != null) {
+			LSCompletionProposal[] narrowedProposals = session.narrow(document, offset, this.completionTriggerChars);
+			if (narrowedProposals != null) {
+				return appendMarkers(narrowedProposals, createTruncatedProposal(offset, session.getHiddenProposals()));
+			}
+			this.completionSession = null;
+		}
+
 		CompletionParams param;
 
 		try {
 			param = LSPEclipseUtils.toCompletionParams(uri, offset, document, this.completionTriggerChars);
+			session = new CompletionSession(document, offset, getMaxProposals());
 		} catch (BadLocationException e) {
 			LanguageServerPlugin.logError(e);
 			this.errorMessage = createErrorMessage(offset, e);
 			return createErrorProposal(offset, e);
 		}
 
-		List<ICompletionProposal> proposals = Collections.synchronizedList(new ArrayList<>());
+		final CompletionSession newSession = session;
 		AtomicBoolean anyIncomplete = new AtomicBoolean(false);
 		try {
 			// Cancel the previous LSP requests 'textDocument/completions' and completionLanguageServersFuture
@@ -130,19 +164,49 @@ public ICompletionProposal[] computeCompletionProposals(ITextViewer viewer, int
 			CancellationSupport cancellationSupport = new CancellationSupport();
 			this.completionLanguageServersFuture = LanguageServers.forDocument(document)
 					.withFilter(capabilities -> capabilities.getCompletionProvider() != null) //
-					.collectAll((w, ls) -> cancellationSupport.execute(ls.getTextDocumentService().completion(param)) //
-							.thenAccept(completion -> {
-								boolean isIncomplete = completion != null && completion.isRight() ? completion.getRight().isIncomplete() : false;
-								proposals.addAll(toProposals(document, offset, completion, w, cancellationSupport, isIncomplete));
-								if (isIncomplete) {
-									anyIncomplete.set(true);
-								}
-							}));
+					.collectAll((w, ls) -> {
+						// the items reported as partial results are added to the session as they're received
+						final var serverParam = new CompletionParams(param.getTextDocument(), param.getPosition(), param.getContext());
+						final String token = "lsp4e-completion-" + PARTIAL_RESULT_TOKENS.incrementAndGet(); //$NON-NLS-1$
+						serverParam.setPartialResultToken(token);
+						// the first partial result may be a list, holding the defaults of the items of the next ones
+						final var partialList = new AtomicReference<CompletionList>();
+						w.addPartialResultConsumer(token, value -> {
+							Either<List<CompletionItem>, CompletionList> partialResult = toPartialResult(value);
+							if (partialResult != null && partialResult.isRight()) {
+								partialList.set(partialResult.getRight());
+							}
+							CompletionList list = partialList.get();
+							boolean isIncomplete = list != null && list.isIncomplete();
+							if (isIncomplete) {
+								anyIncomplete.set(true);
+								newSession.invalidate();
+							}
+							try {
+								newSession.add(toItems(partialResult), list != null ? list.getItemDefaults() : null, w, isIncomplete, cancellationSupport);
+							} catch (CancellationException e) {
+								// the completion has been cancelled meanwhile
+							}
+						});
+						return cancellationSupport.execute(ls.getTextDocumentService().completion(serverParam)) //
+								.whenComplete((completion, error) -> w.removePartialResultConsumer(token))
+								.thenAccept(completion -> {
+									boolean isIncomplete = completion != null && completion.isRight() ? completion.getRight().isIncomplete() : false;
+									if (isIncomplete) {
+										anyIncomplete.set(true);
+										newSession.invalidate();
+									}
+									CompletionItemDefaults defaults = completion != null ? completion.map(o -> null, CompletionList::getItemDefaults) : null;
+									//Stop the compute of ICompletionProposal if the completion has been cancelled
+									cancellationSupport.checkCanceled();
+									newSession.add(toItems(completion), defaults, w, isIncomplete, cancellationSupport);
+								});
+					});
 			cancellationSupport.execute(completionLanguageServersFuture);
 			this.cancellationSupport = cancellationSupport;
 
-			// Wait for the result of all LSP requests 'textDocument/completions', this future will be canceled with the next completion
-			this.completionLanguageServersFuture.get();
+			// Wait for the result of the LSP requests 'textDocument/completions', this future will be canceled with the next completion
+			awaitProposals(newSession);
 		} catch (ResponseErrorException | ExecutionException | CancellationException e) {
 			if (!CancellationUtil.isRequestCancelledException(e)) { // do not report error if the server has cancelled the request
 				LanguageServerPlugin.logError(e);
@@ -156,24 +220,63 @@ public ICompletionProposal[] computeCompletionProposals(ITextViewer viewer, int
 			return createErrorProposal(offset, e);
 		}
 
-		final var completeProposals = new LSCompletionProposal[proposals.size()];
-		int i = 0;
-		for (ICompletionProposal proposal : proposals) {
-			if (proposal instanceof LSCompletionProposal completeProposal) {
-				completeProposals[i] = completeProposal;
-				i++;
-			} else {
-				return proposals.toArray(ICompletionProposal[]::new);
-			}
-		}
-		Arrays.sort(completeProposals, proposalComparator);
+		this.completionSession = newSession;
+		final LSCompletionProposal[] completeProposals = newSession.getProposals();
+		ICompletionProposal[] truncatedProposal = createTruncatedProposal(offset, newSession.getHiddenProposals());
 		ICompletionProposal[] incompleteProposal = createIncompleProposal(offset, anyIncomplete.get());
-		if (incompleteProposal.length > 0) {
-			ICompletionProposal[] incompleteProposals = Arrays.copyOf(completeProposals, completeProposals.length + incompleteProposal.length, ICompletionProposal[].class);
-			System.arraycopy(incompleteProposal, 0, incompleteProposals, completeProposals.length, incompleteProposal.length);
-			return incompleteProposals;
+		return appendMarkers(appendMarkers(completeProposals, truncatedProposal), incompleteProposal);
+	}
+
+	private static ICompletionProposal[] appendMarkers(ICompletionProposal[] proposals, ICompletionProposal[] markers) {
+		if (markers.length > 0) {
+			ICompletionProposal[] allProposals = Arrays.copyOf(proposals, proposals.length + markers.length, ICompletionProposal[].class);
+			System.arraycopy(markers, 0, allProposals, proposals.length, markers.length);
+			return allProposals;
 		}
-		return completeProposals;
+		return proposals;
+	}
+
+	/**
+	 * Waits for the proposals of all the language servers during the latency budget, then for the proposals of
+	 * the fastest language server. The proposals of the slower language servers are added to the session when
+	 * received, to be merged into the proposals narrowed while typing.
+	 */
+	private void awaitProposals(CompletionSession session) throws InterruptedException, ExecutionException {
+		try {
+			this.completionLanguageServersFuture.get(getLatencyBudget(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			CompletableFuture<@NonNull List<@NonNull Void>> future = this.completionLanguageServersFuture;
+			CompletableFuture.anyOf(session.getFirstProposals(), future).get();
+			future.whenComplete((result, error) -> {
+				if (error != null) {
+					session.invalidate();
+					if (!CancellationUtil.isRequestCancelledException(error)) {
+						LanguageServerPlugin.logError(error);
+					}
+				}
+			});
+		}
+	}
+
+	private static long getLatencyBudget() {
+		final long budget = LanguageServerPlugin.getDefault().getPreferenceStore().getLong(LATENCY_BUDGET_KEY);
+		return budget > 0 ? budget : DEFAULT_LATENCY_BUDGET_MILLIS;
+	}
+
+	private static int getMaxProposals() {
+		final int maxProposals = LanguageServerPlugin.getDefault().getPreferenceStore().getInt(MAX_PROPOSALS_KEY);
+		return maxProposals > 0 ? maxProposals : DEFAULT_MAX_PROPOSALS;
+	}
+
+	private static @Nullable Either<List<CompletionItem>, CompletionList> toPartialResult(Object value) {
+		if (value instanceof JsonArray json) {
+			return Either.forLeft(Arrays.asList(PARTIAL_RESULT_GSON.fromJson(json, CompletionItem[].class)));
+		} else if (value instanceof JsonObject json) {
+			return Either.forRight(PARTIAL_RESULT_GSON.fromJson(json, CompletionList.class));
+		} else if (value instanceof CompletionList list) {
+			return Either.forRight(list);
+		}
+		return null;
 	}
 
 	private ICompletionProposal[] createErrorProposal(int offset, Exception ex) {
@@ -196,6 +299,17 @@ private ICompletionProposal[] createIncompleProposal(int offset, boolean incompl
 		return new ICompletionProposal[0];
 	}
 
+	/**
+	 * @return a proposal showing the number of hidden proposals, which being a plain {@link CompletionProposal}
+	 *         makes the popup compute the proposals again while typing, instead of filtering the shown ones
+	 */
+	private static ICompletionProposal[] createTruncatedProposal(int offset, int hiddenProposals) {
+		if (hiddenProposals > 0) {
+			return new ICompletionProposal[] {new CompletionProposal("", offset, 0, 0, null, NLS.bind(Messages.completionTruncated, hiddenProposals), null, Messages.continueTruncated)}; //$NON-NLS-1$
+		}
+		return new ICompletionProposal[0];
+	}
+
 	private void initiateLanguageServers(@NonNull IDocument document) {
 		if (currentDocument != document) {
 			this.currentDocument = document;
@@ -246,27 +360,11 @@ private void initiateLanguageServers() {
 			}
 		}
 	}
-	private static List<ICompletionProposal> toProposals(IDocument document,
-			int offset, Either<List<CompletionItem>, CompletionList> completionList, LanguageServerWrapper languageServerWrapper, CancelChecker cancelChecker, boolean isIncomplete) {
+	private static List<CompletionItem> toItems(@Nullable Either<List<CompletionItem>, CompletionList> completionList) {
 		if (completionList == null) {
 			return Collections.emptyList();
 		}
-		//Stop the compute of ICompletionProposal if the completion has been cancelled
-		cancelChecker.checkCanceled();
-		CompletionItemDefaults defaults = completionList.map(o -> null, CompletionList::getItemDefaults);
-		List<CompletionItem> items = completionList.isLeft() ? completionList.getLeft() : completionList.getRight().getItems();
-		return items.stream() //
-				.filter(Objects::nonNull)
-				.map(item -> new LSCompletionProposal(document, offset, item, defaults,
-						languageServerWrapper, isIncomplete))
-				.filter(proposal -> {
-					//Stop the compute of ICompletionProposal if the completion has been cancelled
-					cancelChecker.checkCanceled();
-					return true;
-				})
-				.filter(proposal -> proposal.validate(document, offset, null))
-				.map(ICompletionProposal.class::cast)
-				.toList();
+		return completionList.isLeft() ? completionList.getLeft() : completionList.getRight().getItems();
 	}
 
 	@Override
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticCodeDescription;
+import org.eclipse.lsp4j.DiagnosticRelatedInformation;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DiagnosticTag;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+/**
+ * The diagnostic of a marker, stored in its {@link LSPDiagnosticsToMarkers#LSP_DIAGNOSTIC} attribute instead of
+ * the LSP4J {@link Diagnostic}, which takes a range, two positions, an {@link Either} for the code and a list for
+ * the tags on top of the diagnostic itself. The range is stored as primitive values, the code and source are
+ * interned, and the severity and tags are encoded in bytes, the tags keeping their order and duplicates. The diagnostic is rebuilt by {@link #toDiagnostic()}
+ * when it's needed, e.g. to request the code actions of the marker.
+ *
+ * @param code
+ *            the interned {@link String} or the {@link Integer} code, <code>null</code> if none
+ * @param severity
+ *            the value of the {@link DiagnosticSeverity}, 0 if none
+ * @param tags
+ *            the values of the {@link DiagnosticTag}s, in order, <code>null</code> if there's no list of tags
+ */
+record CompactDiagnostic(int startLine, int startCharacter, int endLine, int endCharacter, @Nullable String message,
+		@Nullable Object code, @Nullable String source, byte severity, byte @Nullable [] tags,
+		@Nullable List<DiagnosticRelatedInformation> relatedInformation,
+		@Nullable DiagnosticCodeDescription codeDescription, @Nullable Object data) {
+
+	private static final byte[] NO_TAGS = new byte[0];
+
+	static CompactDiagnostic of(Diagnostic diagnostic) {
+		final Range range = diagnostic.getRange();
+		final Either<String, Integer> code = diagnostic.getCode();
+		Object compactCode = null;
+		if (code != null) {
+			compactCode = code.isLeft() && code.getLeft() != null ? code.getLeft().intern() : code.getRight();
+		}
+		final String source = diagnostic.getSource();
+		final DiagnosticSeverity severity = diagnostic.getSeverity();
+		final List<DiagnosticTag> diagnosticTags = diagnostic.getTags();
+		byte[] tags = null;
+		if (diagnosticTags != null) {
+			tags = diagnosticTags.isEmpty() ? NO_TAGS : new byte[diagnosticTags.size()];
+			for (int i = 0; i < tags.length; i++) {
+				tags[i] = (byte) diagnosticTags.get(i).getValue();
+			}
+		}
+		return new CompactDiagnostic(range.getStart().getLine(), range.getStart().getCharacter(),
+				range.getEnd().getLine(), range.getEnd().getCharacter(), diagnostic.getMessage(), compactCode,
+				source != null ? source.intern() : null, severity != null ? (byte) severity.getValue() : 0, tags,
+				diagnostic.getRelatedInformation(), diagnostic.getCodeDescription(), diagnostic.getData());
+	}
+
+	Diagnostic toDiagnostic() {
+		final var diagnostic = new Diagnostic();
+		diagnostic.setRange(new Range(new Position(startLine, startCharacter), new Position(endLine, endCharacter)));
+		diagnostic.setMessage(message);
+		if (code instanceof String left) {
+			diagnostic.setCode(left);
+		} else if (code instanceof Integer right) {
+			diagnostic.setCode(right);
+		}
+		diagnostic.setSource(source);
+		if (severity != 0) {
+			diagnostic.setSeverity(DiagnosticSeverity.forValue(severity));
+		}
+		final byte[] tags = this.tags;
+		if (tags != null) {
+			final var diagnosticTags = new ArrayList<DiagnosticTag>(tags.length);
+			for (byte tag : tags) {
+				diagnosticTags.add(DiagnosticTag.forValue(tag));
+			}
+			diagnostic.setTags(diagnosticTags);
+		}
+		diagnostic.setRelatedInformation(relatedInformation);
+		diagnostic.setCodeDescription(codeDescription);
+		diagnostic.setData(data);
+		return diagnostic;
+	}
+}
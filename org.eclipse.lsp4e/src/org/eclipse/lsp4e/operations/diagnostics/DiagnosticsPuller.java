@@ -0,0 +1,495 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.diagnostics;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.RequestPriority;
+import org.eclipse.lsp4e.internal.CancellationUtil;
+import org.eclipse.lsp4e.ui.UI;
+import org.eclipse.lsp4j.DiagnosticRegistrationOptions;
+import org.eclipse.lsp4j.DiagnosticServerCancellationData;
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.DocumentDiagnosticReport;
+import org.eclipse.lsp4j.FullDocumentDiagnosticReport;
+import org.eclipse.lsp4j.PreviousResultId;
+import org.eclipse.lsp4j.ProgressParams;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.UnchangedDocumentDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReportPartialResult;
+import org.eclipse.lsp4j.WorkspaceDocumentDiagnosticReport;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+/**
+ * Pulls the diagnostics of a language server supporting the pull model: <code>textDocument/diagnostic</code>
+ * for the documents connected to the server, and <code>workspace/diagnostic</code> for the other files if
+ * the server supports it. The reports are handed to the same consumer as the published diagnostics.
+ * <p>
+ * The result id of the last report of each document is sent with the next pull of the document, so that the
+ * server can answer that the diagnostics are unchanged instead of computing them again.
+ * </p>
+ * <p>
+ * A document is pulled when it gets connected and after each of its changes is sent to the server,
+ * interactively. When the diagnostics of all the documents have to be pulled again, e.g. when the server asks
+ * for it, the documents of the visible editors are pulled interactively, and the others one after the other
+ * in the background. The workspace pull runs in the background, at most once at a time and
+ * {@link #WORKSPACE_PULL_INTERVAL_MS} after the previous one, and streams its reports as partial results.
+ * </p>
+ */
+public final class DiagnosticsPuller {
+
+	/**
+	 * Minimum delay between the end of a <code>workspace/diagnostic</code> request and the start of the next one
+	 */
+	private static final long WORKSPACE_PULL_INTERVAL_MS = 2000;
+	/**
+	 * Delay before pulling again the diagnostics of a document when the server cancelled the pull
+	 */
+	private static final long RETRIGGER_DELAY_MS = 500;
+
+	private static final AtomicInteger PARTIAL_RESULT_TOKENS = new AtomicInteger();
+
+	private final LanguageServerWrapper wrapper;
+	private final Consumer<PublishDiagnosticsParams> diagnosticsConsumer;
+	private final Supplier<Collection<URI>> connectedDocuments;
+
+	private volatile @Nullable DiagnosticRegistrationOptions options;
+
+	/**
+	 * The result ids of the last reports, by document URI
+	 */
+	private final Map<String, String> resultIds = new ConcurrentHashMap<>();
+	private final Map<URI, CompletableFuture<?>> documentPulls = new ConcurrentHashMap<>();
+
+	/**
+	 * The documents waiting to be pulled in the background, one after the other
+	 */
+	private final Set<URI> backgroundPulls = new LinkedHashSet<>();
+	private boolean backgroundPullRunning;
+
+	private @Nullable CompletableFuture<WorkspaceDiagnosticReport> workspacePull;
+	private @Nullable String workspacePartialResultToken;
+	private boolean workspacePullRequested;
+	private long workspacePullEnd;
+
+	/**
+	 * @param diagnosticsConsumer
+	 *            the consumer of the published diagnostics of the server, receiving the pulled ones too
+	 * @param connectedDocuments
+	 *            the URIs of the documents connected to the server
+	 */
+	public DiagnosticsPuller(LanguageServerWrapper wrapper, Consumer<PublishDiagnosticsParams> diagnosticsConsumer,
+			Supplier<Collection<URI>> connectedDocuments) {
+		this.wrapper = wrapper;
+		this.diagnosticsConsumer = diagnosticsConsumer;
+		this.connectedDocuments = connectedDocuments;
+	}
+
+	/**
+	 * Enables the pulls with the given options of the server, disables them if <code>null</code>.
+	 */
+	public void setOptions(@Nullable DiagnosticRegistrationOptions options) {
+		this.options = options;
+		if (options == null) {
+			cancel();
+		} else {
+			refresh();
+		}
+	}
+
+	public boolean isEnabled() {
+		return options != null;
+	}
+
+	public void documentConnected(URI uri) {
+		if (isEnabled()) {
+			pullDocument(uri, RequestPriority.INTERACTIVE);
+		}
+	}
+
+	/**
+	 * Pulls the diagnostics of a document, the changes of which were sent to the server
+	 */
+	public void documentChanged(URI uri) {
+		if (isEnabled()) {
+			// not from the thread sending the changes, which holds the lock of the document synchronizer
+			CompletableFuture.runAsync(() -> pullDocument(uri, RequestPriority.INTERACTIVE));
+		}
+	}
+
+	/**
+	 * With inter-file dependencies, pulls the diagnostics of the other documents and of the workspace, as they
+	 * may depend on the saved document
+	 */
+	public void documentSaved(URI uri) {
+		final DiagnosticRegistrationOptions currentOptions = options;
+		if (currentOptions != null && currentOptions.isInterFileDependencies()) {
+			final var others = new ArrayList<>(connectedDocuments.get());
+			others.remove(uri);
+			pullInBackground(others);
+			pullWorkspace();
+		}
+	}
+
+	public void documentDisconnected(URI uri) {
+		final CompletableFuture<?> pull = documentPulls.remove(uri);
+		if (pull != null) {
+			pull.cancel(true);
+		}
+		synchronized (backgroundPulls) {
+			backgroundPulls.remove(uri);
+		}
+	}
+
+	/**
+	 * Pulls the diagnostics of all the documents again, e.g. when the server requests a refresh: the documents
+	 * of the visible editors first, the others in the background, and the workspace.
+	 */
+	public void refresh() {
+		if (!isEnabled()) {
+			return;
+		}
+		final Collection<URI> documents = connectedDocuments.get();
+		if (!documents.isEmpty() && PlatformUI.isWorkbenchRunning()) {
+			UI.getDisplay().asyncExec(() -> {
+				final Set<URI> visible = getVisibleDocuments();
+				final var others = new ArrayList<URI>(documents.size());
+				for (URI uri : documents) {
+					if (visible.contains(uri)) {
+						pullDocument(uri, RequestPriority.INTERACTIVE);
+					} else {
+						others.add(uri);
+					}
+				}
+				pullInBackground(others);
+			});
+		} else {
+			pullInBackground(documents);
+		}
+		pullWorkspace();
+	}
+
+	/**
+	 * Cancels the pending pulls, and forgets the result ids of the reports of the server
+	 */
+	public void stop() {
+		options = null;
+		cancel();
+		resultIds.clear();
+	}
+
+	private void cancel() {
+		documentPulls.values().forEach(pull -> pull.cancel(true));
+		documentPulls.clear();
+		synchronized (backgroundPulls) {
+			backgroundPulls.clear();
+		}
+		final CompletableFuture<WorkspaceDiagnosticReport> pull;
+		synchronized (this) {
+			pull = workspacePull;
+			workspacePullRequested = false;
+		}
+		if (pull != null) {
+			pull.cancel(true);
+		}
+	}
+
+	/**
+	 * Applies the streamed reports of the pending workspace pull.
+	 *
+	 * @return whether the progress is a partial result of a workspace pull
+	 */
+	public boolean notifyPartialResult(ProgressParams params) {
+		final String token = params.getToken().map(String::valueOf, String::valueOf);
+		synchronized (this) {
+			if (!token.equals(workspacePartialResultToken)) {
+				return false;
+			}
+		}
+		final Object value = params.getValue().getRight();
+		if (value instanceof JsonElement json) {
+			final var partialResult = new Gson().fromJson(json, WorkspaceDiagnosticReportPartialResult.class);
+			applyWorkspaceReports(partialResult.getItems());
+		} else if (value instanceof WorkspaceDiagnosticReportPartialResult partialResult) {
+			applyWorkspaceReports(partialResult.getItems());
+		}
+		return true;
+	}
+
+	/**
+	 * Pulls the diagnostics of a document. An interactive pull replaces the pending pull of the document,
+	 * while a background pull is skipped if one is pending.
+	 *
+	 * @return the pull
+	 */
+	private CompletableFuture<?> pullDocument(URI uri, RequestPriority priority) {
+		final DiagnosticRegistrationOptions currentOptions = options;
+		if (currentOptions == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		final CompletableFuture<?> pending = documentPulls.get(uri);
+		if (pending != null && priority == RequestPriority.BACKGROUND) {
+			return pending;
+		}
+		final var params = new DocumentDiagnosticParams(LSPEclipseUtils.toTextDocumentIdentifier(uri));
+		params.setIdentifier(currentOptions.getIdentifier());
+		params.setPreviousResultId(resultIds.get(params.getTextDocument().getUri()));
+		final CompletableFuture<DocumentDiagnosticReport> pull = wrapper
+				.execute(ls -> ls.getTextDocumentService().diagnostic(params), priority);
+		final CompletableFuture<?> previous = documentPulls.put(uri, pull);
+		if (previous != null) {
+			previous.cancel(true);
+		}
+		return pull.handle((report, error) -> {
+			if (!documentPulls.remove(uri, pull)) {
+				// replaced by a more recent pull
+				return null;
+			}
+			if (report != null) {
+				applyDocumentReport(params.getTextDocument().getUri(), report);
+			} else if (error != null && shouldRetrigger(error)) {
+				CompletableFuture.delayedExecutor(RETRIGGER_DELAY_MS, TimeUnit.MILLISECONDS)
+						.execute(() -> pullInBackground(List.of(uri)));
+			} else if (error != null && !CancellationUtil.isRequestCancelledException(error)) {
+				LanguageServerPlugin.logError(error);
+			}
+			return null;
+		});
+	}
+
+	private void pullInBackground(Collection<URI> uris) {
+		if (uris.isEmpty()) {
+			return;
+		}
+		synchronized (backgroundPulls) {
+			backgroundPulls.addAll(uris);
+			if (backgroundPullRunning) {
+				return;
+			}
+			backgroundPullRunning = true;
+		}
+		pullNextInBackground();
+	}
+
+	private void pullNextInBackground() {
+		final URI next;
+		synchronized (backgroundPulls) {
+			final var iterator = backgroundPulls.iterator();
+			if (!iterator.hasNext() || !isEnabled()) {
+				backgroundPullRunning = false;
+				return;
+			}
+			next = iterator.next();
+			iterator.remove();
+		}
+		pullDocument(next, RequestPriority.BACKGROUND).whenComplete((result, error) -> pullNextInBackground());
+	}
+
+	private void pullWorkspace() {
+		final DiagnosticRegistrationOptions currentOptions = options;
+		if (currentOptions == null || !currentOptions.isWorkspaceDiagnostics()) {
+			return;
+		}
+		final String token;
+		synchronized (this) {
+			if (workspacePull != null) {
+				workspacePullRequested = true;
+				return;
+			}
+			final long wait = workspacePullEnd + WORKSPACE_PULL_INTERVAL_MS - System.currentTimeMillis();
+			if (wait > 0) {
+				if (!workspacePullRequested) {
+					workspacePullRequested = true;
+					CompletableFuture.delayedExecutor(wait, TimeUnit.MILLISECONDS).execute(this::pullRequestedWorkspace);
+				}
+				return;
+			}
+			token = "lsp4e-workspace-diagnostics-" + PARTIAL_RESULT_TOKENS.incrementAndGet(); //$NON-NLS-1$
+			workspacePartialResultToken = token;
+		}
+		final var previousResultIds = new ArrayList<PreviousResultId>(resultIds.size());
+		resultIds.forEach((uri, resultId) -> previousResultIds.add(new PreviousResultId(uri, resultId)));
+		final var params = new WorkspaceDiagnosticParams(previousResultIds);
+		params.setIdentifier(currentOptions.getIdentifier());
+		params.setPartialResultToken(token);
+		final CompletableFuture<WorkspaceDiagnosticReport> pull = wrapper
+				.execute(ls -> ls.getWorkspaceService().diagnostic(params), RequestPriority.BACKGROUND);
+		synchronized (this) {
+			workspacePull = pull;
+		}
+		pull.whenComplete((report, error) -> {
+			synchronized (this) {
+				workspacePull = null;
+				workspacePartialResultToken = null;
+				workspacePullEnd = System.currentTimeMillis();
+			}
+			if (report != null) {
+				applyWorkspaceReports(report.getItems());
+			} else if (error != null && !shouldRetrigger(error)
+					&& !CancellationUtil.isRequestCancelledException(error)) {
+				LanguageServerPlugin.logError(error);
+			}
+			pullRequestedWorkspace();
+		});
+	}
+
+	private void pullRequestedWorkspace() {
+		synchronized (this) {
+			if (!workspacePullRequested || workspacePull != null) {
+				return;
+			}
+			workspacePullRequested = false;
+		}
+		pullWorkspace();
+	}
+
+	private void applyDocumentReport(String uri, DocumentDiagnosticReport report) {
+		if (report.isRelatedFullDocumentDiagnosticReport()) {
+			final var fullReport = report.getRelatedFullDocumentDiagnosticReport();
+			applyFullReport(uri, fullReport);
+			applyRelatedReports(fullReport.getRelatedDocuments());
+		} else if (report.isRelatedUnchangedDocumentDiagnosticReport()) {
+			final var unchangedReport = report.getRelatedUnchangedDocumentDiagnosticReport();
+			resultIds.put(uri, unchangedReport.getResultId());
+			applyRelatedReports(unchangedReport.getRelatedDocuments());
+		}
+	}
+
+	private void applyRelatedReports(
+			@Nullable Map<String, Either<FullDocumentDiagnosticReport, UnchangedDocumentDiagnosticReport>> reports) {
+		if (reports == null) {
+			return;
+		}
+		for (Entry<String, Either<FullDocumentDiagnosticReport, UnchangedDocumentDiagnosticReport>> report : reports
+				.entrySet()) {
+			if (report.getValue().isLeft()) {
+				applyFullReport(report.getKey(), report.getValue().getLeft());
+			} else {
+				resultIds.put(report.getKey(), report.getValue().getRight().getResultId());
+			}
+		}
+	}
+
+	private void applyWorkspaceReports(@Nullable List<WorkspaceDocumentDiagnosticReport> reports) {
+		if (reports == null) {
+			return;
+		}
+		// the connected documents are pulled on their own, against their current content
+		final var connected = new HashSet<String>();
+		for (URI uri : connectedDocuments.get()) {
+			connected.add(LSPEclipseUtils.toTextDocumentIdentifier(uri).getUri());
+		}
+		for (WorkspaceDocumentDiagnosticReport report : reports) {
+			if (report.isWorkspaceFullDocumentDiagnosticReport()) {
+				final var fullReport = report.getWorkspaceFullDocumentDiagnosticReport();
+				if (!connected.contains(fullReport.getUri())) {
+					applyFullReport(fullReport.getUri(), fullReport);
+				}
+			} else if (report.isWorkspaceUnchangedDocumentDiagnosticReport()) {
+				final var unchangedReport = report.getWorkspaceUnchangedDocumentDiagnosticReport();
+				if (!connected.contains(unchangedReport.getUri())) {
+					resultIds.put(unchangedReport.getUri(), unchangedReport.getResultId());
+				}
+			}
+		}
+	}
+
+	private void applyFullReport(String uri, FullDocumentDiagnosticReport report) {
+		final String resultId = report.getResultId();
+		if (resultId != null) {
+			resultIds.put(uri, resultId);
+		} else {
+			resultIds.remove(uri);
+		}
+		diagnosticsConsumer.accept(new PublishDiagnosticsParams(uri, report.getItems()));
+	}
+
+	/**
+	 * @return whether the server cancelled the pull, asking for it to be retriggered
+	 */
+	private static boolean shouldRetrigger(Throwable error) {
+		if (error instanceof CompletionException) {
+			error = error.getCause();
+		}
+		if (error instanceof ResponseErrorException responseErrorException) {
+			final ResponseError responseError = responseErrorException.getResponseError();
+			if (responseError != null && responseError.getCode() == ResponseErrorCode.ServerCancelled.getValue()) {
+				final Object data = responseError.getData();
+				return !(data instanceof JsonElement json)
+						|| new Gson().fromJson(json, DiagnosticServerCancellationData.class).isRetriggerRequest();
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * To call in the UI thread
+	 *
+	 * @return the URIs of the documents of the visible editors
+	 */
+	private static Set<URI> getVisibleDocuments() {
+		final var visible = new HashSet<URI>();
+		for (IWorkbenchWindow window : PlatformUI.getWorkbench().getWorkbenchWindows()) {
+			final IWorkbenchPage page = window.getActivePage();
+			if (page == null) {
+				continue;
+			}
+			for (IEditorReference reference : page.getEditorReferences()) {
+				final IEditorPart editor = reference.getEditor(false);
+				if (editor == null || !page.isPartVisible(editor)) {
+					continue;
+				}
+				final ITextViewer viewer = LSPEclipseUtils.getTextViewer(editor);
+				final IDocument document = viewer != null ? viewer.getDocument() : null;
+				final URI uri = document != null ? LSPEclipseUtils.toUri(document) : null;
+				if (uri != null) {
+					visible.add(uri);
+				}
+			}
+		}
+		return visible;
+	}
+}
@@ -16,6 +16,8 @@
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -28,12 +30,16 @@
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
@@ -46,25 +52,54 @@
 import org.eclipse.lsp4e.IMarkerAttributeComputer;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.internal.LineOffsetIndex;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
-import org.eclipse.lsp4j.jsonrpc.messages.Either;
-import org.eclipse.ui.texteditor.MarkerUtilities;
 
 public class LSPDiagnosticsToMarkers implements Consumer<PublishDiagnosticsParams> {
 
 	public static final String LSP_DIAGNOSTIC = "lspDiagnostic"; //$NON-NLS-1$
 	public static final String LANGUAGE_SERVER_ID = "languageServerId"; //$NON-NLS-1$
 	public static final String LS_DIAGNOSTIC_MARKER_TYPE = "org.eclipse.lsp4e.diagnostic"; //$NON-NLS-1$
+
+	/**
+	 * Maximum number of resources whose markers are updated in a single workspace operation, so that the
+	 * resource change notifications of a diagnostics storm are batched without being delayed until its end
+	 */
+	private static final int MAX_RESOURCES_PER_OPERATION = 500;
+	/**
+	 * Maximum number of pending resource updates for which the documents that aren't loaded yet get loaded
+	 * temporarily to compute the offsets of the diagnostics. Above it, e.g. when a language server publishes the
+	 * diagnostics of a whole project, the markers of these documents only get the lines of the diagnostics.
+	 */
+	private static final int MAX_TEMPORARY_DOCUMENTS = 100;
+
 	private final @NonNull String languageServerId;
 	private final @NonNull String markerType;
 	private final Optional<IMarkerAttributeComputer> markerAttributeComputer;
 
+	/**
+	 * The latest diagnostics published for each resource, not applied to the markers yet
+	 */
+	private final Map<IResource, PublishDiagnosticsParams> pendingUpdates = new LinkedHashMap<>();
+	private final Job updateMarkersJob = new Job("Update markers from diagnostics") { //$NON-NLS-1$
+		@Override
+		public boolean belongsTo(Object family) {
+			return LanguageServerPlugin.FAMILY_UPDATE_MARKERS == family;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			return updatePendingMarkers(monitor);
+		}
+	};
+
 	public LSPDiagnosticsToMarkers(@NonNull String serverId, @Nullable String markerType, @Nullable IMarkerAttributeComputer markerAttributeComputer) {
 		this.languageServerId = serverId;
 		this.markerType = markerType != null ? markerType : LS_DIAGNOSTIC_MARKER_TYPE;
 		this.markerAttributeComputer = Optional.ofNullable(markerAttributeComputer);
+		this.updateMarkersJob.setSystem(true);
 	}
 
 	public LSPDiagnosticsToMarkers(@NonNull String serverId) {
@@ -83,6 +118,18 @@ public LSPDiagnosticsToMarkers(IProject project, @NonNull String serverId) {
 		this(serverId);
 	}
 
+	/**
+	 * @return the diagnostic of the given marker, rebuilt from its {@link #LSP_DIAGNOSTIC} attribute, or
+	 *         <code>null</code> if the marker has no diagnostic
+	 */
+	public static @Nullable Diagnostic getDiagnostic(IMarker marker) throws CoreException {
+		final Object diagnostic = marker.getAttribute(LSP_DIAGNOSTIC);
+		if (diagnostic instanceof CompactDiagnostic compactDiagnostic) {
+			return compactDiagnostic.toDiagnostic();
+		}
+		return diagnostic instanceof Diagnostic ? (Diagnostic) diagnostic : null;
+	}
+
 	@Override
 	public void accept(PublishDiagnosticsParams diagnostics) {
 		try {
@@ -131,76 +178,113 @@ private void updateEditorAnnotations(@NonNull ISourceViewer sourceViewer, Publis
 		}
 	}
 
-	private WorkspaceJob updateMarkers(PublishDiagnosticsParams diagnostics, IResource resource) {
-		WorkspaceJob job = new WorkspaceJob("Update markers from diagnostics") { //$NON-NLS-1$
-			@Override
-			public boolean belongsTo(Object family) {
-				return LanguageServerPlugin.FAMILY_UPDATE_MARKERS == family;
-			}
+	private void updateMarkers(PublishDiagnosticsParams diagnostics, IResource resource) {
+		synchronized (pendingUpdates) {
+			pendingUpdates.put(resource, diagnostics);
+		}
+		updateMarkersJob.schedule();
+	}
 
-			@Override
-			public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
-				if (!resource.exists()) {
+	/**
+	 * Applies the pending updates, in batches of {@link #MAX_RESOURCES_PER_OPERATION} resources each run as a
+	 * single workspace operation, until there are no pending updates left.
+	 */
+	private IStatus updatePendingMarkers(IProgressMonitor monitor) {
+		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		while (!monitor.isCanceled()) {
+			final var batch = new LinkedHashMap<IResource, PublishDiagnosticsParams>();
+			final boolean loadDocuments;
+			synchronized (pendingUpdates) {
+				if (pendingUpdates.isEmpty()) {
 					return Status.OK_STATUS;
 				}
+				loadDocuments = pendingUpdates.size() <= MAX_TEMPORARY_DOCUMENTS;
+				final var iterator = pendingUpdates.entrySet().iterator();
+				while (iterator.hasNext() && batch.size() < MAX_RESOURCES_PER_OPERATION) {
+					final Entry<IResource, PublishDiagnosticsParams> update = iterator.next();
+					batch.put(update.getKey(), update.getValue());
+					iterator.remove();
+				}
+			}
+			ISchedulingRule rule = null;
+			for (IResource resource : batch.keySet()) {
+				rule = MultiRule.combine(rule, workspace.getRuleFactory().markerRule(resource));
+			}
+			try {
+				workspace.run(operationMonitor -> batch.forEach((resource, diagnostics) -> {
+					try {
+						updateMarkers(diagnostics, resource, loadDocuments);
+					} catch (CoreException e) {
+						LanguageServerPlugin.logError(e);
+					}
+				}), rule, IWorkspace.AVOID_UPDATE, monitor);
+			} catch (CoreException e) {
+				LanguageServerPlugin.logError(e);
+			}
+		}
+		return Status.CANCEL_STATUS;
+	}
 
-				final var toDeleteMarkers = new HashSet<IMarker>(
-						Arrays.asList(resource.findMarkers(markerType, true, IResource.DEPTH_ZERO)));
-				toDeleteMarkers
-						.removeIf(marker -> !Objects.equals(marker.getAttribute(LANGUAGE_SERVER_ID, ""), languageServerId)); //$NON-NLS-1$
-				final var newDiagnostics = new ArrayList<Diagnostic>();
-				final var toUpdate = new HashMap<IMarker, Diagnostic>();
+	/**
+	 * @param loadDocument
+	 *            whether to load the document of the resource if it isn't already, to get the offsets of the
+	 *            diagnostics. Otherwise, the markers of a resource without document only get the line of the
+	 *            diagnostics.
+	 */
+	private void updateMarkers(PublishDiagnosticsParams diagnostics, IResource resource, boolean loadDocument)
+			throws CoreException {
+		if (!resource.exists()) {
+			return;
+		}
 
-				// A language server can scan the whole project and generate diagnostics for files that are not currently open in the IDE
-				// (the markers will show up in the problem view). If so, need to open the document temporarily but be sure to release it
-				// when we're done
-				IDocument existingDocument = LSPEclipseUtils.getExistingDocument(resource);
-				final boolean hasDiagnostics = !diagnostics.getDiagnostics().isEmpty();
-				final boolean temporaryLoadDocument = existingDocument == null;
-				IDocument document = (hasDiagnostics && temporaryLoadDocument) ? LSPEclipseUtils.getDocument(resource): existingDocument;
-				for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
-					IMarker associatedMarker = getExistingMarkerFor(document, diagnostic, toDeleteMarkers);
-					if (associatedMarker == null) {
-						newDiagnostics.add(diagnostic);
-					} else {
-						toDeleteMarkers.remove(associatedMarker);
-						toUpdate.put(associatedMarker, diagnostic);
-					}
-				}
+		final var toDeleteMarkers = new HashSet<IMarker>(
+				Arrays.asList(resource.findMarkers(markerType, true, IResource.DEPTH_ZERO)));
+		toDeleteMarkers
+				.removeIf(marker -> !Objects.equals(marker.getAttribute(LANGUAGE_SERVER_ID, ""), languageServerId)); //$NON-NLS-1$
+		final var newDiagnostics = new ArrayList<Diagnostic>();
 
+		// A language server can scan the whole project and generate diagnostics for files that are not currently open in the IDE
+		// (the markers will show up in the problem view). If so, need to open the document temporarily but be sure to release it
+		// when we're done
+		IDocument existingDocument = LSPEclipseUtils.getExistingDocument(resource);
+		final boolean hasDiagnostics = !diagnostics.getDiagnostics().isEmpty();
+		final boolean temporaryLoadDocument = existingDocument == null;
+		IDocument document = (hasDiagnostics && temporaryLoadDocument && loadDocument) ? LSPEclipseUtils.getDocument(resource): existingDocument;
+		if (document != null) {
+			// every diagnostic range gets converted, more than once for the matched ones
+			LineOffsetIndex.connect(document);
+		}
+		try {
+			final Map<IMarker, Diagnostic> toUpdate = matchExistingMarkers(document, diagnostics.getDiagnostics(),
+					toDeleteMarkers, newDiagnostics);
+			for (Diagnostic diagnostic : newDiagnostics) {
+				if (resource.exists()) {
+					Map<String, Object> markerAttributes = computeMarkerAttributes(document, diagnostic, resource);
+					resource.createMarker(markerType, markerAttributes);
+				}
+			}
+			for (Entry<IMarker, Diagnostic> entry : toUpdate.entrySet()) {
+				IMarker marker = entry.getKey();
+				if (marker.exists()) {
+					Map<String, Object> markerAttributes = computeMarkerAttributes(document, entry.getValue(), resource);
+					updateMarker(markerAttributes, marker);
+				}
+			}
+			toDeleteMarkers.forEach(t -> {
 				try {
-					for (Diagnostic diagnostic : newDiagnostics) {
-						if (resource.exists()) {
-							Map<String, Object> markerAttributes = computeMarkerAttributes(document, diagnostic, resource);
-							resource.createMarker(markerType, markerAttributes);
-						}
-					}
-					for (Entry<IMarker, Diagnostic> entry : toUpdate.entrySet()) {
-						IMarker marker = entry.getKey();
-						if (marker.exists()) {
-							Map<String, Object> markerAttributes = computeMarkerAttributes(document, entry.getValue(), resource);
-							updateMarker(markerAttributes, marker);
-						}
-					}
-					toDeleteMarkers.forEach(t -> {
-						try {
-							t.delete();
-						} catch (CoreException e) {
-							LanguageServerPlugin.logError(e);
-						}
-					});
-				} finally {
-					if (document != null && temporaryLoadDocument) {
-						FileBuffers.getTextFileBufferManager().disconnect(resource.getFullPath(), LocationKind.IFILE, new NullProgressMonitor());
-					}
+					t.delete();
+				} catch (CoreException e) {
+					LanguageServerPlugin.logError(e);
 				}
-				return Status.OK_STATUS;
+			});
+		} finally {
+			if (document != null) {
+				LineOffsetIndex.disconnect(document);
 			}
-		};
-		job.setSystem(true);
-		job.setRule(resource.getWorkspace().getRuleFactory().markerRule(resource));
-		job.schedule();
-		return job;
+			if (document != null && temporaryLoadDocument) {
+				FileBuffers.getTextFileBufferManager().disconnect(resource.getFullPath(), LocationKind.IFILE, new NullProgressMonitor());
+			}
+		}
 	}
 
 	protected void updateMarker(@NonNull Map<String, Object> targetAttributes, @NonNull IMarker marker) {
@@ -213,44 +297,101 @@ protected void updateMarker(@NonNull Map<String, Object> targetAttributes, @NonN
 		}
 	}
 
-	private IMarker getExistingMarkerFor(IDocument document, Diagnostic diagnostic, Set<IMarker> remainingMarkers) {
-		if (document == null) {
-			return null;
+	/**
+	 * The attributes a diagnostic is matched on with an existing marker: the marker of the same language server,
+	 * with the same message, starting at the same offset, or on the same line when there is no document. The end
+	 * offset is only compared for non-empty ranges.
+	 */
+	private record MarkerKey(int start, @Nullable Object message, @Nullable Object languageServerId) {
+	}
+
+	private record IndexedMarker(IMarker marker, int charEnd) {
+	}
+
+	private static final String[] MATCHING_ATTRIBUTES = { IMarker.CHAR_START, IMarker.CHAR_END, IMarker.MESSAGE,
+			LANGUAGE_SERVER_ID, IMarker.LINE_NUMBER };
+
+	/**
+	 * Associates the diagnostics with the existing markers they update. The associated markers are removed from
+	 * <code>remainingMarkers</code>, and the diagnostics without existing marker are added to
+	 * <code>newDiagnostics</code>.
+	 * <p>
+	 * The attributes of the markers are read once, to index them by {@link MarkerKey}, so that the matching is
+	 * linear in the number of diagnostics and markers.
+	 * </p>
+	 *
+	 * @param document
+	 *            the document of the diagnostics, <code>null</code> to match them by line
+	 * @return the existing markers, with the diagnostic they're updated with
+	 */
+	Map<IMarker, Diagnostic> matchExistingMarkers(@Nullable IDocument document, List<Diagnostic> diagnostics,
+			Set<IMarker> remainingMarkers, List<Diagnostic> newDiagnostics) {
+		final var toUpdate = new HashMap<IMarker, Diagnostic>();
+		if (remainingMarkers.isEmpty()) {
+			newDiagnostics.addAll(diagnostics);
+			return toUpdate;
+		}
+		final Map<MarkerKey, List<IndexedMarker>> markers = indexMarkers(remainingMarkers, document != null);
+		for (Diagnostic diagnostic : diagnostics) {
+			IMarker associatedMarker = getExistingMarkerFor(document, diagnostic, markers);
+			if (associatedMarker == null) {
+				newDiagnostics.add(diagnostic);
+			} else {
+				remainingMarkers.remove(associatedMarker);
+				toUpdate.put(associatedMarker, diagnostic);
+			}
 		}
+		return toUpdate;
+	}
 
-		for (IMarker marker : remainingMarkers) {
+	private static Map<MarkerKey, List<IndexedMarker>> indexMarkers(Set<IMarker> markers, boolean byOffset) {
+		final var index = new HashMap<MarkerKey, List<IndexedMarker>>(markers.size() * 4 / 3 + 1);
+		for (IMarker marker : markers) {
 			if (!marker.exists()) {
 				continue;
 			}
 			try {
-				if (LSPEclipseUtils.toOffset(diagnostic.getRange().getStart(), document) == MarkerUtilities.getCharStart(marker)
-						&& (LSPEclipseUtils.toOffset(diagnostic.getRange().getEnd(), document) == MarkerUtilities.getCharEnd(marker) || Objects.equals(diagnostic.getRange().getStart(), diagnostic.getRange().getEnd()))
-						&& Objects.equals(marker.getAttribute(IMarker.MESSAGE), diagnostic.getMessage())
-						&& Objects.equals(marker.getAttribute(LANGUAGE_SERVER_ID), this.languageServerId)) {
-					return marker;
-				}
-			} catch (CoreException | BadLocationException e) {
+				final Object[] attributes = marker.getAttributes(MATCHING_ATTRIBUTES);
+				final Object start = byOffset ? attributes[0] : attributes[4];
+				final var key = new MarkerKey(start instanceof Integer value ? value : -1, attributes[2], attributes[3]);
+				final int charEnd = attributes[1] instanceof Integer end ? end : -1;
+				index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(new IndexedMarker(marker, charEnd));
+			} catch (CoreException e) {
 				LanguageServerPlugin.logError(e);
 			}
 		}
+		return index;
+	}
+
+	private @Nullable IMarker getExistingMarkerFor(@Nullable IDocument document, Diagnostic diagnostic,
+			Map<MarkerKey, List<IndexedMarker>> markers) {
+		final Range range = diagnostic.getRange();
+		try {
+			final int start = document != null ? LSPEclipseUtils.toOffset(range.getStart(), document)
+					: range.getStart().getLine() + 1;
+			final List<IndexedMarker> candidates = markers.get(new MarkerKey(start, diagnostic.getMessage(), languageServerId));
+			if (candidates == null) {
+				return null;
+			}
+			final boolean anyEnd = document == null || Objects.equals(range.getStart(), range.getEnd());
+			final int end = anyEnd ? -1 : LSPEclipseUtils.toOffset(range.getEnd(), document);
+			for (int i = 0; i < candidates.size(); i++) {
+				final IndexedMarker candidate = candidates.get(i);
+				if (anyEnd || candidate.charEnd() == end) {
+					candidates.remove(i);
+					return candidate.marker();
+				}
+			}
+		} catch (BadLocationException e) {
+			LanguageServerPlugin.logError(e);
+		}
 		return null;
 	}
 
 	private @NonNull Map<String, Object> computeMarkerAttributes(@Nullable IDocument document,
 			@NonNull Diagnostic diagnostic, @NonNull IResource resource) {
-		Either<String, Integer> code = diagnostic.getCode();
-		if (code != null && code.isLeft()) {
-			String left = code.getLeft();
-			if (left != null) {
-				diagnostic.setCode(Either.forLeft(left.intern()));
-			}
-		}
-		String source = diagnostic.getSource();
-		if (source != null) {
-			diagnostic.setSource(source.intern());
-		}
 		final var attributes = new HashMap<String, Object>(8);
-		attributes.put(LSP_DIAGNOSTIC, diagnostic);
+		attributes.put(LSP_DIAGNOSTIC, CompactDiagnostic.of(diagnostic));
 		attributes.put(LANGUAGE_SERVER_ID, languageServerId);
 		attributes.put(IMarker.MESSAGE, diagnostic.getMessage());
 		attributes.put(IMarker.SEVERITY, LSPEclipseUtils.toEclipseMarkerSeverity(diagnostic.getSeverity()));
@@ -286,6 +427,8 @@ private IMarker getExistingMarkerFor(IDocument document, Diagnostic diagnostic,
 			}
 			attributes.put(IMarker.CHAR_START, start);
 			attributes.put(IMarker.CHAR_END, end);
+		} else {
+			attributes.put(IMarker.LINE_NUMBER, diagnostic.getRange().getStart().getLine() + 1);
 		}
 
 		markerAttributeComputer
@@ -27,6 +27,7 @@
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.RequestPriority;
 import org.eclipse.lsp4j.DocumentLink;
 import org.eclipse.lsp4j.DocumentLinkParams;
 import org.eclipse.swt.custom.StyleRange;
@@ -82,6 +83,7 @@ private void underline() {
 			Display display = control.getDisplay();
 			request = LanguageServers.forDocument(document)
 					.withFilter(capabilities -> capabilities.getDocumentLinkProvider() != null)
+					.withPriority(RequestPriority.BACKGROUND)
 					.collectAll(languageServer -> languageServer.getTextDocumentService().documentLink(params))
 					.thenAcceptAsync(links -> links.forEach(this::underline), display);
 		}
@@ -40,6 +40,7 @@
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.RequestPriority;
 import org.eclipse.lsp4e.internal.DocumentUtil;
 import org.eclipse.lsp4j.FoldingRange;
 import org.eclipse.lsp4j.FoldingRangeKind;
@@ -142,6 +143,7 @@ public void reconcile(IRegion subRegion) {
 		// cancel previous requests
 		requests.forEach(request -> request.cancel(true));
 		requests = LanguageServers.forDocument(theDocument).withCapability(ServerCapabilities::getFoldingRangeProvider)
+				.withPriority(RequestPriority.BACKGROUND)
 				.computeAll(server -> server.getTextDocumentService().foldingRange(params));
 		requests.forEach(ranges -> ranges.thenAccept(this::applyFolding));
 	}
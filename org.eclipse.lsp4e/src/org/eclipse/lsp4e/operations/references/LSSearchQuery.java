@@ -37,6 +37,7 @@
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
+import org.eclipse.lsp4e.RequestPriority;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
@@ -84,6 +85,7 @@ public IStatus run(IProgressMonitor monitor) throws OperationCanceledException {
 			params.setPosition(LSPEclipseUtils.toPosition(offset, document));
 
 			@NonNull List<@NonNull CompletableFuture<List<? extends Location>>> requests = LanguageServers.forDocument(document).withCapability(ServerCapabilities::getReferencesProvider)
+				.withPriority(RequestPriority.BACKGROUND)
 				.computeAll(languageServer -> languageServer.getTextDocumentService().references(params));
 			CompletableFuture<?>[] populateUIFutures = requests.stream().map(request ->
 				request.thenAcceptAsync(locations -> {
@@ -10,14 +10,13 @@
 
 import java.net.URI;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.function.Function;
 
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.text.BadLocationException;
@@ -26,7 +25,10 @@
 import org.eclipse.jface.text.ITextListener;
 import org.eclipse.jface.text.ITextPresentationListener;
 import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.ITextViewerExtension2;
 import org.eclipse.jface.text.ITextViewerLifecycle;
+import org.eclipse.jface.text.IViewportListener;
+import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextPresentation;
 import org.eclipse.jface.text.TextViewer;
 import org.eclipse.jface.text.reconciler.DirtyRegion;
@@ -40,15 +42,24 @@
 import org.eclipse.lsp4e.internal.CancellationUtil;
 import org.eclipse.lsp4e.internal.DocumentUtil;
 import org.eclipse.lsp4e.internal.Pair;
-import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensCache.CachedSemanticTokens;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensScheduler.Request;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
 import org.eclipse.lsp4j.SemanticTokensLegend;
 import org.eclipse.lsp4j.SemanticTokensParams;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
+import org.eclipse.lsp4j.SemanticTokensServerFull;
 import org.eclipse.lsp4j.SemanticTokensWithRegistrationOptions;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageServer;
 import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.events.ControlListener;
 
 /**
  * A semantic reconciler strategy using LSP.
@@ -76,14 +87,34 @@
  * For simplicity, out-dated responses are discarded, as we know we shall get
  * newer ones.
  * <p>
+ * For large documents, the semantic tokens of the visible region of the viewer
+ * (and of a viewport above and below it) are requested first with
+ * <code>textDocument/semanticTokens/range</code> when the server supports it,
+ * so that the viewport gets colored before the whole document. Until the
+ * tokens of the whole document are received, scrolling requests the tokens of
+ * the newly visible regions. Servers supporting only range requests are only
+ * queried for the visible regions.
+ * <p>
+ * The tokens received are shared with the other viewers of the document through
+ * the {@link SemanticTokensCache}: the tokens already received for the current
+ * version of the document are reused, and the next tokens are requested as a
+ * delta from the last ones if the server supports it.
+ * <p>
+ * The requests are scheduled by a {@link SemanticTokensScheduler}, which waits
+ * for the document to be left unchanged for a delay adapted to the latency of
+ * the server, and chooses the requests from the size of the edits.
+ * <p>
  * In case the reconciler produces bogus results, it can be disabled with the key
  * {@literal semanticHighlightReconciler.disabled} until fix is provided.
  */
 public class SemanticHighlightReconcilerStrategy
-		implements IReconcilingStrategy, IReconcilingStrategyExtension, ITextPresentationListener, ITextViewerLifecycle {
+		implements IReconcilingStrategy, IReconcilingStrategyExtension, ITextPresentationListener, ITextViewerLifecycle,
+		IViewportListener {
 
 	private final boolean disabled;
 
+	private final SemanticTokensScheduler scheduler;
+
 	private ITextViewer viewer;
 
 	private IDocument document;
@@ -109,9 +140,35 @@
 
 	private CompletableFuture<Optional<VersionedSemanticTokens>> semanticTokensFullFuture;
 
+	private volatile @Nullable CompletableFuture<?> semanticTokensRangeFuture;
+
+	/**
+	 * The visible region of the viewer, updated in the display thread
+	 */
+	private volatile @Nullable IRegion visibleRegion;
+
+	/**
+	 * The region whose tokens were last requested, for the document version {@link #fetchedRegionTimestamp}
+	 */
+	private volatile @Nullable IRegion fetchedRegion;
+	private volatile long fetchedRegionTimestamp;
+
+	/**
+	 * The document version of the last tokens applied for the whole document
+	 */
+	private volatile long fullTokensTimestamp;
+
+	/**
+	 * The document this viewer is registered as a viewer of in the {@link SemanticTokensCache}
+	 */
+	private @Nullable URI openedUri;
+
+	private final ControlListener resizeListener = ControlListener.controlResizedAdapter(e -> viewportChanged(0));
+
 	public SemanticHighlightReconcilerStrategy() {
 		IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
 		disabled = store.getBoolean("semanticHighlightReconciler.disabled"); //$NON-NLS-1$
+		scheduler = new SemanticTokensScheduler(store.getLong(SemanticTokensScheduler.DEBOUNCE_KEY));
 		isInstalled = false;
 	}
 
@@ -131,13 +188,21 @@ public void install(final ITextViewer textViewer) {
 		viewer = textViewer;
 		styleRangeHolder = new StyleRangeHolder();
 		semanticTokensDataStreamProcessor = new SemanticTokensDataStreamProcessor(new TokenTypeMapper(textViewer),
-				offsetMapper());
+				() -> document);
 
 		if (viewer instanceof final TextViewer textViewerImpl) {
 			textViewerImpl.addTextPresentationListener(this);
 		}
 		viewer.addTextListener(styleRangeHolder);
+		viewer.addTextListener(scheduler);
+		viewer.addViewportListener(this);
+		StyledText textWidget = viewer.getTextWidget();
+		if (textWidget != null) {
+			textWidget.addControlListener(resizeListener);
+		}
+		visibleRegion = computeVisibleRegion();
 		isInstalled = true;
+		openSemanticTokens();
 	}
 
 	/**
@@ -151,25 +216,23 @@ public void uninstall() {
 		}
 		isInstalled = false; // Indicate that we're not installed or in the phase of deinstalling
 		cancelSemanticTokensFull();
+		cancelSemanticTokensRange();
+		closeSemanticTokens();
 		semanticTokensDataStreamProcessor = null;
 		if (viewer instanceof final TextViewer textViewerImpl) {
 			textViewerImpl.removeTextPresentationListener(this);
 		}
 		viewer.removeTextListener(styleRangeHolder);
+		viewer.removeTextListener(scheduler);
+		viewer.removeViewportListener(this);
+		StyledText textWidget = viewer.getTextWidget();
+		if (textWidget != null && !textWidget.isDisposed()) {
+			textWidget.removeControlListener(resizeListener);
+		}
 		viewer = null;
 		styleRangeHolder = null;
 	}
 
-	private @NonNull Function<Position, Integer> offsetMapper() {
-		return p -> {
-			try {
-				return LSPEclipseUtils.toOffset(p, document);
-			} catch (BadLocationException e) {
-				throw new RuntimeException(e);
-			}
-		};
-	}
-
 	private SemanticTokensParams getSemanticTokensParams() {
 		URI uri = LSPEclipseUtils.toUri(document);
 		if (uri != null) {
@@ -180,7 +243,7 @@ private SemanticTokensParams getSemanticTokensParams() {
 		return null;
 	}
 
-	private void saveStyle(final Pair<SemanticTokens, SemanticTokensLegend> pair) {
+	private void saveStyle(final Pair<SemanticTokens, SemanticTokensLegend> pair, final @Nullable IRegion region) {
 		final SemanticTokens semanticTokens = pair.first();
 		final SemanticTokensLegend semanticTokensLegend = pair.second();
 
@@ -188,8 +251,11 @@ private void saveStyle(final Pair<SemanticTokens, SemanticTokensLegend> pair) {
 		if (!isInstalled || semanticTokens == null || semanticTokensLegend == null) {
 			return;
 		}
-		List<Integer> dataStream = semanticTokens.getData();
-		if (!dataStream.isEmpty()) {
+		int[] dataStream = SemanticTokensDataStreamProcessor.toArray(semanticTokens.getData());
+		if (region != null) {
+			styleRangeHolder.saveStyles(region,
+					semanticTokensDataStreamProcessor.getStyleRanges(dataStream, semanticTokensLegend));
+		} else if (dataStream.length > 0) {
 			List<StyleRange> styleRanges = semanticTokensDataStreamProcessor.getStyleRanges(dataStream,
 					semanticTokensLegend);
 			styleRangeHolder.saveStyles(styleRanges);
@@ -202,7 +268,15 @@ public void setProgressMonitor(final IProgressMonitor monitor) {
 
 	@Override
 	public void setDocument(final IDocument document) {
+		if (isInstalled) {
+			closeSemanticTokens();
+		}
 		this.document = document;
+		if (isInstalled) {
+			openSemanticTokens();
+		}
+		fetchedRegion = null;
+		fullTokensTimestamp = 0;
 	}
 
 	private boolean hasSemanticTokensFull(final ServerCapabilities serverCapabilities) {
@@ -210,6 +284,140 @@ private boolean hasSemanticTokensFull(final ServerCapabilities serverCapabilitie
 				&& LSPEclipseUtils.hasCapability(serverCapabilities.getSemanticTokensProvider().getFull());
 	}
 
+	private boolean hasSemanticTokensRange(final ServerCapabilities serverCapabilities) {
+		return serverCapabilities.getSemanticTokensProvider() != null
+				&& LSPEclipseUtils.hasCapability(serverCapabilities.getSemanticTokensProvider().getRange());
+	}
+
+	private boolean hasSemanticTokensFullDelta(final @Nullable ServerCapabilities serverCapabilities) {
+		if (serverCapabilities == null || serverCapabilities.getSemanticTokensProvider() == null) {
+			return false;
+		}
+		Either<Boolean, SemanticTokensServerFull> full = serverCapabilities.getSemanticTokensProvider().getFull();
+		return full != null && full.isRight() && Boolean.TRUE.equals(full.getRight().getDelta());
+	}
+
+	/**
+	 * Requests the semantic tokens of the document, as a delta from the last tokens of the same language server
+	 * if it supports deltas. The cached tokens of the current version of the document are reused, and the cached
+	 * tokens of a reopened document are applied until the new ones are received.
+	 */
+	private CompletableFuture<@Nullable SemanticTokens> semanticTokens(final LanguageServerWrapper wrapper,
+			final LanguageServer languageServer, final IDocument theDocument, final long modificationStamp,
+			final int editSize) {
+		final URI uri = LSPEclipseUtils.toUri(theDocument);
+		final SemanticTokensParams params = getSemanticTokensParams();
+		if (uri == null || params == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		final SemanticTokensLegend legend = getSemanticTokensLegend(wrapper);
+		CachedSemanticTokens cached = SemanticTokensCache.get(uri, wrapper);
+		if (cached != null && !Objects.equals(cached.legend(), legend)) {
+			cached = null; // e.g. the language server was restarted with another legend
+		}
+		final Integer contentHash = cached != null ? cached.contentHash() : null;
+		if (cached != null && contentHash != null) {
+			// the document was closed, its tokens are valid if it has the same content
+			if (contentHash == theDocument.get().hashCode()) {
+				cached = CachedSemanticTokens.of(theDocument, modificationStamp, cached.resultId(), cached.data(),
+						legend);
+				SemanticTokensCache.put(uri, wrapper, cached);
+				new VersionedSemanticTokens(modificationStamp,
+						Pair.of(new SemanticTokens(SemanticTokensDataStreamProcessor.asList(cached.data())), legend),
+						theDocument).apply(pair -> saveStyle(pair, null), this::invalidateTextPresentation);
+			}
+		} else if (cached != null && cached.isOf(theDocument, modificationStamp)) {
+			return CompletableFuture.completedFuture(
+					new SemanticTokens(cached.resultId(), SemanticTokensDataStreamProcessor.asList(cached.data())));
+		}
+		final CachedSemanticTokens previous = cached;
+		final String previousResultId = previous != null ? previous.resultId() : null;
+		if (previous == null || previousResultId == null || !hasSemanticTokensFullDelta(wrapper.getServerCapabilities())
+				|| !SemanticTokensScheduler.requestDelta(editSize, theDocument.getLength())) {
+			return semanticTokensFull(wrapper, languageServer, params, uri, theDocument, modificationStamp);
+		}
+		final var deltaParams = new SemanticTokensDeltaParams(params.getTextDocument(), previousResultId);
+		return scheduler
+				.sent(wrapper.serverDefinition.id, Request.DELTA,
+						languageServer.getTextDocumentService().semanticTokensFullDelta(deltaParams))
+				.thenCompose(tokensOrDelta -> {
+					if (tokensOrDelta == null) {
+						return CompletableFuture.completedFuture(
+								rememberResult(wrapper, null, uri, theDocument, modificationStamp));
+					} else if (tokensOrDelta.isLeft()) {
+						return CompletableFuture.completedFuture(
+								rememberResult(wrapper, tokensOrDelta.getLeft(), uri, theDocument, modificationStamp));
+					}
+					final SemanticTokensDelta delta = tokensOrDelta.getRight();
+					try {
+						final int[] data = SemanticTokensDataStreamProcessor.applyEdits(previous.data(),
+								delta.getEdits());
+						return CompletableFuture.completedFuture(rememberResult(wrapper,
+								new SemanticTokens(delta.getResultId(), SemanticTokensDataStreamProcessor.asList(data)),
+								uri, theDocument, modificationStamp));
+					} catch (IllegalArgumentException e) {
+						// out of sync with the language server, start over from the whole tokens
+						LanguageServerPlugin.logWarning(e.getMessage(), e);
+						SemanticTokensCache.remove(uri, wrapper);
+						return semanticTokensFull(wrapper, languageServer, params, uri, theDocument, modificationStamp);
+					}
+				}).exceptionallyCompose(e -> {
+					if (CancellationUtil.isRequestCancelledException(e)) {
+						return CompletableFuture.failedFuture(e);
+					}
+					// e.g. a result id of a previous session, unknown to the language server
+					LanguageServerPlugin.logWarning(e.getMessage(), e);
+					SemanticTokensCache.remove(uri, wrapper);
+					return semanticTokensFull(wrapper, languageServer, params, uri, theDocument, modificationStamp);
+				});
+	}
+
+	private CompletableFuture<@Nullable SemanticTokens> semanticTokensFull(final LanguageServerWrapper wrapper,
+			final LanguageServer languageServer, final SemanticTokensParams params, final URI uri,
+			final IDocument theDocument, final long modificationStamp) {
+		return scheduler
+				.sent(wrapper.serverDefinition.id, Request.FULL,
+						languageServer.getTextDocumentService().semanticTokensFull(params))
+				.thenApply(semanticTokens -> rememberResult(wrapper, semanticTokens, uri, theDocument,
+						modificationStamp));
+	}
+
+	private @Nullable SemanticTokens rememberResult(final LanguageServerWrapper wrapper,
+			final @Nullable SemanticTokens semanticTokens, final URI uri, final IDocument theDocument,
+			final long modificationStamp) {
+		if (semanticTokens != null && semanticTokens.getData() != null) {
+			// decoded once, for the styles and for the next delta
+			final int[] data = SemanticTokensDataStreamProcessor.toArray(semanticTokens.getData());
+			semanticTokens.setData(SemanticTokensDataStreamProcessor.asList(data));
+			SemanticTokensCache.put(uri, wrapper, CachedSemanticTokens.of(theDocument, modificationStamp,
+					semanticTokens.getResultId(), data, getSemanticTokensLegend(wrapper)));
+		} else {
+			SemanticTokensCache.remove(uri, wrapper);
+		}
+		return semanticTokens;
+	}
+
+	private void openSemanticTokens() {
+		IDocument theDocument = document;
+		openedUri = theDocument != null ? LSPEclipseUtils.toUri(theDocument) : null;
+		if (openedUri != null) {
+			SemanticTokensCache.open(openedUri);
+		}
+	}
+
+	/**
+	 * Unregisters this viewer of the document, the cached tokens of the document being kept with the hash of its
+	 * content if they're up to date when its last viewer is closed, to reuse them if the document is reopened.
+	 */
+	private void closeSemanticTokens() {
+		IDocument theDocument = document;
+		URI uri = openedUri;
+		openedUri = null;
+		if (uri != null && theDocument != null) {
+			SemanticTokensCache.close(uri, theDocument, DocumentUtil.getDocumentModificationStamp(theDocument));
+		}
+	}
+
 	// public for testing
 	public @Nullable SemanticTokensLegend getSemanticTokensLegend(final LanguageServerWrapper wrapper) {
 		ServerCapabilities serverCapabilities = wrapper.getServerCapabilities();
@@ -235,6 +443,10 @@ private boolean outdatedTextPresentation(final long documentTimestamp) {
 	}
 
 	private void invalidateTextPresentation(final Long documentTimestamp) {
+		invalidateTextPresentation(documentTimestamp, null);
+	}
+
+	private void invalidateTextPresentation(final long documentTimestamp, final @Nullable IRegion region) {
 		if (!isInstalled) { // Skip any processing
 			return;
 		}
@@ -242,13 +454,98 @@ private void invalidateTextPresentation(final Long documentTimestamp) {
 		textWidget.getDisplay().asyncExec(() -> {
 			if (!textWidget.isDisposed() && outdatedTextPresentation(documentTimestamp)) {
 				ITextViewer theViewer = viewer;
-				if (theViewer != null) {
+				if (theViewer instanceof ITextViewerExtension2 extension && region != null) {
+					extension.invalidateTextPresentation(region.getOffset(), region.getLength());
+				} else if (theViewer != null) {
 					theViewer.invalidateTextPresentation();
 			        }
 			}
 		});
 	}
 
+	/**
+	 * @return the region of the document visible in the viewer, <code>null</code> if none
+	 */
+	private @Nullable IRegion computeVisibleRegion() {
+		ITextViewer theViewer = viewer;
+		IDocument theDocument = theViewer != null ? theViewer.getDocument() : null;
+		if (theViewer == null || theDocument == null || theViewer.getTextWidget() == null
+				|| theViewer.getTextWidget().isDisposed()) {
+			return null;
+		}
+		int start = theViewer.getTopIndexStartOffset();
+		int end = Math.min(theViewer.getBottomIndexEndOffset() + 1, theDocument.getLength());
+		return start >= 0 && end > start ? new Region(start, end - start) : null;
+	}
+
+	@Override
+	public void viewportChanged(final int verticalOffset) {
+		IRegion region = computeVisibleRegion();
+		visibleRegion = region;
+		IDocument theDocument = document;
+		if (isInstalled && region != null && theDocument != null
+				&& fullTokensTimestamp != DocumentUtil.getDocumentModificationStamp(theDocument)) {
+			semanticTokensRange(theDocument, region);
+		}
+	}
+
+	private void cancelSemanticTokensRange() {
+		CompletableFuture<?> future = semanticTokensRangeFuture;
+		if (future != null) {
+			future.cancel(true);
+		}
+	}
+
+	/**
+	 * Requests the semantic tokens of the given visible region and of a viewport above and below it, unless they
+	 * were already requested for the current version of the document. They're only requested from the servers
+	 * which don't support full requests if the visible region covers most of the document.
+	 */
+	private void semanticTokensRange(final IDocument theDocument, final IRegion visible) {
+		final long modificationStamp = DocumentUtil.getDocumentModificationStamp(theDocument);
+		final IRegion fetched = fetchedRegion;
+		if (fetched != null && fetchedRegionTimestamp == modificationStamp
+				&& fetched.getOffset() <= visible.getOffset()
+				&& fetched.getOffset() + fetched.getLength() >= visible.getOffset() + visible.getLength()) {
+			return;
+		}
+		final SemanticTokensParams params = getSemanticTokensParams();
+		if (params == null) {
+			return;
+		}
+		final int start = Math.max(0, visible.getOffset() - visible.getLength());
+		final int end = Math.min(theDocument.getLength(), visible.getOffset() + 2 * visible.getLength());
+		final var region = new Region(start, end - start);
+		final Range range;
+		try {
+			range = new Range(LSPEclipseUtils.toPosition(start, theDocument), LSPEclipseUtils.toPosition(end, theDocument));
+		} catch (BadLocationException e) {
+			return; // the document changed since the region was computed
+		}
+		final boolean partial = visible.getLength() * 2 < theDocument.getLength();
+		final var rangeParams = new SemanticTokensRangeParams(params.getTextDocument(), range);
+		cancelSemanticTokensRange();
+		fetchedRegion = region;
+		fetchedRegionTimestamp = modificationStamp;
+		final CompletableFuture<Optional<VersionedSemanticTokens>> future = LanguageServers.forDocument(theDocument)
+				.withFilter(capabilities -> hasSemanticTokensRange(capabilities)
+						&& (partial || !hasSemanticTokensFull(capabilities)))
+				.computeFirst((w, ls) -> scheduler
+						.sent(w.serverDefinition.id, Request.RANGE,
+								ls.getTextDocumentService().semanticTokensRange(rangeParams))
+						.thenApply(semanticTokens -> new VersionedSemanticTokens(modificationStamp,
+								Pair.of(semanticTokens, getSemanticTokensLegend(w)), theDocument)));
+		semanticTokensRangeFuture = future;
+		future.thenAccept(versionedSemanticTokens -> versionedSemanticTokens.ifPresent(tokens -> tokens.apply(
+				pair -> saveStyle(pair, region), stamp -> invalidateTextPresentation(stamp, region))))
+				.exceptionally(e -> {
+					if (!CancellationUtil.isRequestCancelledException(e)) {
+						LanguageServerPlugin.logError(e);
+					}
+					return null;
+				});
+	}
+
 	private void cancelSemanticTokensFull() {
 		if (semanticTokensFullFuture != null) {
 			semanticTokensFullFuture.cancel(true);
@@ -263,17 +560,26 @@ private void fullReconcile() {
 		cancelSemanticTokensFull();
 		if (theDocument != null) {
 			long modificationStamp = DocumentUtil.getDocumentModificationStamp(theDocument);
+			int editSize = scheduler.takeEditSize();
+			IRegion visible = visibleRegion;
+			if (visible != null && SemanticTokensScheduler.requestRangeFirst(editSize, visible.getLength(),
+					fullTokensTimestamp != 0)) {
+				semanticTokensRange(theDocument, visible);
+			}
 			LanguageServerDocumentExecutor executor = LanguageServers.forDocument(theDocument)
 					.withFilter(this::hasSemanticTokensFull);
 			try {
 				semanticTokensFullFuture = executor//
-					.computeFirst((w, ls) -> ls.getTextDocumentService().semanticTokensFull(getSemanticTokensParams())//
+					.computeFirst((w, ls) -> semanticTokens(w, ls, theDocument, modificationStamp, editSize)//
 							.thenApply(semanticTokens -> new VersionedSemanticTokens(modificationStamp,
 									Pair.of(semanticTokens, getSemanticTokensLegend(w)), theDocument)));
 
 				semanticTokensFullFuture.get() // background thread with cancellation support, no timeout needed
 						.ifPresent(versionedSemanticTokens -> {
-							versionedSemanticTokens.apply(this::saveStyle, this::invalidateTextPresentation);
+							versionedSemanticTokens.apply(pair -> {
+								saveStyle(pair, null);
+								fullTokensTimestamp = modificationStamp;
+							}, this::invalidateTextPresentation);
 						});
 			} catch (InterruptedException e) {
 				LanguageServerPlugin.logError(e);
@@ -308,6 +614,16 @@ public void reconcile(final IRegion partition) {
 	private void fullReconcileOnce() {
 		var ts = DocumentUtil.getDocumentModificationStamp(document);
 		if (ts != timestamp) {
+			IDocument theDocument = document;
+			if (theDocument != null) {
+				try {
+					// skip the versions changed before the server could compute their tokens
+					ts = scheduler.awaitQuietDocument(theDocument, () -> !isInstalled);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
 			fullReconcile();
 			timestamp = ts;
 		}
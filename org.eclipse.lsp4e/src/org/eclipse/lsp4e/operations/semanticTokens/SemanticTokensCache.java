@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.semanticTokens;
+
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4j.SemanticTokensLegend;
+
+/**
+ * The last semantic tokens received for a document from a language server, shared by all the viewers of the
+ * document: a viewer opened on a document whose tokens are cached for its current modification stamp, e.g. in a
+ * split pane, reuses them instead of requesting them again. As modification stamps are only meaningful for a
+ * given document instance, the tokens of an open document are only reused for the same instance. Once the last
+ * viewer of a document is closed, its tokens are kept with the hash of its content, so that the document gets
+ * colored as soon as it's reopened with the same content, while the tokens are requested again as a delta from
+ * the cached ones.
+ * <p>
+ * The cache keeps the tokens of the most recently used documents, up to {@link #MAX_DATA_LENGTH} integers
+ * overall.
+ * </p>
+ */
+public final class SemanticTokensCache {
+
+	/**
+	 * The maximal number of integers of the cached data streams, 16MB
+	 */
+	static final int MAX_DATA_LENGTH = 4 * 1024 * 1024;
+
+	/**
+	 * The semantic tokens of a document.
+	 *
+	 * @param document
+	 *            the open document the tokens were computed for, <code>null</code> once it's closed
+	 * @param modificationStamp
+	 *            the modification stamp of the document the tokens were computed for
+	 * @param resultId
+	 *            the result id of the tokens, to request the next ones as a delta, <code>null</code> if none
+	 * @param data
+	 *            the data stream of the tokens
+	 * @param legend
+	 *            the legend of the language server which computed the tokens
+	 * @param contentHash
+	 *            the hash code of the content of the document when it was closed, <code>null</code> while it's
+	 *            open
+	 */
+	public record CachedSemanticTokens(@Nullable WeakReference<IDocument> document, long modificationStamp,
+			@Nullable String resultId, int[] data, @Nullable SemanticTokensLegend legend,
+			@Nullable Integer contentHash) {
+
+		/**
+		 * @return the tokens computed for the given version of the given open document
+		 */
+		public static CachedSemanticTokens of(IDocument document, long modificationStamp, @Nullable String resultId,
+				int[] data, @Nullable SemanticTokensLegend legend) {
+			return new CachedSemanticTokens(new WeakReference<>(document), modificationStamp, resultId, data, legend,
+					null);
+		}
+
+		/**
+		 * @return whether the tokens were computed for the given version of the given open document
+		 */
+		public boolean isOf(IDocument document, long modificationStamp) {
+			final WeakReference<IDocument> reference = this.document;
+			return reference != null && reference.get() == document && this.modificationStamp == modificationStamp;
+		}
+	}
+
+	private record Key(URI uri, String serverId) {
+	}
+
+	private static final LinkedHashMap<Key, CachedSemanticTokens> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+	private static long dataLength;
+	/** the number of viewers of each document, guarded by {@link #CACHE} */
+	private static final Map<URI, Integer> VIEWERS = new HashMap<>();
+
+	private SemanticTokensCache() {
+	}
+
+	/**
+	 * @return the last tokens of the given document received from the given language server, <code>null</code>
+	 *         if none are cached
+	 */
+	public static @Nullable CachedSemanticTokens get(URI uri, LanguageServerWrapper wrapper) {
+		synchronized (CACHE) {
+			return CACHE.get(new Key(uri, wrapper.serverDefinition.id));
+		}
+	}
+
+	public static void put(URI uri, LanguageServerWrapper wrapper, CachedSemanticTokens tokens) {
+		synchronized (CACHE) {
+			final CachedSemanticTokens previous = CACHE.put(new Key(uri, wrapper.serverDefinition.id), tokens);
+			dataLength += tokens.data().length - (previous != null ? previous.data().length : 0);
+			final Iterator<CachedSemanticTokens> eldest = CACHE.values().iterator();
+			while (dataLength > MAX_DATA_LENGTH && eldest.hasNext()) {
+				final CachedSemanticTokens evicted = eldest.next();
+				if (evicted != tokens) {
+					dataLength -= evicted.data().length;
+					eldest.remove();
+				}
+			}
+		}
+	}
+
+	public static void remove(URI uri, LanguageServerWrapper wrapper) {
+		synchronized (CACHE) {
+			final CachedSemanticTokens previous = CACHE.remove(new Key(uri, wrapper.serverDefinition.id));
+			if (previous != null) {
+				dataLength -= previous.data().length;
+			}
+		}
+	}
+
+	/**
+	 * Registers a viewer of the given document.
+	 */
+	public static void open(URI uri) {
+		synchronized (CACHE) {
+			VIEWERS.merge(uri, 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * Unregisters a viewer of the given document. Once its last viewer is closed, the tokens of the document
+	 * computed for its given modification stamp are kept with the hash of its content.
+	 */
+	public static void close(URI uri, IDocument document, long modificationStamp) {
+		synchronized (CACHE) {
+			if (VIEWERS.computeIfPresent(uri, (key, count) -> count > 1 ? count - 1 : null) != null
+					|| !isCached(uri, document, modificationStamp)) {
+				return;
+			}
+		}
+		final int contentHash = document.get().hashCode();
+		synchronized (CACHE) {
+			if (VIEWERS.containsKey(uri)) {
+				return; // reopened meanwhile
+			}
+			for (Map.Entry<Key, CachedSemanticTokens> entry : CACHE.entrySet()) {
+				final CachedSemanticTokens tokens = entry.getValue();
+				if (entry.getKey().uri().equals(uri) && tokens.isOf(document, modificationStamp)) {
+					entry.setValue(new CachedSemanticTokens(null, modificationStamp, tokens.resultId(), tokens.data(),
+							tokens.legend(), contentHash));
+				}
+			}
+		}
+	}
+
+	private static boolean isCached(URI uri, IDocument document, long modificationStamp) {
+		for (Map.Entry<Key, CachedSemanticTokens> entry : CACHE.entrySet()) {
+			if (entry.getKey().uri().equals(uri) && entry.getValue().isOf(document, modificationStamp)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// public for testing
+	public static void clear() {
+		synchronized (CACHE) {
+			CACHE.clear();
+			VIEWERS.clear();
+			dataLength = 0;
+		}
+	}
+}
@@ -9,19 +9,26 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.operations.semanticTokens;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.BitSet;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.TextAttribute;
 import org.eclipse.jface.text.rules.IToken;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.internal.LineOffsetIndex;
 import org.eclipse.lsp4e.internal.StyleUtil;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.SemanticTokenModifiers;
+import org.eclipse.lsp4j.SemanticTokensEdit;
 import org.eclipse.lsp4j.SemanticTokensLegend;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyleRange;
@@ -29,10 +36,18 @@
 /**
  * The Class SemanticTokensDataStreamProcessor translates a stream of integers
  * as defined by the LSP SemanticTokenRequests into a list of StyleRanges.
+ * <p>
+ * The stream is decoded as an <code>int[]</code>. The style of a token only depends on its type and on
+ * whether it's deprecated, so the styles are looked up in a table of the legend, computed once per token
+ * type, and copied for every token. The offset of the first token of each line is computed from the
+ * {@link LineOffsetIndex} of the document, the offsets of the following tokens of the line are relative to
+ * it.
+ * </p>
  */
 public class SemanticTokensDataStreamProcessor {
 
-	private final Function<Position, Integer> offsetMapper;
+	private final @Nullable Function<Position, Integer> offsetMapper;
+	private final @Nullable Supplier<@Nullable IDocument> documentSupplier;
 	private final Function<String, IToken> tokenTypeMapper;
 
 	/**
@@ -45,6 +60,22 @@ public SemanticTokensDataStreamProcessor(@NonNull final Function<String, IToken>
 			@NonNull final Function<Position, Integer> offsetMapper) {
 		this.tokenTypeMapper = tokenTypeMapper;
 		this.offsetMapper = offsetMapper;
+		this.documentSupplier = null;
+	}
+
+	/**
+	 * Creates a new instance of {@link SemanticTokensDataStreamProcessor} computing the offsets of the tokens
+	 * in the document supplied when the styles are computed.
+	 *
+	 * @param tokenTypeMapper
+	 * @param document
+	 *            supplies the document of the tokens, <code>null</code> if there's none
+	 */
+	public SemanticTokensDataStreamProcessor(@NonNull final Function<String, IToken> tokenTypeMapper,
+			@NonNull final Supplier<@Nullable IDocument> document) {
+		this.tokenTypeMapper = tokenTypeMapper;
+		this.offsetMapper = null;
+		this.documentSupplier = document;
 	}
 
 	/**
@@ -56,80 +87,201 @@ public SemanticTokensDataStreamProcessor(@NonNull final Function<String, IToken>
 	 */
 	public @NonNull List<StyleRange> getStyleRanges(@NonNull final List<Integer> dataStream,
 			@NonNull final SemanticTokensLegend semanticTokensLegend) {
-		final var styleRanges = new ArrayList<StyleRange>(dataStream.size() / 5);
+		return getStyleRanges(toArray(dataStream), semanticTokensLegend);
+	}
 
-		int idx = 0;
-		int prevLine = 0;
+	/**
+	 * Get the StyleRanges for the given data stream and tokens legend.
+	 *
+	 * @param dataStream
+	 * @param semanticTokensLegend
+	 * @return
+	 */
+	public @NonNull List<StyleRange> getStyleRanges(final int @NonNull [] dataStream,
+			@NonNull final SemanticTokensLegend semanticTokensLegend) {
+		final Function<Position, Integer> mapper = offsetMapper;
+		if (mapper != null) {
+			return getStyleRanges(dataStream, semanticTokensLegend,
+					(line, character) -> mapper.apply(new Position(line, character)));
+		}
+		final IDocument document = documentSupplier != null ? documentSupplier.get() : null;
+		if (document == null) {
+			return new ArrayList<>(0);
+		}
+		// connected documents have an index already, the others get one for the lines of this data stream
+		final boolean connect = LineOffsetIndex.get(document) == null;
+		final LineOffsetIndex index = connect ? LineOffsetIndex.connect(document) : LineOffsetIndex.get(document);
+		try {
+			return getStyleRanges(dataStream, semanticTokensLegend, index != null //
+					? (line, character) -> index.toOffset(document, line, character)
+					: (line, character) -> LSPEclipseUtils.toOffset(new Position(line, character), document));
+		} finally {
+			if (connect && index != null) {
+				LineOffsetIndex.disconnect(document);
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface OffsetMapper {
+		int toOffset(int line, int character) throws BadLocationException;
+	}
+
+	private @NonNull List<StyleRange> getStyleRanges(final int[] dataStream,
+			final SemanticTokensLegend semanticTokensLegend, final OffsetMapper offsets) {
+		final var styles = new StyleTable(semanticTokensLegend);
+		final var styleRanges = new ArrayList<StyleRange>(dataStream.length / 5);
 		int line = 0;
 		int offset = 0;
-		int length = 0;
-		String tokenType = null;
-		for (Integer data : dataStream) {
-			switch (idx % 5) {
-			case 0: // line
-				line += data;
-				break;
-			case 1: // offset
-				if (line == prevLine) {
-					offset += data;
+		try {
+			for (int i = 0; i + 4 < dataStream.length; i += 5) {
+				final int deltaLine = dataStream[i];
+				if (deltaLine == 0) {
+					offset += dataStream[i + 1];
 				} else {
-					offset = offsetMapper.apply(new Position(line, data));
-				}
-				break;
-			case 2: // length
-				length = data;
-				break;
-			case 3: // token type
-				tokenType = tokenType(data, semanticTokensLegend.getTokenTypes());
-				break;
-			case 4: // token modifier
-				prevLine = line;
-				List<String> tokenModifiers = tokenModifiers(data, semanticTokensLegend.getTokenModifiers());
-				StyleRange styleRange = getStyleRange(offset, length, textAttribute(tokenType));
-				if (tokenModifiers.stream().anyMatch(x -> x.equals(SemanticTokenModifiers.Deprecated))) {
-					if (styleRange == null) {
-						styleRange = new StyleRange();
-						styleRange.start = offset;
-						styleRange.length = length;
-					}
-					StyleUtil.DEPRECATE.applyStyles(styleRange);
+					line += deltaLine;
+					offset = offsets.toOffset(line, dataStream[i + 1]);
 				}
-				if (styleRange != null) {
+				final StyleRange style = styles.get(dataStream[i + 3], dataStream[i + 4]);
+				if (style != null) {
+					final var styleRange = (StyleRange) style.clone();
+					styleRange.start = offset;
+					styleRange.length = dataStream[i + 2];
 					styleRanges.add(styleRange);
 				}
-				break;
 			}
-			idx++;
+		} catch (BadLocationException e) {
+			throw new RuntimeException(e);
 		}
 		return styleRanges;
 	}
 
-	private String tokenType(final Integer data, final List<String> legend) {
-		try {
-			return legend.get(data);
-		} catch (IndexOutOfBoundsException e) {
-			return null; // no match
+	/**
+	 * The styles of the token types of a legend, with and without the deprecated modifier, computed the first
+	 * time a token of the type is decoded.
+	 */
+	private final class StyleTable {
+		private final List<String> tokenTypes;
+		private final int deprecatedModifier;
+		private final @Nullable StyleRange[] styles;
+		private final boolean[] computed;
+
+		StyleTable(final SemanticTokensLegend legend) {
+			tokenTypes = legend.getTokenTypes();
+			final int deprecatedIndex = legend.getTokenModifiers().indexOf(SemanticTokenModifiers.Deprecated);
+			deprecatedModifier = deprecatedIndex >= 0 && deprecatedIndex < Integer.SIZE ? 1 << deprecatedIndex : 0;
+			// the last two entries are for the types missing from the legend
+			styles = new StyleRange[2 * tokenTypes.size() + 2];
+			computed = new boolean[styles.length];
+		}
+
+		@Nullable StyleRange get(final int tokenType, final int tokenModifiers) {
+			final boolean deprecated = (tokenModifiers & deprecatedModifier) != 0;
+			final boolean known = tokenType >= 0 && tokenType < tokenTypes.size();
+			final int index = 2 * (known ? tokenType : tokenTypes.size()) + (deprecated ? 1 : 0);
+			if (!computed[index]) {
+				styles[index] = style(textAttribute(known ? tokenTypes.get(tokenType) : null), deprecated);
+				computed[index] = true;
+			}
+			return styles[index];
+		}
+
+		private @Nullable StyleRange style(final @Nullable TextAttribute textAttribute, final boolean deprecated) {
+			StyleRange styleRange = getStyleRange(0, 0, textAttribute);
+			if (deprecated) {
+				if (styleRange == null) {
+					styleRange = new StyleRange();
+				}
+				StyleUtil.DEPRECATE.applyStyles(styleRange);
+			}
+			return styleRange;
 		}
 	}
 
-	private List<String> tokenModifiers(final Integer data, final List<String> legend) {
-		if (data.intValue() == 0) {
-			return Collections.emptyList();
-		}
-		final var bitSet = BitSet.valueOf(new long[] { data });
-		final var tokenModifiers = new ArrayList<String>();
-		for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
-			try {
-				tokenModifiers.add(legend.get(i));
-			} catch (IndexOutOfBoundsException e) {
-				// no match
+	/**
+	 * Applies the edits of a <code>textDocument/semanticTokens/full/delta</code> response to the data stream of
+	 * the previous result.
+	 *
+	 * @param dataStream
+	 *            the data stream of the previous result
+	 * @param edits
+	 *            the edits, relative to the previous data stream
+	 * @return the new data stream
+	 * @throws IllegalArgumentException
+	 *             if the edits overlap or exceed the previous data stream
+	 */
+	public static int @NonNull [] applyEdits(final int @NonNull [] dataStream,
+			@NonNull final List<SemanticTokensEdit> edits) {
+		final var sortedEdits = new ArrayList<>(edits);
+		sortedEdits.sort(Comparator.comparingInt(SemanticTokensEdit::getStart));
+		int size = dataStream.length;
+		for (SemanticTokensEdit edit : sortedEdits) {
+			size += (edit.getData() != null ? edit.getData().size() : 0) - edit.getDeleteCount();
+		}
+		final var newDataStream = new int[Math.max(size, 0)];
+		int copied = 0;
+		int length = 0;
+		for (SemanticTokensEdit edit : sortedEdits) {
+			final int start = edit.getStart();
+			if (start < copied || edit.getDeleteCount() < 0 || start + edit.getDeleteCount() > dataStream.length) {
+				throw new IllegalArgumentException("Invalid semantic tokens edit: " + edit); //$NON-NLS-1$
+			}
+			System.arraycopy(dataStream, copied, newDataStream, length, start - copied);
+			length += start - copied;
+			if (edit.getData() != null) {
+				for (Integer data : edit.getData()) {
+					newDataStream[length++] = data;
+				}
 			}
+			copied = start + edit.getDeleteCount();
 		}
+		System.arraycopy(dataStream, copied, newDataStream, length, dataStream.length - copied);
+		return newDataStream;
+	}
 
-		return tokenModifiers;
+	/**
+	 * @return the values of the given data stream, without copying them if the list was returned by
+	 *         {@link #asList(int[])}
+	 */
+	public static int @NonNull [] toArray(@NonNull final List<Integer> dataStream) {
+		if (dataStream instanceof DataStreamList list) {
+			return list.data;
+		}
+		final var data = new int[dataStream.size()];
+		int i = 0;
+		for (Integer value : dataStream) {
+			data[i++] = value;
+		}
+		return data;
+	}
+
+	/**
+	 * @return a list backed by the given data stream, e.g. to pass a data stream decoded once in the
+	 *         {@link org.eclipse.lsp4j.SemanticTokens} of a response
+	 */
+	public static @NonNull List<Integer> asList(final int @NonNull [] dataStream) {
+		return new DataStreamList(dataStream);
+	}
+
+	private static final class DataStreamList extends AbstractList<Integer> implements RandomAccess {
+		private final int[] data;
+
+		DataStreamList(final int[] data) {
+			this.data = data;
+		}
+
+		@Override
+		public Integer get(final int index) {
+			return data[index];
+		}
+
+		@Override
+		public int size() {
+			return data.length;
+		}
 	}
 
-	private TextAttribute textAttribute(final String tokenType) {
+	private @Nullable TextAttribute textAttribute(final @Nullable String tokenType) {
 		if (tokenType != null) {
 			IToken token = tokenTypeMapper.apply(tokenType);
 			if (token != null) {
@@ -152,7 +304,7 @@ private TextAttribute textAttribute(final String tokenType) {
 	 * @param attr
 	 *            the attribute describing the style of the range to be styled
 	 */
-	private @Nullable StyleRange getStyleRange(final int offset, final int length, final TextAttribute attr) {
+	private @Nullable StyleRange getStyleRange(final int offset, final int length, final @Nullable TextAttribute attr) {
 		if (attr != null) {
 			final int style = attr.getStyle();
 			final int fontStyle = style & (SWT.ITALIC | SWT.BOLD | SWT.NORMAL);
@@ -164,4 +316,4 @@ private TextAttribute textAttribute(final String tokenType) {
 		}
 		return null;
 	}
-}
\ No newline at end of file
+}
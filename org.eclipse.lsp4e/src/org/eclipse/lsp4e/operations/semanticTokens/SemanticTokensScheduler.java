@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *   See git history
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.semanticTokens;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextListener;
+import org.eclipse.jface.text.TextEvent;
+import org.eclipse.lsp4e.LanguageServerMetrics;
+import org.eclipse.lsp4e.internal.DocumentUtil;
+
+/**
+ * Schedules the semantic tokens requests of a viewer.
+ * <p>
+ * A request for a new version of the document is only sent once the document has been left unchanged for the
+ * debounce delay: the configured {@link #DEBOUNCE_KEY} delay, extended up to the recent latency of the semantic
+ * tokens requests of the document, so that a slow server isn't asked for versions which will be outdated by
+ * the time they're computed. The versions changed during the delay are skipped.
+ * </p>
+ * <p>
+ * The size of the edits since the last request decides which requests are sent: the tokens of the visible
+ * region are requested first when there are no tokens for the whole document yet or when a large part of the
+ * visible region changed, and the tokens of the whole document are requested as a delta unless most of the
+ * document changed.
+ * </p>
+ * <p>
+ * The time waited and the skipped versions are recorded in the {@link LanguageServerMetrics} of the server the
+ * next request is sent to.
+ * </p>
+ */
+public final class SemanticTokensScheduler implements ITextListener {
+
+	/**
+	 * The preference key of the minimal time the document must be left unchanged before requesting its
+	 * semantic tokens, in milliseconds
+	 */
+	public static final String DEBOUNCE_KEY = "semanticHighlightReconciler.debounce"; //$NON-NLS-1$
+
+	/** The maximal debounce delay, whatever the latency of the language server */
+	static final long MAX_DEBOUNCE_MILLIS = 2_000;
+
+	/** The weight of the last latency in its moving average */
+	private static final double LATENCY_WEIGHT = 0.3;
+
+	public enum Request {
+		FULL("textDocument/semanticTokens/full"), //$NON-NLS-1$
+		DELTA("textDocument/semanticTokens/full/delta"), //$NON-NLS-1$
+		RANGE("textDocument/semanticTokens/range"); //$NON-NLS-1$
+
+		private final @NonNull String method;
+
+		Request(@NonNull String method) {
+			this.method = method;
+		}
+
+		/**
+		 * @return the LSP method of the request
+		 */
+		public @NonNull String getMethod() {
+			return method;
+		}
+	}
+
+	/**
+	 * Waits for a delay, e.g. {@link Thread#sleep(long)}.
+	 */
+	@FunctionalInterface
+	public interface Sleeper {
+		void sleep(long millis) throws InterruptedException;
+	}
+
+	private final long minDebounceMillis;
+	private final Sleeper sleeper;
+
+	/** The moving average of the latency of the requests, in milliseconds */
+	private volatile double latencyMillis;
+
+	private int editSize;
+	private int edits;
+
+	/** The time waited by the last debounce not recorded yet, in nanoseconds, or -1 */
+	private long debounceNanos = -1;
+	/** The number of skipped versions not recorded yet */
+	private long skippedVersions;
+
+	public SemanticTokensScheduler(long minDebounceMillis) {
+		this(minDebounceMillis, Thread::sleep);
+	}
+
+	// public for testing
+	public SemanticTokensScheduler(long minDebounceMillis, Sleeper sleeper) {
+		this.minDebounceMillis = Math.max(0, minDebounceMillis);
+		this.sleeper = sleeper;
+	}
+
+	@Override
+	public void textChanged(final TextEvent event) {
+		if (event.getDocumentEvent() != null) { // if null, it is an internal event, not a changed text
+			final String text = event.getText();
+			final String replacedText = event.getReplacedText();
+			final int size = Math.max(text != null ? text.length() : 0,
+					replacedText != null ? replacedText.length() : 0);
+			synchronized (this) {
+				editSize += Math.max(1, size);
+				edits++;
+			}
+		}
+	}
+
+	/**
+	 * @return the time the document must be left unchanged before requesting its tokens, in milliseconds
+	 */
+	public long getDebounceMillis() {
+		return Math.max(minDebounceMillis, Math.min(MAX_DEBOUNCE_MILLIS, Math.round(latencyMillis)));
+	}
+
+	/**
+	 * Waits until the given document is left unchanged for the debounce delay.
+	 *
+	 * @param cancelled
+	 *            whether to stop waiting, checked after each delay
+	 * @return the modification stamp of the document once unchanged
+	 */
+	public long awaitQuietDocument(final IDocument document, final BooleanSupplier cancelled)
+			throws InterruptedException {
+		final long start = System.nanoTime();
+		long stamp = DocumentUtil.getDocumentModificationStamp(document);
+		long debounce = getDebounceMillis();
+		while (debounce > 0 && !cancelled.getAsBoolean()) {
+			sleeper.sleep(debounce);
+			final long newStamp = DocumentUtil.getDocumentModificationStamp(document);
+			if (newStamp == stamp) {
+				break;
+			}
+			stamp = newStamp;
+			debounce = getDebounceMillis();
+		}
+		final long elapsed = System.nanoTime() - start;
+		synchronized (this) {
+			debounceNanos = elapsed;
+		}
+		return stamp;
+	}
+
+	/**
+	 * @return the number of characters changed since the last call, the versions of the document before the
+	 *         last edit being counted as skipped
+	 */
+	public synchronized int takeEditSize() {
+		if (edits > 1) {
+			skippedVersions += edits - 1L;
+		}
+		final int size = editSize;
+		editSize = 0;
+		edits = 0;
+		return size;
+	}
+
+	/**
+	 * @return whether to request the tokens of the visible region before the tokens of the whole document
+	 */
+	public static boolean requestRangeFirst(final int editSize, final int visibleLength,
+			final boolean hasDocumentTokens) {
+		return !hasDocumentTokens || editSize * 2 >= visibleLength;
+	}
+
+	/**
+	 * @return whether to request the tokens of the whole document as a delta from the previous ones, rather
+	 *         than all of them
+	 */
+	public static boolean requestDelta(final int editSize, final int documentLength) {
+		return editSize * 2 < documentLength;
+	}
+
+	/**
+	 * Measures the latency of the given request, to adapt the debounce delay. The last debounce, if not recorded
+	 * yet, is recorded in the metrics of the given server for this request.
+	 *
+	 * @param serverId
+	 *            id of the definition of the language server the request was sent to
+	 * @return the given future
+	 */
+	public <T> CompletableFuture<T> sent(final @NonNull String serverId, final Request request,
+			final CompletableFuture<T> future) {
+		final long debounce;
+		final long skipped;
+		synchronized (this) {
+			debounce = debounceNanos;
+			skipped = skippedVersions;
+			debounceNanos = -1;
+			skippedVersions = 0;
+		}
+		if (debounce >= 0) {
+			LanguageServerMetrics.recordDebounce(serverId, request.getMethod(), debounce, skipped);
+		}
+		final long start = System.nanoTime();
+		future.thenRun(() -> {
+			final double millis = (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+			final double average = latencyMillis;
+			latencyMillis = average == 0 ? millis : average + LATENCY_WEIGHT * (millis - average);
+		});
+		return future;
+	}
+}
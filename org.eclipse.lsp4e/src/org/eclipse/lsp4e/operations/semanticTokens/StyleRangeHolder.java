@@ -10,10 +10,13 @@
 package org.eclipse.lsp4e.operations.semanticTokens;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextListener;
 import org.eclipse.jface.text.Region;
@@ -30,13 +33,16 @@
  * not enough. That could be improved if we can access
  * org.eclipse.tm4e.languageconfiguration.ILanguageConfiguration.getComments()
  * (still unclear on how to do that).
+ * <p>
+ * The ranges are kept in arrays sorted by offset, so the ranges overlapping a
+ * region are found by a binary search. The ranges removed by an edit are only
+ * marked as removed, and the ranges after an edit are shifted lazily: a pending
+ * delta applies to all the ranges from an index, and is moved to the index of
+ * the next edit, which is usually close. Saving all the styles replaces the
+ * arrays without blocking the readers.
  */
 public class StyleRangeHolder implements ITextListener {
-	private final List<StyleRange> previousRanges;
-
-	public StyleRangeHolder() {
-		previousRanges = new ArrayList<>();
-	}
+	private volatile Ranges ranges = new Ranges(new int[0], new StyleRange[0], 0, 0);
 
 	/**
 	 * save the styles.
@@ -44,11 +50,29 @@ public StyleRangeHolder() {
 	 * @param styleRanges
 	 */
 	public void saveStyles(@NonNull final List<StyleRange> styleRanges) {
-		synchronized (previousRanges) {
-			previousRanges.clear();
-			previousRanges.addAll(styleRanges);
-			previousRanges.sort(Comparator.comparing(s -> s.start));
+		final StyleRange[] sortedRanges = styleRanges.toArray(new StyleRange[styleRanges.size()]);
+		Arrays.sort(sortedRanges, Comparator.comparingInt(s -> s.start));
+		final var starts = new int[sortedRanges.length];
+		int maxLength = 0;
+		for (int i = 0; i < sortedRanges.length; i++) {
+			starts[i] = sortedRanges[i].start;
+			maxLength = Math.max(maxLength, sortedRanges[i].length);
 		}
+		ranges = new Ranges(starts, sortedRanges, sortedRanges.length, maxLength);
+	}
+
+	/**
+	 * save the styles of the given region, keeping the saved styles outside of it.
+	 *
+	 * @param region
+	 *            the region the styles were computed for
+	 * @param styleRanges
+	 *            the styles of the region, the ones that don't overlap it are ignored
+	 */
+	public void saveStyles(@NonNull final IRegion region, @NonNull final List<StyleRange> styleRanges) {
+		final StyleRange[] regionRanges = styleRanges.stream().filter(r -> overlaps(region, r.start, r.length))
+				.sorted(Comparator.comparingInt(s -> s.start)).toArray(StyleRange[]::new);
+		update(current -> current.merge(region, regionRanges));
 	}
 
 	/**
@@ -58,37 +82,212 @@ public void saveStyles(@NonNull final List<StyleRange> styleRanges) {
 	 * @return
 	 */
 	public StyleRange[] overlappingRanges(@NonNull final IRegion region) {
-		synchronized (previousRanges) {
-			// we need to create new styles because the text presentation might change a
-			// style when applied to the presentation
-			// and we want the ones saved from the reconciling as immutable
-			return previousRanges.stream()//
-					.filter(r -> TextUtilities.overlaps(region, new Region(r.start, r.length)))//
-					.map(this::clone).toArray(StyleRange[]::new);
+		final Ranges current = ranges;
+		synchronized (current) {
+			return current.overlappingRanges(region);
 		}
 	}
 
-	private StyleRange clone(final StyleRange styleRange) {
-		final var clonedStyleRange = new StyleRange(styleRange.start, styleRange.length, styleRange.foreground,
-				styleRange.background, styleRange.fontStyle);
-		clonedStyleRange.strikeout = styleRange.strikeout;
-		return clonedStyleRange;
-	}
-
-	private boolean isContained(final int offset, final IRegion region) {
-		return offset >= region.getOffset() && offset < (region.getOffset() + region.getLength());
-	}
-
 	@Override
 	public void textChanged(final TextEvent event) {
 		if (event.getDocumentEvent() != null) { // if null, it is an internal event, not a changed text
 			String replacedText = event.getReplacedText();
 			String text = event.getText();
-			int delta = (text != null ? text.length() : 0) - (replacedText != null ? replacedText.length() : 0);
-			synchronized (previousRanges) {
-				previousRanges.removeIf(r -> isContained(event.getOffset(), new Region(r.start, r.length)));
-				previousRanges.stream().filter(r -> r.start >= event.getOffset()).forEach(r -> r.start += delta);
+			int replacedLength = replacedText != null ? replacedText.length() : 0;
+			int delta = (text != null ? text.length() : 0) - replacedLength;
+			update(current -> {
+				current.textChanged(event.getOffset(), replacedLength, delta);
+				return current;
+			});
+		}
+	}
+
+	/**
+	 * Applies the given operation to the current ranges, unless they're replaced meanwhile.
+	 */
+	private void update(final UnaryOperator<Ranges> operation) {
+		while (true) {
+			final Ranges current = ranges;
+			synchronized (current) {
+				if (current == ranges) {
+					ranges = operation.apply(current);
+					return;
+				}
+			}
+		}
+	}
+
+	private static boolean overlaps(final IRegion region, final int start, final int length) {
+		return TextUtilities.overlaps(region, new Region(start, length));
+	}
+
+	/**
+	 * The saved ranges, sorted by offset. The offset of the range at index <code>i</code> is
+	 * <code>starts[i]</code>, plus <code>shiftDelta</code> if <code>i >= shiftIndex</code>. The removed ranges
+	 * have a <code>null</code> style, their offset is kept to keep the offsets sorted.
+	 */
+	private static final class Ranges {
+		private final int[] starts;
+		private final @Nullable StyleRange[] styles;
+		private int size;
+		private int removed;
+		private int shiftIndex;
+		private int shiftDelta;
+		/**
+		 * the maximal length of the ranges: the ranges overlapping an offset start at most this length before it
+		 */
+		private final int maxLength;
+
+		Ranges(final int[] starts, final @Nullable StyleRange[] styles, final int size, final int maxLength) {
+			this.starts = starts;
+			this.styles = styles;
+			this.size = size;
+			this.shiftIndex = size;
+			this.maxLength = maxLength;
+		}
+
+		private int start(final int index) {
+			return index >= shiftIndex ? starts[index] + shiftDelta : starts[index];
+		}
+
+		private void setStart(final int index, final int start) {
+			starts[index] = index >= shiftIndex ? start - shiftDelta : start;
+		}
+
+		/**
+		 * @return the index of the first range starting at or after the given offset
+		 */
+		private int firstIndex(final int offset) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				final int middle = (low + high) >>> 1;
+				if (start(middle) < offset) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		StyleRange[] overlappingRanges(final IRegion region) {
+			final int end = region.getOffset() + region.getLength();
+			final var result = new ArrayList<StyleRange>();
+			for (int i = firstIndex(region.getOffset() - maxLength); i < size; i++) {
+				final int start = start(i);
+				if (start > end) {
+					break;
+				}
+				final StyleRange style = styles[i];
+				if (style != null && overlaps(region, start, style.length)) {
+					// we need to create new styles because the text presentation might change a
+					// style when applied to the presentation
+					// and we want the ones saved from the reconciling as immutable
+					result.add(clone(style, start));
+				}
+			}
+			return result.toArray(new StyleRange[result.size()]);
+		}
+
+		private StyleRange clone(final StyleRange styleRange, final int start) {
+			final var clonedStyleRange = new StyleRange(start, styleRange.length, styleRange.foreground,
+					styleRange.background, styleRange.fontStyle);
+			clonedStyleRange.strikeout = styleRange.strikeout;
+			return clonedStyleRange;
+		}
+
+		Ranges merge(final IRegion region, final StyleRange[] regionRanges) {
+			final var newStarts = new int[size - removed + regionRanges.length];
+			final var newStyles = new StyleRange[newStarts.length];
+			int length = 0;
+			int next = 0;
+			int newMaxLength = maxLength;
+			for (int i = 0; i < size; i++) {
+				final StyleRange style = styles[i];
+				final int start = start(i);
+				if (style == null || overlaps(region, start, style.length)) {
+					continue;
+				}
+				for (; next < regionRanges.length && regionRanges[next].start < start; next++) {
+					newStarts[length] = regionRanges[next].start;
+					newStyles[length++] = regionRanges[next];
+				}
+				newStarts[length] = start;
+				newStyles[length++] = style;
+			}
+			for (; next < regionRanges.length; next++) {
+				newStarts[length] = regionRanges[next].start;
+				newStyles[length++] = regionRanges[next];
+			}
+			for (StyleRange style : regionRanges) {
+				newMaxLength = Math.max(newMaxLength, style.length);
+			}
+			return new Ranges(newStarts, newStyles, length, newMaxLength);
+		}
+
+		void textChanged(final int offset, final int replacedLength, final int delta) {
+			// remove the ranges containing the offset or overlapping the replaced text, the removed ranges in the
+			// replaced text are moved to the offset so that they stay before the shifted ranges
+			final int removedEnd = offset + Math.max(1, replacedLength);
+			for (int i = firstIndex(offset - maxLength); i < size; i++) {
+				final int start = start(i);
+				if (start >= removedEnd) {
+					break;
+				}
+				final StyleRange style = styles[i];
+				if (style != null && start + style.length > offset) {
+					styles[i] = null;
+					removed++;
+				}
+				if (styles[i] == null && start > offset) {
+					setStart(i, offset);
+				}
+			}
+			if (delta != 0) {
+				shift(firstIndex(offset + replacedLength), delta);
+			}
+			if (removed > size / 2) {
+				compact();
+			}
+		}
+
+		/**
+		 * Shifts the ranges from the given index by the given delta. Only the ranges between the given index and
+		 * the index of the pending delta are updated.
+		 */
+		private void shift(final int index, final int delta) {
+			if (shiftDelta == 0) {
+				shiftIndex = index;
+			} else if (index >= shiftIndex) {
+				for (int i = shiftIndex; i < index; i++) {
+					starts[i] += shiftDelta;
+				}
+				shiftIndex = index;
+			} else {
+				// the ranges between both indexes are shifted by the new delta only
+				for (int i = index; i < shiftIndex; i++) {
+					starts[i] -= shiftDelta;
+				}
+				shiftIndex = index;
+			}
+			shiftDelta += delta;
+		}
+
+		private void compact() {
+			int length = 0;
+			for (int i = 0; i < size; i++) {
+				final StyleRange style = styles[i];
+				if (style != null) {
+					starts[length] = start(i);
+					styles[length++] = style;
+				}
 			}
+			Arrays.fill(styles, length, size, null);
+			size = length;
+			removed = 0;
+			shiftIndex = size;
+			shiftDelta = 0;
 		}
 	}
 
@@ -36,6 +36,7 @@
 import org.eclipse.jface.viewers.StyledString;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.RequestPriority;
 import org.eclipse.lsp4e.outline.CNFOutlinePage;
 import org.eclipse.lsp4e.outline.SymbolsLabelProvider;
 import org.eclipse.lsp4e.ui.Messages;
@@ -144,6 +145,7 @@ protected void fillContentProvider(AbstractContentProvider contentProvider, Item
 		}
 		final var params = new WorkspaceSymbolParams(itemsFilter.getPattern());
 		request = LanguageServers.forProject(project).withCapability(ServerCapabilities::getWorkspaceSymbolProvider)
+			.withPriority(RequestPriority.INTERACTIVE)
 			.computeAll((w, ls) -> ls.getWorkspaceService().symbol(params));
 		request.stream().map(s -> s.thenApply(LSPSymbolInWorkspaceDialog::eitherToWorkspaceSymbols))
 			.forEach(cf -> {
@@ -25,6 +25,7 @@
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.RequestPriority;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.ui.quickaccess.IQuickAccessComputer;
 import org.eclipse.ui.quickaccess.IQuickAccessComputerExtension;
@@ -66,7 +67,7 @@ public QuickAccessElement[] computeElements(String query, IProgressMonitor monit
 							res.addAll(LSPSymbolInWorkspaceDialog.eitherToWorkspaceSymbols(symbols).stream().map(WorkspaceSymbolQuickAccessElement::new)
 									.toList());
 						}
-					}))).toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+					}), RequestPriority.INTERACTIVE)).toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
 		}
 		catch (ExecutionException | InterruptedException e) {
 			LanguageServerPlugin.logError(e);
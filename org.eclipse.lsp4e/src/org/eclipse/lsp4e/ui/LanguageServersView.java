@@ -17,6 +17,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -25,14 +26,18 @@
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.ColumnLabelProvider;
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerCell;
 import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.lsp4e.LanguageServerMetrics;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
+import org.eclipse.lsp4e.MethodMetrics;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.SashForm;
 import org.eclipse.swt.custom.TableEditor;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
@@ -51,6 +56,7 @@ public class LanguageServersView extends ViewPart {
 	private static final String NOT_AVAILABLE = "n/a"; //$NON-NLS-1$
 
 	private TableViewer viewer;
+	private TableViewer metricsViewer;
 	private Job viewerRefreshJob;
 	private final Map<LanguageServerWrapper, ToolBar> actionButtons = new HashMap<>();
 	private final List<ColumnLabelProvider> columnLabelProviders = new ArrayList<>();
@@ -104,9 +110,32 @@ public void widgetSelected(@Nullable final SelectionEvent e) {
 		columnLabelProviders.add(labelProvider);
 	}
 
+	private void createMetricsColumn(String name, int width, Function<MethodMetrics, String> text) {
+		final var viewerColumn = new TableViewerColumn(metricsViewer, SWT.NONE);
+		final var tableColumn = viewerColumn.getColumn();
+		tableColumn.setText(name);
+		tableColumn.setWidth(width);
+		tableColumn.setResizable(true);
+		viewerColumn.setLabelProvider(new ColumnLabelProvider() {
+			@Override
+			public String getText(Object element) {
+				return text.apply((MethodMetrics) element);
+			}
+		});
+	}
+
+	private static String millis(long micros) {
+		return String.format("%.1f", micros / 1000d); //$NON-NLS-1$
+	}
+
+	private static String average(long total, long count) {
+		return count == 0 ? NOT_AVAILABLE : Long.toString(total / count);
+	}
+
 	@Override
 	public void createPartControl(Composite parent) {
-		viewer = new TableViewer(parent, SWT.H_SCROLL | SWT.V_SCROLL | SWT.FULL_SELECTION | SWT.BORDER);
+		final var sashForm = new SashForm(parent, SWT.VERTICAL);
+		viewer = new TableViewer(sashForm, SWT.H_SCROLL | SWT.V_SCROLL | SWT.FULL_SELECTION | SWT.BORDER);
 		viewer.setComparator(tableSorter);
 
 		final var table = viewer.getTable();
@@ -209,10 +238,56 @@ public String getText(Object element) {
 		table.setSortColumn(table.getColumn(tableSortColumn));
 
 		viewer.setContentProvider(new ArrayContentProvider());
+		viewer.addSelectionChangedListener(event -> updateMetricsViewerInput());
+
+		createMetricsViewer(sashForm);
+		sashForm.setWeights(3, 2);
 
 		scheduleRefreshJob();
 	}
 
+	/**
+	 * Creates the table showing the metrics of each LSP method, for the selected language server
+	 */
+	private void createMetricsViewer(Composite parent) {
+		metricsViewer = new TableViewer(parent, SWT.H_SCROLL | SWT.V_SCROLL | SWT.FULL_SELECTION | SWT.BORDER);
+		final var table = metricsViewer.getTable();
+		table.setHeaderVisible(true);
+		table.setLinesVisible(true);
+
+		createMetricsColumn("Method", 250, MethodMetrics::getMethod); //$NON-NLS-1$
+		createMetricsColumn("Sent", 60, m -> Long.toString(m.getSentMessages())); //$NON-NLS-1$
+		createMetricsColumn("Received", 60, m -> Long.toString(m.getReceivedMessages())); //$NON-NLS-1$
+		createMetricsColumn("In Flight", 60, m -> Integer.toString(m.getInFlight())); //$NON-NLS-1$
+		createMetricsColumn("Cancelled", 60, m -> Long.toString(m.getCancellations())); //$NON-NLS-1$
+		createMetricsColumn("Errors", 60, m -> Long.toString(m.getErrors())); //$NON-NLS-1$
+		createMetricsColumn("Skipped Versions", 100, m -> Long.toString(m.getSkippedVersions())); //$NON-NLS-1$
+		createMetricsColumn("Debounce p50 (ms)", 110, m -> millis(m.getDebounceTime().getValueAtPercentile(50))); //$NON-NLS-1$
+		createMetricsColumn("Queue p50 (ms)", 90, m -> millis(m.getQueueTime().getValueAtPercentile(50))); //$NON-NLS-1$
+		createMetricsColumn("Queue p99 (ms)", 90, m -> millis(m.getQueueTime().getValueAtPercentile(99))); //$NON-NLS-1$
+		createMetricsColumn("Round-trip p50 (ms)", 110, m -> millis(m.getRoundTripTime().getValueAtPercentile(50))); //$NON-NLS-1$
+		createMetricsColumn("Round-trip p90 (ms)", 110, m -> millis(m.getRoundTripTime().getValueAtPercentile(90))); //$NON-NLS-1$
+		createMetricsColumn("Round-trip p99 (ms)", 110, m -> millis(m.getRoundTripTime().getValueAtPercentile(99))); //$NON-NLS-1$
+		createMetricsColumn("Round-trip max (ms)", 110, m -> millis(m.getRoundTripTime().getMax())); //$NON-NLS-1$
+		createMetricsColumn("Delivery p99 (ms)", 100, m -> millis(m.getDeliveryTime().getValueAtPercentile(99))); //$NON-NLS-1$
+		createMetricsColumn("Avg Sent (bytes)", 100, m -> average(m.getSentBytes(), m.getSentMessages())); //$NON-NLS-1$
+		createMetricsColumn("Avg Received (bytes)", 120, m -> average(m.getReceivedBytes(), m.getReceivedMessages())); //$NON-NLS-1$
+
+		metricsViewer.setContentProvider(new ArrayContentProvider());
+	}
+
+	private void updateMetricsViewerInput() {
+		if (metricsViewer.getControl().isDisposed()) {
+			return;
+		}
+		final var selection = (IStructuredSelection) viewer.getSelection();
+		if (selection.getFirstElement() instanceof LanguageServerWrapper lsWrapper) {
+			metricsViewer.setInput(LanguageServerMetrics.getMetrics(lsWrapper.serverDefinition.id));
+		} else {
+			metricsViewer.setInput(List.of());
+		}
+	}
+
 	@Override
 	public void dispose() {
 		final var viewerRefreshJob = this.viewerRefreshJob;
@@ -250,7 +325,10 @@ private void updateViewerInput() {
 				actionButtons.values().forEach(Widget::dispose);
 				actionButtons.clear();
 				viewer.setInput(newElements);
+				updateMetricsViewerInput();
 			});
+		} else {
+			UI.getDisplay().execute(this::updateMetricsViewerInput);
 		}
 	}
 }
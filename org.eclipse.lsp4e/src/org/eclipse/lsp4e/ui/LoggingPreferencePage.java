@@ -36,11 +36,13 @@
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServersRegistry;
 import org.eclipse.lsp4e.LoggingStreamConnectionProviderProxy;
+import org.eclipse.lsp4e.LoggingStreamConnectionProviderProxy.DropPolicy;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Label;
@@ -108,6 +110,7 @@ public String getText(Object element) {
 	private final Map<String, Boolean> serverEnableLoggingToConsole = new HashMap<>();
 	private final IPreferenceStore store = LanguageServerPlugin.getDefault().getPreferenceStore();
 	private boolean hasLoggingBeenChanged = false;
+	private Combo dropPolicyCombo;
 
 	@Override
 	public void init(IWorkbench workbench) {
@@ -234,6 +237,17 @@ private void createLoggingContents(Composite res) {
 			languageServerViewer.refresh();
 			launchConfigurationViewer.refresh();
 		}));
+
+		final var dropPolicyLabel = new Label(loggingComposite, SWT.NONE);
+		dropPolicyLabel.setText(Messages.PreferencesPage_logging_dropPolicy);
+		dropPolicyCombo = new Combo(loggingComposite, SWT.READ_ONLY);
+		dropPolicyCombo.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false, 2, 1));
+		// items in the order of the DropPolicy constants
+		dropPolicyCombo.setItems(Messages.PreferencesPage_logging_dropPolicy_dropNewest,
+				Messages.PreferencesPage_logging_dropPolicy_dropOldest,
+				Messages.PreferencesPage_logging_dropPolicy_block);
+		dropPolicyCombo.select(LoggingStreamConnectionProviderProxy.getDropPolicy().ordinal());
+		dropPolicyCombo.addSelectionListener(widgetSelectedAdapter(e -> hasLoggingBeenChanged = true));
 	}
 
 	@Override
@@ -244,12 +258,14 @@ protected void performDefaults() {
 				store.getBoolean(LoggingStreamConnectionProviderProxy.lsToConsoleLoggingId(s))));
 		launchConfigurationViewer.refresh();
 		languageServerViewer.refresh();
+		dropPolicyCombo.select(LoggingStreamConnectionProviderProxy.getDropPolicy().ordinal());
 		super.performDefaults();
 	}
 
 	private void applyLoggingEnablment() {
 		serverEnableLoggingToFile.forEach((s, b) -> store.setValue(LoggingStreamConnectionProviderProxy.lsToFileLoggingId(s), b));
 		serverEnableLoggingToConsole.forEach((s, b) -> store.setValue(LoggingStreamConnectionProviderProxy.lsToConsoleLoggingId(s), b));
+		store.setValue(LoggingStreamConnectionProviderProxy.DROP_POLICY_KEY, DropPolicy.values()[dropPolicyCombo.getSelectionIndex()].name());
 		hasLoggingBeenChanged = false;
 	}
 
@@ -42,6 +42,10 @@ public final class Messages extends NLS {
 	public static String PreferencesPage_logging_toConsole_description;
 	public static String preferencesPage_logging_info;
 	public static String preferencesPage_logging_fileLogsLocation;
+	public static String PreferencesPage_logging_dropPolicy;
+	public static String PreferencesPage_logging_dropPolicy_dropNewest;
+	public static String PreferencesPage_logging_dropPolicy_dropOldest;
+	public static String PreferencesPage_logging_dropPolicy_block;
 	public static String PreferencesPage_restartWarning_title;
 	public static String PreferencesPage_restartWarning_message;
 	public static String PreferencesPage_restartWarning_restart;
@@ -73,6 +77,8 @@ public final class Messages extends NLS {
 	public static String completionError;
 	public static String completionIncomplete;
 	public static String continueIncomplete;
+	public static String completionTruncated;
+	public static String continueTruncated;
 	public static String linkWithEditor_label;
 	public static String linkWithEditor_description;
 	public static String linkWithEditor_tooltip;